@@ -0,0 +1,279 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+
+/**
+ * A frozen, array-backed view of the graph structure of a CFA. The nodes have dense ids (in the
+ * order of their node numbers) and the edges are stored in compressed sparse row format, i.e., the
+ * leaving edges of the node with id {@code i} are at the positions {@code
+ * leavingOffsets[i]..leavingOffsets[i+1]-1} of the edge arrays. The position of an edge is its
+ * dense edge id. Function names are mapped to dense function ids.
+ *
+ * <p>Like {@link org.sosy_lab.cpachecker.util.CFAUtils#leavingEdges(CFANode)}, the edge arrays do
+ * not contain summary edges, these are available separately. Edges whose successor is not one of
+ * the given nodes are omitted as well, thus the index of a leaving edge in this view may differ
+ * from its index in the {@link CFANode}. The entering edges of a node are ordered by the ids of
+ * their predecessors. The view does not reflect later modifications of the CFA.
+ *
+ * <p>All accessors work on the arrays directly, thus traversals over the ids do not allocate
+ * iterators or other objects per step.
+ */
+public final class CompactCFA {
+
+  private final CFANode[] nodes;
+
+  // node number - minNodeNumber -> id, -1 for nodes that are not part of this CFA
+  private final int minNodeNumber;
+  private final int[] idOfNodeNumber;
+
+  private final int[] leavingOffsets;
+  private final int[] successors;
+  private final CFAEdge[] leavingEdges;
+
+  private final int[] enteringOffsets;
+  private final int[] predecessors;
+  // id of each entering edge in the leaving-edge arrays
+  private final int[] enteringEdgeIds;
+
+  private final @Nullable FunctionSummaryEdge[] leavingSummaryEdges;
+
+  private final ImmutableList<String> functionNames;
+  private final int[] functionIds;
+
+  private CompactCFA(Collection<CFANode> pNodes) {
+    nodes = pNodes.toArray(new CFANode[0]);
+    Arrays.sort(nodes);
+
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (CFANode node : nodes) {
+      min = Math.min(min, node.getNodeNumber());
+      max = Math.max(max, node.getNodeNumber());
+    }
+    minNodeNumber = nodes.length == 0 ? 0 : min;
+    idOfNodeNumber = new int[nodes.length == 0 ? 0 : max - min + 1];
+    Arrays.fill(idOfNodeNumber, -1);
+    for (int id = 0; id < nodes.length; id++) {
+      idOfNodeNumber[nodes[id].getNodeNumber() - minNodeNumber] = id;
+    }
+
+    int edges = 0;
+    for (CFANode node : nodes) {
+      for (int i = 0; i < node.getNumLeavingEdges(); i++) {
+        if (getId(node.getLeavingEdge(i).getSuccessor()) >= 0) {
+          edges++;
+        }
+      }
+    }
+
+    leavingOffsets = new int[nodes.length + 1];
+    successors = new int[edges];
+    leavingEdges = new CFAEdge[edges];
+    leavingSummaryEdges = new FunctionSummaryEdge[nodes.length];
+    int[] enteringCounts = new int[nodes.length + 1];
+    int edgeId = 0;
+    for (int id = 0; id < nodes.length; id++) {
+      CFANode node = nodes[id];
+      leavingOffsets[id] = edgeId;
+      for (int i = 0; i < node.getNumLeavingEdges(); i++) {
+        CFAEdge edge = node.getLeavingEdge(i);
+        int successor = getId(edge.getSuccessor());
+        if (successor < 0) {
+          continue; // successor is not part of the CFA
+        }
+        successors[edgeId] = successor;
+        leavingEdges[edgeId] = edge;
+        enteringCounts[successor + 1]++;
+        edgeId++;
+      }
+      leavingSummaryEdges[id] = node.getLeavingSummaryEdge();
+    }
+    leavingOffsets[nodes.length] = edgeId;
+
+    // entering edges are derived from the leaving edges with a counting sort
+    enteringOffsets = enteringCounts;
+    for (int id = 0; id < nodes.length; id++) {
+      enteringOffsets[id + 1] += enteringOffsets[id];
+    }
+    predecessors = new int[edges];
+    enteringEdgeIds = new int[edges];
+    int[] nextPosition = Arrays.copyOf(enteringOffsets, nodes.length);
+    for (int id = 0; id < nodes.length; id++) {
+      for (int e = leavingOffsets[id]; e < leavingOffsets[id + 1]; e++) {
+        int position = nextPosition[successors[e]]++;
+        predecessors[position] = id;
+        enteringEdgeIds[position] = e;
+      }
+    }
+
+    Map<String, Integer> functions = new HashMap<>();
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    functionIds = new int[nodes.length];
+    for (int id = 0; id < nodes.length; id++) {
+      String function = nodes[id].getFunctionName();
+      Integer functionId = functions.get(function);
+      if (functionId == null) {
+        functionId = functions.size();
+        functions.put(function, functionId);
+        names.add(function);
+      }
+      functionIds[id] = functionId;
+    }
+    functionNames = names.build();
+  }
+
+  /**
+   * Creates the view of the given nodes. Edges to nodes that are not among the given nodes are
+   * ignored.
+   */
+  public static CompactCFA of(Collection<CFANode> pNodes) {
+    return new CompactCFA(pNodes);
+  }
+
+  public int getNumberOfNodes() {
+    return nodes.length;
+  }
+
+  public int getNumberOfEdges() {
+    return leavingEdges.length;
+  }
+
+  /** Returns the id of the node, or -1 if it is not part of this CFA. */
+  public int getId(CFANode pNode) {
+    int index = pNode.getNodeNumber() - minNodeNumber;
+    if (index < 0 || index >= idOfNodeNumber.length) {
+      return -1;
+    }
+    int id = idOfNodeNumber[index];
+    return id >= 0 && nodes[id] == pNode ? id : -1;
+  }
+
+  public CFANode getNode(int pId) {
+    return nodes[pId];
+  }
+
+  public int getNumLeavingEdges(int pId) {
+    return leavingOffsets[pId + 1] - leavingOffsets[pId];
+  }
+
+  /** Returns the id of the {@code pIndex}-th leaving edge of the node in this view. */
+  public int getLeavingEdgeId(int pId, int pIndex) {
+    return leavingOffsets[pId] + pIndex;
+  }
+
+  public int getSuccessor(int pId, int pIndex) {
+    return successors[leavingOffsets[pId] + pIndex];
+  }
+
+  public int getNumEnteringEdges(int pId) {
+    return enteringOffsets[pId + 1] - enteringOffsets[pId];
+  }
+
+  /** Returns the id of the {@code pIndex}-th entering edge of the node. */
+  public int getEnteringEdgeId(int pId, int pIndex) {
+    return enteringEdgeIds[enteringOffsets[pId] + pIndex];
+  }
+
+  public int getPredecessor(int pId, int pIndex) {
+    return predecessors[enteringOffsets[pId] + pIndex];
+  }
+
+  public CFAEdge getEdge(int pEdgeId) {
+    return leavingEdges[pEdgeId];
+  }
+
+  /**
+   * Returns the id of the edge, or -1 if it is a summary edge or not part of this CFA (including
+   * edges whose successor is not part of this CFA).
+   */
+  public int getEdgeId(CFAEdge pEdge) {
+    int id = getId(pEdge.getPredecessor());
+    if (id < 0) {
+      return -1;
+    }
+    for (int e = leavingOffsets[id]; e < leavingOffsets[id + 1]; e++) {
+      if (leavingEdges[e] == pEdge) {
+        return e;
+      }
+    }
+    return -1;
+  }
+
+  /** Returns the id of the successor of the edge. */
+  public int getSuccessorOfEdge(int pEdgeId) {
+    return successors[pEdgeId];
+  }
+
+  public @Nullable FunctionSummaryEdge getLeavingSummaryEdge(int pId) {
+    return leavingSummaryEdges[pId];
+  }
+
+  public int getNumberOfFunctions() {
+    return functionNames.size();
+  }
+
+  public int getFunctionId(int pId) {
+    return functionIds[pId];
+  }
+
+  public String getFunctionName(int pFunctionId) {
+    return functionNames.get(pFunctionId);
+  }
+
+  /**
+   * Computes the ids of all nodes that are reachable from the given node (including itself) along
+   * leaving edges or, if {@code pBackwards} is set, along entering edges.
+   */
+  public BitSet getReachableNodes(int pId, boolean pBackwards) {
+    BitSet reached = new BitSet(nodes.length);
+    int[] stack = new int[nodes.length];
+    int size = 0;
+    reached.set(pId);
+    stack[size++] = pId;
+    while (size > 0) {
+      int id = stack[--size];
+      int[] offsets = pBackwards ? enteringOffsets : leavingOffsets;
+      int[] neighbors = pBackwards ? predecessors : successors;
+      for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+        int neighbor = neighbors[i];
+        if (!reached.get(neighbor)) {
+          reached.set(neighbor);
+          stack[size++] = neighbor;
+        }
+      }
+    }
+    return reached;
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.BitSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+public class CompactCFATest {
+
+  private CFANode entry;
+  private CFANode loopHead;
+  private CFANode body;
+  private CFANode exit;
+  private CFANode other;
+
+  private CFAEdge toLoop;
+  private CFAEdge toBody;
+  private CFAEdge back;
+  private CFAEdge toExit;
+
+  private CompactCFA view;
+
+  @Before
+  public void setUp() {
+    entry = new CFANode("main");
+    loopHead = new CFANode("main");
+    body = new CFANode("main");
+    exit = new CFANode("main");
+    other = new CFANode("f");
+
+    toLoop = addEdge(entry, loopHead);
+    toBody = addEdge(loopHead, body);
+    back = addEdge(body, loopHead);
+    toExit = addEdge(loopHead, exit);
+
+    // the order of the given nodes does not matter
+    view = CompactCFA.of(ImmutableList.of(exit, other, body, loopHead, entry));
+  }
+
+  private static CFAEdge addEdge(CFANode pPredecessor, CFANode pSuccessor) {
+    CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "");
+    CFACreationUtils.addEdgeUnconditionallyToCFA(edge);
+    return edge;
+  }
+
+  @Test
+  public void testNodeIds() {
+    assertThat(view.getNumberOfNodes()).isEqualTo(5);
+    assertThat(view.getId(entry)).isEqualTo(0);
+    assertThat(view.getId(other)).isEqualTo(4);
+    assertThat(view.getNode(view.getId(body))).isSameAs(body);
+    assertThat(view.getId(new CFANode("main"))).isEqualTo(-1);
+  }
+
+  @Test
+  public void testEdges() {
+    assertThat(view.getNumberOfEdges()).isEqualTo(4);
+    int head = view.getId(loopHead);
+    assertThat(view.getNumLeavingEdges(head)).isEqualTo(2);
+    assertThat(view.getSuccessor(head, 0)).isEqualTo(view.getId(body));
+    assertThat(view.getSuccessor(head, 1)).isEqualTo(view.getId(exit));
+    assertThat(view.getEdge(view.getLeavingEdgeId(head, 1))).isSameAs(toExit);
+
+    assertThat(view.getNumEnteringEdges(head)).isEqualTo(2);
+    assertThat(view.getPredecessor(head, 0)).isEqualTo(view.getId(entry));
+    assertThat(view.getPredecessor(head, 1)).isEqualTo(view.getId(body));
+    assertThat(view.getEdge(view.getEnteringEdgeId(head, 1))).isSameAs(back);
+
+    for (CFAEdge edge : ImmutableList.of(toLoop, toBody, back, toExit)) {
+      int id = view.getEdgeId(edge);
+      assertThat(view.getEdge(id)).isSameAs(edge);
+      assertThat(view.getSuccessorOfEdge(id)).isEqualTo(view.getId(edge.getSuccessor()));
+    }
+  }
+
+  @Test
+  public void testEdgesToOtherNodesAreSkipped() {
+    CompactCFA partialView = CompactCFA.of(ImmutableList.of(entry, loopHead, body));
+    assertThat(partialView.getNumberOfEdges()).isEqualTo(3);
+    int head = partialView.getId(loopHead);
+    assertThat(partialView.getNumLeavingEdges(head)).isEqualTo(1);
+    assertThat(partialView.getEdge(partialView.getLeavingEdgeId(head, 0))).isSameAs(toBody);
+    assertThat(partialView.getEdgeId(toExit)).isEqualTo(-1);
+
+    assertThat(partialView.getNumEnteringEdges(head)).isEqualTo(2);
+    assertThat(partialView.getEdge(partialView.getEnteringEdgeId(head, 1))).isSameAs(back);
+    assertThat(partialView.getNumEnteringEdges(partialView.getId(entry))).isEqualTo(0);
+    for (CFAEdge edge : ImmutableList.of(toLoop, toBody, back)) {
+      int id = partialView.getEdgeId(edge);
+      assertThat(partialView.getEdge(id)).isSameAs(edge);
+      assertThat(partialView.getSuccessorOfEdge(id))
+          .isEqualTo(partialView.getId(edge.getSuccessor()));
+    }
+  }
+
+  @Test
+  public void testFunctions() {
+    assertThat(view.getNumberOfFunctions()).isEqualTo(2);
+    assertThat(view.getFunctionId(view.getId(entry)))
+        .isEqualTo(view.getFunctionId(view.getId(exit)));
+    assertThat(view.getFunctionName(view.getFunctionId(view.getId(other)))).isEqualTo("f");
+  }
+
+  @Test
+  public void testReachability() {
+    BitSet forwards = view.getReachableNodes(view.getId(body), false);
+    assertThat(forwards.cardinality()).isEqualTo(3);
+    assertThat(forwards.get(view.getId(entry))).isFalse();
+
+    BitSet backwards = view.getReachableNodes(view.getId(exit), true);
+    assertThat(backwards.cardinality()).isEqualTo(4);
+    assertThat(backwards.get(view.getId(other))).isFalse();
+  }
+}
@@ -29,6 +29,7 @@ import static org.sosy_lab.cpachecker.util.CFAUtils.leavingEdges;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -37,6 +38,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -65,6 +67,8 @@ import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 import org.sosy_lab.cpachecker.cfa.types.c.CTypes;
 import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.pointsto.AndersenPointsToSolver;
+import org.sosy_lab.cpachecker.util.pointsto.PointsToInformation;
 
 /**
  * This class is responsible for replacing calls via function pointers like (*fp)() with code
@@ -94,6 +98,16 @@ public class CFunctionPointerResolver {
   )
   private boolean ignoreUnknownAssignments = false;
 
+  @Option(
+    secure = true,
+    name = "analysis.usePointsToForFunctionPointers",
+    description =
+        "Use as targets for call edges only those functions that the called expression"
+            + " may point to according to an inclusion-based points-to analysis"
+            + " of the whole program."
+  )
+  private boolean usePointsToForFunctionPointers = false;
+
   static enum FunctionSet {
     // The items here need to be declared in the order they should be used when checking function.
     ALL, // all defined functions considered (Warning: some CPAs require at least EQ_PARAM_SIZES)
@@ -137,17 +151,22 @@ public class CFunctionPointerResolver {
   private final TargetFunctionsProvider targetParameterFunctionsProvider;
 
   private final MutableCFA cfa;
+  private final List<Pair<ADeclaration, String>> globalVars;
   private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
   private final Configuration pConfig;
 
   public CFunctionPointerResolver(
       MutableCFA pCfa,
       List<Pair<ADeclaration, String>> pGlobalVars,
       Configuration config,
-      LogManager pLogger)
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
     cfa = pCfa;
+    globalVars = pGlobalVars;
     logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
     pConfig = config;
 
     config.inject(this);
@@ -213,7 +232,7 @@ public class CFunctionPointerResolver {
    * This method traverses the whole CFA, potentially replacing function pointer calls with regular
    * function calls.
    */
-  public void resolveFunctionPointers() throws InvalidConfigurationException {
+  public void resolveFunctionPointers() throws InvalidConfigurationException, InterruptedException {
 
     // 1.Step: get all function calls
     final FunctionPointerCallCollector visitor = new FunctionPointerCallCollector();
@@ -221,6 +240,18 @@ public class CFunctionPointerResolver {
       CFATraversal.dfs().traverseOnce(functionStartNode, visitor);
     }
 
+    PointsToInformation pointsTo = null;
+    if (usePointsToForFunctionPointers
+        && !(visitor.functionPointerCalls.isEmpty()
+            && visitor.functionParameterPointerCalls.isEmpty())) {
+      pointsTo =
+          new AndersenPointsToSolver(pConfig, logger, shutdownNotifier)
+              .solve(
+                  cfa.getAllFunctions(),
+                  cfa.getAllNodes(),
+                  Lists.transform(globalVars, Pair::getFirst));
+    }
+
     // 2.Step: replace functionCalls with functioncall- and return-edges
     // This loop replaces function pointer calls inside the given function with regular function
     // calls.
@@ -233,7 +264,8 @@ public class CFunctionPointerResolver {
       CExpression nameExp = fExp.getFunctionNameExpression();
       CFunctionType func = (CFunctionType) nameExp.getExpressionType().getCanonicalType();
       logger.log(Level.FINEST, "Function pointer call", fExp);
-      Collection<CFunctionEntryNode> funcs = getTargets(nameExp, func, targetFunctionsProvider);
+      Collection<CFunctionEntryNode> funcs =
+          getTargets(nameExp, func, targetFunctionsProvider, pointsTo);
 
       // need only to remove the symbol "*"
       if (nameExp instanceof CPointerExpression) {
@@ -253,7 +285,7 @@ public class CFunctionPointerResolver {
           (CFunctionType) ((CPointerType) param.getExpressionType()).getType().getCanonicalType();
       logger.log(Level.FINEST, "Function pointer param", param);
       Collection<CFunctionEntryNode> funcs =
-          getTargets(param, func, targetParameterFunctionsProvider);
+          getTargets(param, func, targetParameterFunctionsProvider, pointsTo);
       edgeReplacerParameterFunctionPointer.instrument(edge, funcs, param);
     }
   }
@@ -291,7 +323,10 @@ public class CFunctionPointerResolver {
   }
 
   private Collection<CFunctionEntryNode> getTargets(
-      CExpression nameExp, CFunctionType func, TargetFunctionsProvider targetFunctions) {
+      CExpression nameExp,
+      CFunctionType func,
+      TargetFunctionsProvider targetFunctions,
+      @Nullable PointsToInformation pointsTo) {
     Collection<CFunctionEntryNode> funcs = targetFunctions.getFunctionSet(func);
 
     if (matchAssignedFunctionPointers) {
@@ -317,6 +352,14 @@ public class CFunctionPointerResolver {
       }
     }
 
+    if (pointsTo != null) {
+      // keep all targets for pointers that may come from code that is not modelled
+      final Set<String> pointedFuncs = pointsTo.getPointsToSet(nameExp);
+      if (!PointsToInformation.isUnknown(pointedFuncs)) {
+        funcs = from(funcs).filter(f -> pointedFuncs.contains(f.getFunctionName())).toSet();
+      }
+    }
+
     if (funcs.isEmpty()) {
       // no possible targets, we leave the CFA unchanged and print a warning
       logger.logf(
@@ -0,0 +1,89 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa.postprocessing.function;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFunctionPointerResolverTest {
+
+  private static Set<String> getCalledFunctions(String... pLines) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("analysis.usePointsToForFunctionPointers", "true")
+            .build();
+    CFA cfa = TestDataTools.makeCFA(config, pLines);
+    Set<String> result = new HashSet<>();
+    for (CFANode node : cfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        if (edge instanceof FunctionCallEdge) {
+          result.add(edge.getSuccessor().getFunctionName());
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testTargetsFromPointsTo() throws Exception {
+    Set<String> calledFunctions =
+        getCalledFunctions(
+            "int f(void) { return 1; }",
+            "int g(void) { return 2; }",
+            "int (*unused)(void) = g;",
+            "int main() {",
+            "  int (*fp)(void) = f;",
+            "  fp();",
+            "  return 0;",
+            "}");
+    assert_().that(calledFunctions).containsExactly("f");
+  }
+
+  @Test
+  public void testAllTargetsForUnknownPointer() throws Exception {
+    Set<String> calledFunctions =
+        getCalledFunctions(
+            "int f(void) { return 1; }",
+            "int g(void) { return 2; }",
+            "int (*unused)(void) = g;",
+            "extern int (*get(void))(void);",
+            "int main() {",
+            "  int (*fp)(void) = f;",
+            "  fp = get();",
+            "  fp();",
+            "  return 0;",
+            "}");
+    assert_().that(calledFunctions).containsExactly("f", "g");
+  }
+}
@@ -94,6 +94,7 @@ import org.sosy_lab.cpachecker.util.SpecificationProperty;
 import org.sosy_lab.cpachecker.util.automaton.TargetLocationProvider;
 import org.sosy_lab.cpachecker.util.automaton.TargetLocationProviderImpl;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer;
 
 @Options
 public class CPAchecker {
@@ -310,10 +311,12 @@ public class CPAchecker {
     try {
       try {
         stats = new MainCPAStatistics(config, logger, shutdownNotifier);
+        EventTracer.startTracing(config, logger);
 
         // create reached set, cpa, algorithm
         stats.creationTime.start();
         reached = factory.createReachedSet();
+        stats.setReachedSet(reached);
 
         if (runCBMCasExternalTool) {
           algorithm =
@@ -432,6 +435,7 @@ public class CPAchecker {
 
     } finally {
       CPAs.closeIfPossible(algorithm, logger);
+      EventTracer.stopTracing();
       shutdownNotifier.unregister(interruptThreadOnShutdown);
     }
     return new CPAcheckerResult(result, violatedPropertyDescription, reached, cfa, stats);
@@ -45,10 +45,10 @@ import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
@@ -90,6 +90,7 @@ import org.sosy_lab.cpachecker.util.resources.MemoryStatistics;
 import org.sosy_lab.cpachecker.util.resources.ProcessCpuTime;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsSnapshotWriter;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
@@ -149,6 +150,8 @@ class MainCPAStatistics implements Statistics {
   private final @Nullable MemoryStatistics memStats;
   private final @Nullable CExpressionInvariantExporter cExpressionInvariantExporter;
   private Thread memStatsThread;
+  private final StatisticsSnapshotWriter snapshotWriter;
+  private @Nullable Thread snapshotThread;
 
   private final Timer programTime = new Timer();
   final Timer creationTime = new Timer();
@@ -169,7 +172,8 @@ class MainCPAStatistics implements Statistics {
     logger = pLogger;
     pConfig.inject(this);
 
-    subStats = new ArrayList<>();
+    // snapshots may iterate over the statistics concurrently
+    subStats = new CopyOnWriteArrayList<>();
 
     if (monitorMemoryUsage) {
       memStats = new MemoryStatistics(pLogger);
@@ -180,6 +184,13 @@ class MainCPAStatistics implements Statistics {
       memStats = null;
     }
 
+    snapshotWriter = new StatisticsSnapshotWriter(pConfig, pLogger, subStats, memStats);
+    if (snapshotWriter.isEnabled()) {
+      snapshotThread =
+          Concurrency.newDaemonThread("CPAchecker statistics snapshot writer", snapshotWriter);
+      snapshotThread.start();
+    }
+
     programTime.start();
     try {
       programCpuTime = ProcessCpuTime.read();
@@ -282,6 +293,9 @@ class MainCPAStatistics implements Statistics {
     if (memStats != null) {
       memStatsThread.interrupt(); // stop memory statistics collection
     }
+    if (snapshotThread != null) {
+      snapshotThread.interrupt(); // write last snapshot and stop
+    }
 
     final Timer statisticsTime = new Timer();
     statisticsTime.start();
@@ -569,6 +583,10 @@ class MainCPAStatistics implements Statistics {
     cfa = pCfa;
   }
 
+  public void setReachedSet(UnmodifiableReachedSet pReached) {
+    snapshotWriter.setReachedSet(pReached);
+  }
+
   public void setCPA(ConfigurableProgramAnalysis pCpa) {
     Preconditions.checkState(cpa == null);
     cpa = pCpa;
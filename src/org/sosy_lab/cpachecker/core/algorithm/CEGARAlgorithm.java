@@ -57,6 +57,8 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.value.refiner.UnsoundRefiner;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer.Event;
 
 public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSetUpdater {
 
@@ -298,6 +300,7 @@ public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSet
     sizeOfReachedSetBeforeRefinement = reached.size();
 
     stats.refinementTimer.start();
+    long traceStart = EventTracer.start();
     boolean refinementResult;
     try {
       refinementResult = mRefiner.performRefinement(reached);
@@ -306,6 +309,7 @@ public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSet
       stats.countFailedRefinements++;
       throw e;
     } finally {
+      EventTracer.record(Event.REFINEMENT, traceStart);
       stats.refinementTimer.stop();
     }
 
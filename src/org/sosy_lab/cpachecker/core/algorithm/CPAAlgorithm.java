@@ -67,6 +67,8 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer.Event;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
@@ -283,8 +285,10 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       stats.countWaitlistSize += size;
 
       stats.chooseTimer.start();
+      long traceStart = EventTracer.start();
       final AbstractState state = reachedSet.popFromWaitlist();
       final Precision precision = reachedSet.getPrecision(state);
+      EventTracer.record(Event.CHOOSE, traceStart);
       stats.chooseTimer.stop();
 
       logger.log(Level.FINER, "Retrieved state from waitlist");
@@ -319,6 +323,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
     if (forcedCovering != null) {
       stats.forcedCoveringTimer.start();
+      long traceStart = EventTracer.start();
       try {
         boolean stop = forcedCovering.tryForcedCovering(state, precision, reachedSet);
 
@@ -327,15 +332,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
           return false;
         }
       } finally {
+        EventTracer.record(Event.FORCED_COVERING, traceStart);
         stats.forcedCoveringTimer.stop();
       }
     }
 
     stats.transferTimer.start();
+    long traceStart = EventTracer.start();
     Collection<? extends AbstractState> successors;
     try {
       successors = transferRelation.getAbstractSuccessors(state, precision);
     } finally {
+      EventTracer.record(Event.TRANSFER, traceStart);
       stats.transferTimer.stop();
     }
     // TODO When we have a nice way to mark the analysis result as incomplete,
@@ -353,6 +361,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       logger.log(Level.ALL, "Successor of", state, "\nis", successor);
 
       stats.precisionTimer.start();
+      traceStart = EventTracer.start();
       PrecisionAdjustmentResult precAdjustmentResult;
       try {
         Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
@@ -363,6 +372,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         }
         precAdjustmentResult = precAdjustmentOptional.get();
       } finally {
+        EventTracer.record(Event.PRECISION, traceStart);
         stats.precisionTimer.stop();
       }
 
@@ -411,6 +421,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       // merge operator won't do anything (i.e., it is merge-sep).
       if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
         stats.mergeTimer.start();
+        traceStart = EventTracer.start();
         try {
           List<AbstractState> toRemove = new ArrayList<>();
           List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
@@ -444,15 +455,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
           }
 
         } finally {
+          EventTracer.record(Event.MERGE, traceStart);
           stats.mergeTimer.stop();
         }
       }
 
       stats.stopTimer.start();
+      traceStart = EventTracer.start();
       boolean stop;
       try {
         stop = stopOperator.stop(successor, reached, successorPrecision);
       } finally {
+        EventTracer.record(Event.STOP, traceStart);
         stats.stopTimer.stop();
       }
 
@@ -464,7 +478,9 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
 
         stats.addTimer.start();
+        traceStart = EventTracer.start();
         reachedSet.add(successor, successorPrecision);
+        EventTracer.record(Event.ADD, traceStart);
         stats.addTimer.stop();
       }
     }
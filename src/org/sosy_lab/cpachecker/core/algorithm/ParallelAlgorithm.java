@@ -85,6 +85,8 @@ import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.resources.ThreadCpuTimeLimit;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsSnapshotWriter.Snapshot;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsSnapshotWriter.SubAnalysesStatistics;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 @Options(prefix = "parallelAlgorithm")
@@ -565,7 +567,7 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
     }
   }
 
-  private static class ParallelAlgorithmStatistics implements Statistics {
+  private static class ParallelAlgorithmStatistics implements SubAnalysesStatistics {
 
     private final LogManager logger;
     private final List<StatisticsEntry> allAnalysesStats = Lists.newCopyOnWriteArrayList();
@@ -598,6 +600,13 @@ public class ParallelAlgorithm implements Algorithm, StatisticsProvider {
       printSubStatistics(out, result);
     }
 
+    @Override
+    public void collectSnapshots(Snapshot pSnapshot) {
+      for (StatisticsEntry subStats : allAnalysesStats) {
+        pSnapshot.addSubAnalysis(subStats.name, subStats.reachedSet, subStats.subStatistics);
+      }
+    }
+
     private void printSubStatistics(PrintStream pOut, Result pResult) {
       for (StatisticsEntry subStats : allAnalysesStats) {
         pOut.println();
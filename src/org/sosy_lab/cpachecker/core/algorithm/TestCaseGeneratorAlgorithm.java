@@ -27,23 +27,21 @@ import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
 
 import com.google.common.base.Predicates;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
-import org.sosy_lab.common.Appender;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
-import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.io.PathTemplate;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
@@ -60,6 +58,7 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.arg.ARGUtils;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetCPA;
+import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetCoverage;
 import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetProvider;
 import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAEnabledAnalysisPropertyViolationException;
@@ -69,6 +68,7 @@ import org.sosy_lab.cpachecker.exceptions.InfeasibleCounterexampleException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.harness.HarnessExporter;
+import org.sosy_lab.cpachecker.util.harness.HarnessExporter.TargetTestVector;
 
 @Options(prefix = "testcase")
 public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider {
@@ -86,13 +86,25 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
   )
   private boolean printTestTargetInfoInStats = false;
 
+  @Option(
+    secure = true,
+    name = "queueSize",
+    description =
+        "maximal number of found tests that wait for being written to files in a background"
+            + " thread (0 for writing each test immediately in the thread of the analysis)"
+  )
+  @IntegerOption(min = 0)
+  private int harnessQueueSize = 100;
+
   private final Algorithm algorithm;
   private final AssumptionToEdgeAllocator assumptionToEdgeAllocator;
   private final ConfigurableProgramAnalysis cpa;
   private final HarnessExporter harnessExporter;
+  private final @Nullable TestHarnessWriter harnessWriter;
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
-  private Set<CFAEdge> testTargets;
+  private final TestTargetCoverage coverage;
+  private final Set<CFAEdge> testTargets;
 
   public TestCaseGeneratorAlgorithm(
       Algorithm pAlgorithm,
@@ -112,9 +124,13 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
         AssumptionToEdgeAllocator.create(pConfig, logger, pCfa.getMachineModel());
     TestTargetCPA testTargetCpa =
         CPAs.retrieveCPAOrFail(pCpa, TestTargetCPA.class, TestCaseGeneratorAlgorithm.class);
-    testTargets =
-        ((TestTargetTransferRelation) testTargetCpa.getTransferRelation()).getTestTargets();
+    coverage = ((TestTargetTransferRelation) testTargetCpa.getTransferRelation()).getCoverage();
+    testTargets = coverage.getUncoveredTargets();
     harnessExporter = new HarnessExporter(pConfig, logger, pCfa);
+    harnessWriter =
+        testHarnessFile == null
+            ? null
+            : new TestHarnessWriter(harnessExporter, testHarnessFile, id, logger, harnessQueueSize);
   }
 
   @Override
@@ -144,6 +160,24 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
               });
     }
 
+    if (harnessWriter != null) {
+      harnessWriter.start();
+    }
+    try {
+      exploreTestTargets(pReached);
+    } finally {
+      if (harnessWriter != null) {
+        harnessWriter.stop();
+      }
+    }
+
+    cleanUpIfNoTestTargetsRemain(pReached);
+
+    return AlgorithmStatus.SOUND_AND_PRECISE;
+  }
+
+  private void exploreTestTargets(final ReachedSet pReached)
+      throws CPAException, InterruptedException, CPAEnabledAnalysisPropertyViolationException {
     while (pReached.hasWaitingState() && !testTargets.isEmpty()) {
       shutdownNotifier.shutdownIfNecessary();
 
@@ -187,7 +221,7 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
                 writeTestHarnessFile(argState);
 
                 logger.log(Level.FINE, "Removing test target: " + targetEdge.toString());
-                testTargets.remove(targetEdge);
+                coverage.markCovered(targetEdge);
               } else {
                 logger.log(
                     Level.FINE,
@@ -214,10 +248,6 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
         }
       }
     }
-
-    cleanUpIfNoTestTargetsRemain(pReached);
-
-    return AlgorithmStatus.SOUND_AND_PRECISE;
   }
 
   private void cleanUpIfNoTestTargetsRemain(final ReachedSet pReached) {
@@ -229,25 +259,19 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
     }
   }
 
-  private void writeTestHarnessFile(final ARGState pTarget) {
-    if (testHarnessFile != null) {
+  private void writeTestHarnessFile(final ARGState pTarget) throws InterruptedException {
+    if (harnessWriter != null) {
+      // the model and the test vector depend on the ARG, only the writing can be done later
       CounterexampleInfo cexInfo = extractCexInfo(pTarget);
-
-      Path file = testHarnessFile.getPath(id.getFreshId());
       ARGPath targetPath = cexInfo.getTargetPath();
-      Object content =
-          (Appender)
-              appendable ->
-                  harnessExporter.writeHarness(
-                      appendable,
-                      targetPath.getFirstState(),
-                      Predicates.in(targetPath.getStateSet()),
-                      Predicates.in(targetPath.getStatePairs()),
-                      cexInfo);
-      try {
-        IO.writeFile(file, Charset.defaultCharset(), content);
-      } catch (IOException e) {
-        logger.logUserException(Level.WARNING, e, "Could not write test harness to file");
+      Optional<TargetTestVector> testVector =
+          harnessExporter.extractTestVector(
+              targetPath.getFirstState(),
+              Predicates.in(targetPath.getStateSet()),
+              Predicates.in(targetPath.getStatePairs()),
+              cexInfo);
+      if (testVector.isPresent()) {
+        harnessWriter.submit(testVector.get());
       }
     }
   }
@@ -266,5 +290,8 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
   @Override
   public void collectStatistics(final Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(TestTargetProvider.getTestTargetStatisitics(printTestTargetInfoInStats));
+    if (harnessWriter != null) {
+      pStatsCollection.add(harnessWriter);
+    }
   }
 }
@@ -0,0 +1,215 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Throwables;
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Appender;
+import org.sosy_lab.common.Concurrency;
+import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.io.PathTemplate;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.harness.HarnessExporter;
+import org.sosy_lab.cpachecker.util.harness.HarnessExporter.TargetTestVector;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Writes the test harnesses of the {@link TestCaseGeneratorAlgorithm} in a background thread, such
+ * that the exploration continues while the harness code is generated and written to disk. The
+ * queue of pending tests is bounded, thus the analysis waits if it finds tests faster than they
+ * can be written. Tests with the same inputs as an already written test are skipped.
+ */
+final class TestHarnessWriter implements Statistics {
+
+  private static final Runnable STOP = () -> {};
+
+  private final HarnessExporter harnessExporter;
+  private final PathTemplate harnessFile;
+  private final UniqueIdGenerator idGenerator;
+  private final LogManager logger;
+  private final int queueSize;
+
+  // only accessed by the thread that writes the files
+  private final Set<HashCode> writtenInputs = new HashSet<>();
+
+  private @Nullable BlockingQueue<Runnable> queue = null;
+  private @Nullable Thread writerThread = null;
+  private volatile @Nullable Throwable failure = null;
+
+  private final StatCounter writtenTests = new StatCounter("Number of written tests");
+  private final StatCounter duplicateTests = new StatCounter("Number of skipped duplicate tests");
+  private final StatTimer writeTime = new StatTimer("Time for writing test harnesses");
+  private final StatTimer queueWaitTime = new StatTimer("Time waiting for the test queue");
+  private final StatTimer generationTime = new StatTimer("Time for test generation");
+
+  /**
+   * Create a new writer.
+   *
+   * @param pQueueSize the maximal number of pending tests, or 0 for writing each test immediately
+   *     in the thread of the analysis
+   */
+  TestHarnessWriter(
+      HarnessExporter pHarnessExporter,
+      PathTemplate pHarnessFile,
+      UniqueIdGenerator pIdGenerator,
+      LogManager pLogger,
+      int pQueueSize) {
+    harnessExporter = pHarnessExporter;
+    harnessFile = pHarnessFile;
+    idGenerator = pIdGenerator;
+    logger = pLogger;
+    queueSize = pQueueSize;
+  }
+
+  /** Start accepting tests, has to be followed by {@link #stop()}. */
+  void start() {
+    checkState(writerThread == null);
+    generationTime.start();
+    if (queueSize > 0) {
+      BlockingQueue<Runnable> tasks = new ArrayBlockingQueue<>(queueSize);
+      queue = tasks;
+      writerThread =
+          Concurrency.newDaemonThread("Test harness writer", () -> processQueue(tasks));
+      writerThread.start();
+    }
+  }
+
+  /** Schedule the test for writing, waits while the queue is full. */
+  void submit(TargetTestVector pTestVector) throws InterruptedException {
+    rethrowFailure();
+    if (queue == null) {
+      write(pTestVector);
+      return;
+    }
+    queueWaitTime.start();
+    try {
+      queue.put(() -> write(pTestVector));
+    } finally {
+      queueWaitTime.stop();
+    }
+  }
+
+  /** Wait until all pending tests are written. */
+  void stop() throws InterruptedException {
+    try {
+      if (writerThread != null) {
+        try {
+          queue.put(STOP);
+          writerThread.join();
+        } catch (InterruptedException e) {
+          writerThread.interrupt();
+          throw e;
+        } finally {
+          writerThread = null;
+          queue = null;
+        }
+      }
+    } finally {
+      generationTime.stop();
+    }
+    rethrowFailure();
+  }
+
+  private void processQueue(BlockingQueue<Runnable> pTasks) {
+    try {
+      Runnable task;
+      while ((task = pTasks.take()) != STOP) {
+        if (failure == null) {
+          try {
+            task.run();
+          } catch (RuntimeException | Error e) {
+            // keep taking tasks, otherwise the analysis would block on a full queue
+            failure = e;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      // the analysis was interrupted, pending tests are dropped
+    }
+  }
+
+  private void rethrowFailure() {
+    if (failure != null) {
+      Throwables.throwIfUnchecked(failure);
+      throw new AssertionError(failure);
+    }
+  }
+
+  private void write(TargetTestVector pTestVector) {
+    writeTime.start();
+    try {
+      if (!writtenInputs.add(pTestVector.getInputFingerprint())) {
+        duplicateTests.inc();
+        return;
+      }
+      Path file = harnessFile.getPath(idGenerator.getFreshId());
+      Object content =
+          (Appender) appendable -> harnessExporter.writeHarness(appendable, pTestVector);
+      IO.writeFile(file, Charset.defaultCharset(), content);
+      writtenTests.inc();
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write test harness to file");
+    } finally {
+      writeTime.stop();
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    long millis = generationTime.getConsumedTime().asMillis();
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(writtenTests)
+        .put(duplicateTests)
+        .putIf(
+            millis > 0,
+            "Tests per minute",
+            String.format("%.1f", writtenTests.getValue() * 60000.0 / millis))
+        .put(generationTime)
+        .put(writeTime)
+        .put(queueWaitTime);
+  }
+
+  @Override
+  public String getName() {
+    return "Test-harness writer";
+  }
+}
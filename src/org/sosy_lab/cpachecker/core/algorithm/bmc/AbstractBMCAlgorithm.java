@@ -79,6 +79,7 @@ import org.sosy_lab.cpachecker.core.algorithm.invariants.AbstractInvariantGenera
 import org.sosy_lab.cpachecker.core.algorithm.invariants.DoNothingInvariantGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.KInductionInvariantGenerator;
+import org.sosy_lab.cpachecker.core.algorithm.invariants.ParallelCPAInvariantGenerator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.LoopIterationBounding;
@@ -859,6 +860,24 @@ abstract class AbstractBMCAlgorithm
       }
     },
 
+    PARALLEL_CPA {
+
+      @Override
+      InvariantGenerator createInvariantGenerator(
+          Configuration pConfig,
+          LogManager pLogger,
+          ReachedSetFactory pReachedSetFactory,
+          ShutdownManager pShutdownManager,
+          CFA pCFA,
+          Specification pSpecification,
+          AggregatedReachedSets pAggregatedReachedSets,
+          TargetLocationProvider pTargetLocationProvider)
+          throws InvalidConfigurationException, CPAException {
+        return ParallelCPAInvariantGenerator.create(
+            pConfig, pLogger, pShutdownManager, pCFA, pSpecification);
+      }
+    },
+
     REACHED_SET {
       @Override
       InvariantGenerator createInvariantGenerator(
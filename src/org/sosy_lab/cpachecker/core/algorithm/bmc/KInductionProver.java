@@ -71,6 +71,7 @@ import org.sosy_lab.cpachecker.core.algorithm.invariants.ExpressionTreeSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.KInductionInvariantGenerator;
+import org.sosy_lab.cpachecker.core.algorithm.invariants.ParallelCPAInvariantGenerator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -203,6 +204,8 @@ class KInductionProver implements AutoCloseable {
       try {
         if (invariantGenerator instanceof KInductionInvariantGenerator) {
           return ((KInductionInvariantGenerator) invariantGenerator).getSupplier();
+        } else if (invariantGenerator instanceof ParallelCPAInvariantGenerator) {
+          return ((ParallelCPAInvariantGenerator) invariantGenerator).getSupplier();
         } else {
           // in the general case we have to retrieve the invariants from a reachedset
           return new FormulaInvariantsSupplier(invariantGenerator.get());
@@ -0,0 +1,319 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.invariants;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets.AggregatedReachedSetManager;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.predicates.invariants.FormulaInvariantsSupplier;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Invariant generator that runs several CPA-based invariant generators (e.g., with intervals,
+ * octagons, or predicate abstraction) on separate threads. The reached set of each generator is
+ * published as soon as that generator has finished, such that consumers get the invariants of
+ * the fast analyses early without waiting for the slow ones.
+ */
+@Options(prefix = "invariantGeneration.parallel")
+public class ParallelCPAInvariantGenerator extends AbstractInvariantGenerator
+    implements StatisticsProvider {
+
+  @Option(
+    secure = true,
+    required = true,
+    description =
+        "configuration files of the invariant generators that are run in parallel, "
+            + "each of them is used like invariantGeneration.config"
+  )
+  @FileOption(FileOption.Type.REQUIRED_INPUT_FILE)
+  private List<Path> configFiles;
+
+  @Option(
+    secure = true,
+    description =
+        "maximal number of threads for running the invariant generators, "
+            + "0 means one thread for each generator"
+  )
+  @IntegerOption(min = 0)
+  private int threads = 0;
+
+  /** Statistics and the published result of one of the parallel invariant generators. */
+  private static class InvariantSource implements Statistics {
+
+    private final String name;
+    private final InvariantGenerator generator;
+
+    private final Timer generationTime = new Timer();
+    private final StatCounter nonTrivialAnswers =
+        new StatCounter("Number of queries answered with a non-trivial invariant");
+    private final Set<CFANode> locationsWithInvariant = ConcurrentHashMap.newKeySet();
+
+    // set as soon as the generator has finished
+    private volatile @Nullable InvariantSupplier supplier = null;
+    private volatile boolean failed = false;
+
+    private InvariantSource(String pName, InvariantGenerator pGenerator) {
+      name = pName;
+      generator = pGenerator;
+    }
+
+    @Override
+    public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet reached) {
+      StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(out);
+      writer.put("Time for invariant generation", generationTime);
+      writer.put("Invariant generation finished", supplier != null);
+      writer.putIf(failed, "Invariant generation failed", failed);
+      writer.put("Proved program safe", generator.isProgramSafe());
+      writer.put(nonTrivialAnswers);
+      writer.put("Number of locations with a non-trivial invariant", locationsWithInvariant.size());
+    }
+
+    @Override
+    public String getName() {
+      return "Parallel invariant generator " + name;
+    }
+  }
+
+  private final LogManager logger;
+  private final ShutdownManager shutdownManager;
+  private final ImmutableList<InvariantSource> sources;
+  private final AggregatedReachedSetManager finishedReachedSets =
+      new AggregatedReachedSetManager();
+
+  private @Nullable ExecutorService executor = null;
+  private final List<Future<?>> generationFutures = new ArrayList<>();
+
+  public static ParallelCPAInvariantGenerator create(
+      final Configuration pConfig,
+      final LogManager pLogger,
+      final ShutdownManager pShutdownManager,
+      final CFA pCFA,
+      final Specification pSpecification)
+      throws InvalidConfigurationException, CPAException {
+    return new ParallelCPAInvariantGenerator(
+        pConfig,
+        pLogger.withComponentName("ParallelCPAInvariantGenerator"),
+        ShutdownManager.createWithParent(pShutdownManager.getNotifier()),
+        pCFA,
+        pSpecification);
+  }
+
+  private ParallelCPAInvariantGenerator(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownManager pShutdownManager,
+      CFA pCFA,
+      Specification pSpecification)
+      throws InvalidConfigurationException, CPAException {
+    pConfig.inject(this);
+    logger = pLogger;
+    shutdownManager = pShutdownManager;
+
+    ImmutableList.Builder<InvariantSource> sourcesBuilder = ImmutableList.builder();
+    for (Path configFile : configFiles) {
+      Configuration generatorConfig =
+          Configuration.builder()
+              .copyFrom(pConfig)
+              .setOption("invariantGeneration.config", configFile.toString())
+              .build();
+      InvariantGenerator generator =
+          CPAInvariantGenerator.create(
+              generatorConfig,
+              logger,
+              shutdownManager,
+              Optional.empty(),
+              pCFA,
+              pSpecification,
+              ImmutableList.of());
+      sourcesBuilder.add(new InvariantSource(configFile.getFileName().toString(), generator));
+    }
+    sources = sourcesBuilder.build();
+  }
+
+  @Override
+  protected void startImpl(CFANode pInitialLocation) {
+    checkState(executor == null);
+
+    int numberOfThreads = threads == 0 ? sources.size() : Math.min(threads, sources.size());
+    executor =
+        Executors.newFixedThreadPool(
+            Math.max(numberOfThreads, 1),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("invariant-generator-%d")
+                .build());
+
+    for (InvariantSource source : sources) {
+      source.generator.start(pInitialLocation);
+      generationFutures.add(executor.submit(() -> runInvariantGeneration(source)));
+    }
+    executor.shutdown(); // will shutdown after all tasks are finished
+  }
+
+  private void runInvariantGeneration(InvariantSource pSource) {
+    pSource.generationTime.start();
+    try {
+      AggregatedReachedSets result = pSource.generator.get();
+      pSource.supplier = new FormulaInvariantsSupplier(result);
+      finishedReachedSets.addAggregated(result);
+      logger.log(Level.INFO, "Invariant generator", pSource.name, "finished.");
+
+    } catch (CPAException e) {
+      pSource.failed = true;
+      logger.logUserException(Level.FINE, e, "Invariant generation failed.");
+    } catch (InterruptedException | CancellationException e) {
+      pSource.failed = true;
+      logger.log(Level.FINE, "Invariant generator", pSource.name, "was cancelled.");
+    } finally {
+      pSource.generationTime.stop();
+    }
+  }
+
+  @Override
+  public void cancel() {
+    checkState(executor != null);
+    shutdownManager.requestShutdown("Invariant generation cancel requested.");
+    generationFutures.forEach(f -> f.cancel(true));
+  }
+
+  /**
+   * Returns a view on the reached sets of all generators that have finished so far. This method
+   * does not block.
+   */
+  @Override
+  public AggregatedReachedSets get() {
+    checkState(executor != null);
+    return finishedReachedSets.asView();
+  }
+
+  /**
+   * Returns a supplier that conjoins the invariants of all generators that have finished so far
+   * and counts for each generator the queries and locations for which it contributed a non-trivial
+   * invariant.
+   */
+  public InvariantSupplier getSupplier() {
+    checkState(executor != null);
+    ImmutableList.Builder<InvariantSource> finishedSources = ImmutableList.builder();
+    ImmutableList.Builder<InvariantSupplier> suppliers = ImmutableList.builder();
+    for (InvariantSource source : sources) {
+      InvariantSupplier supplier = source.supplier;
+      if (supplier != null) {
+        finishedSources.add(source);
+        suppliers.add(supplier);
+      }
+    }
+    return new ContributionCountingSupplier(finishedSources.build(), suppliers.build());
+  }
+
+  @Override
+  public boolean isProgramSafe() {
+    for (InvariantSource source : sources) {
+      if (source.generator.isProgramSafe()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.addAll(sources);
+  }
+
+  private static class ContributionCountingSupplier implements InvariantSupplier {
+
+    private final ImmutableList<InvariantSource> sources;
+    private final ImmutableList<InvariantSupplier> suppliers;
+
+    private ContributionCountingSupplier(
+        ImmutableList<InvariantSource> pSources, ImmutableList<InvariantSupplier> pSuppliers) {
+      sources = pSources;
+      suppliers = pSuppliers;
+    }
+
+    @Override
+    public BooleanFormula getInvariantFor(
+        CFANode pNode,
+        Optional<CallstackStateEqualsWrapper> pCallstackInformation,
+        FormulaManagerView pFmgr,
+        PathFormulaManager pPfmgr,
+        @Nullable PathFormula pContext)
+        throws InterruptedException {
+      BooleanFormulaManagerView bfmgr = pFmgr.getBooleanFormulaManager();
+      List<BooleanFormula> invariants = new ArrayList<>(suppliers.size());
+      for (int i = 0; i < suppliers.size(); i++) {
+        BooleanFormula invariant =
+            suppliers.get(i).getInvariantFor(pNode, pCallstackInformation, pFmgr, pPfmgr, pContext);
+        if (!bfmgr.isTrue(invariant)) {
+          InvariantSource source = sources.get(i);
+          source.nonTrivialAnswers.inc();
+          source.locationsWithInvariant.add(pNode);
+          invariants.add(invariant);
+        }
+      }
+      return bfmgr.and(invariants);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Scheduler for the tasks of all {@link ReachedSetExecutor}s, based on a work-stealing {@link
+ * ForkJoinPool}.
+ *
+ * <p>A {@link ReachedSetExecutor} that waits for the results of sub-blocks does not occupy a
+ * thread, its next task is only submitted when a sub-block is finished. Tasks of reached-sets that
+ * other reached-sets are waiting for are on the critical path of the analysis. They are pushed to
+ * the local deque of the current worker thread, where they are executed next (LIFO) unless an idle
+ * worker steals them. All other tasks are submitted to the shared queue of the pool and are only
+ * executed when no local work is available.
+ */
+final class BlockScheduler {
+
+  private final ForkJoinPool pool;
+
+  BlockScheduler(int pNumberOfThreads) {
+    pool =
+        new ForkJoinPool(
+            pNumberOfThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+  }
+
+  /**
+   * Return an executor for the tasks of one {@link ReachedSetExecutor}. Whether a task is on the
+   * critical path is determined when the task is actually submitted.
+   */
+  Executor getExecutor(BooleanSupplier pIsOnCriticalPath) {
+    return task -> execute(task, pIsOnCriticalPath.getAsBoolean());
+  }
+
+  private void execute(Runnable pTask, boolean pIsOnCriticalPath) {
+    if (pool.isShutdown()) {
+      throw new RejectedExecutionException("scheduler is already shut down");
+    }
+    if (pIsOnCriticalPath && ForkJoinTask.getPool() == pool) {
+      // tasks of CompletableFuture are already ForkJoinTasks
+      ForkJoinTask<?> task =
+          pTask instanceof ForkJoinTask ? (ForkJoinTask<?>) pTask : ForkJoinTask.adapt(pTask);
+      task.fork();
+    } else {
+      pool.execute(pTask);
+    }
+  }
+
+  void shutdown() {
+    pool.shutdown();
+  }
+
+  List<Runnable> shutdownNow() {
+    return pool.shutdownNow();
+  }
+
+  boolean awaitTermination(long pTimeout, TimeUnit pUnit) throws InterruptedException {
+    return pool.awaitTermination(pTimeout, pUnit);
+  }
+
+  boolean isTerminated() {
+    return pool.isTerminated();
+  }
+
+  int getNumberOfThreads() {
+    return pool.getParallelism();
+  }
+
+  /** Return an estimate of the number of tasks that were stolen by idle worker threads. */
+  long getStealCount() {
+    return pool.getStealCount();
+  }
+}
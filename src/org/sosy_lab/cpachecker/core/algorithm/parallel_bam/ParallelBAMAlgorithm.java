@@ -35,8 +35,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -73,7 +71,7 @@ import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsSeries;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsSeries.NoopStatisticsSeries;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
-import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeStatTimer;
 
 @Options(prefix="algorithm.parallelBam")
 public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
@@ -129,7 +127,8 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
         new ConcurrentHashMap<>();
     final int numberOfCores = getNumberOfCores();
     oneTimeLogger.logfOnce(Level.INFO, "creating pool for %d threads", numberOfCores);
-    final ExecutorService pool = Executors.newFixedThreadPool(numberOfCores);
+    final BlockScheduler scheduler = new BlockScheduler(numberOfCores);
+    stats.numberOfThreads = scheduler.getNumberOfThreads();
     final AtomicReference<Throwable> error = new AtomicReference<>(null);
     final AtomicBoolean terminateAnalysis = new AtomicBoolean(false);
 
@@ -146,7 +145,7 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
             bamcpa.getBlockPartitioning().getMainBlock(),
             mainReachedSet,
             reachedSetMapping,
-            pool,
+            scheduler,
             algorithmFactory,
             shutdownNotifier,
             stats,
@@ -161,16 +160,17 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     boolean isSound = true;
     try {
       // TODO set timelimit to global limit minus overhead?
-      pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+      scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
 
     } finally {
-      if (!pool.isTerminated()) {
+      stats.stealCount = scheduler.getStealCount();
+      if (!scheduler.isTerminated()) {
         // in case of problems we must kill the thread pool,
         // otherwise we have a running daemon thread and CPAchecker does not terminate.
         logger.log(Level.WARNING, "threadpool did not terminate, killing threadpool now.");
         logger.log(Level.ALL, "remaining dependencies:\n", rse.getDependenciesAsDot());
         isSound = false;
-        pool.shutdownNow();
+        scheduler.shutdownNow();
       }
     }
 
@@ -270,17 +270,18 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
 
   class ParallelBAMStatistics implements Statistics {
     final StatTimer wallTime = new StatTimer("Time for execution of algorithm");
-    final ThreadSafeTimerContainer threadTime =
-        new ThreadSafeTimerContainer("Time for RSE execution");
-    final ThreadSafeTimerContainer addingStatesTime =
-        new ThreadSafeTimerContainer("Time for adding states to RSE");
-    final ThreadSafeTimerContainer terminationCheckTime =
-        new ThreadSafeTimerContainer("Time for terminating RSE");
+    final ThreadSafeStatTimer threadTime = new ThreadSafeStatTimer("Time for RSE execution");
+    final ThreadSafeStatTimer addingStatesTime =
+        new ThreadSafeStatTimer("Time for adding states to RSE");
+    final ThreadSafeStatTimer terminationCheckTime =
+        new ThreadSafeStatTimer("Time for terminating RSE");
     final LongAccumulator numMaxRSE = new LongAccumulator(Math::max, 0);
     final AtomicInteger numActiveThreads = new AtomicInteger(0);
     final StatHist histActiveThreads = new StatHist("Active threads");
     final StatHist executionCounter = new StatHist("RSE execution counter");
     private final StatCounter unfinishedRSEcounter = new StatCounter("unfinished reached-sets");
+    int numberOfThreads = 0;
+    long stealCount = 0;
 
     final StatisticsSeries<Integer> runningRSESeries =
         (runningRSESeriesFile == null) ? new NoopStatisticsSeries<>() : new StatisticsSeries<>();
@@ -295,6 +296,18 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       StatisticsUtils.write(pOut, 0, 50, threadTime);
       StatisticsUtils.write(pOut, 1, 50, addingStatesTime);
       StatisticsUtils.write(pOut, 1, 50, terminationCheckTime);
+      StatisticsUtils.write(pOut, 0, 50, "number of threads", numberOfThreads);
+      StatisticsUtils.write(pOut, 0, 50, "number of stolen tasks", stealCount);
+      long availableTime = wallTime.getConsumedTime().asNanos() * numberOfThreads;
+      if (availableTime > 0) {
+        long idleTime = Math.max(0, availableTime - threadTime.getConsumedTime().asNanos());
+        StatisticsUtils.write(
+            pOut,
+            0,
+            50,
+            "idle time of threads",
+            StatisticsUtils.toPercent(idleTime, availableTime));
+      }
 
       if (runningRSESeriesFile != null) {
         try {
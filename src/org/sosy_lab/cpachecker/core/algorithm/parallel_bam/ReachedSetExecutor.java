@@ -44,7 +44,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -68,7 +68,6 @@ import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.exceptions.UnsupportedCodeException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.Pair;
-import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
 /**
  * A wrapper for a single reached-set and the corresponding data-structures. We assume that each
@@ -99,7 +98,10 @@ class ReachedSetExecutor {
   /** important central data structure, shared over all threads, need to be synchronized. */
   private final ConcurrentMap<ReachedSet, ReachedSetExecutor> reachedSetMapping;
 
-  private final ExecutorService pool;
+  private final BlockScheduler scheduler;
+
+  /** executor for the tasks of this RSE, prioritizes them if other RSEs wait for this one. */
+  private final Executor executor;
 
   private final BAMCPAWithBreakOnMissingBlock bamcpa;
   private final AlgorithmFactory algorithmFactory;
@@ -110,9 +112,6 @@ class ReachedSetExecutor {
   private final LogManager logger;
 
   int execCounter = 0; // statistics
-  private final TimerWrapper threadTimer;
-  private final TimerWrapper addingStatesTimer;
-  private final TimerWrapper terminationCheckTimer;
 
   /**
    * This set contains all sub-reached-sets that have to be finished before the current one. The
@@ -130,6 +129,9 @@ class ReachedSetExecutor {
   private final Multimap<ReachedSetExecutor, AbstractState> dependingFrom =
       LinkedHashMultimap.create();
 
+  /** Whether {@link #dependingFrom} is non-empty, readable without synchronization. */
+  private volatile boolean hasDependingReachedSets = false;
+
   /** This future contains the list of tasks to be executed with this RSE. */
   private CompletableFuture<Void> waitingTask;
 
@@ -139,7 +141,7 @@ class ReachedSetExecutor {
       Block pBlock,
       ReachedSet pMainReachedSet,
       ConcurrentMap<ReachedSet, ReachedSetExecutor> pReachedSetMapping,
-      ExecutorService pPool,
+      BlockScheduler pScheduler,
       AlgorithmFactory pAlgorithmFactory,
       ShutdownNotifier pShutdownNotifier,
       ParallelBAMStatistics pStats,
@@ -151,7 +153,8 @@ class ReachedSetExecutor {
     block = pBlock;
     mainReachedSet = pMainReachedSet;
     reachedSetMapping = pReachedSetMapping;
-    pool = pPool;
+    scheduler = pScheduler;
+    executor = scheduler.getExecutor(() -> hasDependingReachedSets);
     algorithmFactory = pAlgorithmFactory;
     shutdownNotifier = pShutdownNotifier;
     stats = pStats;
@@ -165,11 +168,7 @@ class ReachedSetExecutor {
 
     assert pBlock == getBlockForState(pRs.getFirstState());
 
-    threadTimer = stats.threadTime.getNewTimer();
-    addingStatesTimer = stats.addingStatesTime.getNewTimer();
-    terminationCheckTimer = stats.terminationCheckTime.getNewTimer();
-
-    waitingTask = CompletableFuture.runAsync(NOOP, pool); // initialization
+    waitingTask = CompletableFuture.runAsync(NOOP, executor); // initialization
   }
 
   public Runnable asRunnable() {
@@ -183,7 +182,7 @@ class ReachedSetExecutor {
   }
 
   synchronized void addNewTask(Runnable r) {
-    waitingTask = waitingTask.thenRunAsync(r, pool).exceptionally(new ExceptionHandler(this));
+    waitingTask = waitingTask.thenRunAsync(r, executor).exceptionally(new ExceptionHandler(this));
   }
 
   /** use only for debugging and exception handling */
@@ -199,7 +198,7 @@ class ReachedSetExecutor {
    * ReachedSet to ReachedSetExecutor that guarantees single-threaded access to each ReachedSet.
    */
   private void apply(Collection<AbstractState> pStatesToBeAdded) {
-    threadTimer.start();
+    stats.threadTime.start();
     int running = stats.numActiveThreads.incrementAndGet();
     stats.histActiveThreads.insertValue(running);
     stats.numMaxRSE.accumulate(reachedSetMapping.size());
@@ -210,7 +209,7 @@ class ReachedSetExecutor {
 
       if (shutdownNotifier.shouldShutdown()) {
         terminateAnalysis.set(true);
-        pool.shutdownNow();
+        scheduler.shutdownNow();
         return;
       }
 
@@ -221,9 +220,9 @@ class ReachedSetExecutor {
           targetStateFound,
           id(pStatesToBeAdded));
 
-      addingStatesTimer.start();
+      stats.addingStatesTime.start();
       updateStates(pStatesToBeAdded);
-      addingStatesTimer.stop();
+      stats.addingStatesTime.stop();
 
       // handle finished reached-set after refinement
       // TODO checking this once on RSE-creation would be sufficient
@@ -243,9 +242,9 @@ class ReachedSetExecutor {
             : "dummy state should be removed from reached-set";
       }
 
-      terminationCheckTimer.start();
+      stats.terminationCheckTime.start();
       handleTermination();
-      terminationCheckTimer.stop();
+      stats.terminationCheckTime.stop();
 
       logger.logf(level, "%s :: exiting, targetStateFound=%s", this, targetStateFound);
 
@@ -253,10 +252,13 @@ class ReachedSetExecutor {
       logger.logException(level, e, e.getClass().getName());
       terminateAnalysis.set(true);
       error.set(e);
-      pool.shutdownNow();
+      scheduler.shutdownNow();
     } finally {
       stats.numActiveThreads.decrementAndGet();
-      threadTimer.stop();
+      // timers are per thread, thus they must not keep running after an exception
+      stats.addingStatesTime.stopIfRunning();
+      stats.terminationCheckTime.stopIfRunning();
+      stats.threadTime.stop();
     }
   }
 
@@ -328,7 +330,7 @@ class ReachedSetExecutor {
 
       if (rs == mainReachedSet) {
         logger.logf(level, "%s :: mainRS finished, shutdown threadpool", this);
-        pool.shutdown();
+        scheduler.shutdown();
       }
 
       // we never need to execute this RSE again,
@@ -393,6 +395,7 @@ class ReachedSetExecutor {
         registerJob(parent.getKey(), parent.getKey().asRunnable(parent.getValue()));
       }
       dependingFrom.clear();
+      hasDependingReachedSets = false;
     }
   }
 
@@ -402,6 +405,7 @@ class ReachedSetExecutor {
     dependsOn.add(pBsme.getState());
     synchronized (subRse.dependingFrom) {
       subRse.dependingFrom.put(this, pBsme.getState());
+      subRse.hasDependingReachedSets = true;
     }
   }
 
@@ -511,7 +515,7 @@ class ReachedSetExecutor {
             pBsme.getBlock(),
             mainReachedSet,
             reachedSetMapping,
-            pool,
+            scheduler,
             algorithmFactory,
             shutdownNotifier,
             stats,
@@ -26,11 +26,17 @@ package org.sosy_lab.cpachecker.core.algorithm.pdr.ctigar;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -44,7 +50,9 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
 /**
@@ -63,6 +71,10 @@ public class DeltaEncodedFrameSet implements FrameSet {
   private final TransitionSystem transition;
   private final FrameSetStatistics stats;
 
+  // the literals of the states that are blocked by each clause added with blockStates(),
+  // entries are removed as soon as their clause is no longer contained in any frame
+  private final Map<BooleanFormula, ImmutableSet<BooleanFormula>> clauseLiterals = new HashMap<>();
+
   private int currentFrontierLevel;
 
   /**
@@ -137,7 +149,10 @@ public class DeltaEncodedFrameSet implements FrameSet {
     Preconditions.checkPositionIndex(pMaxLevel, currentFrontierLevel);
 
     // Only need to add to highest level (delta encoding). See functionality of getStates().
-    frames.get(pMaxLevel).add(bfmgr.not(pStates));
+    BooleanFormula clause = bfmgr.not(pStates);
+    frames.get(pMaxLevel).add(clause);
+    clauseLiterals.computeIfAbsent(
+        clause, c -> ImmutableSet.copyOf(bfmgr.toConjunctionArgs(pStates, true)));
     stats.numberClauses++;
   }
 
@@ -152,44 +167,16 @@ public class DeltaEncodedFrameSet implements FrameSet {
       for (int level = 1; level < currentFrontierLevel; ++level) {
         Set<BooleanFormula> currentFrame = frames.get(level);
 
-        try (ProverEnvironment prover = solver.newProverEnvironment()) {
-
-          // Push transition relation and clauses in frame.
-          prover.push(transition.getTransitionRelationFormula());
-          for (BooleanFormula clauseAtCurrentLevel : getStates(level)) {
-            prover.push(clauseAtCurrentLevel);
-          }
-
-          // Push not(clause)' and try to propagate.
-          Iterator<BooleanFormula> it = currentFrame.iterator();
-          while (it.hasNext()) {
-            BooleanFormula clauseToPropagate = it.next();
-            prover.push(PDRUtils.asPrimed(bfmgr.not(clauseToPropagate), fmgr, transition));
-
-            if (PDRUtils.isUnsat(prover, stats.propagationSolverTimer)) {
-
-              // Move clause to next frame.
-              it.remove();
-              frames.get(level + 1).add(clauseToPropagate);
-            }
-            prover.pop();
-            pShutdownNotifier.shutdownIfNecessary();
-          }
-        }
+        Set<BooleanFormula> propagatableClauses =
+            getRelativeInductiveClauses(level, currentFrame, pShutdownNotifier);
+        currentFrame.removeAll(propagatableClauses);
+        frames.get(level + 1).addAll(propagatableClauses);
+        stats.numberPropagatedClauses += propagatableClauses.size();
 
-        // Remove all clauses in the current frame that are subsumed by any clause in a higher frame.
+        // Remove all clauses in the current frame that are subsumed by clauses in higher frames.
         stats.subsumptionTimer.start();
         try {
-          for (BooleanFormula clauseAtNextLevel : getStates(level + 1)) {
-            Iterator<BooleanFormula> currentLevelClauseIterator = currentFrame.iterator();
-            while (currentLevelClauseIterator.hasNext()) {
-              BooleanFormula c = currentLevelClauseIterator.next();
-              if (subsumes(clauseAtNextLevel, c)) {
-                currentLevelClauseIterator.remove();
-                pShutdownNotifier.shutdownIfNecessary();
-              }
-            }
-          }
+          removeSubsumedClauses(level, currentFrame, pShutdownNotifier);
         } finally {
           stats.subsumptionTimer.stop();
         }
@@ -207,16 +194,167 @@ public class DeltaEncodedFrameSet implements FrameSet {
     }
   }
 
-  /** Checks if pF1 => pF2 is valid / pF1 & not(pF2) is unsat. */
-  private boolean subsumes(BooleanFormula pF1, BooleanFormula pF2)
+  /**
+   * Determines the clauses of the given frame that are inductive relative to the frame. Instead of
+   * one query per clause, all remaining candidates are checked together by asking whether any of
+   * them can be violated after one transition. If this is the case, the model shows which
+   * candidates are violated, and they are removed before the next query. Thus the number of
+   * queries is bounded by the number of clauses that cannot be propagated, plus one.
+   */
+  private Set<BooleanFormula> getRelativeInductiveClauses(
+      int pLevel, Set<BooleanFormula> pFrame, ShutdownNotifier pShutdownNotifier)
+      throws SolverException, InterruptedException {
+    Map<BooleanFormula, BooleanFormula> candidates = new LinkedHashMap<>();
+    for (BooleanFormula clause : pFrame) {
+      candidates.put(clause, PDRUtils.asPrimed(clause, fmgr, transition));
+    }
+
+    try (ProverEnvironment prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+
+      // Push transition relation and clauses in frame.
+      prover.push(transition.getTransitionRelationFormula());
+      for (BooleanFormula clauseAtCurrentLevel : getStates(pLevel)) {
+        prover.push(clauseAtCurrentLevel);
+      }
+
+      while (!candidates.isEmpty()) {
+        pShutdownNotifier.shutdownIfNecessary();
+
+        // Push not(c1' & ... & cn') and check whether all candidates are inductive at once.
+        prover.push(bfmgr.not(bfmgr.and(candidates.values())));
+        stats.numberPropagationQueries++;
+        if (PDRUtils.isUnsat(prover, stats.propagationSolverTimer)) {
+          prover.pop();
+          break;
+        }
+
+        int candidatesBefore = candidates.size();
+        try (Model model = prover.getModel()) {
+          Iterator<BooleanFormula> it = candidates.values().iterator();
+          while (it.hasNext()) {
+            Boolean value = model.evaluate(it.next());
+            if (value != null && !value) {
+              it.remove();
+            }
+          }
+        }
+        prover.pop();
+
+        if (candidates.size() == candidatesBefore) {
+          // the model does not tell which candidates are violated, check them one by one
+          return getRelativeInductiveClausesIndividually(prover, candidates, pShutdownNotifier);
+        }
+      }
+    }
+    return new HashSet<>(candidates.keySet());
+  }
+
+  private Set<BooleanFormula> getRelativeInductiveClausesIndividually(
+      ProverEnvironment pProver,
+      Map<BooleanFormula, BooleanFormula> pCandidates,
+      ShutdownNotifier pShutdownNotifier)
       throws SolverException, InterruptedException {
-    BooleanFormula implicationAsUnsat = bfmgr.not(bfmgr.implication(pF1, pF2));
-    boolean subsumes = solver.isUnsat(implicationAsUnsat);
-    if (subsumes) {
-      stats.numberSubsumptions++;
-      stats.numberClauses--;
+    Set<BooleanFormula> result = new HashSet<>();
+    for (Map.Entry<BooleanFormula, BooleanFormula> candidate : pCandidates.entrySet()) {
+      pProver.push(bfmgr.not(candidate.getValue()));
+      stats.numberPropagationQueries++;
+      if (PDRUtils.isUnsat(pProver, stats.propagationSolverTimer)) {
+        result.add(candidate.getKey());
+      }
+      pProver.pop();
+      pShutdownNotifier.shutdownIfNecessary();
     }
-    return subsumes;
+    return result;
+  }
+
+  /**
+   * Removes all clauses of the given frame that are implied by the clauses in higher frames. At
+   * first, clauses are removed that are syntactically subsumed by a single clause, which is
+   * determined with an index of the literals of the clauses in the higher frames. Only for the
+   * remaining clauses, the solver is used to check whether they are implied by all clauses in the
+   * higher frames together.
+   */
+  private void removeSubsumedClauses(
+      int pLevel, Set<BooleanFormula> pFrame, ShutdownNotifier pShutdownNotifier)
+      throws SolverException, InterruptedException {
+    if (pFrame.isEmpty()) {
+      return;
+    }
+    Set<BooleanFormula> higherClauses = getStates(pLevel + 1);
+
+    // index of the clauses in higher frames by the literals of the states they block
+    Multimap<BooleanFormula, BooleanFormula> literalIndex = HashMultimap.create();
+    for (BooleanFormula clause : higherClauses) {
+      for (BooleanFormula literal : clauseLiterals.getOrDefault(clause, ImmutableSet.of())) {
+        literalIndex.put(literal, clause);
+      }
+    }
+
+    Iterator<BooleanFormula> it = pFrame.iterator();
+    while (it.hasNext()) {
+      BooleanFormula clause = it.next();
+      if (higherClauses.contains(clause)) {
+        it.remove();
+        stats.numberSubsumptions++;
+        stats.numberClauses--;
+      } else if (isSyntacticallySubsumed(clause, literalIndex)) {
+        it.remove();
+        forgetClauseIfUnused(clause);
+        stats.numberSubsumptions++;
+        stats.numberClauses--;
+      }
+    }
+    if (pFrame.isEmpty()) {
+      return;
+    }
+
+    try (ProverEnvironment prover = solver.newProverEnvironment()) {
+      for (BooleanFormula higherClause : higherClauses) {
+        prover.push(higherClause);
+      }
+      it = pFrame.iterator();
+      while (it.hasNext()) {
+        BooleanFormula clause = it.next();
+        prover.push(bfmgr.not(clause));
+        stats.numberSubsumptionQueries++;
+        if (PDRUtils.isUnsat(prover, stats.subsumptionSolverTimer)) {
+          it.remove();
+          forgetClauseIfUnused(clause);
+          stats.numberSubsumptions++;
+          stats.numberClauses--;
+        }
+        prover.pop();
+        pShutdownNotifier.shutdownIfNecessary();
+      }
+    }
+  }
+
+  /** Drops the literals stored for the given clause if no frame contains the clause anymore. */
+  private void forgetClauseIfUnused(BooleanFormula pClause) {
+    if (frames.stream().noneMatch(frame -> frame.contains(pClause))) {
+      clauseLiterals.remove(pClause);
+    }
+  }
+
+  /**
+   * Checks whether there is a clause in the index that blocks a subset of the literals that are
+   * blocked by the given clause. Such a clause implies the given clause.
+   */
+  private boolean isSyntacticallySubsumed(
+      BooleanFormula pClause, Multimap<BooleanFormula, BooleanFormula> pLiteralIndex) {
+    Set<BooleanFormula> literals = clauseLiterals.get(pClause);
+    if (literals == null) {
+      return false;
+    }
+    for (BooleanFormula literal : literals) {
+      for (BooleanFormula otherClause : pLiteralIndex.get(literal)) {
+        Set<BooleanFormula> otherLiterals = clauseLiterals.get(otherClause);
+        if (otherLiterals.size() <= literals.size() && literals.containsAll(otherLiterals)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   /**
@@ -242,9 +380,13 @@ public class DeltaEncodedFrameSet implements FrameSet {
     private int numberFrames = 0;
     private int numberClauses = 0;
     private int numberSubsumptions = 0;
+    private int numberPropagatedClauses = 0;
+    private int numberPropagationQueries = 0;
+    private int numberSubsumptionQueries = 0;
     private final Timer propagationTimer = new Timer();
     private final Timer propagationSolverTimer = new Timer();
     private final Timer subsumptionTimer = new Timer();
+    private final Timer subsumptionSolverTimer = new Timer();
 
     @Override
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
@@ -260,6 +402,15 @@ public class DeltaEncodedFrameSet implements FrameSet {
             "  Average time for propagation:      "
                 + propagationTimer.getAvgTime().formatAs(TimeUnit.SECONDS));
       }
+      pOut.println("Number of propagated clauses:            " + numberPropagatedClauses);
+      pOut.println("Number of solver queries for propagation: " + numberPropagationQueries);
+      pOut.println("Number of solver queries for subsumption: " + numberSubsumptionQueries);
+      if (propagationTimer.getNumberOfIntervals() > 0) {
+        double seconds = propagationTimer.getSumTime().asMillis() / 1000.0;
+        pOut.println(
+            "Propagated clauses per second:           "
+                + String.format("%.2f", seconds > 0 ? numberPropagatedClauses / seconds : 0.0));
+      }
       if (propagationSolverTimer.getNumberOfIntervals() > 0) {
         pOut.println("Time spent in solver:                " + propagationSolverTimer);
       }
@@ -269,6 +420,9 @@ public class DeltaEncodedFrameSet implements FrameSet {
             "  Average time for subsumption:      "
                 + subsumptionTimer.getAvgTime().formatAs(TimeUnit.SECONDS));
       }
+      if (subsumptionSolverTimer.getNumberOfIntervals() > 0) {
+        pOut.println("Time spent in solver for subsumption: " + subsumptionSolverTimer);
+      }
     }
 
     @Override
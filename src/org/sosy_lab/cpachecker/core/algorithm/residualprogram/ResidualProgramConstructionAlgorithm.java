@@ -326,8 +326,9 @@ public class ResidualProgramConstructionAlgorithm implements Algorithm, Statisti
     }
   }
 
-  private String getResidualProgramText(
-      final ARGState pARGRoot, @Nullable final Set<ARGState> pAddPragma) throws CPAException {
+  private void writeResidualProgramText(
+      final ARGState pARGRoot, @Nullable final Set<ARGState> pAddPragma, final Writer pWriter)
+      throws CPAException, IOException {
     ARGState root = pARGRoot;
     if (constructionStrategy == ResidualGenStrategy.CONDITION_PLUS_FOLD) {
       Preconditions.checkState(pAddPragma == null);
@@ -344,9 +345,10 @@ public class ResidualProgramConstructionAlgorithm implements Algorithm, Statisti
     }
     try {
       statistic.translationTimer.start();
-      return translator.translateARG(root, pAddPragma);
+      translator.translateARG(root, pAddPragma, pWriter);
     } finally {
       statistic.translationTimer.stop();
+      statistic.sharedSubtrees = translator.getNumberOfSharedSubtrees();
     }
   }
 
@@ -354,7 +356,7 @@ public class ResidualProgramConstructionAlgorithm implements Algorithm, Statisti
       @Nullable final Set<ARGState> pAddPragma) throws InterruptedException {
     logger.log(Level.INFO, "Generate residual program");
     try (Writer writer = IO.openOutputFile(residualProgram, Charset.defaultCharset())) {
-      writer.write(getResidualProgramText(pArgRoot, pAddPragma));
+      writeResidualProgramText(pArgRoot, pAddPragma, writer);
     } catch (IOException e) {
       logger.logUserException(Level.WARNING, e, "Could not write residual program to file");
       return false;
@@ -362,6 +364,11 @@ public class ResidualProgramConstructionAlgorithm implements Algorithm, Statisti
       logger.logException(Level.SEVERE, e, "Failed to generate residual program.");
       return false;
     }
+    try {
+      statistic.residualProgramSize = Files.size(residualProgram);
+    } catch (IOException e) {
+      logger.logDebugException(e, "Could not determine size of residual program");
+    }
     String mainFunction = AbstractStates.extractLocation(pArgRoot).getFunctionName();
     if (!translator.addsIncludeDirectives()) {
       assert (isValidResidualProgram(mainFunction));
@@ -479,6 +486,8 @@ public class ResidualProgramConstructionAlgorithm implements Algorithm, Statisti
     private final Timer foldTimer = new Timer();
     protected final Timer modelBuildTimer = new Timer();
     protected final Timer collectPragmaPointsTimer = new Timer();
+    private int sharedSubtrees = 0;
+    private long residualProgramSize = -1;
 
     @Override
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
@@ -497,6 +506,11 @@ public class ResidualProgramConstructionAlgorithm implements Algorithm, Statisti
       }
 
       statWriter.put("Time for C translation", translationTimer);
+      statWriter = statWriter.beginLevel();
+      statWriter.putIf(residualProgramSize >= 0, "Size of residual program file (bytes)",
+          residualProgramSize);
+      statWriter.putIf(sharedSubtrees > 0, "Number of shared ARG subtrees", sharedSubtrees);
+      statWriter = statWriter.endLevel();
 
       if (collectResidualProgramSizeStatistics || (exportPixelGraphic && exportPixelFile != null)) {
         CFA residProg = getResidualProgram(pReached.getFirstState());
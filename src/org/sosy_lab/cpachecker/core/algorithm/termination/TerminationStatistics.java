@@ -60,10 +60,12 @@ import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -161,6 +163,16 @@ public class TerminationStatistics implements Statistics {
 
   private final Map<Loop, AtomicInteger> safetyAnalysisRunsPerLoop = Maps.newConcurrentMap();
 
+  // per-loop timers in the order in which the loops were analysed
+  private final Map<Loop, Timer> loopTimePerLoop =
+      Collections.synchronizedMap(new LinkedHashMap<>());
+
+  private final Map<Loop, Timer> safetyAnalysisTimePerLoop = Maps.newConcurrentMap();
+
+  private final Map<Loop, Timer> lassoTimePerLoop = Maps.newConcurrentMap();
+
+  private final AtomicInteger cachedLassoResults = new AtomicInteger();
+
   private final Map<Loop, AtomicInteger> lassosPerLoop = Maps.newConcurrentMap();
 
   private final AtomicInteger maxLassosPerIteration = new AtomicInteger();
@@ -202,17 +214,28 @@ public class TerminationStatistics implements Statistics {
     safetyAnalysisTime.stopIfRunning();
     lassoTime.stopIfRunning();
     loopTime.stopIfRunning();
+    loopTimePerLoop.values().forEach(Timer::stopIfRunning);
+    safetyAnalysisTimePerLoop.values().forEach(Timer::stopIfRunning);
+    lassoTimePerLoop.values().forEach(Timer::stopIfRunning);
   }
 
   void analysisOfLoopStarted(Loop pLoop) {
     boolean newLoop = analysedLoops.add(pLoop);
     checkState(newLoop);
     loopTime.start();
+    Timer timeOfLoop = new Timer();
+    loopTimePerLoop.put(pLoop, timeOfLoop);
+    safetyAnalysisTimePerLoop.put(pLoop, new Timer());
+    lassoTimePerLoop.put(pLoop, new Timer());
+    timeOfLoop.start();
   }
 
   void analysisOfLoopFinished(Loop pLoop) {
     checkState(analysedLoops.contains(pLoop));
     loopTime.stop();
+    loopTimePerLoop.get(pLoop).stop();
+    safetyAnalysisTimePerLoop.get(pLoop).stopIfRunning();
+    lassoTimePerLoop.get(pLoop).stopIfRunning();
     recursionTime.stopIfRunning();
     safetyAnalysisTime.stopIfRunning();
     lassoTime.stopIfRunning();
@@ -233,12 +256,14 @@ public class TerminationStatistics implements Statistics {
     checkState(analysedLoops.contains(pLoop));
     safetyAnalysisRunsPerLoop.computeIfAbsent(pLoop, l -> new AtomicInteger()).incrementAndGet();
     safetyAnalysisTime.start();
+    safetyAnalysisTimePerLoop.get(pLoop).start();
   }
 
   void safetyAnalysisFinished(Loop pLoop) {
     checkState(analysedLoops.contains(pLoop));
     checkState(safetyAnalysisRunsPerLoop.containsKey(pLoop));
     safetyAnalysisTime.stop();
+    safetyAnalysisTimePerLoop.get(pLoop).stop();
   }
 
   void setNonterminatingLoop(Loop pLoop) {
@@ -247,12 +272,14 @@ public class TerminationStatistics implements Statistics {
     nonterminatingLoop = pLoop;
   }
 
-  public void analysisOfLassosStarted() {
+  public void analysisOfLassosStarted(Loop pLoop) {
     lassoTime.start();
+    lassoTimePerLoop.computeIfAbsent(pLoop, l -> new Timer()).start();
   }
 
-  public void analysisOfLassosFinished() {
+  public void analysisOfLassosFinished(Loop pLoop) {
     lassoTime.stop();
+    lassoTimePerLoop.get(pLoop).stop();
     lassoConstructionTime.stopIfRunning();
     lassoNonTerminationTime.stopIfRunning();
     lassoTerminationTime.stopIfRunning();
@@ -283,6 +310,10 @@ public class TerminationStatistics implements Statistics {
     lassoTerminationTime.stop();
   }
 
+  public void lassoResultFromCache() {
+    cachedLassoResults.incrementAndGet();
+  }
+
   public void lassosConstructed(Loop pLoop, int numberOfLassos) {
     lassosPerLoop.computeIfAbsent(pLoop, l -> new AtomicInteger()).addAndGet(numberOfLassos);
     lassosCurrentIteration.addAndGet(numberOfLassos);
@@ -313,6 +344,21 @@ public class TerminationStatistics implements Statistics {
         "  Avg time per loop analysis:                       " + format(loopTime.getAvgTime()));
     pOut.println(
         "  Max time per loop analysis:                       " + format(loopTime.getMaxTime()));
+    synchronized (loopTimePerLoop) {
+      for (Entry<Loop, Timer> loopTimeOfLoop : loopTimePerLoop.entrySet()) {
+        Loop loop = loopTimeOfLoop.getKey();
+        pOut.println(
+            "  Time for loop with heads "
+                + loop.getLoopHeads()
+                + ": "
+                + format(loopTimeOfLoop.getValue().getSumTime())
+                + " (safety analysis: "
+                + format(safetyAnalysisTimePerLoop.get(loop).getSumTime())
+                + ", lasso analysis: "
+                + format(lassoTimePerLoop.get(loop).getSumTime())
+                + ")");
+      }
+    }
     pOut.println();
 
     int safetyAnalysisRuns =
@@ -377,6 +423,8 @@ public class TerminationStatistics implements Statistics {
     pOut.println(
         "  Max number of lassos per iteration:               "
             + format(maxLassosPerIteration.get()));
+    pOut.println(
+        "  Number of lasso results from cache:               " + format(cachedLassoResults.get()));
     pOut.println();
 
     pOut.println("Total time for lassos analysis:                     " + lassoTime);
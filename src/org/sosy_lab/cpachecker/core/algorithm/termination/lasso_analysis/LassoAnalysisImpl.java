@@ -30,6 +30,7 @@ import static java.util.logging.Level.WARNING;
 import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.SMTINTERPOL;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import de.uni_freiburg.informatik.ultimate.lassoranker.AnalysisType;
 import de.uni_freiburg.informatik.ultimate.lassoranker.Lasso;
 import de.uni_freiburg.informatik.ultimate.lassoranker.LassoRankerPreferences;
@@ -48,10 +49,14 @@ import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.util.ToolchainCanceledException;
 import java.io.IOException;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
@@ -184,6 +189,14 @@ public class LassoAnalysisImpl implements LassoAnalysis {
   @IntegerOption(min = 1)
   private int maxTemplateFunctions = 3;
 
+  @Option(
+    secure = true,
+    description =
+        "Reuse the results of the (non-)termination analysis for lassos "
+            + "with the same structure (ignoring SSA indices)."
+  )
+  private boolean cacheResults = true;
+
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private final TerminationStatistics statistics;
@@ -203,6 +216,56 @@ public class LassoAnalysisImpl implements LassoAnalysis {
 
   private final ImmutableList<RankingTemplate> rankingTemplates;
 
+  // results of single lassos, keyed by the loop, the relevant variables and the lasso structure
+  private final Map<LassoKey, LassoAnalysisResult> nonTerminationResults = new HashMap<>();
+  private final Map<LassoKey, TerminationResult> terminationResults = new HashMap<>();
+
+  /** Key of the cached results of a lasso, the lasso is given by its canonical structure. */
+  private static final class LassoKey {
+
+    private final Loop loop;
+    private final ImmutableSet<CVariableDeclaration> relevantVariables;
+    private final String lasso;
+
+    private LassoKey(Loop pLoop, Set<CVariableDeclaration> pRelevantVariables, String pLasso) {
+      loop = pLoop;
+      relevantVariables = ImmutableSet.copyOf(pRelevantVariables);
+      lasso = pLasso;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof LassoKey)) {
+        return false;
+      }
+      LassoKey other = (LassoKey) pObj;
+      return loop.equals(other.loop)
+          && lasso.equals(other.lasso)
+          && relevantVariables.equals(other.relevantVariables);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(loop, relevantVariables, lasso);
+    }
+  }
+
+  /** Result of the termination analysis of a lasso with the argument it was created from. */
+  private static final class TerminationResult {
+
+    private final LassoAnalysisResult result;
+    private final @Nullable TerminationArgument terminationArgument;
+
+    private TerminationResult(
+        LassoAnalysisResult pResult, @Nullable TerminationArgument pTerminationArgument) {
+      result = pResult;
+      terminationArgument = pTerminationArgument;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public LassoAnalysisImpl(
       LogManager pLogger,
@@ -294,18 +357,18 @@ public class LassoAnalysisImpl implements LassoAnalysis {
   public LassoAnalysisResult checkTermination(
       Loop pLoop, CounterexampleInfo pCounterexample, Set<CVariableDeclaration> pRelevantVariables)
       throws CPATransferException, InterruptedException {
-    statistics.analysisOfLassosStarted();
+    statistics.analysisOfLassosStarted(pLoop);
     try {
       return checkTermination0(pLoop, pCounterexample, pRelevantVariables);
     } finally {
-      statistics.analysisOfLassosFinished();
+      statistics.analysisOfLassosFinished(pLoop);
     }
   }
 
   private LassoAnalysisResult checkTermination0(
       Loop pLoop, CounterexampleInfo pCounterexample, Set<CVariableDeclaration> pRelevantVariables)
       throws CPATransferException, InterruptedException {
-    Collection<Lasso> lassos;
+    Map<String, Lasso> lassos;
     statistics.lassoConstructionStarted();
     try {
       lassos = lassoBuilder.buildLasso(pCounterexample, pRelevantVariables);
@@ -331,17 +394,32 @@ public class LassoAnalysisImpl implements LassoAnalysis {
   }
 
   private LassoAnalysisResult checkTermination(
-      Loop pLoop, Collection<Lasso> lassos, Set<CVariableDeclaration> pRelevantVariables)
+      Loop pLoop, Map<String, Lasso> lassos, Set<CVariableDeclaration> pRelevantVariables)
       throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
 
     LassoAnalysisResult result = LassoAnalysisResult.unknown();
 
     // Try to synthesize non-termination arguments first because it is much cheaper
     // than synthesizing termination arguments.
-    for (Lasso lasso : lassos) {
+    for (Entry<String, Lasso> lasso : lassos.entrySet()) {
       shutdownNotifier.shutdownIfNecessary();
-      logger.logf(FINER, "Synthesizing non-termination argument for lasso:\n%s.", lasso);
-      LassoAnalysisResult resultFromLasso = synthesizeNonTerminationArgument(pLoop, lasso);
+      LassoKey key = new LassoKey(pLoop, pRelevantVariables, lasso.getKey());
+      LassoAnalysisResult resultFromLasso = nonTerminationResults.get(key);
+      if (resultFromLasso == null) {
+        logger.logf(
+            FINER, "Synthesizing non-termination argument for lasso:\n%s.", lasso.getValue());
+        resultFromLasso = synthesizeNonTerminationArgument(pLoop, lasso.getValue());
+        if (cacheResults) {
+          nonTerminationResults.put(key, resultFromLasso);
+        }
+
+      } else {
+        statistics.lassoResultFromCache();
+        if (resultFromLasso.hasNonTerminationArgument()) {
+          statistics.synthesizedNonTerminationArgument(
+              pLoop, resultFromLasso.getNonTerminationArgument());
+        }
+      }
       result = result.update(resultFromLasso);
 
       // Stop and return result if non-termination could be proved.
@@ -351,12 +429,25 @@ public class LassoAnalysisImpl implements LassoAnalysis {
     }
 
     // Synthesize termination arguments
-    for (Lasso lasso : lassos) {
+    for (Entry<String, Lasso> lasso : lassos.entrySet()) {
       shutdownNotifier.shutdownIfNecessary();
-      logger.logf(FINER, "Synthesizing termination argument for lasso:\n%s.", lasso);
-      LassoAnalysisResult resultFromLasso =
-          synthesizeTerminationArgument(pLoop, lasso, pRelevantVariables);
-      result = result.update(resultFromLasso);
+      LassoKey key = new LassoKey(pLoop, pRelevantVariables, lasso.getKey());
+      TerminationResult resultFromLasso = terminationResults.get(key);
+      if (resultFromLasso == null) {
+        logger.logf(FINER, "Synthesizing termination argument for lasso:\n%s.", lasso.getValue());
+        resultFromLasso =
+            synthesizeTerminationArgument(lasso.getValue(), pRelevantVariables);
+        if (cacheResults) {
+          terminationResults.put(key, resultFromLasso);
+        }
+
+      } else {
+        statistics.lassoResultFromCache();
+      }
+      if (resultFromLasso.terminationArgument != null) {
+        statistics.synthesizedTerminationArgument(pLoop, resultFromLasso.terminationArgument);
+      }
+      result = result.update(resultFromLasso.result);
     }
 
     return result;
@@ -386,8 +477,8 @@ public class LassoAnalysisImpl implements LassoAnalysis {
     }
   }
 
-  private LassoAnalysisResult synthesizeTerminationArgument(
-      Loop pLoop, Lasso lasso, Set<CVariableDeclaration> pRelevantVariables)
+  private TerminationResult synthesizeTerminationArgument(
+      Lasso lasso, Set<CVariableDeclaration> pRelevantVariables)
       throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
 
     statistics.terminationAnalysisOfLassoStarted();
@@ -410,14 +501,15 @@ public class LassoAnalysisImpl implements LassoAnalysis {
 
               proover.push(rankingRelation.asFormula());
               if (!proover.isUnsat()) {
-                statistics.synthesizedTerminationArgument(pLoop, terminationArgument);
-                return LassoAnalysisResult.fromTerminationArgument(rankingRelation);
+                return new TerminationResult(
+                    LassoAnalysisResult.fromTerminationArgument(rankingRelation),
+                    terminationArgument);
               }
 
             } catch (RankingRelationException e) {
               logger.logUserException(
                   Level.INFO, e, "Could not create ranking relation from " + terminationArgument);
-              return LassoAnalysisResult.unknown();
+              return new TerminationResult(LassoAnalysisResult.unknown(), null);
             }
           }
 
@@ -435,7 +527,7 @@ public class LassoAnalysisImpl implements LassoAnalysis {
       statistics.terminationAnalysisOfLassoFinished();
     }
 
-    return LassoAnalysisResult.unknown();
+    return new TerminationResult(LassoAnalysisResult.unknown(), null);
   }
 
   private TerminationArgumentSynthesizer createTerminationArgumentSynthesizer(
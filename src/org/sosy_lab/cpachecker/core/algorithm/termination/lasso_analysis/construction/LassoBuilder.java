@@ -29,13 +29,15 @@ import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.FINER;
 import static org.sosy_lab.cpachecker.util.AbstractStates.extractStateByType;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Verify;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
 import de.uni_freiburg.informatik.ultimate.lassoranker.Lasso;
 import de.uni_freiburg.informatik.ultimate.lassoranker.LinearInequality;
 import de.uni_freiburg.informatik.ultimate.lassoranker.LinearTransition;
@@ -43,13 +45,16 @@ import de.uni_freiburg.informatik.ultimate.lassoranker.exceptions.TermException;
 import de.uni_freiburg.informatik.ultimate.lassoranker.variables.InequalityConverter;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.IProgramVar;
-import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -95,6 +100,8 @@ public class LassoBuilder {
 
   final static String TERMINATION_REPLACE_VARS_PREFIX = "__TERMINATION_REPLACE-";
 
+  private static final Pattern INSTANTIATED_VARIABLE = Pattern.compile("([^\\s()|@]+)@(\\d+)");
+
   @Option(secure = true, description = "Simplifies loop and stem formulas.")
   private boolean simplify = false;
 
@@ -147,7 +154,12 @@ public class LassoBuilder {
     return META_VARIABLES_PREFIX.stream().anyMatch(variableName::startsWith);
   }
 
-  public Collection<Lasso> buildLasso(
+  /**
+   * Creates the lassos of the given counterexample. Each lasso is mapped to a key describing its
+   * structure (see {@link #canonicalize(String)}), such that equal lassos with different SSA
+   * indices, e.g., because of different stems, have the same key.
+   */
+  public ImmutableMap<String, Lasso> buildLasso(
       CounterexampleInfo pCounterexampleInfo, Set<CVariableDeclaration> pRelevantVariables)
       throws CPATransferException, InterruptedException, TermException, SolverException {
     StemAndLoop stemAndLoop = createStemAndLoop(pCounterexampleInfo);
@@ -220,7 +232,7 @@ public class LassoBuilder {
     return stemAndLoop;
   }
 
-  private Collection<Lasso> createLassos(
+  private ImmutableMap<String, Lasso> createLassos(
       StemAndLoop pStemAndLoop, ImmutableMap<String, CVariableDeclaration> pRelevantVariables)
       throws InterruptedException, TermException, SolverException {
     Dnf stemDnf = toDnf(pStemAndLoop.getStem(), Result.empty(fmgr));
@@ -238,23 +250,49 @@ public class LassoBuilder {
             pStemAndLoop.getLoopOutVars(),
             pRelevantVariables);
 
-    ImmutableList.Builder<Lasso> lassos = ImmutableList.builder();
+    Map<String, Lasso> lassos = new LinkedHashMap<>();
     for (BooleanFormula stem : stemDnf.getClauses()) {
       for (BooleanFormula loop : loopDnf.getClauses()) {
 
         shutdownNotifier.shutdownIfNecessary();
-        if (!isUnsat(bfmrView.and(stem, loop))) {
+        String key =
+            canonicalize(Joiner.on('\n').join(stem, stemRankVars, loop, loopRankVars));
+        if (!lassos.containsKey(key) && !isUnsat(bfmrView.and(stem, loop))) {
 
           LinearTransition stemTransition = createLinearTransition(stem, stemRankVars);
           LinearTransition loopTransition = createLinearTransition(loop, loopRankVars);
 
           Lasso lasso = new Lasso(stemTransition, loopTransition);
-          lassos.add(lasso);
+          lassos.put(key, lasso);
         }
       }
     }
 
-    return lassos.build();
+    return ImmutableMap.copyOf(lassos);
+  }
+
+  /**
+   * Replaces the SSA index of each variable in the given representation of a lasso by the rank of
+   * this index among all indices of the same variable. The order of the indices and the connection
+   * between stem and loop is kept, but the absolute indices (that depend on the path leading to the
+   * loop) do not matter anymore.
+   */
+  static String canonicalize(String pLasso) {
+    SortedSetMultimap<String, Integer> indices = TreeMultimap.create();
+    Matcher matcher = INSTANTIATED_VARIABLE.matcher(pLasso);
+    while (matcher.find()) {
+      indices.put(matcher.group(1), Integer.valueOf(matcher.group(2)));
+    }
+
+    StringBuffer result = new StringBuffer();
+    matcher.reset();
+    while (matcher.find()) {
+      String name = matcher.group(1);
+      int rank = indices.get(name).headSet(Integer.valueOf(matcher.group(2))).size();
+      matcher.appendReplacement(result, Matcher.quoteReplacement(name + "@" + rank));
+    }
+    matcher.appendTail(result);
+    return result.toString();
   }
 
   private boolean isUnsat(BooleanFormula formula) throws SolverException, InterruptedException {
@@ -398,6 +436,21 @@ public class LassoBuilder {
     public ImmutableMap<IProgramVar, Term> getOutVars() {
       return ImmutableMap.copyOf(outVars);
     }
+
+    @Override
+    public String toString() {
+      // sorted to be independent of the order in which the variables were collected
+      return "in: " + toSortedString(inVars) + ", out: " + toSortedString(outVars);
+    }
+
+    private static String toSortedString(Map<RankVar, Term> pVariables) {
+      return pVariables
+          .entrySet()
+          .stream()
+          .map(e -> e.getKey() + "=" + e.getValue())
+          .sorted()
+          .collect(Collectors.joining(", "));
+    }
   }
 
   private static class StemAndLoop {
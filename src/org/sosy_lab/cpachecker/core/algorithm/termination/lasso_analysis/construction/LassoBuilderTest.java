@@ -0,0 +1,73 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.construction;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.construction.LassoBuilder.canonicalize;
+
+import org.junit.Test;
+
+public class LassoBuilderTest {
+
+  private static String lasso(String pStem, String pLoop) {
+    return pStem + "\n" + pLoop;
+  }
+
+  @Test
+  public void testSsaIndicesAreReplacedByRank() {
+    assert_()
+        .that(canonicalize("(= |main::x@5| (+ |main::x@3| |main::y@8|))\n(< |main::x@3| 10)"))
+        .isEqualTo("(= |main::x@1| (+ |main::x@0| |main::y@0|))\n(< |main::x@0| 10)");
+  }
+
+  @Test
+  public void testStemsOfDifferentLength() {
+    String shortStem =
+        lasso(
+            "(and (= |main::x@1| 0) (= |main::y@1| 5))",
+            "(and (< |main::x@1| |main::y@1|) (= |main::x@2| (+ |main::x@1| 1)))");
+    // the same lasso after more assignments to x and y before the loop
+    String longStem =
+        lasso(
+            "(and (= |main::x@4| 0) (= |main::y@7| 5))",
+            "(and (< |main::x@4| |main::y@7|) (= |main::x@5| (+ |main::x@4| 1)))");
+    assert_().that(canonicalize(longStem)).isEqualTo(canonicalize(shortStem));
+  }
+
+  @Test
+  public void testDifferentVariables() {
+    String loopOverX =
+        lasso("(= |main::x@1| 0)", "(and (< |main::x@1| 10) (= |main::x@2| (+ |main::x@1| 1)))");
+    String loopOverY =
+        lasso("(= |main::y@1| 0)", "(and (< |main::y@1| 10) (= |main::y@2| (+ |main::y@1| 1)))");
+    assert_().that(canonicalize(loopOverX)).isNotEqualTo(canonicalize(loopOverY));
+  }
+
+  @Test
+  public void testOrderOfIndicesIsKept() {
+    String increment = "(= |main::x@2| (+ |main::x@1| 1))";
+    String decrement = "(= |main::x@1| (+ |main::x@2| 1))";
+    assert_().that(canonicalize(increment)).isNotEqualTo(canonicalize(decrement));
+  }
+}
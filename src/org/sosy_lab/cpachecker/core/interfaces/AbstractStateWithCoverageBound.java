@@ -0,0 +1,45 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
+
+/**
+ * This interface represents abstract states that can provide a cheap necessary condition for the
+ * partial order of their abstract domain. Composite analyses use it to reject candidates for
+ * coverage in the {@link StopSepOperator} before calling the potentially expensive {@link
+ * AbstractDomain#isLessOrEqual(AbstractState, AbstractState)}.
+ */
+public interface AbstractStateWithCoverageBound extends AbstractState {
+
+  /**
+   * Get a bound for this state that is monotone with respect to the partial order of the abstract
+   * domain of the analysis: For every two states <code>s1</code> and <code>s2</code> of the same
+   * analysis, if <code>s1</code> is less or equal than <code>s2</code>, then <code>
+   * s1.getCoverageBound() >= s2.getCoverageBound()</code> has to hold.
+   *
+   * <p>The value should be cheap to compute, e.g., the number of tracked variables.
+   */
+  long getCoverageBound();
+}
@@ -44,6 +44,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.Targetable;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractBucketSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
@@ -296,6 +297,9 @@ class DefaultReachedSet implements ReachedSet {
     if (waitlist instanceof AbstractSortedWaitlist) {
       return ((AbstractSortedWaitlist<?>) waitlist).getDelegationCounts();
 
+    } else if (waitlist instanceof AbstractBucketSortedWaitlist) {
+      return ((AbstractBucketSortedWaitlist) waitlist).getDelegationCounts();
+
     } else {
       return ImmutableMap.of();
     }
@@ -35,6 +35,7 @@ import org.sosy_lab.cpachecker.core.waitlist.BlockConfiguration;
 import org.sosy_lab.cpachecker.core.waitlist.BlockWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.BranchBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.CallstackSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.CoverageGuidedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.DepthBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
@@ -45,6 +46,7 @@ import org.sosy_lab.cpachecker.core.waitlist.ThreadingSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonVariableWaitlist;
+import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetProvider;
 import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 
 @Options(prefix="analysis")
@@ -148,6 +150,15 @@ public class ReachedSetFactory {
   )
   private boolean useNumberOfThreads = false;
 
+  @Option(
+    secure = true,
+    name = "traversal.useTestTargetCoverage",
+    description =
+        "handle abstract states whose location can still reach an uncovered test target first?"
+            + " (needs TestTargetCPA)"
+  )
+  private boolean useTestTargetCoverage = false;
+
   @Option(
     secure = true,
     name = "traversal.weightedDepth",
@@ -246,6 +257,10 @@ public class ReachedSetFactory {
     if (useNumberOfThreads) {
       waitlistFactory = ThreadingSortedWaitlist.factory(waitlistFactory);
     }
+    if (useTestTargetCoverage) {
+      waitlistFactory =
+          CoverageGuidedWaitlist.factory(waitlistFactory, TestTargetProvider::getCurrentCoverage);
+    }
     if (useBlocks) {
       waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
     }
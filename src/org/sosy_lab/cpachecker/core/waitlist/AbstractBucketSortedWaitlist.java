@@ -0,0 +1,280 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Iterables;
+import com.google.errorprone.annotations.ForOverride;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+
+/**
+ * Implementation of a sorted waitlist for keys of type int, which has the same semantics as
+ * {@link AbstractSortedWaitlist}, but stores the states in an array of buckets indexed by the key
+ * instead of a balanced tree with boxed keys.
+ *
+ * <p>Adding a state is O(1) (amortized over the growth of the bucket array). Popping a state is
+ * O(1) as long as the bucket with the highest key does not become empty, otherwise the next
+ * non-empty bucket is searched downwards. This is cheap for keys from a dense range like reverse
+ * postorder ids, callstack depths or loop counters, where new states usually get keys close to the
+ * ones of the states that were just popped.
+ *
+ * <p>The iterators created by this class are unmodifiable.
+ */
+public abstract class AbstractBucketSortedWaitlist implements Waitlist {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final WaitlistFactory wrappedWaitlist;
+
+  // buckets[i] contains the states with key (i + offset), or is null if there are none
+  private Waitlist[] buckets = new Waitlist[INITIAL_CAPACITY];
+  private int offset = 0;
+
+  // index of the highest non-empty bucket, or -1 if the waitlist is empty
+  private int highest = -1;
+
+  private int size = 0;
+
+  private final StatCounter popCount;
+  private final StatCounter delegationCount;
+  private final Map<String, StatInt> delegationCounts = new HashMap<>();
+
+  /**
+   * Constructor that needs a factory for the waitlist implementation that should be used to store
+   * states with the same sorting key.
+   */
+  protected AbstractBucketSortedWaitlist(WaitlistFactory pSecondaryStrategy) {
+    wrappedWaitlist = Preconditions.checkNotNull(pSecondaryStrategy);
+    popCount = new StatCounter("Pop requests to waitlist (" + getClass().getSimpleName() + ")");
+    delegationCount =
+        new StatCounter(
+            "Pops delegated to wrapped waitlists ("
+                + wrappedWaitlist.getClass().getSimpleName()
+                + ")");
+  }
+
+  /**
+   * Method that generates the sorting key for any abstract state. States with largest key are
+   * considered first. If this method throws an exception, no guarantees about the state of the
+   * current instance of this class are made.
+   */
+  @ForOverride
+  protected abstract int getSortKey(AbstractState pState);
+
+  /** Returns the index of the bucket for the given key, or -1 if it is out of the array. */
+  private int indexOf(int pKey) {
+    long index = (long) pKey - offset;
+    return (index >= 0 && index < buckets.length) ? (int) index : -1;
+  }
+
+  /** Grows the bucket array such that the given key fits, and returns its index. */
+  private int ensureIndex(int pKey) {
+    int index = indexOf(pKey);
+    if (index >= 0) {
+      return index;
+    }
+    if (size == 0) {
+      // start with a fresh array around the new key
+      Arrays.fill(buckets, null);
+      offset = pKey;
+      return 0;
+    }
+    long minKey = Math.min((long) pKey, offset);
+    long maxKey = Math.max((long) pKey, (long) offset + buckets.length - 1);
+    long requiredLength = maxKey - minKey + 1;
+    long newLength = Math.max(requiredLength, 2L * buckets.length);
+    Preconditions.checkState(newLength <= Integer.MAX_VALUE, "Range of sort keys is too large");
+    if (pKey < offset) {
+      // leave the additional space below the new key, where further keys are expected
+      minKey = Math.max(maxKey - newLength + 1, Integer.MIN_VALUE);
+      newLength = maxKey - minKey + 1;
+    }
+    Waitlist[] newBuckets = new Waitlist[(int) newLength];
+    int shift = (int) (offset - minKey);
+    System.arraycopy(buckets, 0, newBuckets, shift, buckets.length);
+    buckets = newBuckets;
+    offset = (int) minKey;
+    if (highest >= 0) {
+      highest += shift;
+    }
+    return (int) ((long) pKey - offset);
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    int index = ensureIndex(getSortKey(pState));
+    Waitlist localWaitlist = buckets[index];
+    if (localWaitlist == null) {
+      localWaitlist = wrappedWaitlist.createWaitlistInstance();
+      buckets[index] = localWaitlist;
+    } else {
+      assert !localWaitlist.isEmpty();
+    }
+    localWaitlist.add(pState);
+    if (index > highest) {
+      highest = index;
+    }
+    size++;
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    int index = indexOf(getSortKey(pState));
+    if (index < 0 || buckets[index] == null) {
+      return false;
+    }
+    assert !buckets[index].isEmpty();
+    return buckets[index].contains(pState);
+  }
+
+  @Override
+  public void clear() {
+    buckets = new Waitlist[INITIAL_CAPACITY];
+    offset = 0;
+    highest = -1;
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    assert (highest < 0) == (size == 0);
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    // ascending order of keys, like the iterator of AbstractSortedWaitlist
+    return Iterables.concat(FluentIterable.from(Arrays.asList(buckets)).filter(Objects::nonNull))
+        .iterator();
+  }
+
+  @Override
+  public final AbstractState pop() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    popCount.inc();
+    Waitlist localWaitlist = buckets[highest];
+    assert !localWaitlist.isEmpty();
+    AbstractState result = localWaitlist.pop();
+    if (localWaitlist.isEmpty()) {
+      removeBucket(highest);
+      addStatistics(localWaitlist);
+    } else {
+      delegationCount.inc();
+    }
+    size--;
+    return result;
+  }
+
+  private void removeBucket(int pIndex) {
+    buckets[pIndex] = null;
+    if (pIndex == highest) {
+      do {
+        highest--;
+      } while (highest >= 0 && buckets[highest] == null);
+    }
+  }
+
+  private void addStatistics(Waitlist pWaitlist) {
+    Map<String, StatInt> delegCount;
+    if (pWaitlist instanceof AbstractBucketSortedWaitlist) {
+      delegCount = ((AbstractBucketSortedWaitlist) pWaitlist).getDelegationCounts();
+    } else if (pWaitlist instanceof AbstractSortedWaitlist) {
+      delegCount = ((AbstractSortedWaitlist<?>) pWaitlist).getDelegationCounts();
+    } else {
+      return;
+    }
+
+    for (Entry<String, StatInt> e : delegCount.entrySet()) {
+      String key = e.getKey();
+      if (!delegationCounts.containsKey(key)) {
+        delegationCounts.put(key, e.getValue());
+      } else {
+        delegationCounts.get(key).add(e.getValue());
+      }
+    }
+  }
+
+  /**
+   * Returns a map of delegation counts for this waitlist and all waitlists delegated to. The keys
+   * of the returned Map are the names of the waitlists, the values are the existing delegations.
+   */
+  public Map<String, StatInt> getDelegationCounts() {
+    String waitlistName = this.getClass().getSimpleName();
+    StatInt directDelegations = new StatInt(StatKind.AVG, waitlistName);
+    assert delegationCount.getValue() <= Integer.MAX_VALUE;
+    directDelegations.setNextValue((int) delegationCount.getValue());
+    delegationCounts.put(waitlistName, directDelegations);
+    return delegationCounts;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    int index = indexOf(getSortKey(pState));
+    if (index < 0 || buckets[index] == null) {
+      return false;
+    }
+    Waitlist localWaitlist = buckets[index];
+    assert !localWaitlist.isEmpty();
+    boolean result = localWaitlist.remove(pState);
+    if (result) {
+      if (localWaitlist.isEmpty()) {
+        removeBucket(index);
+      }
+      size--;
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < buckets.length; i++) {
+      if (buckets[i] != null) {
+        if (sb.length() > 1) {
+          sb.append(", ");
+        }
+        sb.append(i + offset).append('=').append(buckets[i]);
+      }
+    }
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class AbstractBucketSortedWaitlistTest {
+
+  private static class KeyState implements AbstractState {
+    private final int key;
+
+    private KeyState(int pKey) {
+      key = pKey;
+    }
+
+    @Override
+    public String toString() {
+      return "State with key " + key;
+    }
+  }
+
+  private static class BucketWaitlist extends AbstractBucketSortedWaitlist {
+    private BucketWaitlist() {
+      super(TraversalMethod.DFS);
+    }
+
+    @Override
+    protected int getSortKey(AbstractState pState) {
+      return ((KeyState) pState).key;
+    }
+  }
+
+  private static class TreeWaitlist extends AbstractSortedWaitlist<Integer> {
+    private TreeWaitlist() {
+      super(TraversalMethod.DFS);
+    }
+
+    @Override
+    protected Integer getSortKey(AbstractState pState) {
+      return ((KeyState) pState).key;
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testPopEmpty() {
+    Waitlist waitlist = new BucketWaitlist();
+    waitlist.add(new KeyState(1));
+    waitlist.pop();
+    waitlist.pop();
+  }
+
+  @Test
+  public void testOrder() {
+    Waitlist waitlist = new BucketWaitlist();
+    for (int key : new int[] {3, -5, 100, 3, 0}) {
+      waitlist.add(new KeyState(key));
+    }
+    assert_().that(waitlist.size()).isEqualTo(5);
+
+    List<Integer> keys = new ArrayList<>();
+    while (!waitlist.isEmpty()) {
+      keys.add(((KeyState) waitlist.pop()).key);
+    }
+    assert_().that(keys).containsExactly(100, 3, 3, 0, -5).inOrder();
+  }
+
+  @Test
+  public void testDescendingKeys() {
+    Waitlist waitlist = new BucketWaitlist();
+    for (int key = 0; key > -100000; key--) {
+      waitlist.add(new KeyState(key));
+    }
+    assert_().that(((KeyState) waitlist.pop()).key).isEqualTo(0);
+    assert_().that(waitlist.size()).isEqualTo(99999);
+  }
+
+  @Test
+  public void testRemove() {
+    Waitlist waitlist = new BucketWaitlist();
+    KeyState s1 = new KeyState(1);
+    KeyState s2 = new KeyState(2);
+    waitlist.add(s1);
+    waitlist.add(s2);
+    assert_().that(waitlist.remove(new KeyState(5))).isFalse();
+    assert_().that(waitlist.remove(s2)).isTrue();
+    assert_().that(waitlist.contains(s2)).isFalse();
+    assert_().that(waitlist.contains(s1)).isTrue();
+    assert_().that(waitlist.pop()).isSameAs(s1);
+    assert_().that(waitlist.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testSameBehaviorAsTreeMap() {
+    Random random = new Random(0);
+    Waitlist buckets = new BucketWaitlist();
+    Waitlist tree = new TreeWaitlist();
+    for (int i = 0; i < 10000; i++) {
+      if (random.nextInt(3) > 0 || tree.isEmpty()) {
+        KeyState state = new KeyState(random.nextInt(200) - 50);
+        buckets.add(state);
+        tree.add(state);
+      } else {
+        assert_().that(buckets.pop()).isSameAs(tree.pop());
+      }
+      assert_().that(buckets.size()).isEqualTo(tree.size());
+    }
+    assert_().that(ImmutableList.copyOf(buckets)).isEqualTo(ImmutableList.copyOf(tree));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import com.google.common.collect.Iterators;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetCoverage;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Waitlist for test-case generation that prefers states whose location can still reach an
+ * uncovered test target. States that cannot reach an uncovered target anymore are only explored
+ * after all promising states.
+ *
+ * <p>Because targets are covered while the states are waiting, the reachability of a state is
+ * checked again when it is popped and the state is demoted lazily if necessary. The coverage
+ * information is retrieved from the given supplier on every use, because the waitlist may be
+ * created before the test targets (e.g., by {@link
+ * org.sosy_lab.cpachecker.cpa.testtargets.TestTargetProvider}), and the targets may change between
+ * analyses. Without test targets, all states are considered promising.
+ *
+ * <p>The iterators created by this class are unmodifiable.
+ */
+public class CoverageGuidedWaitlist implements Waitlist {
+
+  private final Waitlist promising;
+  private final Waitlist exhausted;
+
+  // returns null if there are no test targets
+  private final Supplier<TestTargetCoverage> coverageSupplier;
+
+  protected CoverageGuidedWaitlist(
+      WaitlistFactory pSecondaryStrategy, Supplier<TestTargetCoverage> pCoverage) {
+    promising = pSecondaryStrategy.createWaitlistInstance();
+    exhausted = pSecondaryStrategy.createWaitlistInstance();
+    coverageSupplier = pCoverage;
+  }
+
+  private boolean canReachUncoveredTarget(AbstractState pState) {
+    TestTargetCoverage coverage = coverageSupplier.get();
+    if (coverage == null) {
+      return true;
+    }
+    CFANode location = AbstractStates.extractLocation(pState);
+    return location == null || coverage.canReachUncoveredTarget(location);
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    if (canReachUncoveredTarget(pState)) {
+      promising.add(pState);
+    } else {
+      exhausted.add(pState);
+    }
+  }
+
+  @Override
+  public void clear() {
+    promising.clear();
+    exhausted.clear();
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return promising.contains(pState) || exhausted.contains(pState);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return promising.isEmpty() && exhausted.isEmpty();
+  }
+
+  @Override
+  public AbstractState pop() {
+    while (!promising.isEmpty()) {
+      AbstractState state = promising.pop();
+      if (canReachUncoveredTarget(state)) {
+        return state;
+      }
+      exhausted.add(state);
+    }
+    return exhausted.pop();
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    return promising.remove(pState) || exhausted.remove(pState);
+  }
+
+  @Override
+  public int size() {
+    return promising.size() + exhausted.size();
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    // promising states first, as they are popped first
+    return Iterators.unmodifiableIterator(
+        Iterators.concat(promising.iterator(), exhausted.iterator()));
+  }
+
+  @Override
+  public String toString() {
+    return "promising: " + promising + ", exhausted: " + exhausted;
+  }
+
+  public static WaitlistFactory factory(
+      final WaitlistFactory pSecondaryStrategy,
+      final Supplier<TestTargetCoverage> pCoverage) {
+    return () -> new CoverageGuidedWaitlist(pSecondaryStrategy, pCoverage);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.cpa.location.LocationStateFactory;
+import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetCoverage;
+import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetProvider;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CoverageGuidedWaitlistTest {
+
+  private TestTargetCoverage coverage;
+
+  // a state that can reach the uncovered targets of the loop, and one after the loop
+  private AbstractState promisingState;
+  private AbstractState exhaustedState;
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    CFA cfa =
+        TestDataTools.makeCFA(
+            config,
+            "extern int __VERIFIER_nondet_int(void);",
+            "int main() {",
+            "  int x = __VERIFIER_nondet_int();",
+            "  while (x < 10) { x++; }",
+            "  return 0;",
+            "}");
+    coverage = TestTargetProvider.getCoverage(cfa);
+    CFANode loopHead = coverage.getUncoveredTargets().iterator().next().getPredecessor();
+
+    LocationStateFactory states = new LocationStateFactory(cfa, AnalysisDirection.FORWARD, config);
+    promisingState = states.getState(loopHead);
+    exhaustedState = states.getState(cfa.getMainFunction().getExitNode());
+  }
+
+  private void coverAllTargets() {
+    for (CFAEdge target : ImmutableList.copyOf(coverage.getUncoveredTargets())) {
+      coverage.markCovered(target);
+    }
+  }
+
+  @Test
+  public void testPromisingStatesFirst() {
+    Waitlist waitlist =
+        CoverageGuidedWaitlist.factory(TraversalMethod.BFS, () -> coverage)
+            .createWaitlistInstance();
+    waitlist.add(exhaustedState);
+    waitlist.add(promisingState);
+
+    assert_().that(waitlist.size()).isEqualTo(2);
+    assert_().that(waitlist.contains(exhaustedState)).isTrue();
+    assert_().that(ImmutableList.copyOf(waitlist))
+        .containsExactly(promisingState, exhaustedState)
+        .inOrder();
+    assert_().that(waitlist.pop()).isSameAs(promisingState);
+    assert_().that(waitlist.pop()).isSameAs(exhaustedState);
+    assert_().that(waitlist.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testDemoteWhenPopped() {
+    Waitlist waitlist =
+        CoverageGuidedWaitlist.factory(TraversalMethod.BFS, () -> coverage)
+            .createWaitlistInstance();
+    waitlist.add(promisingState);
+    waitlist.add(exhaustedState);
+
+    // the loop is exhausted while its state is waiting
+    coverAllTargets();
+    assert_().that(waitlist.pop()).isSameAs(exhaustedState);
+    assert_().that(waitlist.pop()).isSameAs(promisingState);
+    assert_().that(waitlist.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testWithoutTestTargets() {
+    Waitlist waitlist =
+        CoverageGuidedWaitlist.factory(TraversalMethod.BFS, () -> null).createWaitlistInstance();
+    waitlist.add(exhaustedState);
+    waitlist.add(promisingState);
+
+    assert_().that(waitlist.pop()).isSameAs(exhaustedState);
+    assert_().that(waitlist.pop()).isSameAs(promisingState);
+  }
+
+  @Test
+  public void testCoverageIsLookedUpOnEveryUse() {
+    AtomicReference<TestTargetCoverage> currentCoverage = new AtomicReference<>();
+    Waitlist waitlist =
+        CoverageGuidedWaitlist.factory(TraversalMethod.BFS, currentCoverage::get)
+            .createWaitlistInstance();
+    waitlist.add(exhaustedState);
+
+    // the targets are created after the waitlist
+    currentCoverage.set(coverage);
+    waitlist.add(promisingState);
+    assert_().that(waitlist.pop()).isSameAs(promisingState);
+    assert_().that(waitlist.pop()).isSameAs(exhaustedState);
+  }
+}
@@ -51,6 +51,7 @@ import javax.annotation.Nullable;
 import org.sosy_lab.common.Appender;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -89,6 +90,16 @@ public class ARGStatistics implements Statistics {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path argFile = Paths.get("ARG.dot");
 
+  @Option(
+    secure = true,
+    name = "export.maxDepth",
+    description =
+        "export only the states up to this distance from the root into the .dot files "
+            + "of the final ARG (-1 for the complete ARG)"
+  )
+  @IntegerOption(min = -1)
+  private int maxExportDepth = ARGToDotWriter.UNLIMITED_DEPTH;
+
   @Option(
     secure = true,
     name = "pixelGraphicFile",
@@ -240,8 +251,7 @@ public class ARGStatistics implements Statistics {
 
     if (translateARG) {
       try (Writer writer = IO.openOutputFile(argCFile, Charset.defaultCharset())) {
-        writer.write(
-            argToCExporter.translateARG((ARGState) pReached.getFirstState()));
+        argToCExporter.translateARG((ARGState) pReached.getFirstState(), null, writer);
       } catch (IOException | CPAException e) {
         logger.logUserException(Level.WARNING, e, "Could not write C translation of ARG to file");
       }
@@ -322,7 +332,12 @@ public class ARGStatistics implements Statistics {
           IO.openOutputFile(
               adjustPathNameForPartitioning(rootState, argFile), Charset.defaultCharset())) {
         ARGToDotWriter.write(
-            w, rootState, ARGState::getChildren, Predicates.alwaysTrue(), isTargetPathEdge);
+            w,
+            rootState,
+            ARGState::getChildren,
+            Predicates.alwaysTrue(),
+            isTargetPathEdge,
+            maxExportDepth);
       } catch (IOException e) {
         logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
       }
@@ -345,7 +360,8 @@ public class ARGStatistics implements Statistics {
         ARGToDotWriter.write(w, rootState,
             relevantSuccessorFunction,
             Predicates.alwaysTrue(),
-            Predicates.alwaysFalse());
+            Predicates.alwaysFalse(),
+            maxExportDepth);
       } catch (IOException e) {
         logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
       }
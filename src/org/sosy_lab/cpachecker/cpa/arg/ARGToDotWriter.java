@@ -28,7 +28,7 @@ import com.google.common.collect.Multimap;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +43,9 @@ import org.sosy_lab.cpachecker.util.Pair;
 
 public class ARGToDotWriter {
 
+  /** Depth limit for exporting the complete ARG. */
+  public static final int UNLIMITED_DEPTH = -1;
+
   private final Appendable sb;
 
   ARGToDotWriter(Appendable pSb) throws IOException {
@@ -67,12 +70,34 @@ public class ARGToDotWriter {
       final Predicate<? super ARGState> displayedElements,
       final Predicate<? super Pair<ARGState, ARGState>> highlightEdge)
       throws IOException {
+    write(sb, rootState, successorFunction, displayedElements, highlightEdge, UNLIMITED_DEPTH);
+  }
+
+  /**
+   * Create String with ARG in the DOT format of Graphviz, containing only the states up to the
+   * given distance from the root.
+   * @param sb Where to write the ARG into.
+   * @param rootState the root element of the ARG
+   * @param successorFunction A function giving all successors of an ARGState. Only states reachable from root by iteratively applying this function will be dumped.
+   * @param displayedElements A predicate for selecting states that should be displayed. States which are only reachable via non-displayed states are ignored, too.
+   * @param highlightEdge Which edges to highlight in the graph?
+   * @param maxDepth The maximal distance of a dumped state from the root,
+   *     or {@link #UNLIMITED_DEPTH}.
+   */
+  public static void write(Appendable sb,
+      final ARGState rootState,
+      final Function<? super ARGState, ? extends Iterable<ARGState>> successorFunction,
+      final Predicate<? super ARGState> displayedElements,
+      final Predicate<? super Pair<ARGState, ARGState>> highlightEdge,
+      final int maxDepth)
+      throws IOException {
 
     ARGToDotWriter toDotWriter = new ARGToDotWriter(sb);
     toDotWriter.writeSubgraph(rootState,
         successorFunction,
         displayedElements,
-        highlightEdge);
+        highlightEdge,
+        maxDepth);
     toDotWriter.finish();
   }
 
@@ -104,7 +129,7 @@ public class ARGToDotWriter {
     }
 
     for (Map.Entry<ARGState,ARGState> connection : connections.entries()) {
-      sb.append(connection.getKey().getStateId() + " -> " + connection.getValue().getStateId());
+      toDotWriter.appendEdge(connection.getKey(), connection.getValue());
       sb.append(" [color=green style=bold]\n");
     }
 
@@ -123,101 +148,127 @@ public class ARGToDotWriter {
       final Function<? super ARGState, ? extends Iterable<ARGState>> successorFunction,
       final Predicate<? super ARGState> displayedElements,
       final Predicate<? super Pair<ARGState, ARGState>> highlightEdge) throws IOException {
+    writeSubgraph(rootState, successorFunction, displayedElements, highlightEdge, UNLIMITED_DEPTH);
+  }
 
-    Deque<ARGState> worklist = new ArrayDeque<>();
-    Set<ARGState> processed = new HashSet<>();
-    StringBuilder edges = new StringBuilder();
-
-    worklist.add(rootState);
+  /**
+   * Writes the states and edges in breadth-first order directly into the output, such that no
+   * intermediate representation of the graph is kept in memory. DOT allows edges to refer to nodes
+   * that are declared later, thus each edge is written together with its source state. The
+   * outgoing edges of states at the maximal depth are omitted. Coverage edges are written at the
+   * end, and only between states that were written.
+   */
+  private void writeSubgraph(final ARGState rootState,
+      final Function<? super ARGState, ? extends Iterable<ARGState>> successorFunction,
+      final Predicate<? super ARGState> displayedElements,
+      final Predicate<? super Pair<ARGState, ARGState>> highlightEdge,
+      final int maxDepth) throws IOException {
+
+    Deque<ARGState> currentLevel = new ArrayDeque<>();
+    Deque<ARGState> nextLevel = new ArrayDeque<>();
+    // insertion order for a deterministic order of the coverage edges
+    Set<ARGState> processed = new LinkedHashSet<>();
+    int depth = 0;
+
+    if (displayedElements.apply(rootState)) {
+      processed.add(rootState);
+      currentLevel.add(rootState);
+    }
 
-    while (!worklist.isEmpty()) {
-      ARGState currentElement = worklist.removeLast();
-      if (!displayedElements.apply(currentElement)) {
-        continue;
-      }
-      if (!processed.add(currentElement)) {
-        continue;
-      }
+    while (!currentLevel.isEmpty()) {
+      boolean expand = maxDepth == UNLIMITED_DEPTH || depth < maxDepth;
 
-      sb.append(determineNode(currentElement));
-      sb.append(determineStateHint(currentElement));
+      while (!currentLevel.isEmpty()) {
+        ARGState currentElement = currentLevel.poll();
+        writeNode(currentElement);
 
-      for (ARGState covered : currentElement.getCoveredByThis()) {
-        if (displayedElements.apply(covered)) {
-          edges.append(covered.getStateId());
-          edges.append(" -> ");
-          edges.append(currentElement.getStateId());
-          edges.append(" [style=\"dashed\" weight=\"0\" label=\"covered by\"]\n");
+        if (expand) {
+          for (ARGState child : successorFunction.apply(currentElement)) {
+            writeEdge(highlightEdge, currentElement, child);
+            if (displayedElements.apply(child) && processed.add(child)) {
+              nextLevel.add(child);
+            }
+          }
         }
       }
 
-      for (ARGState child : successorFunction.apply(currentElement)) {
-        edges.append(determineEdge(highlightEdge, currentElement, child));
-        worklist.add(child);
+      Deque<ARGState> tmp = currentLevel;
+      currentLevel = nextLevel;
+      nextLevel = tmp;
+      depth++;
+    }
+
+    // all queued states were written, but states beyond the maximal depth were not
+    for (ARGState covered : processed) {
+      if (covered.isCovered() && processed.contains(covered.getCoveringState())) {
+        appendEdge(covered, covered.getCoveringState());
+        sb.append(" [style=\"dashed\" weight=\"0\" label=\"covered by\"]\n");
       }
     }
-    sb.append(edges);
   }
 
-  private static String determineEdge(final Predicate<? super Pair<ARGState, ARGState>> highlightEdge,
-                                      final ARGState state, final ARGState successorState) {
-    final StringBuilder builder = new StringBuilder();
-    builder.append(state.getStateId()).append(" -> ").append(successorState.getStateId());
-    builder.append(" [");
+  private void writeEdge(
+      final Predicate<? super Pair<ARGState, ARGState>> highlightEdge,
+      final ARGState state,
+      final ARGState successorState)
+      throws IOException {
+    appendEdge(state, successorState);
+    sb.append(" [");
 
     if (state.getChildren().contains(successorState)) {
       List<CFAEdge> edges = state.getEdgesToChild(successorState);
 
       // there is no direct edge between the nodes, use a dummy-edge
       if (edges.isEmpty()) {
-        builder.append("style=\"bold\" color=\"blue\" label=\"dummy edge\"");
+        sb.append("style=\"bold\" color=\"blue\" label=\"dummy edge\"");
 
         // edge exists, use info from edge
       } else {
         boolean colored = highlightEdge.apply(Pair.of(state, successorState));
         if (colored) {
-          builder.append("color=\"red\" ");
+          sb.append("color=\"red\" ");
         }
 
-        builder.append("label=\"");
+        sb.append("label=\"");
         if (edges.size() > 1) {
-
-          builder
-              .append("Lines ")
-              .append(edges.get(0).getLineNumber())
+          sb.append("Lines ")
+              .append(Integer.toString(edges.get(0).getLineNumber()))
               .append(" - ")
-              .append(edges.get(edges.size() - 1).getLineNumber());
+              .append(Integer.toString(edges.get(edges.size() - 1).getLineNumber()));
         } else {
-          builder.append("Line ").append(edges.get(0).getLineNumber());
+          sb.append("Line ").append(Integer.toString(edges.get(0).getLineNumber()));
         }
-        builder.append(": \\l");
+        sb.append(": \\l");
 
         for (CFAEdge edge : edges) {
-          builder.append(edge.getDescription().replaceAll("\n", " ").replace('"', '\''));
-          builder.append("\\l");
+          sb.append(edge.getDescription().replaceAll("\n", " ").replace('"', '\''));
+          sb.append("\\l");
         }
 
-        builder.append("\"");
+        sb.append("\"");
       }
 
-      builder.append(" id=\"");
-      builder.append(state.getStateId());
-      builder.append(" -> ");
-      builder.append(successorState.getStateId());
-      builder.append("\"");
+      sb.append(" id=\"");
+      sb.append(Integer.toString(state.getStateId()));
+      sb.append(" -> ");
+      sb.append(Integer.toString(successorState.getStateId()));
+      sb.append("\"");
     }
 
-    builder.append("]\n");
-    return builder.toString();
+    sb.append("]\n");
   }
 
   void writeEdge(ARGState start, ARGState end) throws IOException {
-    sb.append("" + start.getStateId());
-    sb.append(" -> ");
-    sb.append("" + end.getStateId());
+    appendEdge(start, end);
     sb.append("\n");
   }
 
+  private void appendEdge(ARGState start, ARGState end) throws IOException {
+    sb.append(Integer.toString(start.getStateId()));
+    sb.append(" -> ");
+    sb.append(Integer.toString(end.getStateId()));
+  }
+
   void enterSubgraph(String name, String label) throws IOException {
     sb.append("subgraph ");
     sb.append(name);
@@ -284,17 +335,17 @@ public class ARGToDotWriter {
     return builder.toString();
   }
 
-  private static String determineNode(final ARGState currentElement) {
-    final StringBuilder builder = new StringBuilder();
-    builder.append(currentElement.getStateId());
-    builder.append(" [");
+  private void writeNode(final ARGState currentElement) throws IOException {
+    final String stateId = Integer.toString(currentElement.getStateId());
+    sb.append(stateId);
+    sb.append(" [");
     final String color = determineColor(currentElement);
     if (color != null) {
-      builder.append("fillcolor=\"").append(color).append("\" ");
+      sb.append("fillcolor=\"").append(color).append("\" ");
     }
-    builder.append("label=\"").append(determineLabel(currentElement)).append("\" ");
-    builder.append("id=\"").append(currentElement.getStateId()).append("\"]\n");
-    return builder.toString();
+    sb.append("label=\"").append(determineLabel(currentElement)).append("\" ");
+    sb.append("id=\"").append(stateId).append("\"]\n");
+    sb.append(determineStateHint(currentElement));
   }
 
   private static String determineLabel(ARGState currentElement) {
@@ -49,6 +49,8 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer.Event;
 import org.sosy_lab.cpachecker.util.statistics.StatHist;
 
 @Options(prefix = "cpa.bam")
@@ -126,6 +128,7 @@ public class BAMCacheImpl implements BAMCache {
       final Precision precisionKey,
       final Block context) {
 
+    long traceStart = EventTracer.start();
     final Pair<ReachedSet, Collection<AbstractState>> pair = get0(stateKey, precisionKey, context);
     Preconditions.checkNotNull(pair);
 
@@ -144,10 +147,13 @@ public class BAMCacheImpl implements BAMCache {
               + " and last state "
               + reached.getLastState();
       fullCacheHits++;
+      EventTracer.record(Event.BAM_CACHE_HIT, traceStart);
     } else if (reached != null) { // we have cached a partly computed reached-set
       partialCacheHits++;
+      EventTracer.record(Event.BAM_CACHE_PARTIAL_HIT, traceStart);
     } else if (returnStates == null) {
       cacheMisses++;
+      EventTracer.record(Event.BAM_CACHE_MISS, traceStart);
       if (gatherCacheMissStatistics) {
         findCacheMissCause(stateKey, precisionKey, context);
       }
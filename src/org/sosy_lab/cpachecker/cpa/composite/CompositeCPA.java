@@ -24,12 +24,14 @@
 package org.sosy_lab.cpachecker.cpa.composite;
 
 import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.common.collect.Collections3.transformedImmutableListCopy;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -56,6 +58,8 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeStopOperator.CoverageCheckStatistics;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeTransferRelation.CompositeTransferStatistics;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractionManager;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -89,6 +93,32 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
               + " be a list."
     )
     private boolean aggregateBasicBlocks = false;
+
+    @Option(
+      secure = true,
+      description =
+          "Reject candidates for coverage in the stop operator without checking all components"
+              + " if the coverage bounds of the component states already show that the state is"
+              + " not covered (cf. AbstractStateWithCoverageBound)."
+    )
+    private boolean useCoverageBounds = false;
+
+    @Option(
+      secure = true,
+      description =
+          "Reorder the components in the stop operator based on their measured time and number"
+              + " of rejected candidates, such that cheap and selective components are checked"
+              + " first. Only enable this if the stop operators of the components do not have"
+              + " side effects."
+    )
+    private boolean adaptiveStopOrder = false;
+
+    @Option(
+      secure = true,
+      description =
+          "Measure the time spent in the transfer relation and strengthening of each component."
+    )
+    private boolean transferStatistics = false;
   }
 
   private static class CompositeCPAFactory extends AbstractCPAFactory {
@@ -149,6 +179,10 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
   private final CFA cfa;
   private final CompositeOptions options;
 
+  // shared by all transfer relations and stop operators of this CPA
+  private final @Nullable CompositeTransferStatistics transferStatistics;
+  private final CoverageCheckStatistics coverageCheckStatistics;
+
   private CompositeCPA(
       CFA pCfa,
       ImmutableList<ConfigurableProgramAnalysis> cpas,
@@ -156,6 +190,14 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     this.cfa = pCfa;
     this.cpas = cpas;
     this.options = pOptions;
+    ImmutableList<String> componentNames =
+        transformedImmutableListCopy(cpas, cpa -> cpa.getClass().getSimpleName());
+    if (options.transferStatistics) {
+      transferStatistics = new CompositeTransferStatistics(componentNames);
+    } else {
+      transferStatistics = null;
+    }
+    coverageCheckStatistics = new CoverageCheckStatistics(componentNames);
   }
 
   @Override
@@ -174,7 +216,10 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
       transferRelations.add(cpa.getTransferRelation());
     }
     return new CompositeTransferRelation(
-        transferRelations.build(), cfa, options.aggregateBasicBlocks);
+        transferRelations.build(),
+        cfa,
+        options.aggregateBasicBlocks,
+        transferStatistics);
   }
 
   @Override
@@ -222,7 +267,11 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     for (ConfigurableProgramAnalysis cpa : cpas) {
       stopOps.add(cpa.getStopOperator());
     }
-    return new CompositeStopOperator(stopOps.build());
+    return new CompositeStopOperator(
+        stopOps.build(),
+        options.useCoverageBounds,
+        options.adaptiveStopOrder,
+        coverageCheckStatistics);
   }
 
   @Override
@@ -289,6 +338,12 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
         ((StatisticsProvider)cpa).collectStatistics(pStatsCollection);
       }
     }
+    if (transferStatistics != null) {
+      pStatsCollection.add(transferStatistics);
+    }
+    if (options.useCoverageBounds || options.adaptiveStopOrder) {
+      pStatsCollection.add(coverageCheckStatistics);
+    }
   }
 
   @Override
@@ -24,25 +24,180 @@
 package org.sosy_lab.cpachecker.cpa.composite;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.sosy_lab.common.collect.Collections3.transformedImmutableListCopy;
 
 import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithCoverageBound;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
 
+  /**
+   * Measurements of the coverage checks, which are shared by all stop operators of a CompositeCPA.
+   * They also determine the order in which the components are checked.
+   */
+  static class CoverageCheckStatistics implements Statistics {
+
+    // number of coverage checks after which the order of the components is re-evaluated
+    private static final int REORDERING_INTERVAL = 1000;
+
+    private final ImmutableList<String> componentNames;
+
+    // the order in which the components are checked, a permutation of the component indices
+    private volatile int[] componentOrder;
+
+    // measurements per component, only updated if the adaptive order is used
+    private final AtomicLongArray componentChecks;
+    private final AtomicLongArray componentRejections;
+    private final AtomicLongArray componentNanos;
+    private final AtomicLong checksSinceReordering = new AtomicLong();
+
+    private final StatCounter coverageChecks = new StatCounter("Number of coverage checks");
+    private final StatCounter rejectedByBound =
+        new StatCounter("Number of candidates rejected by coverage bound");
+
+    CoverageCheckStatistics(ImmutableList<String> pComponentNames) {
+      componentNames = pComponentNames;
+      int size = pComponentNames.size();
+      componentOrder = new int[size];
+      for (int idx = 0; idx < size; idx++) {
+        componentOrder[idx] = idx;
+      }
+      componentChecks = new AtomicLongArray(size);
+      componentRejections = new AtomicLongArray(size);
+      componentNanos = new AtomicLongArray(size);
+    }
+
+    private int[] getComponentOrder() {
+      if (checksSinceReordering.incrementAndGet() % REORDERING_INTERVAL == 0) {
+        updateComponentOrder();
+      }
+      return componentOrder;
+    }
+
+    private void addMeasurement(int pIndex, long pNanos, boolean pRejected) {
+      componentNanos.addAndGet(pIndex, pNanos);
+      componentChecks.incrementAndGet(pIndex);
+      if (pRejected) {
+        componentRejections.incrementAndGet(pIndex);
+      }
+    }
+
+    /**
+     * Sort the components by their average time per rejected candidate, such that a component
+     * that is cheap and rejects many candidates is checked first. Components without measurements
+     * are checked first in order to get measurements for them.
+     */
+    private void updateComponentOrder() {
+      int size = componentNames.size();
+      double[] costPerRejection = new double[size];
+      Integer[] order = new Integer[size];
+      for (int idx = 0; idx < size; idx++) {
+        order[idx] = idx;
+        long rejections = componentRejections.get(idx);
+        if (componentChecks.get(idx) == 0) {
+          costPerRejection[idx] = 0;
+        } else if (rejections == 0) {
+          costPerRejection[idx] = Double.POSITIVE_INFINITY;
+        } else {
+          costPerRejection[idx] = (double) componentNanos.get(idx) / rejections;
+        }
+      }
+      Arrays.sort(
+          order,
+          Comparator.<Integer>comparingDouble(idx -> costPerRejection[idx])
+              .thenComparingInt(idx -> idx));
+
+      int[] newOrder = new int[size];
+      for (int idx = 0; idx < size; idx++) {
+        newOrder[idx] = order[idx];
+      }
+      componentOrder = newOrder;
+    }
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+      writer.putIfUpdatedAtLeastOnce(coverageChecks).putIfUpdatedAtLeastOnce(rejectedByBound);
+      for (int idx : componentOrder) {
+        if (componentChecks.get(idx) > 0) {
+          writer.put(
+              "Component " + idx + " (" + componentNames.get(idx) + ")",
+              String.format(
+                  "%d checks, %d rejections, %s",
+                  componentChecks.get(idx),
+                  componentRejections.get(idx),
+                  TimeSpan.ofNanos(componentNanos.get(idx)).formatAs(TimeUnit.SECONDS)));
+        }
+      }
+    }
+
+    @Override
+    public @Nullable String getName() {
+      return "CompositeStopOperator";
+    }
+  }
+
   private final ImmutableList<StopOperator> stopOperators;
 
-  CompositeStopOperator(ImmutableList<StopOperator> stopOperators) {
-    this.stopOperators = stopOperators;
+  private final boolean useCoverageBounds;
+  private final boolean adaptiveOrder;
+  private final CoverageCheckStatistics statistics;
+
+  // components whose stop operator is a plain stop-sep operator, only these are pre-filtered
+  private final boolean[] boundedComponents;
+
+  CompositeStopOperator(
+      ImmutableList<StopOperator> pStopOperators,
+      boolean pUseCoverageBounds,
+      boolean pAdaptiveOrder) {
+    this(
+        pStopOperators,
+        pUseCoverageBounds,
+        pAdaptiveOrder,
+        new CoverageCheckStatistics(
+            transformedImmutableListCopy(pStopOperators, op -> op.getClass().getSimpleName())));
+  }
+
+  CompositeStopOperator(
+      ImmutableList<StopOperator> pStopOperators,
+      boolean pUseCoverageBounds,
+      boolean pAdaptiveOrder,
+      CoverageCheckStatistics pStatistics) {
+    stopOperators = pStopOperators;
+    useCoverageBounds = pUseCoverageBounds;
+    adaptiveOrder = pAdaptiveOrder;
+    statistics = pStatistics;
+    checkArgument(statistics.componentNames.size() == stopOperators.size());
+
+    boundedComponents = new boolean[stopOperators.size()];
+    for (int idx = 0; idx < stopOperators.size(); idx++) {
+      // subclasses of StopSepOperator might not rely on the partial order alone
+      boundedComponents[idx] = stopOperators.get(idx).getClass() == StopSepOperator.class;
+    }
   }
 
   @Override
@@ -65,6 +220,18 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
 
     List<Precision> compositePrecisions = compositePrecision.getWrappedPrecisions();
 
+    if (useCoverageBounds) {
+      statistics.coverageChecks.inc();
+      if (!mayBeCovered(compositeElements, compositeReachedStates)) {
+        statistics.rejectedByBound.inc();
+        return false;
+      }
+    }
+
+    if (adaptiveOrder) {
+      return stopWithMeasurements(compositeElements, compositeReachedStates, compositePrecisions);
+    }
+
     for (int idx = 0; idx < compositeElements.size(); idx++) {
       StopOperator stopOp = stopOperators.get(idx);
 
@@ -79,6 +246,51 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
     return true;
   }
 
+  /**
+   * Check the coverage bounds of all components that support them. If this returns false, the
+   * state is not covered by the reached state.
+   */
+  private boolean mayBeCovered(
+      List<AbstractState> pComponentStates, List<AbstractState> pComponentReachedStates) {
+    for (int idx = 0; idx < pComponentStates.size(); idx++) {
+      if (!boundedComponents[idx]) {
+        continue;
+      }
+      AbstractState absElem1 = pComponentStates.get(idx);
+      AbstractState absElem2 = pComponentReachedStates.get(idx);
+      if (absElem1 instanceof AbstractStateWithCoverageBound
+          && absElem2 instanceof AbstractStateWithCoverageBound
+          && ((AbstractStateWithCoverageBound) absElem1).getCoverageBound()
+              < ((AbstractStateWithCoverageBound) absElem2).getCoverageBound()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean stopWithMeasurements(
+      List<AbstractState> pComponentStates,
+      List<AbstractState> pComponentReachedStates,
+      List<Precision> pComponentPrecisions)
+      throws CPAException, InterruptedException {
+    for (int idx : statistics.getComponentOrder()) {
+      StopOperator stopOp = stopOperators.get(idx);
+
+      long start = System.nanoTime();
+      boolean stop =
+          stopOp.stop(
+              pComponentStates.get(idx),
+              Collections.singleton(pComponentReachedStates.get(idx)),
+              pComponentPrecisions.get(idx));
+      statistics.addMeasurement(idx, System.nanoTime() - start, !stop);
+
+      if (!stop) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   boolean isCoveredBy(AbstractState pElement, AbstractState pOtherElement, List<ConfigurableProgramAnalysis> cpas) throws CPAException, InterruptedException {
     CompositeState compositeState = (CompositeState)pElement;
     CompositeState compositeOtherElement = (CompositeState)pOtherElement;
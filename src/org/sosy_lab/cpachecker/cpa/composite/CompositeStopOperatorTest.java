@@ -0,0 +1,141 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithCoverageBound;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+public class CompositeStopOperatorTest {
+
+  private static class BoundedState implements AbstractStateWithCoverageBound {
+    private final long bound;
+
+    BoundedState(long pBound) {
+      bound = pBound;
+    }
+
+    @Override
+    public long getCoverageBound() {
+      return bound;
+    }
+  }
+
+  private static class CountingDomain implements AbstractDomain {
+    private int lessOrEqualChecks = 0;
+
+    @Override
+    public AbstractState join(AbstractState pState1, AbstractState pState2) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isLessOrEqual(AbstractState pState1, AbstractState pState2) {
+      lessOrEqualChecks++;
+      return ((BoundedState) pState1).bound >= ((BoundedState) pState2).bound;
+    }
+  }
+
+  private static final CompositePrecision PRECISION =
+      new CompositePrecision(
+          ImmutableList.of(SingletonPrecision.getInstance(), SingletonPrecision.getInstance()));
+
+  private static CompositeState state(long pBound1, long pBound2) {
+    return new CompositeState(
+        ImmutableList.of(new BoundedState(pBound1), new BoundedState(pBound2)));
+  }
+
+  private static boolean stop(StopOperator pStop, AbstractState pState, AbstractState pReached)
+      throws CPAException, InterruptedException {
+    return pStop.stop(pState, Collections.singleton(pReached), PRECISION);
+  }
+
+  @Test
+  public void testCoverageBoundsGiveSameResult() throws CPAException, InterruptedException {
+    CountingDomain domain = new CountingDomain();
+    ImmutableList<StopOperator> stopOps =
+        ImmutableList.of(new StopSepOperator(domain), new StopSepOperator(domain));
+    CompositeStopOperator plain = new CompositeStopOperator(stopOps, false, false);
+    CompositeStopOperator bounded = new CompositeStopOperator(stopOps, true, false);
+
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        CompositeState state = state(i, j);
+        CompositeState reached = state(j, i);
+        assert_().that(stop(bounded, state, reached)).isEqualTo(stop(plain, state, reached));
+      }
+    }
+  }
+
+  @Test
+  public void testCoverageBoundsAvoidCheck() throws CPAException, InterruptedException {
+    CountingDomain domain = new CountingDomain();
+    ImmutableList<StopOperator> stopOps =
+        ImmutableList.of(new StopSepOperator(domain), new StopSepOperator(domain));
+    CompositeStopOperator bounded = new CompositeStopOperator(stopOps, true, false);
+
+    assert_().that(stop(bounded, state(2, 1), state(2, 2))).isFalse();
+    assert_().that(domain.lessOrEqualChecks).isEqualTo(0);
+
+    assert_().that(stop(bounded, state(2, 2), state(1, 2))).isTrue();
+    assert_().that(domain.lessOrEqualChecks).isEqualTo(2);
+  }
+
+  @Test
+  public void testAdaptiveOrderChecksSelectiveComponentFirst()
+      throws CPAException, InterruptedException {
+    AtomicInteger acceptingChecks = new AtomicInteger();
+    AtomicInteger rejectingChecks = new AtomicInteger();
+    StopOperator accepting =
+        (pState, pReached, pPrec) -> {
+          acceptingChecks.incrementAndGet();
+          return true;
+        };
+    StopOperator rejecting =
+        (pState, pReached, pPrec) -> {
+          rejectingChecks.incrementAndGet();
+          return false;
+        };
+    CompositeStopOperator adaptive =
+        new CompositeStopOperator(ImmutableList.of(accepting, rejecting), false, true);
+
+    int checks = 5000;
+    for (int i = 0; i < checks; i++) {
+      assert_().that(stop(adaptive, state(0, 0), state(0, 0))).isFalse();
+    }
+    assert_().that(rejectingChecks.get()).isEqualTo(checks);
+    // after the first reordering, the accepting component is not checked anymore
+    assert_().that(acceptingChecks.get()).isLessThan(checks / 4);
+  }
+}
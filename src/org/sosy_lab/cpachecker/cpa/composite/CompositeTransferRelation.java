@@ -33,12 +33,17 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractStateByType;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
 import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
@@ -46,19 +51,62 @@ import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocations;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.assumptions.storage.AssumptionStorageTransferRelation;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 final class CompositeTransferRelation implements TransferRelation {
 
+  /** Time spent in the transfer relation and strengthening of each component. */
+  static class CompositeTransferStatistics implements Statistics {
+
+    private final ImmutableList<String> componentNames;
+    private final LongAdder[] transferNanos;
+    private final LongAdder[] strengthenNanos;
+
+    CompositeTransferStatistics(ImmutableList<String> pComponentNames) {
+      componentNames = pComponentNames;
+      transferNanos = new LongAdder[pComponentNames.size()];
+      strengthenNanos = new LongAdder[pComponentNames.size()];
+      for (int i = 0; i < pComponentNames.size(); i++) {
+        transferNanos[i] = new LongAdder();
+        strengthenNanos[i] = new LongAdder();
+      }
+    }
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+      for (int i = 0; i < componentNames.size(); i++) {
+        writer
+            .put("Component " + i, componentNames.get(i))
+            .beginLevel()
+            .put("Time for transfer relation", format(transferNanos[i]))
+            .put("Time for strengthen", format(strengthenNanos[i]));
+      }
+    }
+
+    private static String format(LongAdder pNanos) {
+      return TimeSpan.ofNanos(pNanos.sum()).formatAs(TimeUnit.SECONDS);
+    }
+
+    @Override
+    public @Nullable String getName() {
+      return "CompositeTransferRelation";
+    }
+  }
+
   private final ImmutableList<TransferRelation> transferRelations;
   private final CFA cfa;
   private final int size;
@@ -66,12 +114,18 @@ final class CompositeTransferRelation implements TransferRelation {
   private final int predicatesIndex;
   private final boolean aggregateBasicBlocks;
 
+  private final @Nullable CompositeTransferStatistics statistics;
+
   CompositeTransferRelation(
-      ImmutableList<TransferRelation> pTransferRelations, CFA pCFA, boolean pAggregateBasicBlocks) {
+      ImmutableList<TransferRelation> pTransferRelations,
+      CFA pCFA,
+      boolean pAggregateBasicBlocks,
+      @Nullable CompositeTransferStatistics pStatistics) {
     transferRelations = pTransferRelations;
     cfa = pCFA;
     size = pTransferRelations.size();
     aggregateBasicBlocks = pAggregateBasicBlocks;
+    statistics = pStatistics;
 
     // prepare special case handling if both predicates and assumptions are used
     int predicatesIndex = -1;
@@ -259,13 +313,11 @@ final class CompositeTransferRelation implements TransferRelation {
     List<Collection<? extends AbstractState>> allComponentsSuccessors = new ArrayList<>(size);
 
     for (int i = 0; i < size; i++) {
-      TransferRelation lCurrentTransfer = transferRelations.get(i);
       AbstractState lCurrentElement = componentElements.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
       Collection<? extends AbstractState> componentSuccessors;
-      componentSuccessors = lCurrentTransfer.getAbstractSuccessorsForEdge(
-          lCurrentElement, lCurrentPrecision, cfaEdge);
+      componentSuccessors = getComponentSuccessors(i, lCurrentElement, lCurrentPrecision, cfaEdge);
       resultCount *= componentSuccessors.size();
 
       if (resultCount == 0) {
@@ -280,6 +332,40 @@ final class CompositeTransferRelation implements TransferRelation {
     return createCartesianProduct(allComponentsSuccessors, resultCount);
   }
 
+  private Collection<? extends AbstractState> getComponentSuccessors(
+      int pIndex, AbstractState pState, Precision pPrecision, CFAEdge pEdge)
+      throws CPATransferException, InterruptedException {
+    TransferRelation transfer = transferRelations.get(pIndex);
+    if (statistics == null) {
+      return transfer.getAbstractSuccessorsForEdge(pState, pPrecision, pEdge);
+    }
+    long start = System.nanoTime();
+    try {
+      return transfer.getAbstractSuccessorsForEdge(pState, pPrecision, pEdge);
+    } finally {
+      statistics.transferNanos[pIndex].add(System.nanoTime() - start);
+    }
+  }
+
+  private Collection<? extends AbstractState> strengthenComponent(
+      int pIndex,
+      AbstractState pState,
+      List<AbstractState> pOtherStates,
+      CFAEdge pEdge,
+      Precision pPrecision)
+      throws CPATransferException, InterruptedException {
+    TransferRelation transfer = transferRelations.get(pIndex);
+    if (statistics == null) {
+      return transfer.strengthen(pState, pOtherStates, pEdge, pPrecision);
+    }
+    long start = System.nanoTime();
+    try {
+      return transfer.strengthen(pState, pOtherStates, pEdge, pPrecision);
+    } finally {
+      statistics.strengthenNanos[pIndex].add(System.nanoTime() - start);
+    }
+  }
+
   private Collection<List<AbstractState>> callStrengthen(
       final List<AbstractState> reachedState,
       final CompositePrecision compositePrecision, final CFAEdge cfaEdge)
@@ -289,11 +375,11 @@ final class CompositeTransferRelation implements TransferRelation {
 
     for (int i = 0; i < size; i++) {
 
-      TransferRelation lCurrentTransfer = transferRelations.get(i);
       AbstractState lCurrentElement = reachedState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
-      Collection<? extends AbstractState> lResultsList = lCurrentTransfer.strengthen(lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
+      Collection<? extends AbstractState> lResultsList =
+          strengthenComponent(i, lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
 
       resultCount *= lResultsList.size();
       if (resultCount == 0) {
@@ -405,12 +491,11 @@ final class CompositeTransferRelation implements TransferRelation {
 
     for (int i = 0; i < size; i++) {
 
-      TransferRelation lCurrentTransfer = transferRelations.get(i);
       AbstractState lCurrentElement = compositeState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
       Collection<? extends AbstractState> lResultsList =
-          lCurrentTransfer.strengthen(lCurrentElement, otherElements, cfaEdge, lCurrentPrecision);
+          strengthenComponent(i, lCurrentElement, otherElements, cfaEdge, lCurrentPrecision);
 
       resultCount *= lResultsList.size();
       if (resultCount == 0) {
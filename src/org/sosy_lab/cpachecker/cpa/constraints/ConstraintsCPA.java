@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.cpa.constraints.domain.AliasedSubsetLessOrEqualOp
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsMergeOperator;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsState;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ImplicationLessOrEqualOperator;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.IncrementalConstraintsProver;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.SubsetLessOrEqualOperator;
 import org.sosy_lab.cpachecker.cpa.constraints.refiner.ConstraintsPrecisionAdjustment;
 import org.sosy_lab.cpachecker.cpa.constraints.refiner.precision.ConstraintsPrecision;
@@ -83,6 +84,7 @@ public class ConstraintsCPA
   private ConstraintsPrecision precision;
 
   private final Solver solver;
+  private final IncrementalConstraintsProver incrementalProver;
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ConstraintsCPA.class);
@@ -95,13 +97,20 @@ public class ConstraintsCPA
 
     logger = pLogger;
     solver = Solver.create(pConfig, pLogger, pShutdownNotifier);
+    incrementalProver = new IncrementalConstraintsProver(solver, pConfig);
 
     SymbolicValues.initialize(lessOrEqualType);
     abstractDomain = initializeAbstractDomain();
     mergeOperator = initializeMergeOperator();
     stopOperator = initializeStopOperator();
     transferRelation =
-        new ConstraintsTransferRelation(solver, pCfa.getMachineModel(), logger, pConfig, pShutdownNotifier);
+        new ConstraintsTransferRelation(
+            solver,
+            pCfa.getMachineModel(),
+            logger,
+            pConfig,
+            pShutdownNotifier,
+            incrementalProver);
     precisionAdjustment = new ConstraintsPrecisionAdjustment();
     precision = FullConstraintsPrecision.getInstance();
   }
@@ -144,6 +153,14 @@ public class ConstraintsCPA
 
   public Solver getSolver() { return solver; }
 
+  /**
+   * Returns the prover for the satisfiability checks of this CPA. It uses the solver of {@link
+   * #getSolver()} and is closed together with this CPA.
+   */
+  public IncrementalConstraintsProver getIncrementalProver() {
+    return incrementalProver;
+  }
+
   @Override
   public AbstractDomain getAbstractDomain() {
     return abstractDomain;
@@ -190,10 +207,15 @@ public class ConstraintsCPA
     if (mergeOperator instanceof Statistics) {
       statsCollection.add((Statistics) mergeOperator);
     }
+
+    if (incrementalProver.isEnabled()) {
+      statsCollection.add(incrementalProver);
+    }
   }
 
   @Override
   public void close() {
+    incrementalProver.close();
     solver.close();
   }
 }
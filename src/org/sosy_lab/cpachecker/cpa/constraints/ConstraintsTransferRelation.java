@@ -62,6 +62,7 @@ import org.sosy_lab.cpachecker.cpa.constraints.constraint.ConstraintFactory;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.ConstraintTrivialityChecker;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.IdentifierAssignment;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsState;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.IncrementalConstraintsProver;
 import org.sosy_lab.cpachecker.cpa.constraints.util.StateSimplifier;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
@@ -102,16 +103,23 @@ public class ConstraintsTransferRelation
   private FormulaManagerView formulaManager;
   private CtoFormulaConverter converter;
   private StateSimplifier simplifier;
+  private final IncrementalConstraintsProver incrementalProver;
 
+  /**
+   * Creates a new transfer relation. The given prover is used for the satisfiability checks of the
+   * created states and is not closed by this transfer relation; it has to use the given solver.
+   */
   public ConstraintsTransferRelation(
       final Solver pSolver,
       final MachineModel pMachineModel,
       final LogManager pLogger,
       final Configuration pConfig,
-      final ShutdownNotifier pShutdownNotifier
+      final ShutdownNotifier pShutdownNotifier,
+      final IncrementalConstraintsProver pIncrementalProver
   ) throws InvalidConfigurationException {
 
     pConfig.inject(this);
+    incrementalProver = pIncrementalProver;
 
     logger = new LogManagerWithoutDuplicates(pLogger);
     machineModel = pMachineModel;
@@ -210,13 +218,15 @@ public class ConstraintsTransferRelation
 
     final IdentifierAssignment definiteAssignment = pOldState.getDefiniteAssignment();
     FormulaCreator formulaCreator = getFormulaCreator(pFunctionName);
-    newState.initialize(solver, formulaManager, formulaCreator);
+    newState.initialize(solver, formulaManager, formulaCreator, incrementalProver);
 
     if (oNewConstraint.isPresent()) {
       final Constraint newConstraint = oNewConstraint.get();
 
       // If a constraint is trivial, its satisfiability is not influenced by other constraints.
       // So to evade more expensive SAT checks, we just check the constraint on its own.
+      // The incremental prover is not used for this: the formula contains no unknown values,
+      // so it could not reuse the assertion stack of the prover, but it would need to discard it.
       if (isTrivial(newConstraint, definiteAssignment)) {
         if (solver.isUnsat(formulaCreator.createFormula(newConstraint, newState.getDefiniteAssignment()))) {
           return null;
@@ -25,7 +25,11 @@ package org.sosy_lab.cpachecker.cpa.constraints.domain;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.cpa.constraints.FormulaCreator;
@@ -53,9 +57,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -82,6 +88,7 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
   private FormulaCreator formulaCreator;
   private FormulaManagerView formulaManager;
   private SymbolicIdentifierLocator locator;
+  private IncrementalConstraintsProver incrementalProver;
 
   private IdentifierAssignment definiteAssignment;
 
@@ -124,6 +131,7 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     formulaCreator = pState.formulaCreator;
     formulaManager = pState.formulaManager;
     locator = pState.locator;
+    incrementalProver = pState.incrementalProver;
 
     lastAddedConstraint = pState.lastAddedConstraint;
     definiteAssignment = new IdentifierAssignment(pState.definiteAssignment);
@@ -267,6 +275,20 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     formulaCreator = pFormulaCreator;
   }
 
+  /**
+   * Initializes this state like {@link #initialize(Solver, FormulaManagerView, FormulaCreator)}.
+   * If the given {@link IncrementalConstraintsProver} is enabled, SAT checks of this state use it
+   * instead of a new prover environment for each check.
+   */
+  public void initialize(
+      Solver pSolver,
+      FormulaManagerView pFormulaManager,
+      FormulaCreator pFormulaCreator,
+      IncrementalConstraintsProver pIncrementalProver) {
+    initialize(pSolver, pFormulaManager, pFormulaCreator);
+    incrementalProver = pIncrementalProver.isEnabled() ? pIncrementalProver : null;
+  }
+
   /**
    * Returns whether this state is unsatisfiable.
    * A state without constraints (that is, an empty state), is always satisfiable.
@@ -274,6 +296,10 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
    * @return <code>true</code> if this state is unsatisfiable, <code>false</code> otherwise
    */
   public boolean isUnsat() throws SolverException, InterruptedException, UnrecognizedCCodeException {
+    if (incrementalProver != null) {
+      return isUnsatIncrementally();
+    }
+
     boolean unsat = false;
 
     try {
@@ -301,6 +327,134 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     return unsat;
   }
 
+  private boolean isUnsatIncrementally()
+      throws SolverException, InterruptedException, UnrecognizedCCodeException {
+    if (constraints.isEmpty()) {
+      return false;
+    }
+
+    createMissingConstraintFormulas();
+    IdentifierAssignment oldDefinites = new IdentifierAssignment(definiteAssignment);
+
+    Collection<List<Constraint>> constraintSets;
+    if (incrementalProver.sliceIndependentConstraints()) {
+      constraintSets = getIndependentConstraintSets();
+      incrementalProver.recordIndependentSets(constraintSets.size());
+    } else {
+      constraintSets = Collections.singleton(constraints);
+    }
+
+    for (List<Constraint> constraintSet : constraintSets) {
+      List<BooleanFormula> formulas = new ArrayList<>(constraintSet.size());
+      for (Constraint c : constraintSet) {
+        formulas.add(constraintFormulas.get(c));
+      }
+
+      Optional<ImmutableMap<SymbolicIdentifier, Value>> knownResult = checkFormulas(formulas);
+      if (!knownResult.isPresent()) {
+        definiteAssignment = null;
+        return true;
+      }
+
+      // identifiers with a definite assignment do not occur in the formulas anymore,
+      // and independent sets share no identifiers, so the assignments can't conflict
+      definiteAssignment.putAll(knownResult.get());
+    }
+
+    updateOldFormulasDefinitesAppearIn(oldDefinites, definiteAssignment);
+    return false;
+  }
+
+  /**
+   * Checks the conjunction of the given formulas with {@link #incrementalProver}, or takes the
+   * result from its cache.
+   *
+   * @return an empty <code>Optional</code> if the formulas are unsatisfiable, otherwise the definite
+   *     assignments of identifiers occurring in the formulas
+   */
+  private Optional<ImmutableMap<SymbolicIdentifier, Value>> checkFormulas(
+      List<BooleanFormula> pFormulas) throws SolverException, InterruptedException {
+    ImmutableSet<BooleanFormula> formulaSet = ImmutableSet.copyOf(pFormulas);
+    Optional<ImmutableMap<SymbolicIdentifier, Value>> result =
+        incrementalProver.getCachedResult(formulaSet);
+    if (result != null) {
+      return result;
+    }
+
+    boolean completed = false;
+    try {
+      prover = incrementalProver.getProverFor(pFormulas);
+      if (incrementalProver.isUnsat()) {
+        result = Optional.empty();
+      } else {
+        IdentifierAssignment oldDefinites = new IdentifierAssignment(definiteAssignment);
+        computeDefiniteAssignment();
+        result =
+            Optional.of(
+                ImmutableMap.copyOf(
+                    Maps.difference(definiteAssignment, oldDefinites).entriesOnlyOnLeft()));
+      }
+      completed = true;
+    } finally {
+      // the prover belongs to the incremental prover, which decides whether to close it
+      prover = null;
+      if (completed) {
+        incrementalProver.release();
+      } else {
+        incrementalProver.reset();
+      }
+    }
+
+    incrementalProver.cacheResult(formulaSet, result);
+    return result;
+  }
+
+  /**
+   * Splits the constraints of this state into sets that share no symbolic identifiers. Identifiers
+   * with a definite assignment do not connect constraints, because they are replaced by their
+   * values in the constraint formulas. The order of the constraints is kept inside each set, and
+   * the set containing the last added constraint comes first, as it is the one most likely to be
+   * unsatisfiable.
+   */
+  @VisibleForTesting
+  Collection<List<Constraint>> getIndependentConstraintSets() {
+    int[] parent = new int[constraints.size()];
+    Map<SymbolicIdentifier, Integer> firstOccurrence = new HashMap<>();
+
+    for (int i = 0; i < constraints.size(); i++) {
+      parent[i] = i;
+      for (SymbolicIdentifier id : constraints.get(i).accept(locator)) {
+        if (definiteAssignment.containsKey(id)) {
+          continue;
+        }
+        Integer other = firstOccurrence.putIfAbsent(id, i);
+        if (other != null) {
+          parent[findRepresentative(parent, i)] = findRepresentative(parent, other);
+        }
+      }
+    }
+
+    Map<Integer, List<Constraint>> sets = new LinkedHashMap<>();
+    if (lastAddedConstraint != null && constraints.contains(lastAddedConstraint)) {
+      int index = constraints.indexOf(lastAddedConstraint);
+      sets.put(findRepresentative(parent, index), new ArrayList<>());
+    }
+    for (int i = 0; i < constraints.size(); i++) {
+      sets.computeIfAbsent(findRepresentative(parent, i), k -> new ArrayList<>())
+          .add(constraints.get(i));
+    }
+    return sets.values();
+  }
+
+  private static int findRepresentative(int[] pParent, int pIndex) {
+    int current = pIndex;
+    while (pParent[current] != current) {
+      pParent[current] = pParent[pParent[current]];
+      current = pParent[current];
+    }
+    return current;
+  }
+
   private void closeProver() {
     if (prover != null) {
       prover.close();
@@ -395,7 +549,8 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     BooleanFormula prohibitAssignment = formulaManager.makeNot(formulaCreator.transformAssignment(pTerm.getKey(), pTerm.getValue()));
 
     prover.push(prohibitAssignment);
-    boolean isUnsat = prover.isUnsat();
+    // the incremental prover owns the prover environment in this case and counts the queries
+    boolean isUnsat = incrementalProver != null ? incrementalProver.isUnsat() : prover.isUnsat();
 
     // remove the just added formula again so we return to the original constraint formula
     // - other assignments will probably be tested before closing prover.
@@ -23,23 +23,30 @@
  */
 package org.sosy_lab.cpachecker.cpa.constraints.domain;
 
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
 import java.util.Iterator;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.cpachecker.cfa.types.Type;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.constraints.FormulaCreator;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.Constraint;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicExpression;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicIdentifier;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicValueFactory;
 import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
 
 /**
  * Unit tests for {@link ConstraintsState}
  */
-public class ConstraintsStateTest {
+public class ConstraintsStateTest extends SolverViewBasedTest0 {
 
   private final SymbolicValueFactory factory = SymbolicValueFactory.getInstance();
 
@@ -54,15 +61,55 @@ public class ConstraintsStateTest {
   private final Constraint constr3 = (Constraint) factory.lessThanOrEqual(idExp1, numExp, defType,
       defType);
 
+  private final SymbolicIdentifier id2 = factory.newIdentifier();
+  private final SymbolicExpression idExp2 = factory.asConstant(id2, defType);
+  private final SymbolicIdentifier id3 = factory.newIdentifier();
+  private final SymbolicExpression idExp3 = factory.asConstant(id3, defType);
+  private final SymbolicExpression sixExp = factory.asConstant(new NumericValue(6), defType);
+
   private ConstraintsState state;
 
+  private FormulaCreator formulaCreator;
+  private IncrementalConstraintsProver slicingProver;
+
   @Before
-  public void setUp() {
+  public void setUp() throws Exception {
     state = new ConstraintsState();
 
     state.add(constr1);
     state.add(constr2);
     state.add(constr3);
+
+    formulaCreator = IncrementalConstraintsProverTest.createFormulaCreator(mgrv, config, logger);
+    slicingProver =
+        new IncrementalConstraintsProver(
+            solver,
+            Configuration.builder()
+                .copyFrom(config)
+                .setOption("cpa.constraints.sliceIndependentConstraints", "true")
+                .build());
+  }
+
+  @After
+  public void tearDown() {
+    slicingProver.close();
+  }
+
+  private Constraint lessThan(SymbolicExpression pLeft, SymbolicExpression pRight) {
+    return (Constraint) factory.lessThan(pLeft, pRight, defType, defType);
+  }
+
+  private ConstraintsState createState(boolean pSlice, Constraint... pConstraints) {
+    ConstraintsState newState = new ConstraintsState();
+    if (pSlice) {
+      newState.initialize(solver, mgrv, formulaCreator, slicingProver);
+    } else {
+      newState.initialize(solver, mgrv, formulaCreator);
+    }
+    for (Constraint c : pConstraints) {
+      newState.add(c);
+    }
+    return newState;
   }
 
   @Test
@@ -87,4 +134,74 @@ public class ConstraintsStateTest {
     Assert.assertFalse(it.hasNext());
     Assert.assertTrue(state.isEmpty());
   }
+
+  @Test
+  public void testIndependentConstraintSets() {
+    Constraint firstLessThan5 = lessThan(idExp1, numExp);
+    Constraint secondLessThan5 = lessThan(idExp2, numExp);
+    ConstraintsState slicedState = createState(true, firstLessThan5, secondLessThan5);
+
+    // the set of the last added constraint comes first
+    assertThat(slicedState.getIndependentConstraintSets())
+        .containsExactly(ImmutableList.of(secondLessThan5), ImmutableList.of(firstLessThan5))
+        .inOrder();
+
+    Constraint firstLessThanSecond = lessThan(idExp1, idExp2);
+    slicedState.add(firstLessThanSecond);
+    assertThat(slicedState.getIndependentConstraintSets())
+        .containsExactly(ImmutableList.of(firstLessThan5, secondLessThan5, firstLessThanSecond));
+  }
+
+  @Test
+  public void testDefiniteAssignmentsDoNotConnectSets() throws Exception {
+    Constraint firstLessThanSecond = lessThan(idExp1, idExp2);
+    Constraint thirdLessThanFirst = lessThan(idExp3, idExp1);
+    ConstraintsState slicedState =
+        createState(true, constr1, firstLessThanSecond, thirdLessThanFirst);
+
+    // all constraints share the first identifier
+    assertThat(slicedState.getIndependentConstraintSets()).hasSize(1);
+
+    assertThat(slicedState.isUnsat()).isFalse();
+    assertThat(slicedState.getDefiniteAssignment()).containsKey(id1);
+    assertThat(slicedState.getDefiniteAssignment()).doesNotContainKey(id2);
+    assertThat(slicedState.getDefiniteAssignment()).doesNotContainKey(id3);
+
+    // the first identifier is now replaced by its value and does not connect the constraints
+    assertThat(slicedState.getIndependentConstraintSets())
+        .containsExactly(
+            ImmutableList.of(thirdLessThanFirst),
+            ImmutableList.of(constr1),
+            ImmutableList.of(firstLessThanSecond));
+
+    // 5 < second < 6 has no solution, which is only visible with the definite assignment
+    slicedState.add(lessThan(idExp2, sixExp));
+    assertThat(slicedState.isUnsat()).isTrue();
+  }
+
+  @Test
+  public void testUnsatInOnePartition() throws Exception {
+    Constraint[] constraints = {
+      lessThan(idExp1, numExp), lessThan(idExp2, numExp), lessThan(sixExp, idExp2)
+    };
+
+    ConstraintsState slicedState = createState(true, constraints);
+    assertThat(slicedState.getIndependentConstraintSets()).hasSize(2);
+    assertThat(slicedState.isUnsat()).isTrue();
+
+    assertThat(createState(false, constraints).isUnsat()).isTrue();
+  }
+
+  @Test
+  public void testSatisfiablePartitions() throws Exception {
+    Constraint[] constraints = {
+      lessThan(idExp1, numExp), lessThan(idExp2, numExp), lessThan(idExp3, idExp2)
+    };
+
+    ConstraintsState slicedState = createState(true, constraints);
+    assertThat(slicedState.getIndependentConstraintSets()).hasSize(2);
+    assertThat(slicedState.isUnsat()).isFalse();
+
+    assertThat(createState(false, constraints).isUnsat()).isFalse();
+  }
 }
@@ -0,0 +1,288 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicIdentifier;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Shared prover for the satisfiability checks of {@link ConstraintsState}s.
+ *
+ * <p>Instead of creating a new prover environment and asserting the conjunction of all constraints
+ * for each check, one prover environment is kept open. Its assertion stack contains one level per
+ * constraint of the last checked state. A new check only pops the levels that are not a prefix of
+ * the new constraints and pushes the remaining ones, so the checks of a state and its successors
+ * (and of the two successors of one assume edge) share the solver's work for the common prefix.
+ *
+ * <p>Additionally, the results of the checks are cached by the set of constraint formulas. For
+ * satisfiable sets, the cache stores the definite assignments that were derived from them.
+ *
+ * <p>If constraint slicing is enabled, a state splits its constraints into independent sets that
+ * share no symbolic identifiers and checks each set on its own. Usually, only the set that contains
+ * the new constraint of a state is not yet in the cache.
+ */
+@Options(prefix = "cpa.constraints")
+public class IncrementalConstraintsProver implements Statistics, AutoCloseable {
+
+  @Option(
+    secure = true,
+    description =
+        "Check the satisfiability of constraints with one prover whose assertion stack is"
+            + " reused between the checks of states that share a prefix of constraints."
+            + " Requires a solver that supports several prover environments at once."
+  )
+  private boolean incrementalSatChecks = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Split the constraints of a state into independent sets that share no symbolic"
+            + " identifiers, and check and cache the satisfiability of each set on its own."
+  )
+  private boolean sliceIndependentConstraints = false;
+
+  @Option(
+    secure = true,
+    description =
+        "maximum number of constraint sets whose satisfiability is cached by the incremental"
+            + " satisfiability checks (0 disables the cache)"
+  )
+  @IntegerOption(min = 0)
+  private int satCheckCacheSize = 10000;
+
+  private final Solver solver;
+
+  private final Cache<ImmutableSet<BooleanFormula>, Optional<ImmutableMap<SymbolicIdentifier, Value>>>
+      cache;
+
+  private @Nullable ProverEnvironment prover = null;
+
+  /** The formulas on the assertion stack of {@link #prover}, one per stack level. */
+  private final List<BooleanFormula> pushedFormulas = new ArrayList<>();
+
+  private final StatCounter checks = new StatCounter("Number of checked constraint sets");
+  private final StatCounter cacheHits = new StatCounter("Results taken from cache");
+  private final StatCounter solverCalls = new StatCounter("Number of solver calls");
+  private final StatInt pushes = new StatInt(StatKind.SUM, "Constraints pushed");
+  private final StatInt reusedLevels = new StatInt(StatKind.SUM, "Constraints reused from stack");
+  private final StatInt pops = new StatInt(StatKind.SUM, "Constraints popped");
+  private final StatInt independentSets =
+      new StatInt(StatKind.AVG, "Independent constraint sets per state");
+  private final StatTimer solverTime = new StatTimer("Time for solver calls");
+
+  public IncrementalConstraintsProver(Solver pSolver, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    solver = pSolver;
+    cache = CacheBuilder.newBuilder().maximumSize(satCheckCacheSize).build();
+  }
+
+  private IncrementalConstraintsProver(Solver pSolver) {
+    solver = pSolver;
+    satCheckCacheSize = 0;
+    cache = CacheBuilder.newBuilder().maximumSize(satCheckCacheSize).build();
+  }
+
+  /**
+   * Returns a prover that is not used by the states, such that they check their satisfiability
+   * with a new prover environment of the given solver each time. This prover never opens a prover
+   * environment itself, so it does not need to be closed.
+   */
+  public static IncrementalConstraintsProver disabled(Solver pSolver) {
+    return new IncrementalConstraintsProver(pSolver);
+  }
+
+  /** Returns whether states should use this prover for their satisfiability checks. */
+  public boolean isEnabled() {
+    return incrementalSatChecks || sliceIndependentConstraints;
+  }
+
+  boolean sliceIndependentConstraints() {
+    return sliceIndependentConstraints;
+  }
+
+  void recordIndependentSets(int pCount) {
+    independentSets.setNextValue(pCount);
+  }
+
+  /**
+   * Returns the cached result for the given set of constraint formulas, or <code>null</code> if the
+   * set was not checked before. An empty <code>Optional</code> means that the set is
+   * unsatisfiable, otherwise it contains the definite assignments derived from the set.
+   */
+  @Nullable
+  Optional<ImmutableMap<SymbolicIdentifier, Value>> getCachedResult(
+      ImmutableSet<BooleanFormula> pFormulas) {
+    checks.inc();
+    Optional<ImmutableMap<SymbolicIdentifier, Value>> result = cache.getIfPresent(pFormulas);
+    if (result != null) {
+      cacheHits.inc();
+    }
+    return result;
+  }
+
+  void cacheResult(
+      ImmutableSet<BooleanFormula> pFormulas,
+      Optional<? extends Map<SymbolicIdentifier, Value>> pDefiniteAssignments) {
+    if (satCheckCacheSize > 0) {
+      cache.put(pFormulas, pDefiniteAssignments.map(ImmutableMap::copyOf));
+    }
+  }
+
+  /**
+   * Brings the assertion stack of the prover into the state that contains exactly the given
+   * formulas, in the given order, and returns the prover. The caller may push and pop further
+   * formulas, but has to return to the same stack level and call {@link #release()} afterwards,
+   * or call {@link #reset()}.
+   */
+  ProverEnvironment getProverFor(List<BooleanFormula> pFormulas) throws InterruptedException {
+    if (!incrementalSatChecks) {
+      reset();
+    }
+    if (prover == null) {
+      prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    }
+
+    int commonPrefix = 0;
+    int maxPrefix = Math.min(pFormulas.size(), pushedFormulas.size());
+    while (commonPrefix < maxPrefix
+        && pushedFormulas.get(commonPrefix).equals(pFormulas.get(commonPrefix))) {
+      commonPrefix++;
+    }
+    reusedLevels.setNextValue(commonPrefix);
+    pops.setNextValue(pushedFormulas.size() - commonPrefix);
+    pushes.setNextValue(pFormulas.size() - commonPrefix);
+
+    while (pushedFormulas.size() > commonPrefix) {
+      prover.pop();
+      pushedFormulas.remove(pushedFormulas.size() - 1);
+    }
+    for (BooleanFormula f : pFormulas.subList(commonPrefix, pFormulas.size())) {
+      prover.push(f);
+      pushedFormulas.add(f);
+    }
+    return prover;
+  }
+
+  /** Checks the formulas that are currently on the stack of the prover. */
+  boolean isUnsat() throws SolverException, InterruptedException {
+    assert prover != null;
+    solverCalls.inc();
+    solverTime.start();
+    try {
+      return prover.isUnsat();
+    } finally {
+      solverTime.stop();
+    }
+  }
+
+  /** Signals the end of a check. The prover is only kept open if it is used incrementally. */
+  void release() {
+    if (!incrementalSatChecks) {
+      reset();
+    }
+  }
+
+  /**
+   * Discards the prover, e.g., after a check was interrupted and the assertion stack may not match
+   * the tracked formulas anymore.
+   */
+  void reset() {
+    if (prover != null) {
+      prover.close();
+      prover = null;
+    }
+    pushedFormulas.clear();
+  }
+
+  @Override
+  public void close() {
+    reset();
+  }
+
+  @VisibleForTesting
+  ImmutableList<BooleanFormula> getPushedFormulas() {
+    return ImmutableList.copyOf(pushedFormulas);
+  }
+
+  @VisibleForTesting
+  long getNumberOfSolverCalls() {
+    return solverCalls.getValue();
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(checks)
+        .put(
+            cacheHits.getTitle(),
+            cacheHits.getValue()
+                + " ("
+                + StatisticsUtils.toPercent(cacheHits.getValue(), checks.getValue())
+                + ")")
+        .putIf(sliceIndependentConstraints, independentSets)
+        .put(solverCalls)
+        .put(solverTime)
+        .put(pushes)
+        .put(reusedLevels)
+        .put(pops)
+        .put("Size of result cache", cache.size());
+  }
+
+  @Override
+  public String getName() {
+    return "Incremental constraints satisfiability checks";
+  }
+}
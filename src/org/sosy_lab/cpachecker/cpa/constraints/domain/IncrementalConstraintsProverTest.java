@@ -0,0 +1,212 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.Type;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.cpa.constraints.FormulaCreator;
+import org.sosy_lab.cpachecker.cpa.constraints.FormulaCreatorUsingCConverter;
+import org.sosy_lab.cpachecker.cpa.constraints.constraint.Constraint;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicExpression;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicIdentifier;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicValueFactory;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.ctoformula.CtoFormulaConverter;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.ctoformula.CtoFormulaTypeHandler;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.ctoformula.FormulaEncodingOptions;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+/** Unit tests for {@link IncrementalConstraintsProver} */
+public class IncrementalConstraintsProverTest extends SolverViewBasedTest0 {
+
+  private static final ImmutableMap<String, String> INCREMENTAL =
+      ImmutableMap.of("cpa.constraints.incrementalSatChecks", "true");
+
+  private BooleanFormula xPositive;
+  private BooleanFormula xLessThan5;
+  private BooleanFormula xGreaterThan10;
+
+  @Before
+  public void setUp() {
+    IntegerFormula x = imgrv.makeVariable("x");
+    xPositive = imgrv.greaterThan(x, imgrv.makeNumber(0));
+    xLessThan5 = imgrv.lessThan(x, imgrv.makeNumber(5));
+    xGreaterThan10 = imgrv.greaterThan(x, imgrv.makeNumber(10));
+  }
+
+  private IncrementalConstraintsProver createProver(ImmutableMap<String, String> pOptions)
+      throws InvalidConfigurationException {
+    Configuration proverConfig =
+        Configuration.builder().copyFrom(config).setOptions(pOptions).build();
+    return new IncrementalConstraintsProver(solver, proverConfig);
+  }
+
+  private boolean isUnsat(IncrementalConstraintsProver pProver, List<BooleanFormula> pFormulas)
+      throws Exception {
+    pProver.getProverFor(pFormulas);
+    boolean unsat = pProver.isUnsat();
+    pProver.release();
+    return unsat;
+  }
+
+  @Test
+  public void testStackMatchesAfterBacktracking() throws Exception {
+    try (IncrementalConstraintsProver prover = createProver(INCREMENTAL)) {
+
+      assertThat(isUnsat(prover, ImmutableList.of(xPositive, xLessThan5))).isFalse();
+      assertThat(prover.getPushedFormulas()).containsExactly(xPositive, xLessThan5).inOrder();
+
+      assertThat(isUnsat(prover, ImmutableList.of(xPositive, xLessThan5, xGreaterThan10)))
+          .isTrue();
+      assertThat(prover.getPushedFormulas())
+          .containsExactly(xPositive, xLessThan5, xGreaterThan10)
+          .inOrder();
+
+      // backtrack to the first level, this is unsatisfiable if x < 5 is still on the stack
+      assertThat(isUnsat(prover, ImmutableList.of(xPositive, xGreaterThan10))).isFalse();
+      assertThat(prover.getPushedFormulas()).containsExactly(xPositive, xGreaterThan10).inOrder();
+
+      // nothing in common with the stack, x > 0 has to be removed
+      assertThat(isUnsat(prover, ImmutableList.of(bmgrv.not(xPositive)))).isFalse();
+      assertThat(prover.getPushedFormulas()).containsExactly(bmgrv.not(xPositive));
+
+      assertThat(isUnsat(prover, ImmutableList.of())).isFalse();
+      assertThat(prover.getPushedFormulas()).isEmpty();
+    }
+  }
+
+  @Test
+  public void testResetDiscardsStack() throws Exception {
+    try (IncrementalConstraintsProver prover = createProver(INCREMENTAL)) {
+
+      // a check that is left with an additional formula on the stack, e.g., after an interrupt
+      prover.getProverFor(ImmutableList.of(xPositive, xLessThan5)).push(xGreaterThan10);
+      prover.reset();
+      assertThat(prover.getPushedFormulas()).isEmpty();
+
+      assertThat(isUnsat(prover, ImmutableList.of(xPositive, xLessThan5))).isFalse();
+    }
+  }
+
+  @Test
+  public void testStackIsNotKeptWithoutIncrementalChecks() throws Exception {
+    try (IncrementalConstraintsProver prover =
+        createProver(ImmutableMap.of("cpa.constraints.sliceIndependentConstraints", "true"))) {
+
+      assertThat(prover.isEnabled()).isTrue();
+      assertThat(isUnsat(prover, ImmutableList.of(xPositive, xLessThan5, xGreaterThan10)))
+          .isTrue();
+      assertThat(prover.getPushedFormulas()).isEmpty();
+      assertThat(isUnsat(prover, ImmutableList.of(xPositive, xGreaterThan10))).isFalse();
+    }
+  }
+
+  @Test
+  public void testCache() throws Exception {
+    try (IncrementalConstraintsProver prover = createProver(INCREMENTAL)) {
+      ImmutableSet<BooleanFormula> unsatSet = ImmutableSet.of(xLessThan5, xGreaterThan10);
+      ImmutableSet<BooleanFormula> satSet = ImmutableSet.of(xPositive);
+
+      assertThat(prover.getCachedResult(unsatSet)).isNull();
+      prover.cacheResult(unsatSet, Optional.empty());
+      prover.cacheResult(satSet, Optional.of(ImmutableMap.of()));
+
+      assertThat(prover.getCachedResult(unsatSet)).isEqualTo(Optional.empty());
+      assertThat(prover.getCachedResult(satSet)).isEqualTo(Optional.of(ImmutableMap.of()));
+    }
+  }
+
+  @Test
+  public void testCacheDisabled() throws Exception {
+    try (IncrementalConstraintsProver prover =
+        createProver(
+            ImmutableMap.of(
+                "cpa.constraints.incrementalSatChecks", "true",
+                "cpa.constraints.satCheckCacheSize", "0"))) {
+      ImmutableSet<BooleanFormula> satSet = ImmutableSet.of(xPositive);
+
+      prover.cacheResult(satSet, Optional.of(ImmutableMap.of()));
+      assertThat(prover.getCachedResult(satSet)).isNull();
+    }
+  }
+
+  @Test
+  public void testQueriesForDefiniteAssignmentsAreCounted() throws Exception {
+    SymbolicValueFactory factory = SymbolicValueFactory.getInstance();
+    Type type = CNumericTypes.INT;
+    SymbolicIdentifier id = factory.newIdentifier();
+    SymbolicExpression idExp = factory.asConstant(id, type);
+    SymbolicExpression five = factory.asConstant(new NumericValue(5), type);
+    Constraint idIsFive = factory.equal(idExp, five, type, type);
+
+    try (IncrementalConstraintsProver prover = createProver(INCREMENTAL)) {
+      ConstraintsState state = new ConstraintsState();
+      state.initialize(solver, mgrv, createFormulaCreator(mgrv, config, logger), prover);
+      state.add(idIsFive);
+
+      assertThat(state.isUnsat()).isFalse();
+      assertThat(state.getDefiniteAssignment()).containsKey(id);
+      assertThat(state.getDefiniteAssignment().get(id).asNumericValue().longValue())
+          .isEqualTo(5L);
+
+      // the satisfiability check and at least the check that id = 5 is the only assignment
+      assertThat(prover.getNumberOfSolverCalls()).isAtLeast(2L);
+    }
+  }
+
+  static FormulaCreator createFormulaCreator(
+      FormulaManagerView pFmgr, Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    MachineModel machineModel = MachineModel.LINUX32;
+    CtoFormulaConverter converter =
+        new CtoFormulaConverter(
+            new FormulaEncodingOptions(pConfig),
+            pFmgr,
+            machineModel,
+            Optional.empty(),
+            pLogger,
+            ShutdownNotifier.createDummy(),
+            new CtoFormulaTypeHandler(pLogger, machineModel),
+            AnalysisDirection.FORWARD);
+    return new FormulaCreatorUsingCConverter(pFmgr, converter, "main");
+  }
+}
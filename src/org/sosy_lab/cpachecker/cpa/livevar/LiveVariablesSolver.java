@@ -0,0 +1,218 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.livevar;
+
+import com.google.common.base.Equivalence.Wrapper;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.ASimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+/**
+ * Dedicated worklist solver for the function-wise (intraprocedural) live-variables analysis. It
+ * uses the transfer relation of the {@link LiveVariablesCPA} and thus computes the same result as
+ * the CPA algorithm with the backwards location CPA, but without the overhead of composite
+ * states, reached set, and merge and stop operators.
+ *
+ * <p>The nodes of a function are processed in postorder of the CFA (i.e., in reverse postorder of
+ * the backwards analysis), such that nodes outside of loops are handled only once. Functions are
+ * independent of each other and can be handled in parallel. Transfer relations are not
+ * thread-safe, thus each thread uses its own instance, but all instances share the tables of
+ * declarations of the CFA.
+ */
+public final class LiveVariablesSolver {
+
+  /** backwards analysis: successors first, the node number is only for a total order */
+  private static final Comparator<CFANode> POSTORDER =
+      Comparator.comparingInt(CFANode::getReversePostorderId)
+          .reversed()
+          .thenComparing(Comparator.naturalOrder());
+
+  private final CFA cfa;
+  private final Configuration config;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final int numberOfThreads;
+
+  /**
+   * Create a new solver.
+   *
+   * @param pConfig the configuration for the {@link LiveVariablesTransferRelation}
+   * @param pNumberOfThreads the number of threads, or 0 for the number of available processors
+   */
+  public LiveVariablesSolver(
+      CFA pCfa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      int pNumberOfThreads) {
+    cfa = pCfa;
+    config = pConfig;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    numberOfThreads =
+        pNumberOfThreads == 0 ? Runtime.getRuntime().availableProcessors() : pNumberOfThreads;
+  }
+
+  /**
+   * Compute the live variables of all functions that contain one of the given start nodes.
+   *
+   * @param pStartNodes the nodes where the backwards analysis starts, i.e., function exit nodes
+   *     and loop heads of loops without exit
+   * @return the live variables for each node
+   */
+  public Multimap<CFANode, Wrapper<ASimpleDeclaration>> solve(
+      Collection<CFANode> pStartNodes)
+      throws InvalidConfigurationException, CPAException, InterruptedException {
+    ImmutableListMultimap<String, CFANode> startNodesPerFunction =
+        Multimaps.index(pStartNodes, CFANode::getFunctionName);
+    Queue<Collection<CFANode>> functions =
+        new ConcurrentLinkedQueue<>(startNodesPerFunction.asMap().values());
+    LiveVariablesTransferRelation sharedTransfer =
+        new LiveVariablesTransferRelation(
+            cfa.getVarClassification(), config, cfa.getLanguage(), cfa, logger);
+
+    int threads = Math.min(numberOfThreads, functions.size());
+    if (threads <= 1) {
+      return solveFunctions(sharedTransfer, functions);
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("live-variables-%d").build());
+    try {
+      List<Future<Multimap<CFANode, Wrapper<ASimpleDeclaration>>>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(
+            executor.submit(
+                () ->
+                    solveFunctions(new LiveVariablesTransferRelation(sharedTransfer), functions)));
+      }
+
+      Multimap<CFANode, Wrapper<ASimpleDeclaration>> result = HashMultimap.create();
+      for (Future<Multimap<CFANode, Wrapper<ASimpleDeclaration>>> future : futures) {
+        result.putAll(future.get());
+      }
+      return result;
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CPAException) {
+        throw (CPAException) cause;
+      } else if (cause instanceof InterruptedException) {
+        throw (InterruptedException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new AssertionError("unexpected checked exception", cause);
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Take functions from the queue and analyze them with the given transfer relation until the
+   * queue is empty.
+   */
+  private Multimap<CFANode, Wrapper<ASimpleDeclaration>> solveFunctions(
+      LiveVariablesTransferRelation pTransfer, Queue<Collection<CFANode>> pFunctions)
+      throws CPAException, InterruptedException {
+    Collection<CFANode> startNodes;
+    while ((startNodes = pFunctions.poll()) != null) {
+      solveFunction(pTransfer, startNodes);
+    }
+    return pTransfer.getLiveVariables();
+  }
+
+  private void solveFunction(
+      LiveVariablesTransferRelation pTransfer, Collection<CFANode> pStartNodes)
+      throws CPAException, InterruptedException {
+    Map<CFANode, LiveVariablesState> states = new HashMap<>();
+    NavigableSet<CFANode> worklist = new TreeSet<>(POSTORDER);
+
+    for (CFANode node : pStartNodes) {
+      LiveVariablesState initialState = pTransfer.getInitialState(node);
+      states.merge(node, initialState, LiveVariablesState::join);
+      worklist.add(node);
+    }
+
+    while (!worklist.isEmpty()) {
+      shutdownNotifier.shutdownIfNecessary();
+      CFANode node = worklist.pollFirst();
+      LiveVariablesState state = states.get(node);
+
+      // like the backwards location CPA without following function calls
+      for (CFAEdge edge : CFAUtils.allEnteringEdges(node)) {
+        if (edge instanceof FunctionCallEdge || edge instanceof FunctionReturnEdge) {
+          continue;
+        }
+        for (LiveVariablesState successor :
+            pTransfer.getAbstractSuccessorsForEdge(
+                state, SingletonPrecision.getInstance(), edge)) {
+          CFANode predecessor = edge.getPredecessor();
+          LiveVariablesState oldState = states.get(predecessor);
+          if (oldState == null) {
+            states.put(predecessor, successor);
+            worklist.add(predecessor);
+          } else if (!successor.isLessOrEqual(oldState)) {
+            states.put(predecessor, oldState.join(successor));
+            worklist.add(predecessor);
+          }
+        }
+      }
+    }
+  }
+}
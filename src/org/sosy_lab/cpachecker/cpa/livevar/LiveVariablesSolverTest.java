@@ -0,0 +1,121 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.livevar;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.ast.ASimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.LiveVariables;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Test that {@link LiveVariablesSolver} computes the same live variables as the CPA-based
+ * computation.
+ */
+@RunWith(Parameterized.class)
+public class LiveVariablesSolverTest {
+
+  @Parameters(name = "{0}")
+  public static Object[] getPrograms() {
+    return new Object[] {
+      "test/programs/simple/functionCall.c",
+      "test/programs/simple/loop1.c",
+      "test/programs/simple/lock-loop.c",
+      "test/programs/simple/recursion.c",
+      "test/programs/simple/struct_copy.c",
+      "test/programs/simple/uninitVars.c",
+    };
+  }
+
+  @Parameter(0)
+  public String program;
+
+  @Test
+  public void testSolverSingleThreaded() throws Exception {
+    checkSameLiveVariables(1);
+  }
+
+  @Test
+  public void testSolverMultiThreaded() throws Exception {
+    checkSameLiveVariables(4);
+  }
+
+  private void checkSameLiveVariables(int pThreads) throws Exception {
+    CFA cfaWithCPA = parse(false, pThreads);
+    CFA cfaWithSolver = parse(true, pThreads);
+
+    // both CFAs are created from the same program, so their nodes are created in the same order
+    List<CFANode> nodesWithCPA = Ordering.natural().sortedCopy(cfaWithCPA.getAllNodes());
+    List<CFANode> nodesWithSolver = Ordering.natural().sortedCopy(cfaWithSolver.getAllNodes());
+    assertThat(nodesWithSolver).hasSize(nodesWithCPA.size());
+
+    LiveVariables liveVarsWithCPA = cfaWithCPA.getLiveVariables().get();
+    LiveVariables liveVarsWithSolver = cfaWithSolver.getLiveVariables().get();
+    for (int i = 0; i < nodesWithCPA.size(); i++) {
+      CFANode nodeWithCPA = nodesWithCPA.get(i);
+      CFANode nodeWithSolver = nodesWithSolver.get(i);
+      assertThat(nodeWithSolver.getFunctionName()).isEqualTo(nodeWithCPA.getFunctionName());
+      assertWithMessage("live variables at %s", nodeWithCPA)
+          .that(getNames(liveVarsWithSolver, nodeWithSolver))
+          .containsExactlyElementsIn(getNames(liveVarsWithCPA, nodeWithCPA));
+    }
+  }
+
+  private CFA parse(boolean pUseSolver, int pThreads) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("cfa.findLiveVariables", "true")
+            .setOption("liveVar.evaluationStrategy", "FUNCTION_WISE")
+            .setOption("liveVar.useDataflowSolver", Boolean.toString(pUseSolver))
+            .setOption("liveVar.solverThreads", Integer.toString(pThreads))
+            .build();
+    CFACreator creator =
+        new CFACreator(config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy());
+    CFA cfa = creator.parseFileAndCreateCFA(ImmutableList.of(program));
+    assertThat(cfa.getLiveVariables().isPresent()).isTrue();
+    return cfa;
+  }
+
+  private static ImmutableList<String> getNames(LiveVariables pLiveVariables, CFANode pNode) {
+    return FluentIterable.from(pLiveVariables.getLiveVariablesForNode(pNode))
+        .transform(ASimpleDeclaration::getQualifiedName)
+        .toList();
+  }
+}
@@ -101,6 +101,7 @@ import org.sosy_lab.cpachecker.util.variableclassification.VariableClassificatio
 @Options(prefix="cpa.liveVar")
 public class LiveVariablesTransferRelation extends ForwardingTransferRelation<LiveVariablesState, LiveVariablesState, Precision> {
 
+  // filled lazily, nodes without entry have no live variables
   private final Map<CFANode, BitSet> liveVariables = new HashMap<>();
 
   @Option(secure=true, description="With this option the handling of global variables"
@@ -171,14 +172,30 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
       }
     }
 
-    for (CFANode node : pCFA.getAllNodes()) {
-      liveVariables.put(node, new BitSet(noVars));
-    }
-
     addressedOrGlobalVars = (BitSet) addressedVars.clone();
     addressedOrGlobalVars.or(globalVars);
   }
 
+  /**
+   * Create a transfer relation that shares the tables of declarations, which only depend on the
+   * CFA, with the given one, but collects its own live variables. This is cheaper than creating a
+   * new instance, and the tables are not modified, so both instances can be used concurrently by
+   * different threads.
+   */
+  LiveVariablesTransferRelation(LiveVariablesTransferRelation pOther) {
+    assumeGlobalVariablesAreAlwaysLive = pOther.assumeGlobalVariablesAreAlwaysLive;
+    allDeclarations = pOther.allDeclarations;
+    declarationListPos = pOther.declarationListPos;
+    noVars = pOther.noVars;
+    addressedOrGlobalVars = pOther.addressedOrGlobalVars;
+    logger = pOther.logger;
+    cfa = pOther.cfa;
+  }
+
+  private BitSet getLiveVariablesOfNode(CFANode pNode) {
+    return liveVariables.computeIfAbsent(pNode, node -> new BitSet(noVars));
+  }
+
   public LiveVariablesState getInitialState(CFANode pNode) {
     if (pNode instanceof FunctionExitNode) {
       FunctionExitNode eNode = (FunctionExitNode) pNode;
@@ -196,7 +213,7 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
             LiveVariables.LIVE_DECL_EQUIVALENCE.wrap(returnVarName.get());
 
         int wrappedVarPos = declarationListPos.get(wrappedVar);
-        liveVariables.get(pNode).set(wrappedVarPos);
+        getLiveVariablesOfNode(pNode).set(wrappedVarPos);
 
         BitSet out = new BitSet(noVars);
         out.set(wrappedVarPos);
@@ -253,7 +270,7 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
     }
 
     // live variables of multiedges were handled separately.
-    liveVariables.get(edge.getPredecessor()).or(successor.getDataCopy());
+    getLiveVariablesOfNode(edge.getPredecessor()).or(successor.getDataCopy());
     return Collections.singleton(successor);
   }
 
@@ -421,7 +438,10 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
     ImmutableMultimap.Builder<CFANode, Wrapper<ASimpleDeclaration>> builder =
         ImmutableMultimap.builder();
     for (CFANode node : cfa.getAllNodes()) {
-      builder.putAll(node, dataToVars(liveVariables.get(node)));
+      BitSet data = liveVariables.get(node);
+      if (data != null) {
+        builder.putAll(node, dataToVars(data));
+      }
     }
     return builder.build();
   }
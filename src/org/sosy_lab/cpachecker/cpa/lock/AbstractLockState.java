@@ -23,10 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cpa.lock;
 
-import static com.google.common.collect.FluentIterable.from;
-
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 import java.util.List;
 import java.util.Set;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
@@ -65,11 +62,16 @@ public abstract class AbstractLockState
 
   protected abstract Set<LockIdentifier> getLocks();
 
+  /** Returns the held locks as compact set, subclasses should cache it if possible. */
+  protected LockSet getLockSet() {
+    return LockSet.of(getLocks());
+  }
+
   @Override
   public boolean isCompatibleWith(CompatibleState state) {
     Preconditions.checkArgument(state instanceof AbstractLockState);
     AbstractLockState pLocks = (AbstractLockState) state;
-    return !Sets.intersection(getLocks(), pLocks.getLocks()).isEmpty();
+    return getLockSet().intersects(pLocks.getLockSet());
   }
 
   public abstract AbstractLockStateBuilder builder();
@@ -80,7 +82,7 @@ public abstract class AbstractLockState
   public boolean isLessOrEqual(AbstractLockState other) {
     // State is less, if it has the same locks as the other and may be some more
 
-    return from(other.getLocks()).allMatch(this.getLocks()::contains);
+    return getLockSet().containsAll(other.getLockSet());
   }
 
   @Override
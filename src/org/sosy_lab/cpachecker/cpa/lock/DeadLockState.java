@@ -141,7 +141,8 @@ public class DeadLockState extends AbstractLockState {
 
     @Override
     public void restoreAll() {
-      mutableLocks = ((DeadLockState) mutableToRestore).locks;
+      // copy, the map of the other state must not be modified by this builder
+      mutableLocks = Maps.newTreeMap(((DeadLockState) mutableToRestore).locks);
     }
 
     @Override
@@ -213,12 +214,15 @@ public class DeadLockState extends AbstractLockState {
 
   private final SortedMap<LockIdentifier, Integer> locks;
   private final List<LockIdentifier> lockList;
+  // shared compact representation of locks.keySet()
+  private final LockSet lockSet;
   // if we need restore state, we save it here
   // Used for function annotations like annotate.function_name.restore
   public DeadLockState() {
     super();
     locks = Maps.newTreeMap();
     lockList = Lists.newLinkedList();
+    lockSet = LockSet.EMPTY;
   }
 
   protected DeadLockState(
@@ -226,6 +230,7 @@ public class DeadLockState extends AbstractLockState {
     super(state);
     this.locks = Maps.newTreeMap(map);
     this.lockList = Lists.newLinkedList(gLocks);
+    lockSet = LockSet.of(locks.keySet());
   }
 
   @Override
@@ -336,4 +341,9 @@ public class DeadLockState extends AbstractLockState {
   protected Set<LockIdentifier> getLocks() {
     return locks.keySet();
   }
+
+  @Override
+  protected LockSet getLockSet() {
+    return lockSet;
+  }
 }
@@ -23,9 +23,11 @@
  */
 package org.sosy_lab.cpachecker.cpa.lock;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 
 public class LockIdentifier implements Comparable<LockIdentifier> {
 
@@ -40,10 +42,14 @@ public class LockIdentifier implements Comparable<LockIdentifier> {
     }
   }
 
-  private static Set<LockIdentifier> createdIds;
+  // All created identifiers are interned and numbered densely, so that sets of locks can be
+  // stored as bitsets over these numbers (see LockSet)
+  private static final Map<LockIdentifier, LockIdentifier> createdIds = new HashMap<>();
+  private static final List<LockIdentifier> idToLock = new ArrayList<>();
 
   private final String name;
   private final LockType type;
+  private int id = -1;
 
   protected LockIdentifier(String pName, LockType pType) {
     name = pName;
@@ -58,10 +64,7 @@ public class LockIdentifier implements Comparable<LockIdentifier> {
     return LockIdentifier.of(name, var, LockType.GLOBAL_LOCK);
   }
 
-  public static LockIdentifier of(String name, String var, LockType type) {
-    if (createdIds == null) {
-      createdIds = new HashSet<>();
-    }
+  public static synchronized LockIdentifier of(String name, String var, LockType type) {
     LockIdentifier newId;
     if (var.isEmpty()) {
       newId = new LockIdentifier(name, type);
@@ -70,20 +73,31 @@ public class LockIdentifier implements Comparable<LockIdentifier> {
       newId = new LockIdentifierWithVariable(name, varName, type);
     }
 
-    for (LockIdentifier id : createdIds) {
-      if (id.equals(newId)) {
-        return id;
-      }
+    LockIdentifier existingId = createdIds.get(newId);
+    if (existingId != null) {
+      return existingId;
     }
 
-    createdIds.add(newId);
+    newId.id = idToLock.size();
+    idToLock.add(newId);
+    createdIds.put(newId, newId);
     return newId;
   }
 
+  /** Returns the lock with the given dense id, the inverse of {@link #getId()}. */
+  static synchronized LockIdentifier fromId(int pId) {
+    return idToLock.get(pId);
+  }
+
   public String getName() {
     return name;
   }
 
+  /** Returns the unique dense number of this lock, which is assigned during interning. */
+  public int getId() {
+    return id;
+  }
+
   private static String getCleanName(String originName) {
     if (originName != null) {
       String newName = originName.replaceAll("\\(", "");
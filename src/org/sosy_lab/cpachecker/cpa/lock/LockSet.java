@@ -0,0 +1,198 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.lock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Ordering;
+import java.util.Arrays;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable set of locks, which is stored as a bitset over the dense ids of the interned {@link
+ * LockIdentifier}s. Instances are hash-consed, thus equal sets are represented by the same object
+ * and the set operations, which are necessary for the race detection, work on whole words.
+ *
+ * <p>The iteration order is the natural order of {@link LockIdentifier}.
+ */
+public final class LockSet implements Iterable<LockIdentifier>, Comparable<LockSet> {
+
+  private static final Interner<LockSet> interner = Interners.newWeakInterner();
+
+  public static final LockSet EMPTY = interner.intern(new LockSet(new long[0]));
+
+  // no trailing zero words, thus equal sets have equal arrays
+  private final long[] words;
+  private final int size;
+  private final int hashCode;
+
+  // lazily computed, the order is used for comparison and printing
+  private transient volatile @Nullable ImmutableList<LockIdentifier> sortedLocks;
+
+  private LockSet(long[] pWords) {
+    words = pWords;
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    size = count;
+    hashCode = Arrays.hashCode(words);
+  }
+
+  public static LockSet of(Iterable<LockIdentifier> pLocks) {
+    long[] newWords = new long[0];
+    for (LockIdentifier lock : pLocks) {
+      int id = lock.getId();
+      int index = id >>> 6;
+      if (index >= newWords.length) {
+        newWords = Arrays.copyOf(newWords, index + 1);
+      }
+      newWords[index] |= 1L << id;
+    }
+    return create(newWords);
+  }
+
+  private static LockSet create(long[] pWords) {
+    int length = pWords.length;
+    while (length > 0 && pWords[length - 1] == 0) {
+      length--;
+    }
+    if (length == 0) {
+      return EMPTY;
+    }
+    long[] trimmedWords = length == pWords.length ? pWords : Arrays.copyOf(pWords, length);
+    return interner.intern(new LockSet(trimmedWords));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(LockIdentifier pLock) {
+    int id = pLock.getId();
+    int index = id >>> 6;
+    return id >= 0 && index < words.length && (words[index] & (1L << id)) != 0;
+  }
+
+  /** Checks whether the two sets have at least one common lock. */
+  public boolean intersects(LockSet pOther) {
+    if (this == pOther) {
+      return !isEmpty();
+    }
+    int length = Math.min(words.length, pOther.words.length);
+    for (int i = 0; i < length; i++) {
+      if ((words[i] & pOther.words[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Checks whether all locks of the other set are contained in this set. */
+  public boolean containsAll(LockSet pOther) {
+    if (this == pOther || pOther.isEmpty()) {
+      return true;
+    }
+    if (pOther.words.length > words.length || pOther.size > size) {
+      return false;
+    }
+    for (int i = 0; i < pOther.words.length; i++) {
+      if ((pOther.words[i] & ~words[i]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private ImmutableList<LockIdentifier> getSortedLocks() {
+    ImmutableList<LockIdentifier> result = sortedLocks;
+    if (result == null) {
+      ImmutableList.Builder<LockIdentifier> builder = ImmutableList.builder();
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        while (word != 0) {
+          builder.add(LockIdentifier.fromId((i << 6) + Long.numberOfTrailingZeros(word)));
+          word &= word - 1;
+        }
+      }
+      result = Ordering.natural().immutableSortedCopy(builder.build());
+      sortedLocks = result;
+    }
+    return result;
+  }
+
+  @Override
+  public Iterator<LockIdentifier> iterator() {
+    return getSortedLocks().iterator();
+  }
+
+  /** Compares the sets at first by size and then lexicographically by their sorted locks. */
+  @Override
+  public int compareTo(LockSet pOther) {
+    if (this == pOther) {
+      return 0;
+    }
+    int result = Integer.compare(size, pOther.size);
+    if (result != 0) {
+      return result;
+    }
+    Iterator<LockIdentifier> lockIterator = iterator();
+    Iterator<LockIdentifier> lockIterator2 = pOther.iterator();
+    while (lockIterator.hasNext()) {
+      result = lockIterator.next().compareTo(lockIterator2.next());
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof LockSet)) {
+      return false;
+    }
+    LockSet other = (LockSet) pObj;
+    return hashCode == other.hashCode && Arrays.equals(words, other.words);
+  }
+
+  @Override
+  public String toString() {
+    return getSortedLocks().toString();
+  }
+}
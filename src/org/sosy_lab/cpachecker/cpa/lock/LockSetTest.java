@@ -0,0 +1,69 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.lock;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+public class LockSetTest {
+
+  private final LockIdentifier a = LockIdentifier.of("a");
+  private final LockIdentifier b = LockIdentifier.of("b");
+  private final LockIdentifier c = LockIdentifier.of("c", "var");
+
+  @Test
+  public void testInterning() {
+    assert_().that(LockIdentifier.of("a")).isSameAs(a);
+    LockSet ab = LockSet.of(ImmutableList.of(a, b));
+    assert_().that(LockSet.of(ImmutableList.of(b, a)) == ab).isTrue();
+    assert_().that(LockSet.of(ImmutableList.of()) == LockSet.EMPTY).isTrue();
+  }
+
+  @Test
+  public void testOperations() {
+    LockSet ab = LockSet.of(ImmutableList.of(a, b));
+    LockSet bc = LockSet.of(ImmutableList.of(b, c));
+    LockSet c1 = LockSet.of(ImmutableList.of(c));
+
+    assert_().that(ab.size()).isEqualTo(2);
+    assert_().that(ab.contains(a)).isTrue();
+    assert_().that(ab.contains(c)).isFalse();
+    assert_().that(ab.intersects(bc)).isTrue();
+    assert_().that(ab.intersects(c1)).isFalse();
+    assert_().that(bc.containsAll(c1)).isTrue();
+    assert_().that(ab.containsAll(bc)).isFalse();
+    assert_().that(ab.containsAll(LockSet.EMPTY)).isTrue();
+  }
+
+  @Test
+  public void testOrder() {
+    LockSet cba = LockSet.of(ImmutableList.of(c, b, a));
+    assert_().that(ImmutableList.copyOf(cba)).containsExactly(a, b, c).inOrder();
+    assert_().that(LockSet.of(ImmutableList.of(a)).compareTo(cba)).isLessThan(0);
+    assert_().that(LockSet.of(ImmutableList.of(a, b)).compareTo(LockSet.of(ImmutableList.of(a, c))))
+        .isLessThan(0);
+  }
+}
@@ -45,49 +45,61 @@ import org.sosy_lab.cpachecker.cpa.usage.CompatibleState;
 
 public class LockState extends AbstractLockState {
 
-  public static class LockTreeNode extends TreeSet<LockIdentifier> implements CompatibleNode {
+  public static class LockTreeNode implements CompatibleNode {
 
-    private static final long serialVersionUID = 5757759799394605077L;
+    private final LockSet locks;
 
-    public LockTreeNode(Set<LockIdentifier> locks) {
-      super(locks);
+    public LockTreeNode(Set<LockIdentifier> pLocks) {
+      this(LockSet.of(pLocks));
+    }
+
+    LockTreeNode(LockSet pLocks) {
+      locks = pLocks;
     }
 
     @Override
     public boolean isCompatibleWith(CompatibleState pState) {
       Preconditions.checkArgument(pState instanceof LockTreeNode);
-      return Sets.intersection(this, (LockTreeNode) pState).isEmpty();
+      return !locks.intersects(((LockTreeNode) pState).locks);
     }
 
     @Override
     public int compareTo(CompatibleState pArg0) {
       Preconditions.checkArgument(pArg0 instanceof LockTreeNode);
-      LockTreeNode o = (LockTreeNode) pArg0;
-      int result = size() - o.size();
-      if (result != 0) {
-        return result;
-      }
-      Iterator<LockIdentifier> lockIterator = iterator();
-      Iterator<LockIdentifier> lockIterator2 = o.iterator();
-      while (lockIterator.hasNext()) {
-        result = lockIterator.next().compareTo(lockIterator2.next());
-        if (result != 0) {
-          return result;
-        }
-      }
-      return 0;
+      return locks.compareTo(((LockTreeNode) pArg0).locks);
     }
 
     @Override
     public boolean cover(CompatibleNode pNode) {
       Preconditions.checkArgument(pNode instanceof LockTreeNode);
       LockTreeNode o = (LockTreeNode) pNode;
-      return o.containsAll(this);
+      return o.locks.containsAll(locks);
     }
 
     @Override
     public boolean hasEmptyLockSet() {
-      return isEmpty();
+      return locks.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+      return locks.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (pObj == null || getClass() != pObj.getClass()) {
+        return false;
+      }
+      return locks.equals(((LockTreeNode) pObj).locks);
+    }
+
+    @Override
+    public String toString() {
+      return locks.toString();
     }
   }
 
@@ -157,7 +169,8 @@ public class LockState extends AbstractLockState {
 
     @Override
     public void restoreAll() {
-      mutableLocks = ((LockState) mutableToRestore).locks;
+      // copy, the map of the other state must not be modified by this builder
+      mutableLocks = Maps.newTreeMap(((LockState) mutableToRestore).locks);
     }
 
     @Override
@@ -255,16 +268,20 @@ public class LockState extends AbstractLockState {
   }
 
   private final SortedMap<LockIdentifier, Integer> locks;
+  // shared compact representation of locks.keySet()
+  private final LockSet lockSet;
   // if we need restore state, we save it here
   // Used for function annotations like annotate.function_name.restore
   public LockState() {
     super();
     locks = Maps.newTreeMap();
+    lockSet = LockSet.EMPTY;
   }
 
   protected LockState(SortedMap<LockIdentifier, Integer> gLocks, LockState state) {
     super(state);
     this.locks = Maps.newTreeMap(gLocks);
+    lockSet = LockSet.of(locks.keySet());
   }
 
   @Override
@@ -391,11 +408,16 @@ public class LockState extends AbstractLockState {
 
   @Override
   public CompatibleNode getTreeNode() {
-    return new LockTreeNode(locks.keySet());
+    return new LockTreeNode(lockSet);
   }
 
   @Override
   protected Set<LockIdentifier> getLocks() {
     return locks.keySet();
   }
+
+  @Override
+  protected LockSet getLockSet() {
+    return lockSet;
+  }
 }
@@ -0,0 +1,69 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.lock;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.lock.DeadLockState.DeadLockStateBuilder;
+import org.sosy_lab.cpachecker.cpa.lock.LockState.LockStateBuilder;
+
+public class LockStateTest {
+
+  private final LockIdentifier a = LockIdentifier.of("a");
+  private final LockIdentifier b = LockIdentifier.of("b");
+
+  @Test
+  public void testRestoreAllDoesNotModifyRestoredState() {
+    LockStateBuilder builder = new LockState().builder();
+    builder.add(a);
+    LockState withA = builder.build();
+
+    builder = withA.builder();
+    builder.setRestoreState();
+    LockState toRestore = builder.build();
+
+    builder = toRestore.builder();
+    builder.restoreAll();
+    builder.add(b);
+    LockState withAB = builder.build();
+
+    assert_().that(withA.getLocks()).containsExactly(a);
+    assert_().that(withA.getLockSet() == LockSet.of(ImmutableList.of(a))).isTrue();
+    assert_().that(withAB.getLocks()).containsExactly(a, b);
+    assert_().that(withAB.getLockSet() == LockSet.of(ImmutableList.of(a, b))).isTrue();
+  }
+
+  @Test
+  public void testCachedLockSetOfDeadLockState() {
+    DeadLockStateBuilder builder = new DeadLockState().builder();
+    builder.add(a);
+    builder.add(b);
+    DeadLockState withAB = builder.build();
+
+    assert_().that(withAB.getLockSet() == LockSet.of(ImmutableList.of(a, b))).isTrue();
+    assert_().that(new DeadLockState().getLockSet() == LockSet.EMPTY).isTrue();
+  }
+}
@@ -0,0 +1,217 @@
+package org.sosy_lab.cpachecker.cpa.policyiteration;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment.OptStatus;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Runs independent maximization queries over a shared set of constraints in parallel.
+ *
+ * <p>Each worker thread owns a separate {@link Solver} instance, because solver contexts are not
+ * thread-safe. All formulas are translated into the context of the workers on the calling thread
+ * before the queries are started, and only rationals are returned, so no formula crosses contexts
+ * concurrently. The queries are distributed round-robin over the workers, and the results are
+ * returned in the order of the queries, thus the result does not depend on the scheduling.
+ */
+class ParallelOptimizationManager implements AutoCloseable {
+
+  private static final String OBJECTIVE_VARIABLE_PREFIX = "__parallel_opt_objective_";
+
+  /** A single maximization query, which is checked together with the shared constraints. */
+  static final class OptimizationQuery {
+    private final Formula objective;
+    private final BooleanFormula constraint;
+
+    OptimizationQuery(Formula pObjective, BooleanFormula pConstraint) {
+      objective = pObjective;
+      constraint = pConstraint;
+    }
+  }
+
+  private final FormulaManagerView fmgr;
+  private final ShutdownNotifier shutdownNotifier;
+  private final PolicyIterationStatistics statistics;
+  private final ImmutableList<Solver> workerSolvers;
+  private final ExecutorService executor;
+
+  ParallelOptimizationManager(
+      int pNumberOfThreads,
+      FormulaManagerView pFmgr,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      PolicyIterationStatistics pStatistics)
+      throws InvalidConfigurationException {
+    fmgr = pFmgr;
+    shutdownNotifier = pShutdownNotifier;
+    statistics = pStatistics;
+
+    ImmutableList.Builder<Solver> solvers = ImmutableList.builder();
+    for (int i = 0; i < pNumberOfThreads; i++) {
+      solvers.add(Solver.create(pConfig, pLogger, pShutdownNotifier));
+    }
+    workerSolvers = solvers.build();
+
+    // daemon threads, because a blocked solver call should not keep the JVM alive
+    executor =
+        Executors.newFixedThreadPool(
+            pNumberOfThreads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("policy-optimization-%d")
+                .build());
+  }
+
+  /**
+   * Maximizes the objective of each query subject to the shared constraints and the constraint of
+   * the query.
+   *
+   * @return the upper bound of each query in the order of the given queries, where an empty
+   *     optional denotes an unbounded objective, or an empty optional instead of the list if any
+   *     query is unsatisfiable.
+   */
+  Optional<List<Optional<Rational>>> maximizeAll(
+      Collection<BooleanFormula> pConstraints, List<OptimizationQuery> pQueries, Rational pEpsilon)
+      throws CPATransferException, InterruptedException {
+
+    int workers = Math.min(workerSolvers.size(), pQueries.size());
+    List<Future<List<Optional<Rational>>>> futures = new ArrayList<>(workers);
+    try {
+      for (int w = 0; w < workers; w++) {
+        shutdownNotifier.shutdownIfNecessary();
+        futures.add(executor.submit(createWorkerTask(w, workers, pConstraints, pQueries, pEpsilon)));
+      }
+
+      // merge in query order, independently of the order in which the workers finish
+      List<List<Optional<Rational>>> partialResults = new ArrayList<>(workers);
+      for (Future<List<Optional<Rational>>> future : futures) {
+        List<Optional<Rational>> partialResult = future.get();
+        if (partialResult == null) {
+          return Optional.empty();
+        }
+        partialResults.add(partialResult);
+      }
+      List<Optional<Rational>> result = new ArrayList<>(pQueries.size());
+      for (int i = 0; i < pQueries.size(); i++) {
+        result.add(partialResults.get(i % workers).get(i / workers));
+      }
+      return Optional.of(result);
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPATransferException.class, InterruptedException.class);
+      throw new CPATransferException("Failed parallel maximization", t);
+
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Translates the formulas for the queries with index {@code pWorker + k * pWorkers} into the
+   * context of the given worker and creates the task that solves them. This method needs to be
+   * called on the thread that owns the main formula manager.
+   */
+  private Callable<List<Optional<Rational>>> createWorkerTask(
+      int pWorker,
+      int pWorkers,
+      Collection<BooleanFormula> pConstraints,
+      List<OptimizationQuery> pQueries,
+      Rational pEpsilon) {
+
+    final Solver workerSolver = workerSolvers.get(pWorker);
+    final FormulaManagerView workerFmgr = workerSolver.getFormulaManager();
+
+    final List<BooleanFormula> constraints = new ArrayList<>(pConstraints.size());
+    for (BooleanFormula constraint : pConstraints) {
+      constraints.add(workerFmgr.translateFrom(constraint, fmgr));
+    }
+
+    // Only boolean formulas can be translated, so each objective is bound to a fresh variable.
+    final List<Formula> objectives = new ArrayList<>();
+    final List<BooleanFormula> queryConstraints = new ArrayList<>();
+    for (int i = pWorker; i < pQueries.size(); i += pWorkers) {
+      OptimizationQuery query = pQueries.get(i);
+      FormulaType<Formula> type = fmgr.getFormulaType(query.objective);
+      String name = OBJECTIVE_VARIABLE_PREFIX + i;
+      BooleanFormula definition =
+          fmgr.makeEqual(fmgr.makeVariable(type, name), query.objective);
+      objectives.add(workerFmgr.makeVariable(type, name));
+      queryConstraints.add(
+          workerFmgr.translateFrom(
+              fmgr.getBooleanFormulaManager().and(definition, query.constraint), fmgr));
+    }
+
+    return () -> {
+      List<Optional<Rational>> result = new ArrayList<>(objectives.size());
+      try (OptimizationProverEnvironment optEnvironment = workerSolver.newOptEnvironment()) {
+        for (BooleanFormula constraint : constraints) {
+          optEnvironment.addConstraint(constraint);
+        }
+
+        for (int i = 0; i < objectives.size(); i++) {
+          shutdownNotifier.shutdownIfNecessary();
+          optEnvironment.push();
+          optEnvironment.addConstraint(queryConstraints.get(i));
+          int handle = optEnvironment.maximize(objectives.get(i));
+
+          OptStatus status;
+          TimerWrapper queryTimer = statistics.parallelOptTimer.getNewTimer();
+          try {
+            queryTimer.start();
+            status = optEnvironment.check();
+          } finally {
+            queryTimer.stop();
+          }
+
+          if (status == OptStatus.UNSAT) {
+            return null;
+          } else if (status == OptStatus.UNDEF) {
+            throw new CPATransferException("Solver returned undefined status");
+          }
+          assert status == OptStatus.OPT;
+
+          result.add(optEnvironment.upper(handle, pEpsilon));
+          optEnvironment.pop();
+        }
+      } catch (SolverException e) {
+        throw new CPATransferException("Failed maximization", e);
+      }
+      return result;
+    };
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    for (Solver solver : workerSolvers) {
+      solver.close();
+    }
+  }
+}
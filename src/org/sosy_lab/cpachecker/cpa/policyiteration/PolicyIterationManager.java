@@ -26,6 +26,7 @@ import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -47,6 +48,7 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.loopbound.LoopBoundState;
+import org.sosy_lab.cpachecker.cpa.policyiteration.ParallelOptimizationManager.OptimizationQuery;
 import org.sosy_lab.cpachecker.cpa.policyiteration.PolicyIterationStatistics.TemplateUpdateEvent;
 import org.sosy_lab.cpachecker.cpa.policyiteration.ValueDeterminationManager.ValueDeterminationConstraints;
 import org.sosy_lab.cpachecker.cpa.policyiteration.polyhedra.PolyhedraWideningManager;
@@ -150,6 +152,12 @@ public class PolicyIterationManager {
       + "let other CPAs use the output of LPI.")
   private boolean delayAbstractionUntilStrengthen = false;
 
+  @Option(secure=true, description="Number of threads for the maximization queries of "
+      + "value determination. With more than one thread, the queries for the different "
+      + "templates are solved in parallel, each thread using its own solver instance.")
+  @IntegerOption(min=1)
+  private int valueDeterminationThreads = 1;
+
   private final FormulaManagerView fmgr;
   private final CFA cfa;
   private final PathFormulaManager pfmgr;
@@ -166,6 +174,7 @@ public class PolicyIterationManager {
   private final TemplatePrecision initialPrecision;
   private final TemplateToFormulaConversionManager templateToFormulaConversionManager;
   @Nullable private BlockPartitioning partitioning;
+  @Nullable private final ParallelOptimizationManager parallelOptimizationManager;
 
   public PolicyIterationManager(
       Configuration pConfig,
@@ -199,6 +208,21 @@ public class PolicyIterationManager {
     linearizationManager = pLinearizationManager;
     rcnfManager = new RCNFManager(pConfig);
     initialPrecision = pPrecision;
+    if (valueDeterminationThreads > 1) {
+      parallelOptimizationManager = new ParallelOptimizationManager(
+          valueDeterminationThreads, fmgr, pConfig, logger, shutdownNotifier, statistics);
+    } else {
+      parallelOptimizationManager = null;
+    }
+  }
+
+  /**
+   * Release the solvers used for parallel value determination.
+   */
+  void close() {
+    if (parallelOptimizationManager != null) {
+      parallelOptimizationManager.close();
+    }
   }
 
   /**
@@ -623,6 +647,16 @@ public class PolicyIterationManager {
         new HashMap<>(stateWithUpdates.getAbstraction());
     int locId = stateWithUpdates.getLocationID();
 
+    if (parallelOptimizationManager != null && updated.size() > 1) {
+      statistics.valueDeterminationTimer.start();
+      try {
+        return performParallelValueDetermination(
+            stateWithUpdates, updated, valDetConstraints, newAbstraction);
+      } finally {
+        statistics.valueDeterminationTimer.stop();
+      }
+    }
+
     // Maximize for each template subject to the overall constraints.
     statistics.valueDeterminationTimer.start();
     try (OptimizationProverEnvironment optEnvironment = solver.newOptEnvironment()) {
@@ -687,6 +721,55 @@ public class PolicyIterationManager {
     return Optional.of(stateWithUpdates.withNewAbstraction(newAbstraction));
   }
 
+  /**
+   * Same as the sequential value determination, but the maximization queries for all templates
+   * are solved in parallel. The resulting bounds are merged in the iteration order of
+   * {@code updated}, so the result is the same as in the sequential case.
+   */
+  private Optional<PolicyAbstractedState> performParallelValueDetermination(
+      PolicyAbstractedState stateWithUpdates,
+      Map<Template, PolicyBound> updated,
+      ValueDeterminationConstraints valDetConstraints,
+      Map<Template, PolicyBound> newAbstraction
+  ) throws InterruptedException, CPATransferException {
+    assert parallelOptimizationManager != null;
+    int locId = stateWithUpdates.getLocationID();
+
+    List<Entry<Template, PolicyBound>> entries = new ArrayList<>(updated.entrySet());
+    List<OptimizationQuery> queries = new ArrayList<>(entries.size());
+    for (Entry<Template, PolicyBound> entry : entries) {
+      Formula objective = valDetConstraints.outVars.get(entry.getKey(), locId);
+      BooleanFormula consistencyConstraint = fmgr.makeGreaterOrEqual(
+          objective,
+          fmgr.makeNumber(objective, entry.getValue().getBound()), true);
+      queries.add(new OptimizationQuery(objective, consistencyConstraint));
+    }
+
+    Optional<List<Optional<Rational>>> values =
+        parallelOptimizationManager.maximizeAll(valDetConstraints.constraints, queries, EPSILON);
+    if (!values.isPresent()) {
+      shutdownNotifier.shutdownIfNecessary();
+      return Optional.empty();
+    }
+
+    for (int i = 0; i < entries.size(); i++) {
+      Template template = entries.get(i).getKey();
+      PolicyBound mergedBound = entries.get(i).getValue();
+      Optional<Rational> value = values.get().get(i);
+      if (value.isPresent() &&
+          !templateToFormulaConversionManager.isOverflowing(template, value.get())) {
+        Rational v = value.get();
+        logger.log(Level.FINE, "Updating", template, "to value", v);
+        newAbstraction.put(template, mergedBound.updateValueFromValueDetermination(v));
+      } else {
+
+        // Unbounded.
+        newAbstraction.remove(template);
+      }
+    }
+    return Optional.of(stateWithUpdates.withNewAbstraction(newAbstraction));
+  }
+
   /**
    * @return Whether the <code>state</code> is unreachable.
    */
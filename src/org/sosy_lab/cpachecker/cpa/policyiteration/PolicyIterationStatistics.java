@@ -11,6 +11,7 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
 import org.sosy_lab.cpachecker.util.templates.Template;
 
 public class PolicyIterationStatistics implements Statistics {
@@ -26,6 +27,8 @@ public class PolicyIterationStatistics implements Statistics {
   public final Timer polyhedraWideningTimer = new Timer();
 
   final Timer optTimer = new Timer();
+  final ThreadSafeTimerContainer parallelOptTimer =
+      new ThreadSafeTimerContainer("Time for parallel value-determination queries");
   final Timer checkIndependenceTimer = new Timer();
 
   final Timer ackermannizationTimer = new Timer();
@@ -49,6 +52,10 @@ public class PolicyIterationStatistics implements Statistics {
     printTimer(out, valueDeterminationTimer, "value determination");
     printTimer(out, abstractionTimer, "abstraction");
     printTimer(out, optTimer, "optimization (OPT-SMT)");
+    if (parallelOptTimer.getNumberOfIntervals() > 0) {
+      out.printf("Time spent in parallel value determination queries: %s%n",
+          parallelOptTimer.prettyFormat());
+    }
 
     printTimer(out, checkSATTimer, "checking bad states (SMT)");
 
@@ -57,6 +57,7 @@ import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.FunctionStructureHashes;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.LoopInvariantsWriter;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsWriter;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateMapWriter;
@@ -85,6 +86,14 @@ class PredicateCPAStatistics extends AbstractStatistics {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path predmapFile = Paths.get("predmap.txt");
 
+  @Option(secure=true, description="file for exporting the structural hashes of all functions "
+      + "together with the final predicate map, such that the predicates of unchanged functions "
+      + "can be reused for the next revision of the program "
+      + "(cf. cpa.predicate.abstraction.initialPredicates.functionHashesFile)",
+          name="predmap.functionHashesFile")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path functionHashesFile = null;
+
   @Option(secure=true, name="precondition.file", description="File for exporting the weakest precondition.")
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path preconditionFile = Paths.get("precondition.txt");
@@ -126,6 +135,7 @@ class PredicateCPAStatistics extends AbstractStatistics {
   private Path relationsFile = Paths.get("relations.txt");
 
   private final LogManager logger;
+  private final CFA cfa;
 
   private final Solver solver;
   private final PathFormulaManager pfmgr;
@@ -161,6 +171,7 @@ class PredicateCPAStatistics extends AbstractStatistics {
     pConfig.inject(this, PredicateCPAStatistics.class);
 
     logger = pLogger;
+    cfa = pCfa;
     solver = pSolver;
     pfmgr = pPfmgr;
     blk = pBlk;
@@ -254,6 +265,14 @@ class PredicateCPAStatistics extends AbstractStatistics {
       // check if/where to dump the predicate map
       if (exportPredmap && predmapFile != null) {
         exportPredmapToFile(predmapFile, predicates);
+        if (functionHashesFile != null) {
+          try {
+            FunctionStructureHashes.writeFunctionHashes(
+                FunctionStructureHashes.computeFunctionHashes(cfa), functionHashesFile);
+          } catch (IOException e) {
+            logger.logUserException(Level.WARNING, e, "Could not write function hashes to file");
+          }
+        }
       }
 
       maxPredsPerLocation = 0;
@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.sosy_lab.common.configuration.Configuration;
@@ -37,8 +39,10 @@ import org.sosy_lab.common.configuration.Options;
 import java.nio.file.Path;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.FunctionStructureHashes;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateMapParser;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
@@ -47,6 +51,10 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatistics;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.SetMultimap;
 
 @Options(prefix="cpa.predicate")
 public class PredicatePrecisionBootstrapper implements StatisticsProvider {
@@ -56,6 +64,14 @@ public class PredicatePrecisionBootstrapper implements StatisticsProvider {
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private List<Path> predicatesFiles = ImmutableList.of();
 
+  @Option(secure=true, name="abstraction.initialPredicates.functionHashesFile",
+      description="file with the structural hashes of the functions of the program revision "
+          + "for which the initial predicates were exported (cf. cpa.predicate.predmap.functionHashesFile). "
+          + "If given, only the initial predicates of functions that were not changed since then "
+          + "and that do not call changed functions are used, and they are applied to the whole function.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private Path functionHashesFile = null;
+
   @Option(secure=true, description="always check satisfiability at end of block, even if precision is empty")
   private boolean checkBlockFeasibility = false;
 
@@ -90,11 +106,21 @@ public class PredicatePrecisionBootstrapper implements StatisticsProvider {
     }
 
     if (!predicatesFiles.isEmpty()) {
-      PredicateMapParser parser = new PredicateMapParser(config, cfa, logger, formulaManagerView, abstractionManager);
+      Configuration parserConfig = config;
+      if (functionHashesFile != null) {
+        // node numbers are not stable between revisions of the program
+        parserConfig =
+            Configuration.builder()
+                .copyFrom(config)
+                .setOption("cpa.predicate.abstraction.initialPredicates.applyFunctionWide", "true")
+                .build();
+      }
+      PredicateMapParser parser = new PredicateMapParser(parserConfig, cfa, logger, formulaManagerView, abstractionManager);
 
+      PredicatePrecision initialPredicates = PredicatePrecision.empty();
       for (Path predicatesFile : predicatesFiles) {
         try {
-          result = result.mergeWith(parser.parsePredicates(predicatesFile));
+          initialPredicates = initialPredicates.mergeWith(parser.parsePredicates(predicatesFile));
 
         } catch (IOException e) {
           logger.logUserException(Level.WARNING, e, "Could not read predicate map from file");
@@ -103,11 +129,58 @@ public class PredicatePrecisionBootstrapper implements StatisticsProvider {
           logger.logUserException(Level.WARNING, e, "Could not read predicate map");
         }
       }
+
+      if (functionHashesFile != null) {
+        initialPredicates = restrictToUnchangedFunctions(initialPredicates);
+      }
+      result = result.mergeWith(initialPredicates);
     }
 
     return result;
   }
 
+  /**
+   * Remove the predicates of all functions that were changed since the revision of the program
+   * for which the predicates were exported, or that call such functions.
+   */
+  private PredicatePrecision restrictToUnchangedFunctions(PredicatePrecision pPredicates) {
+    Map<String, String> previousHashes;
+    try {
+      previousHashes = FunctionStructureHashes.readFunctionHashes(functionHashesFile);
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not read function hashes, considering all functions as changed");
+      previousHashes = ImmutableMap.of();
+    }
+    Map<String, String> currentHashes = FunctionStructureHashes.computeFunctionHashes(cfa);
+    Set<String> affectedFunctions =
+        FunctionStructureHashes.getAffectedFunctions(cfa, previousHashes, currentHashes);
+
+    SetMultimap<String, AbstractionPredicate> functionPredicates =
+        MultimapBuilder.treeKeys().linkedHashSetValues().build();
+    functionPredicates.putAll(pPredicates.getFunctionPredicates());
+    int allFunctions = functionPredicates.keySet().size();
+    functionPredicates.keySet().removeAll(affectedFunctions);
+
+    int changedFunctions = 0;
+    for (Map.Entry<String, String> function : currentHashes.entrySet()) {
+      if (!function.getValue().equals(previousHashes.get(function.getKey()))) {
+        changedFunctions++;
+      }
+    }
+    statistics.addKeyValueStatistic("Changed functions since previous revision", changedFunctions);
+    statistics.addKeyValueStatistic("Functions affected by changes", affectedFunctions.size());
+    statistics.addKeyValueStatistic(
+        "Functions with reused predicates",
+        functionPredicates.keySet().size() + " of " + allFunctions);
+
+    return new PredicatePrecision(
+        ImmutableSetMultimap.<PredicatePrecision.LocationInstance, AbstractionPredicate>of(),
+        ImmutableSetMultimap.<CFANode, AbstractionPredicate>of(),
+        functionPredicates,
+        pPredicates.getGlobalPredicates());
+  }
+
   /**
    * Read the (initial) precision (predicates to track) from a file.
    */
@@ -0,0 +1,189 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+
+/**
+ * Structural hashes of the functions of a CFA, which allow to detect the functions that were
+ * changed between two revisions of a program. The hash of a function depends only on its
+ * declaration and on the code and the shape of its edges, but not on node numbers or line
+ * numbers, such that the hash of a function does not change if other parts of the program are
+ * changed.
+ */
+public final class FunctionStructureHashes {
+
+  private static final Splitter LINE_SPLITTER = Splitter.on('\t').limit(2);
+
+  private FunctionStructureHashes() {}
+
+  /** Compute the structural hash of each function of the CFA. */
+  public static ImmutableSortedMap<String, String> computeFunctionHashes(CFA pCfa) {
+    ImmutableSortedMap.Builder<String, String> result = ImmutableSortedMap.naturalOrder();
+    for (Entry<String, FunctionEntryNode> function : pCfa.getAllFunctions().entrySet()) {
+      result.put(function.getKey(), computeFunctionHash(function.getValue()));
+    }
+    return result.build();
+  }
+
+  private static String computeFunctionHash(FunctionEntryNode pEntry) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(pEntry.getFunctionDefinition().toASTString(), UTF_8);
+
+    // Number the nodes in the order of a depth-first traversal that is determined only by the
+    // structure of the function, and hash each edge together with the numbers of its nodes.
+    Map<CFANode, Integer> localIds = new HashMap<>();
+    Deque<CFANode> waitlist = new ArrayDeque<>();
+    localIds.put(pEntry, 0);
+    waitlist.push(pEntry);
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.pop();
+      List<CFAEdge> edges = getIntraproceduralLeavingEdges(node);
+      for (CFAEdge edge : edges) {
+        CFANode successor = edge.getSuccessor();
+        if (!localIds.containsKey(successor)) {
+          localIds.put(successor, localIds.size());
+          waitlist.push(successor);
+        }
+        hasher
+            .putInt(localIds.get(node))
+            .putInt(localIds.get(successor))
+            .putString(edge.getEdgeType().name(), UTF_8)
+            .putString(edge.getCode(), UTF_8);
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private static List<CFAEdge> getIntraproceduralLeavingEdges(CFANode pNode) {
+    FunctionSummaryEdge summaryEdge = pNode.getLeavingSummaryEdge();
+    List<CFAEdge> result = new ArrayList<>(2);
+    if (summaryEdge != null) {
+      result.add(summaryEdge);
+      return result;
+    }
+    for (CFAEdge edge : CFAUtils.leavingEdges(pNode)) {
+      if (!(edge instanceof FunctionCallEdge) && !(edge instanceof FunctionReturnEdge)) {
+        result.add(edge);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Determine the functions that are affected by changes of the program, i.e., all functions
+   * whose hash changed or that are new, and all functions that (transitively) call them.
+   *
+   * @param pCfa the CFA of the current revision
+   * @param pPreviousHashes the function hashes of the previous revision
+   * @param pCurrentHashes the function hashes of the current revision
+   */
+  public static ImmutableSet<String> getAffectedFunctions(
+      CFA pCfa, Map<String, String> pPreviousHashes, Map<String, String> pCurrentHashes) {
+    SetMultimap<String, String> callers = HashMultimap.create();
+    for (FunctionEntryNode entry : pCfa.getAllFunctionHeads()) {
+      for (CFAEdge edge : CFAUtils.enteringEdges(entry)) {
+        if (edge instanceof FunctionCallEdge) {
+          callers.put(entry.getFunctionName(), edge.getPredecessor().getFunctionName());
+        }
+      }
+    }
+
+    Set<String> affected = new HashSet<>();
+    Deque<String> waitlist = new ArrayDeque<>();
+    for (Entry<String, String> function : pCurrentHashes.entrySet()) {
+      if (!Objects.equals(function.getValue(), pPreviousHashes.get(function.getKey()))) {
+        affected.add(function.getKey());
+        waitlist.push(function.getKey());
+      }
+    }
+    while (!waitlist.isEmpty()) {
+      for (String caller : callers.get(waitlist.pop())) {
+        if (affected.add(caller)) {
+          waitlist.push(caller);
+        }
+      }
+    }
+    return ImmutableSet.copyOf(affected);
+  }
+
+  /** Write function hashes to a file, one function per line. */
+  public static void writeFunctionHashes(Map<String, String> pHashes, Path pFile)
+      throws IOException {
+    try (Writer w = IO.openOutputFile(pFile, Charset.defaultCharset())) {
+      for (Entry<String, String> function : pHashes.entrySet()) {
+        w.append(function.getKey()).append('\t').append(function.getValue()).append('\n');
+      }
+    }
+  }
+
+  /** Read function hashes from a file that was written by {@link #writeFunctionHashes}. */
+  public static ImmutableMap<String, String> readFunctionHashes(Path pFile) throws IOException {
+    ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+    for (String line : Files.readAllLines(pFile, Charset.defaultCharset())) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      List<String> parts = LINE_SPLITTER.splitToList(line);
+      if (parts.size() != 2) {
+        throw new IOException("Invalid line in function hashes file: " + line);
+      }
+      result.put(parts.get(0), parts.get(1));
+    }
+    return result.build();
+  }
+}
@@ -45,7 +45,7 @@ public class TestTargetCPA extends AbstractCPA {
     super("sep", "sep", null);
 
     precisionAdjustment = new TestTargetPrecisionAdjustment();
-    transferRelation = new TestTargetTransferRelation(TestTargetProvider.getTestTargets(pCfa));
+    transferRelation = new TestTargetTransferRelation(TestTargetProvider.getCoverage(pCfa));
   }
 
   @Override
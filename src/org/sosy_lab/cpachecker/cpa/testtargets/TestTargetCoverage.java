@@ -0,0 +1,349 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.testtargets;
+
+import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+
+/**
+ * Coverage information of a test-generation run. Edges are identified by dense ids (derived from
+ * the node numbers and the position of the edge among the leaving edges of its predecessor), such
+ * that the set of explored edges and the set of uncovered test targets are bitmaps. The explored
+ * edges are updated by the transfer relation on every edge.
+ *
+ * <p>The reachability of test targets is computed once on the graph of strongly connected
+ * components of the CFA (including function call and return edges, but not summary edges). For
+ * each component, the number of uncovered targets inside and the number of successor components
+ * that can still reach an uncovered target are maintained, thus each component becomes exhausted
+ * exactly once and the total update cost is linear in the size of the CFA.
+ *
+ * <p>Marking explored edges is not synchronized, concurrent transfers may lose updates, which only
+ * affects the statistics.
+ */
+public final class TestTargetCoverage {
+
+  /** Number of samples for the coverage curve, one for each percent of covered targets. */
+  private static final int CURVE_RESOLUTION = 100;
+
+  private final Set<CFAEdge> uncoveredTargets;
+  private final int initialTargets;
+
+  // edge ids: offset of each node (indexed by node number), one slot per leaving edge and one for
+  // the summary edge, -1 for nodes that are not part of the CFA
+  private final int[] edgeOffsets;
+  private final long[] exploredEdges;
+  private final long[] uncoveredTargetEdges;
+  private final int numberOfEdges;
+  private int numberOfExploredEdges = 0;
+
+  // reachability of uncovered targets on the components (indexed by node number)
+  private final int[] componentOfNode;
+  private final int[] uncoveredTargetsInComponent;
+  private final int[] liveSuccessorsOfComponent;
+  private final int[][] predecessorsOfComponent;
+  private int exhaustedComponents = 0;
+
+  private final long startTime = System.nanoTime();
+  private final List<String> coverageCurve = new ArrayList<>();
+
+  TestTargetCoverage(CFA pCfa, Set<CFAEdge> pUncoveredTargets) {
+    uncoveredTargets = pUncoveredTargets;
+    initialTargets = pUncoveredTargets.size();
+
+    int maxNodeNumber = 0;
+    for (CFANode node : pCfa.getAllNodes()) {
+      maxNodeNumber = Math.max(maxNodeNumber, node.getNodeNumber());
+    }
+    edgeOffsets = new int[maxNodeNumber + 1];
+    Arrays.fill(edgeOffsets, -1);
+    int edges = 0;
+    for (CFANode node : pCfa.getAllNodes()) {
+      edgeOffsets[node.getNodeNumber()] = edges;
+      edges += node.getNumLeavingEdges() + 1;
+    }
+    numberOfEdges = edges;
+    exploredEdges = new long[(edges >>> 6) + 1];
+    uncoveredTargetEdges = new long[(edges >>> 6) + 1];
+    for (CFAEdge target : pUncoveredTargets) {
+      int id = getEdgeId(target);
+      if (id >= 0) {
+        uncoveredTargetEdges[id >>> 6] |= 1L << id;
+      }
+    }
+
+    componentOfNode = new int[maxNodeNumber + 1];
+    List<List<CFANode>> components = computeComponents(pCfa.getAllNodes());
+    uncoveredTargetsInComponent = new int[components.size()];
+    liveSuccessorsOfComponent = new int[components.size()];
+    predecessorsOfComponent = new int[components.size()][];
+    computeReachability(components);
+  }
+
+  /** Returns the id of the edge, or -1 if it is not part of the CFA. */
+  private int getEdgeId(CFAEdge pEdge) {
+    CFANode predecessor = pEdge.getPredecessor();
+    int number = predecessor.getNodeNumber();
+    if (number >= edgeOffsets.length || edgeOffsets[number] < 0) {
+      return -1;
+    }
+    int leavingEdges = predecessor.getNumLeavingEdges();
+    for (int i = 0; i < leavingEdges; i++) {
+      if (predecessor.getLeavingEdge(i) == pEdge) {
+        return edgeOffsets[number] + i;
+      }
+    }
+    if (predecessor.getLeavingSummaryEdge() == pEdge) {
+      return edgeOffsets[number] + leavingEdges;
+    }
+    return -1;
+  }
+
+  /**
+   * Record that the analysis explored the edge.
+   *
+   * @return whether the edge is an uncovered test target
+   */
+  boolean explore(CFAEdge pEdge) {
+    int id = getEdgeId(pEdge);
+    if (id < 0) {
+      return uncoveredTargets.contains(pEdge);
+    }
+    long bit = 1L << id;
+    if ((exploredEdges[id >>> 6] & bit) == 0) {
+      exploredEdges[id >>> 6] |= bit;
+      numberOfExploredEdges++;
+    }
+    return (uncoveredTargetEdges[id >>> 6] & bit) != 0;
+  }
+
+  /** Remove the test target from the uncovered targets, e.g., because a test was generated. */
+  public void markCovered(CFAEdge pTarget) {
+    if (!uncoveredTargets.remove(pTarget)) {
+      return;
+    }
+    int id = getEdgeId(pTarget);
+    if (id >= 0) {
+      uncoveredTargetEdges[id >>> 6] &= ~(1L << id);
+      int component = componentOfNode[pTarget.getPredecessor().getNodeNumber()];
+      uncoveredTargetsInComponent[component]--;
+      propagateExhaustion(component);
+    }
+
+    int covered = initialTargets - uncoveredTargets.size();
+    if (covered * CURVE_RESOLUTION / initialTargets
+        != (covered - 1) * CURVE_RESOLUTION / initialTargets) {
+      recordCoverage(covered);
+    }
+  }
+
+  /** Checks whether an uncovered test target may be reachable from the given location. */
+  public boolean canReachUncoveredTarget(CFANode pNode) {
+    int number = pNode.getNodeNumber();
+    if (number >= edgeOffsets.length || edgeOffsets[number] < 0) {
+      return true; // unknown node, be optimistic
+    }
+    return isLive(componentOfNode[number]);
+  }
+
+  private boolean isLive(int pComponent) {
+    return uncoveredTargetsInComponent[pComponent] > 0 || liveSuccessorsOfComponent[pComponent] > 0;
+  }
+
+  private void propagateExhaustion(int pComponent) {
+    Deque<Integer> worklist = new ArrayDeque<>();
+    if (!isLive(pComponent)) {
+      worklist.push(pComponent);
+    }
+    while (!worklist.isEmpty()) {
+      int component = worklist.pop();
+      exhaustedComponents++;
+      for (int predecessor : predecessorsOfComponent[component]) {
+        liveSuccessorsOfComponent[predecessor]--;
+        if (!isLive(predecessor)) {
+          worklist.push(predecessor);
+        }
+      }
+    }
+  }
+
+  private synchronized void recordCoverage(int pCovered) {
+    long millis = (System.nanoTime() - startTime) / 1_000_000;
+    coverageCurve.add(
+        String.format(
+            "%8.1fs: %s of targets covered, %s of edges explored",
+            millis / 1000.0,
+            StatisticsUtils.toPercent(pCovered, initialTargets),
+            StatisticsUtils.toPercent(numberOfExploredEdges, numberOfEdges)));
+  }
+
+  /** Tarjan's algorithm without recursion, the components are in reverse topological order. */
+  private List<List<CFANode>> computeComponents(Iterable<CFANode> pNodes) {
+    int[] index = new int[componentOfNode.length];
+    int[] lowlink = new int[componentOfNode.length];
+    boolean[] onStack = new boolean[componentOfNode.length];
+    Arrays.fill(index, -1);
+    Deque<CFANode> stack = new ArrayDeque<>();
+    Deque<CFANode> callStack = new ArrayDeque<>();
+    Deque<Integer> nextEdgeStack = new ArrayDeque<>();
+    List<List<CFANode>> components = new ArrayList<>();
+    int nextIndex = 0;
+
+    for (CFANode root : pNodes) {
+      if (index[root.getNodeNumber()] >= 0) {
+        continue;
+      }
+      index[root.getNodeNumber()] = lowlink[root.getNodeNumber()] = nextIndex++;
+      stack.push(root);
+      onStack[root.getNodeNumber()] = true;
+      callStack.push(root);
+      nextEdgeStack.push(0);
+
+      while (!callStack.isEmpty()) {
+        CFANode node = callStack.peek();
+        int v = node.getNodeNumber();
+        int nextEdge = nextEdgeStack.pop();
+        if (nextEdge < node.getNumLeavingEdges()) {
+          nextEdgeStack.push(nextEdge + 1);
+          CFANode successor = node.getLeavingEdge(nextEdge).getSuccessor();
+          int w = successor.getNodeNumber();
+          if (w >= index.length || edgeOffsets[w] < 0) {
+            continue; // not part of the CFA
+          }
+          if (index[w] < 0) {
+            index[w] = lowlink[w] = nextIndex++;
+            stack.push(successor);
+            onStack[w] = true;
+            callStack.push(successor);
+            nextEdgeStack.push(0);
+          } else if (onStack[w]) {
+            lowlink[v] = Math.min(lowlink[v], index[w]);
+          }
+          continue;
+        }
+
+        callStack.pop();
+        if (!callStack.isEmpty()) {
+          int u = callStack.peek().getNodeNumber();
+          lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+        }
+        if (lowlink[v] == index[v]) {
+          List<CFANode> component = new ArrayList<>();
+          CFANode member;
+          do {
+            member = stack.pop();
+            onStack[member.getNodeNumber()] = false;
+            componentOfNode[member.getNodeNumber()] = components.size();
+            component.add(member);
+          } while (member != node);
+          components.add(component);
+        }
+      }
+    }
+    return components;
+  }
+
+  private void computeReachability(List<List<CFANode>> pComponents) {
+    List<List<Integer>> predecessors = new ArrayList<>(pComponents.size());
+    for (int i = 0; i < pComponents.size(); i++) {
+      predecessors.add(new ArrayList<>(2));
+    }
+
+    // successors come first in reverse topological order, so their liveness is already known
+    for (int component = 0; component < pComponents.size(); component++) {
+      Set<Integer> successors = new HashSet<>();
+      for (CFANode node : pComponents.get(component)) {
+        for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+          if (uncoveredTargets.contains(edge)) {
+            uncoveredTargetsInComponent[component]++;
+          }
+        }
+        // summary edges are ignored like in the computation of the components
+        for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+          int w = edge.getSuccessor().getNodeNumber();
+          if (w < edgeOffsets.length && edgeOffsets[w] >= 0) {
+            int successor = componentOfNode[w];
+            if (successor != component && successors.add(successor)) {
+              predecessors.get(successor).add(component);
+              if (isLive(successor)) {
+                liveSuccessorsOfComponent[component]++;
+              }
+            }
+          }
+        }
+      }
+      if (!isLive(component)) {
+        exhaustedComponents++;
+      }
+    }
+
+    for (int component = 0; component < pComponents.size(); component++) {
+      predecessorsOfComponent[component] =
+          predecessors.get(component).stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  /**
+   * Returns an unmodifiable view of the targets that are not yet covered. Use {@link
+   * #markCovered(CFAEdge)} to remove a target, so that the reachability information is updated.
+   */
+  public Set<CFAEdge> getUncoveredTargets() {
+    return Collections.unmodifiableSet(uncoveredTargets);
+  }
+
+  void printStatistics(PrintStream pOut) {
+    pOut.println(
+        "Number of explored edges: "
+            + numberOfExploredEdges
+            + " "
+            + StatisticsUtils.toPercent(numberOfExploredEdges, numberOfEdges));
+    pOut.println(
+        "Number of exhausted CFA components: "
+            + exhaustedComponents
+            + " of "
+            + predecessorsOfComponent.length);
+    List<String> curve;
+    synchronized (this) {
+      curve = ImmutableList.copyOf(coverageCurve);
+    }
+    if (!curve.isEmpty()) {
+      pOut.println("Coverage over time:");
+      for (String sample : curve) {
+        pOut.println(sample);
+      }
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.testtargets;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class TestTargetCoverageTest {
+
+  private CFA cfa;
+  private Set<AssumeEdge> branchTargets;
+  private Set<AssumeEdge> loopTargets;
+  private TestTargetCoverage coverage;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa =
+        TestDataTools.makeCFA(
+            "extern int __VERIFIER_nondet_int(void);",
+            "int main() {",
+            "  int x = __VERIFIER_nondet_int();",
+            "  if (x > 0) { x = 1; } else { x = 2; }",
+            "  while (x < 10) { x++; }",
+            "  return 0;",
+            "}");
+    branchTargets = new HashSet<>();
+    loopTargets = new HashSet<>();
+    for (CFANode node : cfa.getAllNodes()) {
+      for (AssumeEdge edge : CFAUtils.leavingEdges(node).filter(AssumeEdge.class)) {
+        if (edge.getExpression().toASTString().contains("10")) {
+          loopTargets.add(edge);
+        } else {
+          branchTargets.add(edge);
+        }
+      }
+    }
+    assert_().that(branchTargets).hasSize(2);
+    assert_().that(loopTargets).hasSize(2);
+
+    Set<CFAEdge> targets = new HashSet<>();
+    targets.addAll(branchTargets);
+    targets.addAll(loopTargets);
+    coverage = new TestTargetCoverage(cfa, targets);
+  }
+
+  private CFANode getLoopHead() {
+    return loopTargets.iterator().next().getPredecessor();
+  }
+
+  @Test
+  public void testExplore() {
+    AssumeEdge target = branchTargets.iterator().next();
+    CFAEdge other = cfa.getMainFunction().getLeavingEdge(0);
+    assert_().that(coverage.explore(target)).isTrue();
+    assert_().that(coverage.explore(target)).isTrue();
+    assert_().that(coverage.explore(other)).isFalse();
+
+    coverage.markCovered(target);
+    assert_().that(coverage.explore(target)).isFalse();
+    assert_().that(coverage.getUncoveredTargets()).doesNotContain(target);
+    assert_().that(coverage.getUncoveredTargets()).hasSize(3);
+
+    // edges outside of the CFA are looked up in the set of targets
+    CFAEdge unknownEdge =
+        new BlankEdge("", FileLocation.DUMMY, new CFANode("main"), new CFANode("main"), "");
+    assert_().that(coverage.explore(unknownEdge)).isFalse();
+  }
+
+  @Test
+  public void testInitialReachability() {
+    assert_().that(coverage.canReachUncoveredTarget(cfa.getMainFunction())).isTrue();
+    assert_().that(coverage.canReachUncoveredTarget(getLoopHead())).isTrue();
+    assert_().that(coverage.canReachUncoveredTarget(cfa.getMainFunction().getExitNode()))
+        .isFalse();
+    // nodes that are not part of the CFA might reach anything
+    assert_().that(coverage.canReachUncoveredTarget(new CFANode("main"))).isTrue();
+  }
+
+  @Test
+  public void testExhaustLoopFirst() {
+    for (AssumeEdge target : loopTargets) {
+      coverage.markCovered(target);
+    }
+    assert_().that(coverage.canReachUncoveredTarget(getLoopHead())).isFalse();
+    // the branch before the loop is still uncovered
+    assert_().that(coverage.canReachUncoveredTarget(cfa.getMainFunction())).isTrue();
+    for (AssumeEdge target : branchTargets) {
+      assert_().that(coverage.canReachUncoveredTarget(target.getSuccessor())).isFalse();
+    }
+  }
+
+  @Test
+  public void testExhaustBranchFirst() {
+    for (AssumeEdge target : branchTargets) {
+      coverage.markCovered(target);
+    }
+    // the loop is reachable from the branch
+    assert_().that(coverage.canReachUncoveredTarget(cfa.getMainFunction())).isTrue();
+    for (AssumeEdge target : branchTargets) {
+      assert_().that(coverage.canReachUncoveredTarget(target.getSuccessor())).isTrue();
+    }
+
+    AssumeEdge first = loopTargets.iterator().next();
+    coverage.markCovered(first);
+    assert_().that(coverage.canReachUncoveredTarget(getLoopHead())).isTrue();
+
+    for (AssumeEdge target : loopTargets) {
+      coverage.markCovered(target);
+    }
+    assert_().that(coverage.getUncoveredTargets()).isEmpty();
+    for (CFANode node : cfa.getAllNodes()) {
+      assert_().that(coverage.canReachUncoveredTarget(node)).isFalse();
+    }
+  }
+
+  @Test
+  public void testCoveringTwice() {
+    AssumeEdge target = loopTargets.iterator().next();
+    coverage.markCovered(target);
+    coverage.markCovered(target);
+    assert_().that(coverage.getUncoveredTargets()).hasSize(3);
+    // the other loop edge keeps the loop live
+    assert_().that(coverage.canReachUncoveredTarget(getLoopHead())).isTrue();
+    assert_().that(coverage.getUncoveredTargets()).containsAllIn(branchTargets);
+  }
+
+  @Test
+  public void testUncoveredTargetsAreReadOnlyView() {
+    Set<CFAEdge> uncovered = coverage.getUncoveredTargets();
+    AssumeEdge target = branchTargets.iterator().next();
+    try {
+      uncovered.remove(target);
+      assert_().fail("uncovered targets must not be modified directly");
+    } catch (UnsupportedOperationException expected) {
+      // expected
+    }
+    assert_().that(coverage.explore(target)).isTrue();
+
+    coverage.markCovered(target);
+    assert_().that(uncovered).doesNotContain(target);
+  }
+}
@@ -45,12 +45,14 @@ public class TestTargetProvider implements Statistics {
   private final CFA cfa;
   private final ImmutableSet<CFAEdge> initialTestTargets;
   private final Set<CFAEdge> uncoveredTargets;
+  private final TestTargetCoverage coverage;
   private boolean printTargets = false;
 
   private TestTargetProvider(final CFA pCfa) {
     cfa = pCfa;
     uncoveredTargets = extractAssumeEdges();
     initialTestTargets = ImmutableSet.copyOf(uncoveredTargets);
+    coverage = new TestTargetCoverage(pCfa, uncoveredTargets);
   }
 
   private Set<CFAEdge> extractAssumeEdges() {
@@ -62,10 +64,20 @@ public class TestTargetProvider implements Statistics {
   }
 
   public static Set<CFAEdge> getTestTargets(final CFA pCfa) {
+    return getCoverage(pCfa).getUncoveredTargets();
+  }
+
+  public static TestTargetCoverage getCoverage(final CFA pCfa) {
     if (instance == null || pCfa != instance.cfa) {
       instance = new TestTargetProvider(pCfa);
     }
-    return instance.uncoveredTargets;
+    return instance.coverage;
+  }
+
+  /** Returns the coverage of the most recently created test targets, if there are any. */
+  public static @Nullable TestTargetCoverage getCurrentCoverage() {
+    TestTargetProvider current = instance;
+    return current == null ? null : current.coverage;
   }
 
   public static Statistics getTestTargetStatisitics(boolean pPrintTestGoalInfo) {
@@ -88,6 +100,7 @@ public class TestTargetProvider implements Statistics {
     pOut.println("Number of total test targets: " + initialTestTargets.size());
     pOut.println("Number of covered test targets: " + numCovered);
     pOut.println("Number of uncovered test targets: " + (uncoveredTargets.size()));
+    coverage.printStatistics(pOut);
 
     if (printTargets) {
     pOut.println("Initial test targets: ");
@@ -36,23 +36,25 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 public class TestTargetTransferRelation extends SingleEdgeTransferRelation {
 
-  private final Set<CFAEdge> testTargets;
+  private final TestTargetCoverage coverage;
 
-  TestTargetTransferRelation(final Set<CFAEdge> pTestTargets) {
-    this.testTargets = pTestTargets;
+  TestTargetTransferRelation(final TestTargetCoverage pCoverage) {
+    coverage = checkNotNull(pCoverage);
   }
 
   @Override
   public Collection<? extends AbstractState> getAbstractSuccessorsForEdge(
       final AbstractState pState, final Precision pPrecision, final CFAEdge pCfaEdge)
       throws CPATransferException, InterruptedException {
-    checkNotNull(testTargets);
-
     return Collections.singleton(
-        testTargets.contains(pCfaEdge) ? TestTargetState.TARGET : TestTargetState.NO_TARGET);
+        coverage.explore(pCfaEdge) ? TestTargetState.TARGET : TestTargetState.NO_TARGET);
   }
 
   public Set<CFAEdge> getTestTargets() {
-    return testTargets;
+    return coverage.getUncoveredTargets();
+  }
+
+  public TestTargetCoverage getCoverage() {
+    return coverage;
   }
 }
@@ -24,9 +24,12 @@
 package org.sosy_lab.cpachecker.cpa.threading;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
 import org.sosy_lab.cpachecker.cfa.ast.AbstractDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.c.CArrayDesignator;
@@ -37,6 +40,7 @@ import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CComplexCastExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CComplexTypeDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.c.CDesignatedInitializer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CDesignator;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
@@ -44,6 +48,7 @@ import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionStatement;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFieldDesignator;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallStatement;
@@ -61,6 +66,7 @@ import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
 import org.sosy_lab.cpachecker.cfa.ast.c.CTypeDefDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
 import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.c.DefaultCExpressionVisitor;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -68,9 +74,11 @@ import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
 import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
 import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
 import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
 import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
 import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
 import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 
 /** This static analyzer for edges checks whether there exists
  * read- or write-access to global variables or shared memory along edges. */
@@ -79,6 +87,8 @@ public class GlobalAccessChecker {
   /** cache elements, edges and their content never change. */
   private final Map<AAstNode, Boolean> astCache = new IdentityHashMap<>();
 
+  private final Map<CFAEdge, GlobalAccesses> accessCache = new IdentityHashMap<>();
+
   /** check, whether the edge might have a write- or read-access to
    * global variables or shared memory, i.e. whether the edge might
    * influence other threads or uses only scoped variables of the thread. */
@@ -222,6 +232,263 @@ public class GlobalAccessChecker {
     throw new AssertionError("unhandled ASTNode " + ast + " of " + ast.getClass());
   }
 
+  /**
+   * Returns the global variables that are read or written along the edge. Accesses through
+   * pointers, taking the address of a global variable, and calls of unknown functions are not
+   * tracked precisely and make the edge conflict with all other edges.
+   */
+  GlobalAccesses getGlobalAccesses(CFAEdge edge) {
+    GlobalAccesses accesses = accessCache.get(edge);
+    if (accesses == null) {
+      AccessCollector collector = new AccessCollector();
+      collector.collect(edge);
+      accesses = collector.build();
+      accessCache.put(edge, accesses);
+    }
+    return accesses;
+  }
+
+  /** The global variables that are read or written along an edge. */
+  static final class GlobalAccesses {
+
+    private final ImmutableSet<String> reads;
+    private final ImmutableSet<String> writes;
+    private final boolean unknownMemory;
+
+    private GlobalAccesses(
+        ImmutableSet<String> pReads, ImmutableSet<String> pWrites, boolean pUnknownMemory) {
+      reads = pReads;
+      writes = pWrites;
+      unknownMemory = pUnknownMemory;
+    }
+
+    /** Returns whether the edge may access memory other than named variables, e.g., pointers. */
+    boolean accessesUnknownMemory() {
+      return unknownMemory;
+    }
+
+    /**
+     * Returns whether the order of the two accesses might matter, i.e., whether one of them writes
+     * a variable that the other one reads or writes.
+     */
+    boolean conflictsWith(GlobalAccesses other) {
+      return unknownMemory
+          || other.unknownMemory
+          || !Collections.disjoint(writes, other.writes)
+          || !Collections.disjoint(writes, other.reads)
+          || !Collections.disjoint(reads, other.writes);
+    }
+
+    @Override
+    public String toString() {
+      return unknownMemory ? "unknown" : ("reads=" + reads + ", writes=" + writes);
+    }
+  }
+
+  /** Collects the global variables accessed along a single edge. */
+  private static class AccessCollector
+      extends DefaultCExpressionVisitor<Void, RuntimeException>
+      implements CRightHandSideVisitor<Void, RuntimeException> {
+
+    private static final String NONDET_FUNCTION_PREFIX = "__VERIFIER_nondet_";
+
+    private final ImmutableSet.Builder<String> reads = ImmutableSet.builder();
+    private final ImmutableSet.Builder<String> writes = ImmutableSet.builder();
+    private boolean unknownMemory = false;
+
+    private GlobalAccesses build() {
+      return new GlobalAccesses(reads.build(), writes.build(), unknownMemory);
+    }
+
+    private void collect(CFAEdge edge) {
+      switch (edge.getEdgeType()) {
+        case BlankEdge:
+          break;
+        case AssumeEdge:
+          ((CAssumeEdge) edge).getExpression().accept(this);
+          break;
+        case StatementEdge:
+          collect(((CStatementEdge) edge).getStatement());
+          break;
+        case DeclarationEdge:
+          collect(((CDeclarationEdge) edge).getDeclaration());
+          break;
+        case ReturnStatementEdge:
+          if (((CReturnStatementEdge) edge).getExpression().isPresent()) {
+            ((CReturnStatementEdge) edge).getExpression().get().accept(this);
+          }
+          break;
+        case FunctionCallEdge:
+          for (CExpression param : ((CFunctionCallEdge) edge).getArguments()) {
+            param.accept(this);
+          }
+          break;
+        case FunctionReturnEdge: {
+          CFunctionCall call = ((CFunctionReturnEdge) edge).getSummaryEdge().getExpression();
+          if (call instanceof CFunctionCallAssignmentStatement) {
+            collectWrite(((CFunctionCallAssignmentStatement) call).getLeftHandSide());
+          }
+          break;
+        }
+        default:
+          unknownMemory = true;
+      }
+    }
+
+    private void collect(CStatement statement) {
+      if (statement instanceof CExpressionAssignmentStatement) {
+        CExpressionAssignmentStatement assignment = (CExpressionAssignmentStatement) statement;
+        collectWrite(assignment.getLeftHandSide());
+        assignment.getRightHandSide().accept(this);
+
+      } else if (statement instanceof CFunctionCallAssignmentStatement) {
+        CFunctionCallAssignmentStatement assignment = (CFunctionCallAssignmentStatement) statement;
+        collectWrite(assignment.getLeftHandSide());
+        assignment.getRightHandSide().accept(this);
+
+      } else if (statement instanceof CFunctionCallStatement) {
+        ((CFunctionCallStatement) statement).getFunctionCallExpression().accept(this);
+
+      } else if (statement instanceof CExpressionStatement) {
+        ((CExpressionStatement) statement).getExpression().accept(this);
+
+      } else {
+        unknownMemory = true;
+      }
+    }
+
+    private void collect(CDeclaration declaration) {
+      if (declaration instanceof CVariableDeclaration) {
+        CVariableDeclaration decl = (CVariableDeclaration) declaration;
+        if (decl.isGlobal()) {
+          writes.add(decl.getQualifiedName());
+        }
+        collect(decl.getInitializer());
+      }
+    }
+
+    private void collect(@Nullable CInitializer initializer) {
+      if (initializer instanceof CInitializerExpression) {
+        ((CInitializerExpression) initializer).getExpression().accept(this);
+      } else if (initializer instanceof CInitializerList) {
+        for (CInitializer init : ((CInitializerList) initializer).getInitializers()) {
+          collect(init);
+        }
+      } else if (initializer instanceof CDesignatedInitializer) {
+        // designators are constant expressions
+        collect(((CDesignatedInitializer) initializer).getRightHandSide());
+      }
+    }
+
+    private void collectWrite(CExpression lhs) {
+      if (lhs instanceof CIdExpression) {
+        CSimpleDeclaration decl = ((CIdExpression) lhs).getDeclaration();
+        if (isGlobal(decl)) {
+          writes.add(decl.getQualifiedName());
+        }
+
+      } else if (lhs instanceof CArraySubscriptExpression) {
+        CArraySubscriptExpression array = (CArraySubscriptExpression) lhs;
+        if (array.getArrayExpression().getExpressionType().getCanonicalType()
+            instanceof CPointerType) {
+          unknownMemory = true;
+        }
+        collectWrite(array.getArrayExpression());
+        array.getSubscriptExpression().accept(this);
+
+      } else if (lhs instanceof CFieldReference && !((CFieldReference) lhs).isPointerDereference()) {
+        collectWrite(((CFieldReference) lhs).getFieldOwner());
+
+      } else {
+        // writes through pointers might change any variable
+        unknownMemory = true;
+        lhs.accept(this);
+      }
+    }
+
+    private static boolean isGlobal(@Nullable CSimpleDeclaration decl) {
+      return decl instanceof AbstractDeclaration && ((AbstractDeclaration) decl).isGlobal();
+    }
+
+    @Override
+    public Void visit(CIdExpression pE) {
+      CSimpleDeclaration decl = pE.getDeclaration();
+      if (isGlobal(decl)) {
+        reads.add(decl.getQualifiedName());
+      }
+      return null;
+    }
+
+    @Override
+    public Void visit(CArraySubscriptExpression pE) {
+      if (pE.getArrayExpression().getExpressionType().getCanonicalType()
+          instanceof CPointerType) {
+        unknownMemory = true;
+      }
+      pE.getArrayExpression().accept(this);
+      return pE.getSubscriptExpression().accept(this);
+    }
+
+    @Override
+    public Void visit(CBinaryExpression pE) {
+      pE.getOperand1().accept(this);
+      return pE.getOperand2().accept(this);
+    }
+
+    @Override
+    public Void visit(CCastExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CComplexCastExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CFieldReference pE) {
+      if (pE.isPointerDereference()) {
+        unknownMemory = true;
+      }
+      return pE.getFieldOwner().accept(this);
+    }
+
+    @Override
+    public Void visit(CFunctionCallExpression pE) {
+      CExpression functionName = pE.getFunctionNameExpression();
+      if (!(functionName instanceof CIdExpression
+          && ((CIdExpression) functionName).getName().startsWith(NONDET_FUNCTION_PREFIX))) {
+        // an unknown function might access any global variable
+        unknownMemory = true;
+      }
+      for (CExpression param : pE.getParameterExpressions()) {
+        param.accept(this);
+      }
+      return null;
+    }
+
+    @Override
+    public Void visit(CUnaryExpression pE) {
+      if (pE.getOperator() == UnaryOperator.AMPER) {
+        // the address might be used to access the variable later
+        unknownMemory = true;
+      }
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CPointerExpression pE) {
+      unknownMemory = true;
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    protected Void visitDefault(CExpression pExp) {
+      // literals and similar expressions do not access memory
+      return null;
+    }
+  }
+
   /** returns whether there might be a read- or write-access to global variables. */
   private static class GlobalAccessVisitor
       extends DefaultCExpressionVisitor<Boolean, RuntimeException>
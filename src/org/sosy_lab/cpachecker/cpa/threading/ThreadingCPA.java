@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.threading;
 
 import com.google.common.base.Preconditions;
+import java.util.Collection;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
@@ -31,18 +32,21 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.AbstractCPA;
 import org.sosy_lab.cpachecker.core.defaults.AutomaticCPAFactory;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 
-public class ThreadingCPA extends AbstractCPA {
+public class ThreadingCPA extends AbstractCPA implements StatisticsProvider {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ThreadingCPA.class);
   }
 
   public ThreadingCPA(Configuration config, LogManager pLogger, CFA pCfa) throws InvalidConfigurationException {
-    super("sep", "sep", new ThreadingTransferRelation(config, pCfa, pLogger));
+    super("sep", "sep", new ThreadingDomain(), new ThreadingTransferRelation(config, pCfa, pLogger));
   }
 
   @Override
@@ -54,4 +58,26 @@ public class ThreadingCPA extends AbstractCPA {
     return ((ThreadingTransferRelation) getTransferRelation())
         .addNewThread(new ThreadingState(), mainThread, ThreadingState.MIN_THREAD_NUM, mainThread);
   }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    ((ThreadingTransferRelation) getTransferRelation()).collectStatistics(pStatsCollection);
+  }
+
+  /**
+   * The partial order of threading states is equality, except for the sleep sets of the
+   * partial-order reduction.
+   */
+  private static class ThreadingDomain implements AbstractDomain {
+
+    @Override
+    public AbstractState join(AbstractState pState1, AbstractState pState2) {
+      throw new UnsupportedOperationException("ThreadingCPA does not support joining states");
+    }
+
+    @Override
+    public boolean isLessOrEqual(AbstractState pState1, AbstractState pState2) {
+      return ((ThreadingState) pState1).isLessOrEqual((ThreadingState) pState2);
+    }
+  }
 }
@@ -31,6 +31,7 @@ import static org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation.is
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -85,35 +86,54 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
    */
   private final PersistentMap<String, Integer> threadIdsForWitness;
 
+  /**
+   * The sleep set of the partial-order reduction: outgoing edges of other threads that do not need
+   * to be explored from this state, because they commute with all edges executed since a
+   * predecessor state from which they were explored. Without partial-order reduction, it is always
+   * empty.
+   */
+  private final ImmutableSet<CFAEdge> sleepingEdges;
+
   public ThreadingState() {
     this.threads = PathCopyingPersistentTreeMap.of();
     this.locks = PathCopyingPersistentTreeMap.of();
     this.activeThread = null;
     this.threadIdsForWitness = PathCopyingPersistentTreeMap.of();
+    this.sleepingEdges = ImmutableSet.of();
   }
 
   private ThreadingState(
       PersistentMap<String, ThreadState> pThreads,
       PersistentMap<String, String> pLocks,
       String pActiveThread,
-      PersistentMap<String, Integer> pThreadIdsForWitness) {
+      PersistentMap<String, Integer> pThreadIdsForWitness,
+      ImmutableSet<CFAEdge> pSleepingEdges) {
     this.threads = pThreads;
     this.locks = pLocks;
     this.activeThread = pActiveThread;
     this.threadIdsForWitness = pThreadIdsForWitness;
+    this.sleepingEdges = pSleepingEdges;
   }
 
   private ThreadingState withThreads(PersistentMap<String, ThreadState> pThreads) {
-    return new ThreadingState(pThreads, locks, activeThread, threadIdsForWitness);
+    return new ThreadingState(pThreads, locks, activeThread, threadIdsForWitness, sleepingEdges);
   }
 
   private ThreadingState withLocks(PersistentMap<String, String> pLocks) {
-    return new ThreadingState(threads, pLocks, activeThread, threadIdsForWitness);
+    return new ThreadingState(threads, pLocks, activeThread, threadIdsForWitness, sleepingEdges);
   }
 
   private ThreadingState withThreadIdsForWitness(
       PersistentMap<String, Integer> pThreadIdsForWitness) {
-    return new ThreadingState(threads, locks, activeThread, pThreadIdsForWitness);
+    return new ThreadingState(threads, locks, activeThread, pThreadIdsForWitness, sleepingEdges);
+  }
+
+  ThreadingState withSleepingEdges(ImmutableSet<CFAEdge> pSleepingEdges) {
+    return new ThreadingState(threads, locks, activeThread, threadIdsForWitness, pSleepingEdges);
+  }
+
+  ImmutableSet<CFAEdge> getSleepingEdges() {
+    return sleepingEdges;
   }
 
   public ThreadingState addThreadAndCopy(String id, int num, AbstractState stack, AbstractState loc) {
@@ -205,6 +225,7 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
         + (activeThread == null ? "" : ("\n produced from thread " + activeThread))
         + " \n"
         + Joiner.on(",\n ").withKeyValueSeparator("=").join(threadIdsForWitness)
+        + (sleepingEdges.isEmpty() ? "" : ("\n sleeping edges " + sleepingEdges))
         + ")";
   }
 
@@ -217,12 +238,26 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
     return threads.equals(ts.threads)
         && locks.equals(ts.locks)
         && Objects.equals(activeThread, ts.activeThread)
-        && threadIdsForWitness.equals(ts.threadIdsForWitness);
+        && threadIdsForWitness.equals(ts.threadIdsForWitness)
+        && sleepingEdges.equals(ts.sleepingEdges);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(threads, locks, activeThread, threadIdsForWitness);
+    return Objects.hash(threads, locks, activeThread, threadIdsForWitness, sleepingEdges);
+  }
+
+  /**
+   * A state is covered by another state if both are equal except for their sleep sets and the
+   * other state explores at least the same edges, i.e., its sleep set is a subset of the sleep set
+   * of this state.
+   */
+  boolean isLessOrEqual(ThreadingState other) {
+    return threads.equals(other.threads)
+        && locks.equals(other.locks)
+        && Objects.equals(activeThread, other.activeThread)
+        && threadIdsForWitness.equals(other.threadIdsForWitness)
+        && sleepingEdges.containsAll(other.sleepingEdges);
   }
 
   private FluentIterable<AbstractStateWithLocations> getLocations() {
@@ -399,7 +434,7 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
 
   /** @see #activeThread */
   public ThreadingState setActiveThread(String pActiveThread) {
-    return new ThreadingState(threads, locks, pActiveThread, threadIdsForWitness);
+    return new ThreadingState(threads, locks, pActiveThread, threadIdsForWitness, sleepingEdges);
   }
 
   String getActiveThread() {
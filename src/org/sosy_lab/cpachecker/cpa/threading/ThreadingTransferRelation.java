@@ -31,6 +31,7 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -60,11 +61,14 @@ import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.CFATerminationNode;
 import org.sosy_lab.cpachecker.cfa.postprocessing.global.CFACloner;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.defaults.SingleEdgeTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonState;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonVariable;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackCPA;
@@ -73,6 +77,10 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 @Options(prefix="cpa.threading")
 public final class ThreadingTransferRelation extends SingleEdgeTransferRelation {
@@ -109,6 +117,15 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
   )
   private boolean useAllPossibleClones = false;
 
+  @Option(
+    description =
+        "use a partial-order reduction based on sleep sets: an edge of a thread is not explored"
+            + " if it commutes with all edges executed since it was already explored from a"
+            + " predecessor state. Requires 'useClonedFunctions=true'.",
+    secure = true
+  )
+  private boolean usePartialOrderReduction = false;
+
   public static final String THREAD_START = "pthread_create";
   public static final String THREAD_JOIN = "pthread_join";
   private static final String THREAD_EXIT = "pthread_exit";
@@ -132,9 +149,17 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
 
   private final GlobalAccessChecker globalAccessChecker = new GlobalAccessChecker();
 
+  private final StatCounter prunedEdges = new StatCounter("Edges pruned by sleep sets");
+  private final StatInt sleepSetSize = new StatInt(StatKind.AVG, "Size of sleep sets");
+
   public ThreadingTransferRelation(Configuration pConfig, CFA pCfa, LogManager pLogger)
       throws InvalidConfigurationException {
     pConfig.inject(this);
+    if (usePartialOrderReduction && !useClonedFunctions) {
+      throw new InvalidConfigurationException(
+          "Partial-order reduction for ThreadingCPA requires cloned functions,"
+              + " otherwise the local variables of threads are shared.");
+    }
     cfa = pCfa;
     locationCPA = LocationCPA.create(pCfa, pConfig);
     callstackCPA = new CallstackCPA(pConfig, pLogger, pCfa);
@@ -149,7 +174,14 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
 
     ThreadingState state = (ThreadingState) pState;
 
-    ThreadingState threadingState = exitThreads(state);
+    if (usePartialOrderReduction && state.getSleepingEdges().contains(cfaEdge)) {
+      // all interleavings with this edge are explored from a predecessor state
+      prunedEdges.inc();
+      return Collections.emptySet();
+    }
+
+    final ThreadingState stateWithRunningThreads = exitThreads(state);
+    ThreadingState threadingState = stateWithRunningThreads;
 
     final String activeThread = getActiveThread(cfaEdge, threadingState);
     if (null == activeThread) {
@@ -184,9 +216,125 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
 
     results = setActiveThread(activeThread, results);
 
+    if (usePartialOrderReduction) {
+      ImmutableSet<CFAEdge> sleepingEdges =
+          getSleepingEdges(stateWithRunningThreads, activeThread, cfaEdge);
+      sleepSetSize.setNextValue(sleepingEdges.size());
+      results = transform(results, ts -> ts.withSleepingEdges(sleepingEdges));
+    }
+
     return results;
   }
 
+  /**
+   * Compute the sleep set for the successors of a state along an edge of the active thread.
+   *
+   * <p>The outgoing edges of all threads are ordered by the thread-id. An edge of another thread
+   * is put asleep if it is independent from the current edge and it is either asleep in the given
+   * state or explored from the given state in another branch that comes earlier in this order.
+   * All interleavings that start with the current edge and continue with such an edge are
+   * equivalent to interleavings of the other branch.
+   */
+  private ImmutableSet<CFAEdge> getSleepingEdges(
+      final ThreadingState threadingState, final String activeThread, final CFAEdge cfaEdge)
+      throws UnrecognizedCodeException {
+
+    // with an exclusive lock, the edges of other threads are not explored from this state
+    final boolean otherThreadsEnabled =
+        !threadingState.hasLock(ATOMIC_LOCK) && !threadingState.hasLock(LOCAL_ACCESS_LOCK);
+
+    final ImmutableSet.Builder<CFAEdge> sleepingEdges = ImmutableSet.builder();
+    for (String id : threadingState.getThreadIds()) {
+      if (id.equals(activeThread)) {
+        continue;
+      }
+      final boolean exploredBefore = otherThreadsEnabled && id.compareTo(activeThread) < 0;
+      for (CFAEdge edge : threadingState.getThreadLocation(id).getOutgoingEdges()) {
+        if ((threadingState.getSleepingEdges().contains(edge)
+                || (exploredBefore && !needsUsedLock(threadingState, edge)))
+            && isIndependent(edge, cfaEdge)) {
+          sleepingEdges.add(edge);
+        }
+      }
+    }
+    return sleepingEdges.build();
+  }
+
+  private static boolean needsUsedLock(ThreadingState threadingState, CFAEdge cfaEdge)
+      throws UnrecognizedCodeException {
+    final String lockId = getLockId(cfaEdge);
+    return lockId != null && threadingState.hasLock(lockId);
+  }
+
+  /**
+   * Check whether two edges of different threads commute, i.e., executing them in any order
+   * leads to the same state and neither of them can enable or disable the other one.
+   */
+  private boolean isIndependent(CFAEdge edge1, CFAEdge edge2) throws UnrecognizedCodeException {
+    final boolean isThreadingEdge1 = isThreadingEdge(edge1);
+    final boolean isThreadingEdge2 = isThreadingEdge(edge2);
+
+    // other edges without global access acquire the local-access lock,
+    // which disables all other threads.
+    if (useLocalAccessLocks
+        && ((!isThreadingEdge1 && !globalAccessChecker.hasGlobalAccess(edge1))
+            || (!isThreadingEdge2 && !globalAccessChecker.hasGlobalAccess(edge2)))) {
+      return false;
+    }
+
+    if (isThreadingEdge1 || isThreadingEdge2) {
+      // mutex operations only interfere with operations on the same mutex,
+      // all other operations for threading are handled conservatively.
+      final String mutex1 = isThreadingEdge1 ? getMutexId(edge1) : null;
+      final String mutex2 = isThreadingEdge2 ? getMutexId(edge2) : null;
+      if ((isThreadingEdge1 && mutex1 == null) || (isThreadingEdge2 && mutex2 == null)) {
+        return false;
+      }
+      if (isThreadingEdge1 && isThreadingEdge2) {
+        return !mutex1.equals(mutex2);
+      }
+      final CFAEdge otherEdge = isThreadingEdge1 ? edge2 : edge1;
+      return !globalAccessChecker.getGlobalAccesses(otherEdge).accessesUnknownMemory();
+    }
+
+    return !globalAccessChecker
+        .getGlobalAccesses(edge1)
+        .conflictsWith(globalAccessChecker.getGlobalAccesses(edge2));
+  }
+
+  /** check whether the edge is handled by this CPA and not only by the wrapped CPAs. */
+  private boolean isThreadingEdge(CFAEdge cfaEdge) {
+    switch (cfaEdge.getEdgeType()) {
+      case FunctionCallEdge:
+        return cfaEdge.getSuccessor().getFunctionName().startsWith(VERIFIER_ATOMIC);
+      case FunctionReturnEdge:
+        return cfaEdge.getPredecessor().getFunctionName().startsWith(VERIFIER_ATOMIC);
+      default:
+        return isImporantForThreading(cfaEdge)
+            || isEndOfMainFunction(cfaEdge)
+            || isTerminatingEdge(cfaEdge);
+    }
+  }
+
+  /** get the name of the lock that is locked or unlocked at the given edge, or NULL. */
+  private static @Nullable String getMutexId(final CFAEdge cfaEdge)
+      throws UnrecognizedCodeException {
+    if (cfaEdge.getEdgeType() == CFAEdgeType.StatementEdge) {
+      final AStatement statement = ((AStatementEdge) cfaEdge).getStatement();
+      if (statement instanceof AFunctionCall) {
+        final AExpression functionNameExp =
+            ((AFunctionCall) statement).getFunctionCallExpression().getFunctionNameExpression();
+        if (functionNameExp instanceof AIdExpression) {
+          final String functionName = ((AIdExpression) functionNameExp).getName();
+          if (THREAD_MUTEX_LOCK.equals(functionName) || THREAD_MUTEX_UNLOCK.equals(functionName)) {
+            return extractLockId(statement);
+          }
+        }
+      }
+    }
+    return null;
+  }
+
   /** Search for the thread, where the current edge is available.
    * The result should be exactly one thread, that is denoted as 'active',
    * or NULL, if no active thread is available.
@@ -709,4 +857,23 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
     }
     return Optional.absent();
   }
+
+  void collectStatistics(Collection<Statistics> pStatsCollection) {
+    if (usePartialOrderReduction) {
+      pStatsCollection.add(
+          new Statistics() {
+
+            @Override
+            public void printStatistics(
+                PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+              StatisticsWriter.writingStatisticsTo(pOut).put(prunedEdges).put(sleepSetSize);
+            }
+
+            @Override
+            public String getName() {
+              return "Partial-order reduction";
+            }
+          });
+    }
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.threading;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class ThreadingTransferRelationTest {
+
+  private static final String CONFIG_FILE = "config/valueAnalysis-concurrency.properties";
+  private static final String TEST_DIR = "test/programs/threading/";
+
+  private static final Pattern PRUNED_EDGES =
+      Pattern.compile("Edges pruned by sleep sets:\\s*(\\d+)");
+
+  private static TestResults run(String pProgram, boolean pPartialOrderReduction)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(CONFIG_FILE)
+            .setOption(
+                "cpa.threading.usePartialOrderReduction",
+                Boolean.toString(pPartialOrderReduction))
+            .build();
+    return CPATestRunner.run(config, TEST_DIR + pProgram);
+  }
+
+  private static int getReachedSize(TestResults pResults) {
+    return pResults.getCheckerResult().getReached().size();
+  }
+
+  private static long getPrunedEdges(TestResults pResults) throws Exception {
+    ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+    pResults
+        .getCheckerResult()
+        .printStatistics(new PrintStream(statistics, true, StandardCharsets.UTF_8.name()));
+    Matcher matcher = PRUNED_EDGES.matcher(statistics.toString(StandardCharsets.UTF_8.name()));
+    assertThat(matcher.find()).isTrue();
+    return Long.parseLong(matcher.group(1));
+  }
+
+  @Test
+  public void testSleepSetsReduceReachedSet() throws Exception {
+    String program = "sleep_sets_true-unreach-label.c";
+    TestResults withoutReduction = run(program, false);
+    TestResults withReduction = run(program, true);
+
+    withoutReduction.assertIsSafe();
+    withReduction.assertIsSafe();
+    assertThat(getPrunedEdges(withReduction)).isGreaterThan(0L);
+    assertThat(getReachedSize(withReduction)).isLessThan(getReachedSize(withoutReduction));
+  }
+
+  @Test
+  public void testSleepSetsKeepDataRace() throws Exception {
+    String program = "sleep_sets_false-unreach-label.c";
+    run(program, false).assertIsUnsafe();
+
+    TestResults withReduction = run(program, true);
+    withReduction.assertIsUnsafe();
+    assertThat(getPrunedEdges(withReduction)).isGreaterThan(0L);
+  }
+}
@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
 import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithCoverageBound;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
@@ -76,7 +77,8 @@ import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
 public class ValueAnalysisState
     implements AbstractQueryableState, FormulaReportingState,
         ForgetfulState<ValueAnalysisInformation>, Serializable, Graphable,
-        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable {
+        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable,
+        AbstractStateWithCoverageBound {
 
   private static final long serialVersionUID = -3152134511524554357L;
 
@@ -297,6 +299,15 @@ public class ValueAnalysisState
     return constantsMap.size();
   }
 
+  /**
+   * A state is only less or equal than states that do not contain more variables, cf. {@link
+   * #isLessOrEqual(ValueAnalysisState)}.
+   */
+  @Override
+  public long getCoverageBound() {
+    return constantsMap.size();
+  }
+
   /**
    * This method determines the number of global variables contained in this state.
    *
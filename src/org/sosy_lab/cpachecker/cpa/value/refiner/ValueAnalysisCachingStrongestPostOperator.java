@@ -0,0 +1,186 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value.refiner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Deque;
+import java.util.Optional;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.refinement.StrongestPostOperator;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Strongest post-operator that memoizes the successors computed by another strongest
+ * post-operator. Refining similar error paths evaluates the same edges with the same input states
+ * over and over again, so the feasibility checker, the prefix provider and the interpolator of one
+ * refiner should share one instance of this class.
+ *
+ * <p>Because value-analysis states are mutable, the cache stores copies of the input states and
+ * returns copies of the cached successors. Lookups do not copy the input state, and copying a
+ * successor is cheap due to the persistent maps inside the states.
+ */
+@Options(prefix = "cpa.value.refinement")
+public class ValueAnalysisCachingStrongestPostOperator
+    implements StrongestPostOperator<ValueAnalysisState> {
+
+  @Option(
+    secure = true,
+    description =
+        "maximum number of successors that the strongest-post operator of the refinement"
+            + " keeps in its cache (0 disables the cache)"
+  )
+  @IntegerOption(min = 0)
+  private int strongestPostCacheSize = 10000;
+
+  private final StrongestPostOperator<ValueAnalysisState> delegate;
+
+  private final Cache<CacheKey, Optional<ValueAnalysisState>> cache;
+
+  private final StatCounter cacheHits = new StatCounter("Strongest-post cache hits");
+  private final StatCounter cacheMisses = new StatCounter("Strongest-post cache misses");
+
+  public ValueAnalysisCachingStrongestPostOperator(
+      final StrongestPostOperator<ValueAnalysisState> pDelegate, final Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    delegate = pDelegate;
+    cache = CacheBuilder.newBuilder().maximumSize(strongestPostCacheSize).build();
+  }
+
+  @Override
+  public Optional<ValueAnalysisState> getStrongestPost(
+      final ValueAnalysisState pOrigin, final Precision pPrecision, final CFAEdge pOperation)
+      throws CPAException, InterruptedException {
+
+    if (strongestPostCacheSize == 0) {
+      return delegate.getStrongestPost(pOrigin, pPrecision, pOperation);
+    }
+
+    // the lookup uses the origin state itself, it is only copied if the key is stored
+    final CacheKey key = new CacheKey(pOrigin, pPrecision, pOperation);
+    Optional<ValueAnalysisState> successor = cache.getIfPresent(key);
+
+    if (successor == null) {
+      cacheMisses.inc();
+      successor = delegate.getStrongestPost(pOrigin, pPrecision, pOperation);
+      // the caller may modify the origin and the returned state, so we keep our own copies
+      cache.put(
+          new CacheKey(ValueAnalysisState.copyOf(pOrigin), key),
+          successor.map(ValueAnalysisState::copyOf));
+      return successor;
+
+    } else {
+      cacheHits.inc();
+      return successor.map(ValueAnalysisState::copyOf);
+    }
+  }
+
+  @Override
+  public ValueAnalysisState handleFunctionCall(
+      ValueAnalysisState pState, CFAEdge pEdge, Deque<ValueAnalysisState> pCallstack) {
+    return delegate.handleFunctionCall(pState, pEdge, pCallstack);
+  }
+
+  @Override
+  public ValueAnalysisState handleFunctionReturn(
+      ValueAnalysisState pNext, CFAEdge pEdge, Deque<ValueAnalysisState> pCallstack) {
+    return delegate.handleFunctionReturn(pNext, pEdge, pCallstack);
+  }
+
+  @Override
+  public ValueAnalysisState performAbstraction(
+      ValueAnalysisState pNext, CFANode pCurrNode, ARGPath pErrorPath, Precision pPrecision) {
+    return delegate.performAbstraction(pNext, pCurrNode, pErrorPath, pPrecision);
+  }
+
+  @VisibleForTesting
+  long getCacheHits() {
+    return cacheHits.getValue();
+  }
+
+  public void printStatistics(StatisticsWriter pWriter) {
+    pWriter.put(cacheHits).put(cacheMisses).put("Strongest-post cache size", cache.size());
+  }
+
+  /**
+   * Key of the cache. The hash code is computed only once, because hashing the state needs to
+   * iterate over all its values.
+   */
+  private static final class CacheKey {
+
+    private final ValueAnalysisState state;
+    private final Precision precision;
+    private final CFAEdge edge;
+    private final int hashCode;
+
+    private CacheKey(ValueAnalysisState pState, Precision pPrecision, CFAEdge pEdge) {
+      state = pState;
+      precision = pPrecision;
+      edge = pEdge;
+      hashCode =
+          31 * (31 * state.hashCode() + precision.hashCode()) + edge.hashCode();
+    }
+
+    /** Creates a key for an equal state, reusing the already computed hash code. */
+    private CacheKey(ValueAnalysisState pEqualState, CacheKey pKey) {
+      state = pEqualState;
+      precision = pKey.precision;
+      edge = pKey.edge;
+      hashCode = pKey.hashCode;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      return hashCode == other.hashCode
+          && edge.equals(other.edge)
+          && precision.equals(other.precision)
+          && state.equals(other.state);
+    }
+  }
+}
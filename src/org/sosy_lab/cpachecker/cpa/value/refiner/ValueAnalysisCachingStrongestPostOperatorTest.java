@@ -0,0 +1,133 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value.refiner;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class ValueAnalysisCachingStrongestPostOperatorTest {
+
+  private CFA cfa;
+  private Precision precision;
+  private ValueAnalysisStrongestPostOperator uncached;
+  private ValueAnalysisCachingStrongestPostOperator cached;
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    cfa =
+        TestDataTools.makeCFA(
+            config,
+            "int main() {",
+            "  int x = 1;",
+            "  int y = x + 2;",
+            "  x = y * 3;",
+            "  return x;",
+            "}");
+    precision =
+        VariableTrackingPrecision.createStaticPrecision(
+            config, cfa.getVarClassification(), ValueAnalysisCPA.class);
+    uncached =
+        new ValueAnalysisStrongestPostOperator(LogManager.createTestLogManager(), config, cfa);
+    cached = new ValueAnalysisCachingStrongestPostOperator(uncached, config);
+  }
+
+  /** Returns the edges of the straight-line path through the main function. */
+  private List<CFAEdge> getPath() {
+    List<CFAEdge> path = new ArrayList<>();
+    CFANode node = cfa.getMainFunction();
+    while (node.getNumLeavingEdges() == 1) {
+      CFAEdge edge = Iterables.getOnlyElement(CFAUtils.leavingEdges(node));
+      path.add(edge);
+      node = edge.getSuccessor();
+    }
+    return path;
+  }
+
+  private ValueAnalysisState initialState() {
+    return new ValueAnalysisState(cfa.getMachineModel());
+  }
+
+  @Test
+  public void testCacheHitsReturnSameSuccessors() throws Exception {
+    List<CFAEdge> path = getPath();
+    assert_().that(path).isNotEmpty();
+
+    ValueAnalysisState expected = initialState();
+    ValueAnalysisState first = initialState();
+    ValueAnalysisState second = initialState();
+    for (CFAEdge edge : path) {
+      expected = uncached.getStrongestPost(expected, precision, edge).get();
+      first = cached.getStrongestPost(first, precision, edge).get();
+      assert_().that(cached.getCacheHits()).isEqualTo(0L);
+      assert_().that(first).isEqualTo(expected);
+    }
+
+    // the second run over the same path is answered from the cache only
+    for (CFAEdge edge : path) {
+      second = cached.getStrongestPost(second, precision, edge).get();
+    }
+    assert_().that(cached.getCacheHits()).isEqualTo((long) path.size());
+    assert_().that(second).isEqualTo(expected);
+    assert_().that(expected.getConstantsMapView()).containsKey(MemoryLocation.valueOf("main::x"));
+  }
+
+  @Test
+  public void testModifyingResultDoesNotChangeCache() throws Exception {
+    CFAEdge edge = getPath().get(0);
+    ValueAnalysisState origin = initialState();
+
+    Optional<ValueAnalysisState> miss = cached.getStrongestPost(origin, precision, edge);
+    ValueAnalysisState expected = ValueAnalysisState.copyOf(miss.get());
+
+    // callers like the interpolator modify the states they get
+    MemoryLocation other = MemoryLocation.valueOf("main::other");
+    miss.get().assignConstant(other, new NumericValue(42), CNumericTypes.INT);
+    origin.assignConstant(other, new NumericValue(42), CNumericTypes.INT);
+
+    Optional<ValueAnalysisState> hit = cached.getStrongestPost(initialState(), precision, edge);
+    assert_().that(cached.getCacheHits()).isEqualTo(1L);
+    assert_().that(hit.get()).isEqualTo(expected);
+  }
+}
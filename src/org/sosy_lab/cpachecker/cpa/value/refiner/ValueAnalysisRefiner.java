@@ -131,6 +131,8 @@ public class ValueAnalysisRefiner
 
   private final ValueAnalysisFeasibilityChecker checker;
 
+  private final StrongestPostOperator<ValueAnalysisState> strongestPostOperator;
+
   private ValueAnalysisConcreteErrorPathAllocator concreteErrorPathAllocator;
 
   private final ShutdownNotifier shutdownNotifier;
@@ -152,15 +154,17 @@ public class ValueAnalysisRefiner
     final Configuration config = valueAnalysisCpa.getConfiguration();
     final CFA cfa = valueAnalysisCpa.getCFA();
 
+    // one cache shared by the feasibility checker, the prefix provider and the interpolator
     final StrongestPostOperator<ValueAnalysisState> strongestPostOp =
-        new ValueAnalysisStrongestPostOperator(logger, config, cfa);
+        new ValueAnalysisCachingStrongestPostOperator(
+            new ValueAnalysisStrongestPostOperator(logger, config, cfa), config);
 
     final ValueAnalysisFeasibilityChecker checker =
         new ValueAnalysisFeasibilityChecker(strongestPostOp, logger, cfa, config);
 
     final GenericPrefixProvider<ValueAnalysisState> prefixProvider =
         new ValueAnalysisPrefixProvider(
-            logger, cfa, config, valueAnalysisCpa.getShutdownNotifier());
+            strongestPostOp, logger, cfa, config, valueAnalysisCpa.getShutdownNotifier());
 
     return new ValueAnalysisRefiner(argCpa,
         checker,
@@ -196,6 +200,7 @@ public class ValueAnalysisRefiner
     pConfig.inject(this, ValueAnalysisRefiner.class);
 
     checker = pFeasibilityChecker;
+    strongestPostOperator = pStrongestPostOperator;
     concreteErrorPathAllocator = new ValueAnalysisConcreteErrorPathAllocator(pConfig, logger, pCfa.getMachineModel());
     shutdownNotifier = pShutdownNotifier;
   }
@@ -441,5 +446,9 @@ public class ValueAnalysisRefiner
     writer.put(rootRelocations)
         .put(repeatedRefinements)
         .put("Number of unique precision increments", previousRefinementIds.size());
+
+    if (strongestPostOperator instanceof ValueAnalysisCachingStrongestPostOperator) {
+      ((ValueAnalysisCachingStrongestPostOperator) strongestPostOperator).printStatistics(writer);
+    }
   }
 }
@@ -32,6 +32,7 @@ import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
 import org.sosy_lab.cpachecker.cpa.value.refiner.ValueAnalysisStrongestPostOperator;
 import org.sosy_lab.cpachecker.util.refinement.GenericPrefixProvider;
+import org.sosy_lab.cpachecker.util.refinement.StrongestPostOperator;
 
 public class ValueAnalysisPrefixProvider extends GenericPrefixProvider<ValueAnalysisState> {
 
@@ -45,8 +46,32 @@ public class ValueAnalysisPrefixProvider extends GenericPrefixProvider<ValueAnal
       LogManager pLogger, CFA pCfa, Configuration config, ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
 
-    super(
+    this(
         new ValueAnalysisStrongestPostOperator(pLogger, config, pCfa),
+        pLogger,
+        pCfa,
+        config,
+        pShutdownNotifier);
+  }
+
+  /**
+   * This method acts as the constructor of the class.
+   *
+   * @param pStrongestPostOp the strongest-post operator to use, e.g., to share a cache with the
+   *     other components of a refiner
+   * @param pLogger the logger to use
+   * @param pCfa the cfa in use
+   */
+  public ValueAnalysisPrefixProvider(
+      StrongestPostOperator<ValueAnalysisState> pStrongestPostOp,
+      LogManager pLogger,
+      CFA pCfa,
+      Configuration config,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+
+    super(
+        pStrongestPostOp,
         new ValueAnalysisState(pCfa.getMachineModel()),
         pLogger,
         pCfa,
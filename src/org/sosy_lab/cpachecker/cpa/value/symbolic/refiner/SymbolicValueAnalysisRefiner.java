@@ -96,7 +96,13 @@ public class SymbolicValueAnalysisRefiner
     final Solver solver = constraintsCpa.getSolver();
 
     final SymbolicStrongestPostOperator strongestPostOperator =
-        new ValueTransferBasedStrongestPostOperator(solver, logger, config, cfa, shutdownNotifier);
+        new ValueTransferBasedStrongestPostOperator(
+            solver,
+            logger,
+            config,
+            cfa,
+            shutdownNotifier,
+            constraintsCpa.getIncrementalProver());
 
     final SymbolicFeasibilityChecker feasibilityChecker =
         new SymbolicValueAnalysisFeasibilityChecker(strongestPostOperator,
@@ -43,6 +43,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.cpa.constraints.ConstraintsTransferRelation;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsState;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.IncrementalConstraintsProver;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisTransferRelation;
 import org.sosy_lab.cpachecker.cpa.value.refiner.ValueAnalysisStrongestPostOperator;
@@ -68,7 +69,8 @@ public class ValueTransferBasedStrongestPostOperator
       final LogManager pLogger,
       final Configuration pConfig,
       final CFA pCfa,
-      final ShutdownNotifier pShutdownNotifier
+      final ShutdownNotifier pShutdownNotifier,
+      final IncrementalConstraintsProver pIncrementalProver
   ) throws InvalidConfigurationException {
 
     valueTransfer =
@@ -87,7 +89,8 @@ public class ValueTransferBasedStrongestPostOperator
                                         pCfa.getMachineModel(),
                                         pLogger,
                                         pConfig,
-                                        pShutdownNotifier);
+                                        pShutdownNotifier,
+                                        pIncrementalProver);
   }
 
   @Override
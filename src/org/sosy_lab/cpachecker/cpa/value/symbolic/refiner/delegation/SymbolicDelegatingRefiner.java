@@ -42,6 +42,7 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
 import org.sosy_lab.cpachecker.cpa.constraints.ConstraintsCPA;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.IncrementalConstraintsProver;
 import org.sosy_lab.cpachecker.cpa.constraints.refiner.precision.RefinableConstraintsPrecision;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.refiner.ElementTestingSymbolicEdgeInterpolator;
@@ -108,7 +109,14 @@ public class SymbolicDelegatingRefiner implements Refiner, StatisticsProvider {
     final Solver solver = Solver.create(config, logger, shutdownNotifier);
 
     final SymbolicStrongestPostOperator symbolicStrongestPost =
-        new ValueTransferBasedStrongestPostOperator(solver, logger, config, cfa, shutdownNotifier);
+        new ValueTransferBasedStrongestPostOperator(
+            solver,
+            logger,
+            config,
+            cfa,
+            shutdownNotifier,
+            // the CPA's prover belongs to another solver
+            IncrementalConstraintsProver.disabled(solver));
 
     final SymbolicFeasibilityChecker feasibilityChecker =
         new SymbolicValueAnalysisFeasibilityChecker(symbolicStrongestPost,
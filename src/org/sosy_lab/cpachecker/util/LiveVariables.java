@@ -46,6 +46,7 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -56,6 +57,7 @@ import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -86,6 +88,7 @@ import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.livevar.LiveVariablesCPA;
+import org.sosy_lab.cpachecker.cpa.livevar.LiveVariablesSolver;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimit;
@@ -154,6 +157,16 @@ public class LiveVariables {
                     min=0)
     private TimeSpan partwiseLivenessCheckTime = TimeSpan.ofSeconds(20);
 
+    @Option(secure=true, description="Compute the function-wise live variables with a dedicated"
+        + " worklist solver instead of running the LiveVariablesCPA with the CPA algorithm.")
+    private boolean useDataflowSolver = false;
+
+    @Option(secure=true, description="Number of threads for computing the function-wise live"
+        + " variables with the dedicated solver, functions are analyzed in parallel"
+        + " (0 for the number of available processors).")
+    @IntegerOption(min=0)
+    private int solverThreads = 1;
+
     public LiveVariablesConfiguration(Configuration config) throws InvalidConfigurationException {
       config.inject(this);
     }
@@ -428,13 +441,21 @@ public class LiveVariables {
       limitChecker = null;
     }
 
-    Optional<AnalysisParts> parts =
-        getNecessaryAnalysisComponents(cfa, logger, shutdownNotifier, config.evaluationStrategy);
     Multimap<CFANode, Wrapper<ASimpleDeclaration>> liveVariables = null;
 
     // create live variables
-    if (parts.isPresent()) {
-      liveVariables = addLiveVariablesFromCFA(cfa, logger, parts.get(), config.evaluationStrategy);
+    if (config.evaluationStrategy == EvaluationStrategy.FUNCTION_WISE
+        && config.useDataflowSolver) {
+      liveVariables =
+          addLiveVariablesWithSolver(cfa, logger, shutdownNotifier, config.solverThreads);
+
+    } else {
+      Optional<AnalysisParts> parts =
+          getNecessaryAnalysisComponents(cfa, logger, shutdownNotifier, config.evaluationStrategy);
+      if (parts.isPresent()) {
+        liveVariables =
+            addLiveVariablesFromCFA(cfa, logger, parts.get(), config.evaluationStrategy);
+      }
     }
 
     if (limitChecker != null) {
@@ -476,14 +497,15 @@ public class LiveVariables {
       FROM_EQUIV_WRAPPER_TO_STRING =
           Functions.compose(ASimpleDeclaration::getQualifiedName, FROM_EQUIV_WRAPPER);
 
-  private static Multimap<CFANode, Wrapper<ASimpleDeclaration>> addLiveVariablesFromCFA(
-      final CFA pCfa,
-      final LogManager logger,
-      AnalysisParts analysisParts,
-      EvaluationStrategy evaluationStrategy
-  ) throws IllegalArgumentException, InterruptedException {
+  /**
+   * Return the nodes where the backwards analysis starts: all function exit nodes and one loop
+   * head of each loop without exit.
+   */
+  private static List<CFANode> getInitialNodes(
+      final CFA pCfa, EvaluationStrategy evaluationStrategy) {
 
     Optional<LoopStructure> loopStructure = pCfa.getLoopStructure();
+    List<CFANode> initialNodes = new ArrayList<>();
 
     // put all FunctionExitNodes into the waitlist
     final Collection<FunctionEntryNode> functionHeads;
@@ -500,13 +522,7 @@ public class LiveVariables {
     for (FunctionEntryNode node : functionHeads) {
       FunctionExitNode exitNode = node.getExitNode();
       if (pCfa.getAllNodes().contains(exitNode)) {
-        analysisParts.reachedSet.add(
-            analysisParts.cpa.getInitialState(
-                exitNode,
-                StateSpacePartition.getDefaultPartition()),
-            analysisParts.cpa.getInitialPrecision(
-                exitNode,
-                StateSpacePartition.getDefaultPartition()));
+        initialNodes.add(exitNode);
       }
     }
 
@@ -523,15 +539,50 @@ public class LiveVariables {
         // edges because the LoopStructure is not able to say that loops with
         // function calls inside have no outgoing edges
         if (from(l.getOutgoingEdges()).filter(not(instanceOf(FunctionCallEdge.class))).isEmpty()) {
-          CFANode functionHead = l.getLoopHeads().iterator().next();
-          analysisParts.reachedSet.add(
-              analysisParts.cpa.getInitialState(
-                  functionHead, StateSpacePartition.getDefaultPartition()),
-              analysisParts.cpa.getInitialPrecision(
-                  functionHead, StateSpacePartition.getDefaultPartition()));
+          initialNodes.add(l.getLoopHeads().iterator().next());
         }
       }
     }
+    return initialNodes;
+  }
+
+  private static Multimap<CFANode, Wrapper<ASimpleDeclaration>> addLiveVariablesWithSolver(
+      final CFA pCfa,
+      final LogManager logger,
+      final ShutdownNotifier shutdownNotifier,
+      final int threads) {
+
+    logger.log(Level.INFO, "Starting live variables collection ...");
+    try {
+      Configuration config =
+          Configuration.builder()
+              .loadFromResource(LiveVariables.class, "liveVariables-intraprocedural.properties")
+              .build();
+      LiveVariablesSolver solver =
+          new LiveVariablesSolver(pCfa, config, logger, shutdownNotifier, threads);
+      Multimap<CFANode, Wrapper<ASimpleDeclaration>> result =
+          solver.solve(getInitialNodes(pCfa, EvaluationStrategy.FUNCTION_WISE));
+      logger.log(Level.INFO, "Stopping live variables collection ...");
+      return result;
+
+    } catch (InvalidConfigurationException | CPAException | InterruptedException e) {
+      logger.logUserException(Level.WARNING, e, "Could not compute live variables.");
+      return null;
+    }
+  }
+
+  private static Multimap<CFANode, Wrapper<ASimpleDeclaration>> addLiveVariablesFromCFA(
+      final CFA pCfa,
+      final LogManager logger,
+      AnalysisParts analysisParts,
+      EvaluationStrategy evaluationStrategy
+  ) throws IllegalArgumentException, InterruptedException {
+
+    for (CFANode node : getInitialNodes(pCfa, evaluationStrategy)) {
+      analysisParts.reachedSet.add(
+          analysisParts.cpa.getInitialState(node, StateSpacePartition.getDefaultPartition()),
+          analysisParts.cpa.getInitialPrecision(node, StateSpacePartition.getDefaultPartition()));
+    }
 
     logger.log(Level.INFO, "Starting live variables collection ...");
     try {
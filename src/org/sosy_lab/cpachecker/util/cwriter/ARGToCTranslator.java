@@ -24,14 +24,18 @@
 package org.sosy_lab.cpachecker.util.cwriter;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
@@ -75,9 +79,9 @@ public class ARGToCTranslator {
   private static String DEFAULTRETURN = "default return";
 
   private static abstract class Statement {
-    public abstract void translateToCode(StringBuilder buffer, int indent);
+    public abstract void translateToCode(Appendable buffer, int indent) throws IOException;
 
-    protected static void writeIndent(StringBuilder buffer, int indent) {
+    protected static void writeIndent(Appendable buffer, int indent) throws IOException {
       for(int i = 0; i < indent; i++) {
         // buffer.append(" ");
       }
@@ -111,7 +115,7 @@ public class ARGToCTranslator {
     }
 
     @Override
-    public void translateToCode(StringBuilder buffer, int indent) {
+    public void translateToCode(Appendable buffer, int indent) throws IOException {
       writeIndent(buffer, indent);
       buffer.append("{\n");
 
@@ -136,7 +140,7 @@ public class ARGToCTranslator {
     }
 
     @Override
-    public void translateToCode(StringBuilder buffer, int indent) {
+    public void translateToCode(Appendable buffer, int indent) throws IOException {
       writeIndent(buffer, indent);
       buffer.append(code);
       buffer.append("\n");
@@ -157,7 +161,7 @@ public class ARGToCTranslator {
     }
 
     @Override
-    public void translateToCode(StringBuilder buffer, int indent) {
+    public void translateToCode(Appendable buffer, int indent) throws IOException {
       writeIndent(buffer, indent);
       buffer.append(functionHeader);
       buffer.append("\n");
@@ -218,6 +222,13 @@ public class ARGToCTranslator {
 
   private @Nullable Set<ARGState> addPragmaAfter;
 
+  // ids of the structure of the ARG subtrees and of the declaration scopes of the ARG states,
+  // only computed if shareIdenticalSubtrees is enabled
+  private final Map<ARGState, Integer> subtreeIds = new HashMap<>();
+  private final Map<ARGState, Integer> declarationScopes = new HashMap<>();
+  private final Set<ARGState> sharedSubtreeRoots = new HashSet<>();
+  private final Map<List<Integer>, ARGState> translatedSubtrees = new HashMap<>();
+  private int numberOfSharedSubtrees = 0;
 
   @Option(secure=true, name="header", description="write include directives")
   private boolean includeHeader = true;
@@ -228,6 +239,16 @@ public class ARGToCTranslator {
   @Option(secure=true, name="handleTargetStates", description="How to deal with target states during code generation")
   private TargetTreatment targetStrategy = TargetTreatment.NONE;
 
+  @Option(
+    secure = true,
+    name = "shareIdenticalSubtrees",
+    description =
+        "Translate structurally identical subtrees of the ARG only once and jump to this"
+            + " translation from all other occurrences that see the same local variables. This"
+            + " reduces the size of the generated program."
+  )
+  private boolean shareIdenticalSubtrees = false;
+
   public ARGToCTranslator(LogManager pLogger, Configuration pConfig)
       throws InvalidConfigurationException {
     pConfig.inject(this);
@@ -246,17 +267,50 @@ public class ARGToCTranslator {
 
   public String translateARG(ARGState argRoot, @Nullable Set<ARGState> pAddPragma)
       throws CPAException {
+    StringBuilder buffer = new StringBuilder();
+    try {
+      translateARG(argRoot, pAddPragma, buffer);
+    } catch (IOException e) {
+      throw new AssertionError("StringBuilder does not throw IOException", e);
+    }
+    return buffer.toString();
+  }
+
+  /**
+   * Translate the ARG and write the program directly to the given output, without creating the
+   * whole program text in memory first.
+   */
+  public void translateARG(
+      ARGState argRoot, @Nullable Set<ARGState> pAddPragma, Appendable pOutput)
+      throws CPAException, IOException {
 
     addPragmaAfter = pAddPragma == null ? Collections.emptySet() : pAddPragma;
 
+    subtreeIds.clear();
+    declarationScopes.clear();
+    sharedSubtreeRoots.clear();
+    translatedSubtrees.clear();
+    numberOfSharedSubtrees = 0;
+    if (shareIdenticalSubtrees
+        && handleCompoundStatementAtEndOfFunction != BlockTreatmentAtFunctionEnd.CLOSEFUNCTIONBLOCK) {
+      // CLOSEFUNCTIONBLOCK continues the code after a function return outside of the current block,
+      // so the code of a subtree would not be contained in a single block
+      identifySubtrees(argRoot);
+      identifyDeclarationScopes(argRoot);
+      identifySharedSubtreeRoots();
+    }
+
     translate(argRoot);
 
-    return generateCCode();
+    generateCCode(pOutput);
   }
 
-  private String generateCCode() {
-    StringBuilder buffer = new StringBuilder();
+  /** Returns the number of ARG subtrees that were replaced by a jump during the last translation. */
+  public int getNumberOfSharedSubtrees() {
+    return numberOfSharedSubtrees;
+  }
 
+  private void generateCCode(Appendable buffer) throws IOException {
     if (includeHeader) {
       buffer.append("#include <stdio.h>\n");
     }
@@ -264,12 +318,141 @@ public class ARGToCTranslator {
       buffer.append("#include <assert.h>\n");
     }
     for(String globalDef : globalDefinitionsList) {
-      buffer.append(globalDef + "\n");
+      buffer.append(globalDef).append("\n");
     }
 
     mainFunctionBody.translateToCode(buffer, 0);
+  }
 
-    return buffer.toString();
+  /**
+   * Assign the same id to all ARG states whose subtrees are translated into the same code. States
+   * whose code depends on their identity (e.g., because other states jump to them or their id is
+   * part of a variable name) get a unique id.
+   */
+  private void identifySubtrees(ARGState pRoot) {
+    Map<List<Object>, Integer> structureIds = new HashMap<>();
+    int nextUniqueId = -1;
+
+    // iterative post-order traversal, the ARG may be too deep for recursion
+    Deque<ARGState> stack = new ArrayDeque<>();
+    stack.push(pRoot);
+    while (!stack.isEmpty()) {
+      ARGState state = stack.peek();
+      if (subtreeIds.containsKey(state)) {
+        stack.pop();
+        continue;
+      }
+      boolean childrenDone = true;
+      for (ARGState child : state.getChildren()) {
+        if (!subtreeIds.containsKey(child)) {
+          stack.push(child);
+          childrenDone = false;
+        }
+      }
+      if (!childrenDone) {
+        continue;
+      }
+      stack.pop();
+
+      int id;
+      if (hasUniqueTranslation(state)) {
+        id = nextUniqueId--;
+      } else if (state.isCovered()) {
+        id = structureIds.computeIfAbsent(
+            ImmutableList.of("covered", state.getCoveringState()), k -> structureIds.size());
+      } else {
+        List<Object> structure = new ArrayList<>();
+        structure.add(AbstractStates.extractLocation(state));
+        for (ARGState child : state.getChildren()) {
+          structure.add(state.getEdgesToChild(child));
+          structure.add(subtreeIds.get(child));
+        }
+        id = structureIds.computeIfAbsent(structure, k -> structureIds.size());
+      }
+      subtreeIds.put(state, id);
+    }
+  }
+
+  /**
+   * Assign to each ARG state the id of the nearest ancestor (or the state itself) whose incoming
+   * edges declare local variables, i.e., the translation of this ancestor opened the innermost
+   * declarations that are visible in the code of the state. Two occurrences of a subtree may only
+   * share their code if they have the same scope, otherwise the jump would lead into a block that
+   * declares other variables, which are not initialized after the jump.
+   */
+  private void identifyDeclarationScopes(ARGState pRoot) {
+    Deque<ARGState> waitlist = new ArrayDeque<>();
+    declarationScopes.put(pRoot, pRoot.getStateId());
+    waitlist.push(pRoot);
+    while (!waitlist.isEmpty()) {
+      ARGState state = waitlist.pop();
+      int scope = declarationScopes.get(state);
+      for (ARGState child : state.getChildren()) {
+        if (declarationScopes.containsKey(child)) {
+          continue;
+        }
+        if (child.getParents().size() > 1
+            || declaresLocalVariables(state.getEdgesToChild(child))) {
+          // the code of merge points is placed in the block of an arbitrary parent
+          declarationScopes.put(child, child.getStateId());
+        } else {
+          declarationScopes.put(child, scope);
+        }
+        waitlist.push(child);
+      }
+    }
+  }
+
+  private static boolean declaresLocalVariables(List<CFAEdge> pEdges) {
+    for (CFAEdge edge : pEdges) {
+      if (edge instanceof CFunctionCallEdge) {
+        // the parameters of the inlined function are declared in a new block
+        return true;
+      }
+      if (edge instanceof CDeclarationEdge
+          && !((CDeclarationEdge) edge).getDeclaration().isGlobal()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The roots of subtrees that occur more than once with the same declaration scope get a label,
+   * such that the later occurrences can jump to the first one.
+   */
+  private void identifySharedSubtreeRoots() {
+    Map<List<Integer>, ARGState> firstStateWithKey = new HashMap<>();
+    for (ARGState state : subtreeIds.keySet()) {
+      ARGState first = firstStateWithKey.putIfAbsent(getSharingKey(state), state);
+      if (first != null) {
+        // all occurrences need a label, we do not know yet which one is translated first
+        sharedSubtreeRoots.add(first);
+        sharedSubtreeRoots.add(state);
+      }
+    }
+  }
+
+  private List<Integer> getSharingKey(ARGState pState) {
+    return ImmutableList.of(subtreeIds.get(pState), declarationScopes.get(pState));
+  }
+
+  private boolean hasUniqueTranslation(ARGState pState) {
+    if (pState.getParents().size() > 1
+        || !pState.getCoveredByThis().isEmpty()
+        || pState.isTarget()) {
+      // other states jump to this state, or it is handled specially
+      return true;
+    }
+    CFANode loc = AbstractStates.extractLocation(pState);
+    if (loc == null) {
+      return true;
+    }
+    // return values are stored in variables named after the state between
+    // the return statement and the function return
+    return CFAUtils.enteringEdges(loc)
+            .anyMatch(e -> e.getEdgeType() == CFAEdgeType.ReturnStatementEdge)
+        || CFAUtils.leavingEdges(loc).anyMatch(e -> e instanceof CFunctionReturnEdge);
   }
 
   private void translate(ARGState rootElement) throws CPAException {
@@ -463,7 +646,9 @@ public class ARGToCTranslator {
   }
 
   private void generateLabel(ARGState currentElement, CompoundStatement block) {
-    if(!currentElement.getCoveredByThis().isEmpty() || mergeElements.contains(currentElement)) {
+    if (!currentElement.getCoveredByThis().isEmpty()
+        || mergeElements.contains(currentElement)
+        || sharedSubtreeRoots.contains(currentElement)) {
       //this element covers others; they may want to jump to it
       block.addStatement(new SimpleStatement("label_" + currentElement.getStateId() + ":; "));
     }
@@ -481,9 +666,17 @@ public class ARGToCTranslator {
       mergeElements.add(childElement);
     }
 
-    if(!discoveredElements.contains(childElement)) {
-      // this element was not already processed; find children of it
-      getRelevantChildrenOfElement(childElement, waitlist, currentBlock);
+    if (!discoveredElements.contains(childElement)) {
+      ARGState identicalSubtree = getTranslatedIdenticalSubtree(childElement);
+      if (identicalSubtree != null) {
+        // the same code was already generated for another subtree; jump to it
+        numberOfSharedSubtrees++;
+        currentBlock.addStatement(
+            new SimpleStatement("goto label_" + identicalSubtree.getStateId() + ";"));
+      } else {
+        // this element was not already processed; find children of it
+        getRelevantChildrenOfElement(childElement, waitlist, currentBlock);
+      }
     } else {
       //this element was already processed and code generated somewhere; jump to it
       currentBlock.addStatement(new SimpleStatement("goto label_" + childElement.getStateId() + ";"));
@@ -491,6 +684,14 @@ public class ARGToCTranslator {
   }
 
 
+  private @Nullable ARGState getTranslatedIdenticalSubtree(ARGState pState) {
+    if (!sharedSubtreeRoots.contains(pState)) {
+      return null;
+    }
+    ARGState translated = translatedSubtrees.putIfAbsent(getSharingKey(pState), pState);
+    return translated == pState ? null : translated;
+  }
+
   private CompoundStatement processEdge(ARGState currentElement, ARGState childElement,
       CFAEdge edge, CompoundStatement currentBlock) throws CPAException {
     if (edge instanceof CFunctionCallEdge) {
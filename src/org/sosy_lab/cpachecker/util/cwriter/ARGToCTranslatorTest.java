@@ -0,0 +1,127 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.cwriter;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.io.TempFile.DeleteOnCloseFile;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class ARGToCTranslatorTest {
+
+  /** Run the value analysis on the program and translate the ARG with shared subtrees. */
+  private static String translate(List<String> pProgram, ARGToCTranslator pTranslator)
+      throws Exception {
+    try (DeleteOnCloseFile programFile =
+        TempFile.builder().prefix("test").suffix(".c").createDeleteOnClose()) {
+      Files.write(programFile.toPath(), pProgram);
+
+      Configuration config =
+          TestDataTools.configurationForTest()
+              .setOption("cpa", "cpa.arg.ARGCPA")
+              .setOption("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+              .setOption(
+                  "CompositeCPA.cpas",
+                  "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA")
+              .build();
+
+      TestResults result = CPATestRunner.run(config, programFile.toPath().toString());
+      ARGState root = (ARGState) result.getCheckerResult().getReached().getFirstState();
+      return pTranslator.translateARG(root);
+    }
+  }
+
+  private static ARGToCTranslator createTranslator() throws Exception {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.arg.export.code.shareIdenticalSubtrees", "true")
+            .build();
+    return new ARGToCTranslator(LogManager.createTestLogManager(), config);
+  }
+
+  @Test
+  public void testIdenticalSubtreesAreShared() throws Exception {
+    List<String> program =
+        ImmutableList.of(
+            "extern int __VERIFIER_nondet_int();",
+            "int global;",
+            "int global2;",
+            "",
+            "void main() {",
+            // create two ARG paths that differ only in the value of global
+            "  if (__VERIFIER_nondet_int()) {",
+            "    global = 1;",
+            "  } else {",
+            "    global = 2;",
+            "  }",
+            "  global2 = 0;",
+            "}");
+    ARGToCTranslator translator = createTranslator();
+    String code = translate(program, translator);
+
+    assert_().that(translator.getNumberOfSharedSubtrees()).isEqualTo(1);
+    assert_().that(code).contains("goto label_");
+  }
+
+  @Test
+  public void testSubtreesWithBlockLocalDeclarationsAreNotShared() throws Exception {
+    List<String> program =
+        ImmutableList.of(
+            "extern int __VERIFIER_nondet_int();",
+            "extern void __VERIFIER_assume(int);",
+            "int global;",
+            "",
+            "void fail(int code) {",
+            "  global = code;",
+            "  __VERIFIER_assume(0);",
+            "}",
+            "",
+            "void main() {",
+            // the two inlined calls declare their own parameter in separate blocks,
+            // so the identical code of the function body must not be shared
+            "  if (__VERIFIER_nondet_int()) {",
+            "    fail(1);",
+            "  } else {",
+            "    fail(2);",
+            "  }",
+            "}");
+    ARGToCTranslator translator = createTranslator();
+    String code = translate(program, translator);
+
+    assert_().that(translator.getNumberOfSharedSubtrees()).isEqualTo(0);
+    assert_().that(code).doesNotContain("goto label_");
+    assert_().that(code).contains("code = __tmp_");
+    assert_().that(code).contains("global = code;");
+  }
+}
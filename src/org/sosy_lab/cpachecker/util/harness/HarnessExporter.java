@@ -30,12 +30,15 @@ import static org.sosy_lab.cpachecker.util.harness.PredefinedTypes.isPredefinedT
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.Collection;
@@ -137,7 +140,7 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 @Options(prefix = "testHarnessExport")
 public class HarnessExporter {
 
-  private static final String TMP_VAR = "__tmp_var";
+  static final String TMP_VAR = "__tmp_var";
 
   private static final String ERR_MSG = "__VERIFIER_error_called";
 
@@ -149,6 +152,12 @@ public class HarnessExporter {
 
   private final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
 
+  // both only depend on the CFA, thus they are computed once and shared by all harnesses
+  private final Supplier<Set<AFunctionDeclaration>> externalFunctions =
+      Suppliers.memoize(this::getExternalFunctions);
+  private final Supplier<Set<ADeclaration>> typeDeclarations =
+      Suppliers.memoize(this::getTypeDeclarations);
+
   @Option(secure = true, description = "Use the counterexample model to provide test-vector values")
   private boolean useModel = true;
 
@@ -167,52 +176,72 @@ public class HarnessExporter {
       Predicate<? super Pair<ARGState, ARGState>> pIsRelevantEdge,
       CounterexampleInfo pCounterexampleInfo)
       throws IOException {
+    Optional<TargetTestVector> testVector =
+        extractTestVector(pRootState, pIsRelevantState, pIsRelevantEdge, pCounterexampleInfo);
+    if (testVector.isPresent()) {
+      writeHarness(pTarget, testVector.get());
+    }
+  }
 
-    // Find a path with sufficient test vector info
+  /**
+   * Find a path with sufficient test-vector information. This needs the ARG, thus it has to be
+   * called before the ARG is modified further. The result can then be written with {@link
+   * #writeHarness(Appendable, TargetTestVector)} at any time and in any thread.
+   */
+  public Optional<TargetTestVector> extractTestVector(
+      final ARGState pRootState,
+      final Predicate<? super ARGState> pIsRelevantState,
+      Predicate<? super Pair<ARGState, ARGState>> pIsRelevantEdge,
+      CounterexampleInfo pCounterexampleInfo) {
     Optional<TargetTestVector> testVector =
         extractTestVector(
             pRootState, pIsRelevantState, pIsRelevantEdge, getValueMap(pCounterexampleInfo));
-    if (testVector.isPresent()) {
+    if (!testVector.isPresent()) {
+      logger.log(
+          Level.WARNING, "Could not export a test harness, some test-vector values are missing.");
+    }
+    return testVector;
+  }
 
-      Set<AFunctionDeclaration> externalFunctions = getExternalFunctions();
-
-      CodeAppender codeAppender = new CodeAppender(pTarget);
-      
-      codeAppender.appendln("struct _IO_FILE;");
-      codeAppender.appendln("typedef struct _IO_FILE FILE;");
-      codeAppender.appendln("extern struct _IO_FILE *stderr;");
-
-      // implement error-function
-      CFAEdge edgeToTarget = testVector.get().edgeToTarget;
-      Optional<AFunctionDeclaration> errorFunction =
-          getErrorFunction(edgeToTarget, externalFunctions);
-      if (errorFunction.isPresent()) {
-        codeAppender.append(errorFunction.get());
-        codeAppender.appendln(" { fprintf(stderr, \"" + ERR_MSG + "\\n\"); exit(1); }");
-      } else {
-        logger.log(Level.WARNING, "Could not find a call to an error function.");
-      }
+  /** Write the harness for a test vector. This is independent of the ARG and thread-safe. */
+  public void writeHarness(Appendable pTarget, TargetTestVector pTestVector) throws IOException {
+    Set<AFunctionDeclaration> externalFunctions = this.externalFunctions.get();
 
-      if (externalFunctions.stream().anyMatch(PredefinedTypes::isVerifierAssume)) {
-        // implement __VERIFIER_assume with exit (EXIT_SUCCESS)
-        codeAppender.appendln(
-            "void __VERIFIER_assume(int cond) { if (!(cond)) { exit(EXIT_SUCCESS); }}");
-      }
+    CodeAppender codeAppender = new CodeAppender(pTarget);
+
+    codeAppender.appendln("struct _IO_FILE;");
+    codeAppender.appendln("typedef struct _IO_FILE FILE;");
+    codeAppender.appendln("extern struct _IO_FILE *stderr;");
 
-      // implement actual harness
-      TestVector vector =
-          completeExternalFunctions(
-              testVector.get().testVector,
-              errorFunction.isPresent()
-                  ? FluentIterable.from(externalFunctions)
-                      .filter(Predicates.not(Predicates.equalTo(errorFunction.get())))
-                  : externalFunctions);
-      copyTypeDeclarations(codeAppender);
-      codeAppender.append(vector);
+    // implement error-function
+    CFAEdge edgeToTarget = pTestVector.edgeToTarget;
+    Optional<AFunctionDeclaration> errorFunction =
+        getErrorFunction(edgeToTarget, externalFunctions);
+    if (errorFunction.isPresent()) {
+      codeAppender.append(errorFunction.get());
+      codeAppender.appendln(" { fprintf(stderr, \"" + ERR_MSG + "\\n\"); exit(1); }");
     } else {
-      logger.log(
-          Level.WARNING, "Could not export a test harness, some test-vector values are missing.");
+      logger.log(Level.WARNING, "Could not find a call to an error function.");
     }
+
+    if (externalFunctions.stream().anyMatch(PredefinedTypes::isVerifierAssume)) {
+      // implement __VERIFIER_assume with exit (EXIT_SUCCESS)
+      codeAppender.appendln(
+          "void __VERIFIER_assume(int cond) { if (!(cond)) { exit(EXIT_SUCCESS); }}");
+    }
+
+    // implement actual harness
+    TestVector vector =
+        completeExternalFunctions(
+            pTestVector.testVector,
+            errorFunction.isPresent()
+                ? FluentIterable.from(externalFunctions)
+                    .filter(Predicates.not(Predicates.equalTo(errorFunction.get())))
+                : externalFunctions);
+    for (ADeclaration declaration : typeDeclarations.get()) {
+      codeAppender.appendln(declaration.toASTString());
+    }
+    codeAppender.append(vector);
   }
 
   private Optional<AFunctionDeclaration> getErrorFunction(
@@ -259,10 +288,10 @@ public class HarnessExporter {
           }
         };
     CFATraversal.dfs().traverseOnce(cfa.getMainFunction(), externalFunctionCollector);
-    return externalFunctions;
+    return Collections.unmodifiableSet(externalFunctions);
   }
 
-  private void copyTypeDeclarations(CodeAppender pTarget) throws IOException {
+  private Set<ADeclaration> getTypeDeclarations() {
     Set<ADeclaration> declarations = new LinkedHashSet<>();
     CFATraversal.dfs()
         .traverseOnce(
@@ -310,9 +339,7 @@ public class HarnessExporter {
                 return TraversalProcess.CONTINUE;
               }
             });
-    for (ADeclaration declaration : declarations) {
-      pTarget.appendln(declaration.toASTString());
-    }
+    return Collections.unmodifiableSet(declarations);
   }
 
   private TestVector completeExternalFunctions(TestVector pVector, Iterable<AFunctionDeclaration> pExternalFunctions) {
@@ -968,17 +995,23 @@ public class HarnessExporter {
     }
   }
 
-  private static class TargetTestVector {
+  /** A test vector together with the edge to the target that is covered by it. */
+  public static final class TargetTestVector {
 
     private final CFAEdge edgeToTarget;
 
     private final TestVector testVector;
 
-    public TargetTestVector(CFAEdge pEdgeToTarget, TestVector pTestVector) {
+    private TargetTestVector(CFAEdge pEdgeToTarget, TestVector pTestVector) {
       edgeToTarget = Objects.requireNonNull(pEdgeToTarget);
       testVector = Objects.requireNonNull(pTestVector);
     }
 
+    /** Returns a fingerprint of the input values, tests with equal inputs are duplicates. */
+    public HashCode getInputFingerprint() {
+      return testVector.getFingerprint();
+    }
+
     @Override
     public String toString() {
       return testVector.toString();
@@ -27,11 +27,19 @@ import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentSortedMap;
+import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
 import org.sosy_lab.cpachecker.cfa.ast.AFunctionDeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.AInitializer;
@@ -41,6 +49,9 @@ import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 
 class TestVector {
 
+  private static final Pattern TMP_VAR_NAME =
+      Pattern.compile(Pattern.quote(HarnessExporter.TMP_VAR) + "_\\d+");
+
   private final PersistentSortedMap<
           ComparableFunctionDeclaration, ImmutableList<ExpressionTestValue>>
       inputFunctionValues;
@@ -126,6 +137,56 @@ class TestVector {
     return inputFunctionValues.containsKey(new ComparableFunctionDeclaration(pFunctionDeclaration));
   }
 
+  /**
+   * Returns a fingerprint of the input values, such that duplicate tests can be detected without
+   * keeping all test vectors in memory. Names of temporary variables are numbered by their first
+   * occurrence in this vector, because the harness exporter assigns them globally fresh ids.
+   */
+  public HashCode getFingerprint() {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    Map<String, String> tmpVarNames = new HashMap<>();
+    for (Map.Entry<ComparableFunctionDeclaration, ImmutableList<ExpressionTestValue>> entry :
+        inputFunctionValues.entrySet()) {
+      hasher.putUnencodedChars(entry.getKey().declaration.getQualifiedName());
+      for (ExpressionTestValue value : entry.getValue()) {
+        hasher.putChar('\0');
+        putTestValue(hasher, value, tmpVarNames);
+      }
+      hasher.putChar('\n');
+    }
+    for (Map.Entry<ComparableVariableDeclaration, InitializerTestValue> entry :
+        inputVariableValues.entrySet()) {
+      hasher.putUnencodedChars(entry.getKey().declaration.getQualifiedName());
+      hasher.putChar('\0');
+      putTestValue(hasher, entry.getValue(), tmpVarNames);
+      hasher.putChar('\n');
+    }
+    return hasher.hash();
+  }
+
+  private static void putTestValue(
+      Hasher pHasher, TestValue pValue, Map<String, String> pTmpVarNames) {
+    for (AAstNode auxiliaryStatement : pValue.getAuxiliaryStatements()) {
+      pHasher
+          .putUnencodedChars(normalizeTmpVarNames(auxiliaryStatement.toASTString(), pTmpVarNames))
+          .putChar(';');
+    }
+    pHasher.putUnencodedChars(normalizeTmpVarNames(pValue.getValue().toASTString(), pTmpVarNames));
+  }
+
+  private static String normalizeTmpVarNames(String pCode, Map<String, String> pTmpVarNames) {
+    Matcher matcher = TMP_VAR_NAME.matcher(pCode);
+    StringBuffer result = new StringBuffer();
+    while (matcher.find()) {
+      String name =
+          pTmpVarNames.computeIfAbsent(
+              matcher.group(), n -> HarnessExporter.TMP_VAR + "_" + pTmpVarNames.size());
+      matcher.appendReplacement(result, Matcher.quoteReplacement(name));
+    }
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -0,0 +1,100 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.harness;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigInteger;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+
+public class TestVectorTest {
+
+  private static final CPointerType INT_POINTER =
+      new CPointerType(false, false, CNumericTypes.INT);
+
+  private static final CFunctionDeclaration NONDET_POINTER =
+      new CFunctionDeclaration(
+          FileLocation.DUMMY,
+          CFunctionType.functionTypeWithReturnType(INT_POINTER),
+          "__VERIFIER_nondet_pointer",
+          ImmutableList.of());
+
+  @Test
+  public void testEqualPointerInputsHaveEqualFingerprints() {
+    TestVector first =
+        TestVector.newTestVector()
+            .addInputValue(NONDET_POINTER, pointerTo("__tmp_var_3", 1))
+            .addInputValue(NONDET_POINTER, pointerTo("__tmp_var_4", 2));
+    TestVector second =
+        TestVector.newTestVector()
+            .addInputValue(NONDET_POINTER, pointerTo("__tmp_var_12", 1))
+            .addInputValue(NONDET_POINTER, pointerTo("__tmp_var_13", 2));
+
+    assertThat(first.getFingerprint()).isEqualTo(second.getFingerprint());
+  }
+
+  @Test
+  public void testDifferentPointerInputsHaveDifferentFingerprints() {
+    TestVector first =
+        TestVector.newTestVector().addInputValue(NONDET_POINTER, pointerTo("__tmp_var_3", 1));
+    TestVector second =
+        TestVector.newTestVector().addInputValue(NONDET_POINTER, pointerTo("__tmp_var_3", 2));
+
+    assertThat(first.getFingerprint()).isNotEqualTo(second.getFingerprint());
+  }
+
+  /** Creates a pointer input like the harness exporter does for global pointers. */
+  private static ExpressionTestValue pointerTo(String pTmpVarName, int pTargetValue) {
+    CVariableDeclaration tmpDeclaration =
+        new CVariableDeclaration(
+            FileLocation.DUMMY,
+            true,
+            CStorageClass.AUTO,
+            CNumericTypes.INT,
+            pTmpVarName,
+            pTmpVarName,
+            pTmpVarName,
+            new CInitializerExpression(
+                FileLocation.DUMMY,
+                new CIntegerLiteralExpression(
+                    FileLocation.DUMMY, CNumericTypes.INT, BigInteger.valueOf(pTargetValue))));
+    CIdExpression tmpVar = new CIdExpression(FileLocation.DUMMY, tmpDeclaration);
+    return ExpressionTestValue.of(
+        ImmutableList.of(tmpDeclaration),
+        new CUnaryExpression(FileLocation.DUMMY, INT_POINTER, tmpVar, UnaryOperator.AMPER));
+  }
+}
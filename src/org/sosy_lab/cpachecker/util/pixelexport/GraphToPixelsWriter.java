@@ -23,7 +23,6 @@
  */
 package org.sosy_lab.cpachecker.util.pixelexport;
 
-import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.awt.Color;
@@ -46,6 +45,7 @@ import javax.imageio.stream.FileImageOutputStream;
 import org.apache.batik.dom.GenericDOMImplementation;
 import org.apache.batik.svggen.SVGGraphics2D;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -110,6 +110,15 @@ public abstract class GraphToPixelsWriter<Node> {
   )
   private boolean strongHighlight = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Maximal depth of the graph nodes that are drawn. Nodes with a larger distance from the"
+            + " root are omitted. If set to -1, the whole graph is drawn."
+  )
+  @IntegerOption(min = -1)
+  private int maxDepth = -1;
+
   public static final Color COLOR_BACKGROUND = Color.LIGHT_GRAY;
   public static final Color COLOR_NODE = Color.BLACK;
 
@@ -136,42 +145,45 @@ public abstract class GraphToPixelsWriter<Node> {
     }
   }
 
+  /**
+   * Computes the levels of the graph in breadth-first order. Each node is visited only once, at
+   * the level of its shortest distance from the root, and only the current and the next level are
+   * kept in memory besides the set of visited nodes.
+   */
   public GraphStructure getStructure(Node pRoot) {
 
     GraphStructure structure = new GraphStructure();
 
-    Deque<Pair<Integer, Node>> worklist = new ArrayDeque<>();
-    Set<Node> processed = new HashSet<>();
-
-    worklist.add(Pair.of(0, pRoot));
-    int oldDistance = 0;
-    Builder<Node> levelBuilder = getLevelBuilder();
-    while (!worklist.isEmpty()) {
-      Pair<Integer, Node> current = checkNotNull(worklist.poll()); // FIFO for BFS order
-      int currentDistance = checkNotNull(current.getFirst());
-
-      if (oldDistance != currentDistance) {
-        structure.addLevel(levelBuilder.build());
-        oldDistance = currentDistance;
-        levelBuilder = getLevelBuilder();
-      }
-
-      Node currentNode = checkNotNull(current.getSecond());
-      levelBuilder.node();
-
-      levelBuilder.addMarkings(currentNode);
-
-      // add current state to set of processed states *before* checking candidates
-      // - in general, self edges may exist in the graph
-      processed.add(currentNode);
-
-      for (Node s : getChildren(currentNode)) {
-        if (!processed.contains(s)) {
-          worklist.add(Pair.of(currentDistance + 1, s));
+    Deque<Node> currentLevel = new ArrayDeque<>();
+    Deque<Node> nextLevel = new ArrayDeque<>();
+    // add nodes to the set of visited nodes *before* adding them to the worklist
+    // - in general, self edges and several paths to the same node may exist in the graph
+    Set<Node> visited = new HashSet<>();
+
+    currentLevel.add(pRoot);
+    visited.add(pRoot);
+    int depth = 0;
+    while (!currentLevel.isEmpty() && (maxDepth < 0 || depth <= maxDepth)) {
+      Builder<Node> levelBuilder = getLevelBuilder();
+
+      while (!currentLevel.isEmpty()) {
+        Node currentNode = currentLevel.poll(); // FIFO for BFS order
+        levelBuilder.node();
+        levelBuilder.addMarkings(currentNode);
+
+        for (Node s : getChildren(currentNode)) {
+          if (visited.add(s)) {
+            nextLevel.add(s);
+          }
         }
       }
+      structure.addLevel(levelBuilder.build());
+
+      Deque<Node> tmp = currentLevel;
+      currentLevel = nextLevel;
+      nextLevel = tmp;
+      depth++;
     }
-    structure.addLevel(levelBuilder.build());
 
     return structure;
   }
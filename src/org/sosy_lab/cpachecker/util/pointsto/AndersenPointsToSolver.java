@@ -0,0 +1,333 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.pointsto.ConstraintGraph.Node;
+
+/**
+ * Solver for an inclusion-based (Andersen-style) points-to analysis of a whole C program. In
+ * contrast to the {@link org.sosy_lab.cpachecker.cpa.andersen.AndersenCPA}, this does not compute
+ * a points-to set per program location, but one flow-insensitive set per variable, which is
+ * sufficient for resolving function pointers and for answering alias queries.
+ *
+ * <p>The solver uses difference propagation: each node propagates only the objects that were added
+ * to its points-to set since it was processed the last time. Cycles of copy edges are collapsed
+ * whenever new edges were added. The propagation works in rounds, the nodes of a round are
+ * processed in parallel, and the points-to sets of the targets are then updated in parallel, such
+ * that each node is only modified by one thread.
+ */
+@Options(prefix = "pointsTo")
+public final class AndersenPointsToSolver {
+
+  /** smaller rounds are not worth the overhead of parallelization */
+  private static final int MIN_NODES_PER_THREAD = 256;
+
+  @Option(
+    secure = true,
+    description =
+        "Number of threads for propagating points-to sets in parallel"
+            + " (0 for the number of available processors)."
+  )
+  @IntegerOption(min = 0)
+  private int threads = 1;
+
+  @Option(
+    secure = true,
+    description =
+        "Collapse cycles in the constraint graph of the points-to analysis,"
+            + " which is necessary for a fast solver on most programs."
+  )
+  private boolean collapseCycles = true;
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  public AndersenPointsToSolver(
+      Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  /** Compute the points-to sets for the given CFA. */
+  public PointsToInformation solve(CFA pCfa) throws InterruptedException {
+    return solve(pCfa.getAllFunctions(), pCfa.getAllNodes(), ImmutableList.of());
+  }
+
+  /**
+   * Compute the points-to sets for the given program.
+   *
+   * @param pFunctions all functions of the program
+   * @param pNodes all nodes of the program, whose leaving edges are analyzed
+   * @param pDeclarations global declarations that are not (yet) part of the CFA
+   */
+  public PointsToInformation solve(
+      Map<String, FunctionEntryNode> pFunctions,
+      Collection<CFANode> pNodes,
+      Iterable<? extends ADeclaration> pDeclarations)
+      throws InterruptedException {
+    Timer timer = new Timer();
+    timer.start();
+
+    ConstraintGraph graph = new ConstraintGraph();
+    PointsToConstraintBuilder builder = new PointsToConstraintBuilder(graph, pFunctions);
+    for (ADeclaration declaration : pDeclarations) {
+      if (declaration instanceof CDeclaration) {
+        builder.addDeclaration((CDeclaration) declaration);
+      }
+    }
+    for (CFANode node : pNodes) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        builder.addEdge(edge);
+      }
+    }
+
+    int numberOfThreads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    ExecutorService executor = null;
+    if (numberOfThreads > 1) {
+      executor =
+          Executors.newFixedThreadPool(
+              numberOfThreads,
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat("points-to-%d").build());
+    }
+
+    int rounds = 0;
+    int mergedNodes = 0;
+    try {
+      if (collapseCycles) {
+        mergedNodes += graph.collapseCycles();
+      }
+      List<Node> worklist = getNodesWithDelta(graph.getNodes());
+
+      while (!worklist.isEmpty()) {
+        shutdownNotifier.shutdownIfNecessary();
+        rounds++;
+
+        // propagate the differences and collect the edges for loads, stores, and calls
+        List<Propagation> propagations =
+            runInParallel(executor, numberOfThreads, worklist, nodes -> propagate(graph, nodes));
+
+        Map<Node, List<SparseBitmap>> updates = new LinkedHashMap<>();
+        for (Propagation propagation : propagations) {
+          for (int i = 0; i < propagation.targets.size(); i++) {
+            addUpdate(updates, propagation.targets.get(i), propagation.values.get(i));
+          }
+        }
+        int newEdges = 0;
+        List<Node> escapeEdges = new ArrayList<>();
+        for (Propagation propagation : propagations) {
+          newEdges += addEdges(propagation.newEdges, updates);
+          for (Node escapingNode : propagation.escapingNodes) {
+            graph.addEscape(escapingNode, escapeEdges);
+          }
+        }
+        newEdges += addEdges(escapeEdges, updates);
+
+        // apply the updates, each target is handled by only one thread
+        List<Node> targets = new ArrayList<>(updates.keySet());
+        runInParallel(
+            executor,
+            numberOfThreads,
+            targets,
+            nodes -> {
+              for (Node target : nodes) {
+                for (SparseBitmap value : updates.get(target)) {
+                  target.getPointsTo().addAll(value, target.getDelta());
+                }
+              }
+              return null;
+            });
+
+        int merged = collapseCycles && newEdges > 0 ? graph.collapseCycles() : 0;
+        mergedNodes += merged;
+        worklist = getNodesWithDelta(merged > 0 ? graph.getNodes() : targets);
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+
+    PointsToInformation result = createResult(graph);
+    timer.stop();
+    logger.logf(
+        Level.FINE,
+        "Points-to analysis finished after %d rounds in %s, %d of %d nodes were merged in cycles.",
+        rounds,
+        timer,
+        mergedNodes,
+        graph.getNodes().size());
+    return result;
+  }
+
+  /** The result of propagating the deltas of some nodes. */
+  private static final class Propagation {
+    private final List<Node> targets = new ArrayList<>();
+    private final List<SparseBitmap> values = new ArrayList<>();
+    // pairs of source and target
+    private final List<Node> newEdges = new ArrayList<>();
+    // arguments passed to unmodelled code
+    private final List<Node> escapingNodes = new ArrayList<>();
+  }
+
+  private static Propagation propagate(ConstraintGraph pGraph, List<Node> pNodes) {
+    Propagation result = new Propagation();
+    for (Node node : pNodes) {
+      SparseBitmap delta = node.takeDelta();
+      delta.forEach(
+          object ->
+              pGraph.collectComplexEdges(
+                  node, pGraph.getNode(object), result.newEdges, result.escapingNodes));
+      node.getSuccessors()
+          .forEach(
+              id -> {
+                Node successor = pGraph.getNode(id).find();
+                if (successor != node) {
+                  result.targets.add(successor);
+                  result.values.add(delta);
+                }
+              });
+    }
+    return result;
+  }
+
+  /**
+   * Adds the given copy edges, which are pairs of source and target, to the graph and the current
+   * points-to sets of their sources to the updates. Returns the number of edges that were new.
+   */
+  private static int addEdges(List<Node> pEdges, Map<Node, List<SparseBitmap>> pUpdates) {
+    int newEdges = 0;
+    for (int i = 0; i < pEdges.size(); i += 2) {
+      Node source = pEdges.get(i).find();
+      Node target = pEdges.get(i + 1).find();
+      if (source != target && source.getSuccessors().add(target.getId())) {
+        newEdges++;
+        if (!source.getPointsTo().isEmpty()) {
+          // the source may also be updated, thus take the current state
+          addUpdate(pUpdates, target, source.getPointsTo().copy());
+        }
+      }
+    }
+    return newEdges;
+  }
+
+  private static void addUpdate(
+      Map<Node, List<SparseBitmap>> pUpdates, Node pTarget, SparseBitmap pValue) {
+    pUpdates.computeIfAbsent(pTarget, k -> new ArrayList<>(1)).add(pValue);
+  }
+
+  private static List<Node> getNodesWithDelta(Collection<Node> pNodes) {
+    List<Node> result = new ArrayList<>();
+    for (Node node : pNodes) {
+      if (node.isRepresentative() && !node.getDelta().isEmpty()) {
+        result.add(node);
+      }
+    }
+    return result;
+  }
+
+  private static <T> List<T> runInParallel(
+      @Nullable ExecutorService pExecutor,
+      int pNumberOfThreads,
+      List<Node> pNodes,
+      Function<List<Node>, T> pTask)
+      throws InterruptedException {
+    if (pExecutor == null || pNodes.size() < 2 * MIN_NODES_PER_THREAD) {
+      return ImmutableList.of(pTask.apply(pNodes));
+    }
+
+    int chunkSize =
+        Math.max(MIN_NODES_PER_THREAD, (pNodes.size() + pNumberOfThreads - 1) / pNumberOfThreads);
+    List<Future<T>> futures = new ArrayList<>();
+    for (List<Node> chunk : Lists.partition(pNodes, chunkSize)) {
+      futures.add(pExecutor.submit(() -> pTask.apply(chunk)));
+    }
+    List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new AssertionError("unexpected checked exception", e.getCause());
+    }
+    return results;
+  }
+
+  private static PointsToInformation createResult(ConstraintGraph pGraph) {
+    // variables in the same cycle share their representative and thus their set
+    Map<Node, ImmutableSet<String>> setsOfRepresentatives = new HashMap<>();
+    Map<String, ImmutableSet<String>> pointsToSets = new HashMap<>();
+    for (Map.Entry<String, Node> entry : pGraph.getNamedNodes().entrySet()) {
+      Node representative = entry.getValue().find();
+      if (representative.getPointsTo().isEmpty()) {
+        continue;
+      }
+      ImmutableSet<String> pointsToSet =
+          setsOfRepresentatives.computeIfAbsent(
+              representative,
+              node -> {
+                ImmutableSet.Builder<String> objects = ImmutableSet.builder();
+                node.getPointsTo().forEach(id -> objects.add(pGraph.getNode(id).getName()));
+                return objects.build();
+              });
+      pointsToSets.put(entry.getKey(), pointsToSet);
+    }
+    return new PointsToInformation(pointsToSets);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.sosy_lab.cpachecker.util.pointsto.PointsToInformation.UNKNOWN_OBJECT;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class AndersenPointsToSolverTest {
+
+  private static PointsToInformation solve(
+      String pThreads, boolean pCollapseCycles, String... pLines) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("analysis.functionPointerCalls", "false")
+            .setOption("pointsTo.threads", pThreads)
+            .setOption("pointsTo.collapseCycles", Boolean.toString(pCollapseCycles))
+            .build();
+    CFA cfa = TestDataTools.makeCFA(config, pLines);
+    return new AndersenPointsToSolver(
+            config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy())
+        .solve(cfa);
+  }
+
+  private static PointsToInformation solve(String... pLines) throws Exception {
+    return solve("1", true, pLines);
+  }
+
+  @Test
+  public void testCopyCycle() throws Exception {
+    String[] program = {
+      "int x; int y;",
+      "int main() {",
+      "  int *p = &x; int *q; int *r;",
+      "  q = p; r = q; p = r;",
+      "  r = &y;",
+      "  return 0;",
+      "}"
+    };
+    for (boolean collapseCycles : new boolean[] {true, false}) {
+      PointsToInformation result = solve("1", collapseCycles, program);
+      assert_().that(result.getPointsToSet("main::p")).containsExactly("x", "y");
+      assert_().that(result.getPointsToSet("main::q")).containsExactly("x", "y");
+      assert_().that(result.getPointsToSet("main::r")).containsExactly("x", "y");
+    }
+  }
+
+  @Test
+  public void testDifferencePropagationThroughLoadsAndStores() throws Exception {
+    PointsToInformation result =
+        solve(
+            "int a; int b; int *pa; int **pp;",
+            "int main() {",
+            "  int *t;",
+            "  pp = &pa;",
+            "  *pp = &a;",
+            "  t = *pp;",
+            // added after the load and the store were resolved
+            "  pa = &b;",
+            "  return 0;",
+            "}");
+    assert_().that(result.getPointsToSet("pp")).containsExactly("pa");
+    assert_().that(result.getPointsToSet("pa")).containsExactly("a", "b");
+    assert_().that(result.getPointsToSet("main::t")).containsExactly("a", "b");
+  }
+
+  @Test
+  public void testFunctionPointerCall() throws Exception {
+    PointsToInformation result =
+        solve(
+            "int x; int y;",
+            "int *id(int *p) { return p; }",
+            "int *other(int *p) { return &y; }",
+            "int main() {",
+            "  int *(*fp)(int *) = id;",
+            "  int *r;",
+            "  r = fp(&x);",
+            "  return 0;",
+            "}");
+    assert_().that(result.getPointsToSet("main::fp")).containsExactly("id");
+    assert_().that(result.getPointsToSet("id::p")).containsExactly("x");
+    assert_().that(result.getPointsToSet("other::p")).isEmpty();
+    assert_().that(result.getPointsToSet("main::r")).containsExactly("x");
+  }
+
+  @Test
+  public void testExternalFunctions() throws Exception {
+    PointsToInformation result =
+        solve(
+            "int x; int y;",
+            "extern int *get(void);",
+            "extern void *memcpy(void *dest, const void *src, unsigned long n);",
+            "extern int strcmp(const char *s1, const char *s2);",
+            "int main() {",
+            "  int *p;",
+            "  p = get();",
+            "  int *q = &x; int *r;",
+            "  memcpy(&r, &q, sizeof(r));",
+            "  char *s = (char *) &y;",
+            "  strcmp(s, s);",
+            "  return 0;",
+            "}");
+    assert_().that(result.getPointsToSet("main::p")).containsExactly(UNKNOWN_OBJECT);
+    assert_().that(result.getPointsToSet("main::r")).contains(UNKNOWN_OBJECT);
+    assert_().that(result.getPointsToSet("main::q")).containsExactly("x", UNKNOWN_OBJECT);
+    // strcmp does not modify the memory
+    assert_().that(result.getPointsToSet("main::s")).containsExactly("y");
+    assert_().that(PointsToInformation.isUnknown(result.getPointsToSet("main::r"))).isTrue();
+    assert_().that(PointsToInformation.isUnknown(result.getPointsToSet("main::s"))).isFalse();
+  }
+
+  @Test
+  public void testVariadicArguments() throws Exception {
+    PointsToInformation result =
+        solve(
+            "int x; int y;",
+            "void sink(int n, ...) { }",
+            "int main() {",
+            "  int *p = &x; int *q = &y;",
+            "  sink(1, &p);",
+            "  void (*fp)(int, ...) = sink;",
+            "  fp(2, &q);",
+            "  return 0;",
+            "}");
+    assert_().that(result.getPointsToSet("main::p")).containsExactly("x", UNKNOWN_OBJECT);
+    assert_().that(result.getPointsToSet("main::q")).containsExactly("y", UNKNOWN_OBJECT);
+  }
+
+  @Test
+  public void testParallelPropagation() throws Exception {
+    // enough nodes such that the rounds are split between threads
+    int size = 600;
+    List<String> program = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      program.add("int v" + i + ";");
+    }
+    program.add("int main() {");
+    for (int i = 0; i < size; i++) {
+      program.add("  int *p" + i + " = &v" + i + ";");
+    }
+    for (int i = 1; i < size; i++) {
+      program.add("  p" + i + " = p" + (i - 1) + ";");
+    }
+    // one cycle in the middle of the chain
+    program.add("  p100 = p200;");
+    program.add("  return 0;");
+    program.add("}");
+    String[] lines = program.toArray(new String[0]);
+
+    PointsToInformation sequential = solve("1", true, lines);
+    PointsToInformation parallel = solve("4", true, lines);
+    assert_().that(parallel.getPointsToSets()).isEqualTo(sequential.getPointsToSets());
+    assert_().that(sequential.getPointsToSet("main::p" + (size - 1))).hasSize(size);
+    assert_().that(sequential.getPointsToSet("main::p100")).hasSize(201);
+  }
+}
@@ -0,0 +1,455 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * The constraint graph of an inclusion-based (Andersen-style) points-to analysis. Each node is a
+ * variable, an abstract object (e.g., a variable whose address is taken, a function, or an
+ * allocation site), or a temporary value. The graph has four kinds of constraints:
+ *
+ * <ul>
+ *   <li>base constraints {@code a = &o}, which are stored directly in the points-to sets,
+ *   <li>copy edges {@code b = a}, which are the edges of the graph,
+ *   <li>loads {@code b = *a} and stores {@code *a = b}, which add copy edges for each object in
+ *       the points-to set of {@code a}, and
+ *   <li>indirect calls {@code (*a)(b1, ..., bn)}, which add copy edges from the arguments to the
+ *       parameters and from the return value to the result for each function in the points-to set
+ *       of {@code a}.
+ * </ul>
+ *
+ * <p>Nodes on a cycle of copy edges have the same points-to set, such cycles are collapsed into a
+ * single representative node with a union-find structure.
+ *
+ * <p>Memory that is not modelled, e.g., memory written by external functions, is represented by
+ * the object {@link PointsToInformation#UNKNOWN_OBJECT}. It points to itself, so everything that
+ * is loaded from it is unknown as well. Pointers that escape to unmodelled code (see {@link
+ * #addEscape(Node)}) get a store of this object, and calls through pointers to this object or to
+ * external functions bind their results to it.
+ */
+final class ConstraintGraph {
+
+  /** A call through a function pointer. Arguments and result are null if they are not pointers. */
+  static final class CallConstraint {
+    private final List<Node> arguments;
+    private final @Nullable Node result;
+
+    CallConstraint(List<Node> pArguments, @Nullable Node pResult) {
+      arguments = pArguments;
+      result = pResult;
+    }
+  }
+
+  static final class Node {
+
+    private final int id;
+    private final @Nullable String name;
+    private Node representative = this;
+
+    // all objects in delta are also in pointsTo, delta contains those not yet propagated
+    private SparseBitmap pointsTo = new SparseBitmap();
+    private SparseBitmap delta = new SparseBitmap();
+    private SparseBitmap successors = new SparseBitmap();
+
+    private List<Node> loadTargets = new ArrayList<>(0);
+    private List<Node> storeSources = new ArrayList<>(0);
+    private List<CallConstraint> calls = new ArrayList<>(0);
+
+    // only for functions: the nodes of parameters and return value, entries may be null
+    private @Nullable Node[] parameters = null;
+    private @Nullable Node returnValue = null;
+
+    // only for functions whose body is not part of the program
+    private boolean isExternalFunction = false;
+
+    private Node(int pId, @Nullable String pName) {
+      id = pId;
+      name = pName;
+    }
+
+    int getId() {
+      return id;
+    }
+
+    @Nullable
+    String getName() {
+      return name;
+    }
+
+    /** Returns the representative without compressing paths, thus this is safe in parallel. */
+    Node find() {
+      Node node = this;
+      while (node.representative != node) {
+        node = node.representative;
+      }
+      return node;
+    }
+
+    boolean isRepresentative() {
+      return representative == this;
+    }
+
+    SparseBitmap getPointsTo() {
+      return pointsTo;
+    }
+
+    SparseBitmap getDelta() {
+      return delta;
+    }
+
+    /** Take the objects that need to be propagated and start collecting new ones. */
+    SparseBitmap takeDelta() {
+      SparseBitmap result = delta;
+      delta = new SparseBitmap();
+      return result;
+    }
+
+    SparseBitmap getSuccessors() {
+      return successors;
+    }
+
+    List<Node> getLoadTargets() {
+      return loadTargets;
+    }
+
+    List<Node> getStoreSources() {
+      return storeSources;
+    }
+
+    List<CallConstraint> getCalls() {
+      return calls;
+    }
+
+    @Override
+    public String toString() {
+      return name == null ? "#" + id : name;
+    }
+  }
+
+  private final List<Node> nodes = new ArrayList<>();
+  private final Map<String, Node> namedNodes = new HashMap<>();
+
+  private final Node unknownObject;
+  // the node {&unknown}, it has no incoming edges and is thus never merged
+  private final Node unknownAddress;
+
+  ConstraintGraph() {
+    unknownObject = getNode(PointsToInformation.UNKNOWN_OBJECT);
+    unknownAddress = createTemporary();
+    addBase(unknownAddress, unknownObject);
+    addBase(unknownObject, unknownObject);
+  }
+
+  /** Returns the node for the given variable, function, or allocation site. */
+  Node getNode(String pName) {
+    Node node = namedNodes.get(pName);
+    if (node == null) {
+      node = new Node(nodes.size(), pName);
+      nodes.add(node);
+      namedNodes.put(pName, node);
+    }
+    return node;
+  }
+
+  Node createTemporary() {
+    Node node = new Node(nodes.size(), null);
+    nodes.add(node);
+    return node;
+  }
+
+  Node getNode(int pId) {
+    return nodes.get(pId);
+  }
+
+  List<Node> getNodes() {
+    return nodes;
+  }
+
+  Map<String, Node> getNamedNodes() {
+    return namedNodes;
+  }
+
+  Node getUnknownObject() {
+    return unknownObject;
+  }
+
+  /** Returns a node whose points-to set contains only the unknown object. */
+  Node getUnknownAddress() {
+    return unknownAddress;
+  }
+
+  void setExternalFunction(Node pFunction) {
+    pFunction.isExternalFunction = true;
+  }
+
+  void setFunctionInterface(Node pFunction, List<Node> pParameters, @Nullable Node pReturnValue) {
+    pFunction.parameters = pParameters.toArray(new Node[0]);
+    pFunction.returnValue = pReturnValue;
+  }
+
+  void addBase(Node pPointer, Node pObject) {
+    if (pPointer.pointsTo.add(pObject.id)) {
+      pPointer.delta.add(pObject.id);
+    }
+  }
+
+  void addCopy(Node pSource, Node pTarget) {
+    if (pSource != pTarget) {
+      pSource.successors.add(pTarget.id);
+    }
+  }
+
+  void addLoad(Node pPointer, Node pTarget) {
+    pPointer.loadTargets.add(checkNotNull(pTarget));
+  }
+
+  void addStore(Node pPointer, Node pSource) {
+    pPointer.storeSources.add(checkNotNull(pSource));
+  }
+
+  void addCall(Node pFunctionPointer, List<Node> pArguments, @Nullable Node pResult) {
+    pFunctionPointer.calls.add(new CallConstraint(pArguments, pResult));
+  }
+
+  /**
+   * Adds the constraints for a pointer that is passed to unmodelled code: the objects it points to
+   * may afterwards contain unknown pointers, and the objects they point to are reachable from
+   * unknown memory.
+   */
+  void addEscape(Node pPointer) {
+    addStore(pPointer, unknownAddress);
+    addCopy(pPointer, unknownObject);
+  }
+
+  /**
+   * Like {@link #addEscape(Node)}, but while solving: the store is added to the representative of
+   * the given pointer and the copy edges for the objects in its current points-to set, as well as
+   * the copy edge to the unknown object, are added to the given list as pairs of source and target.
+   * Later additions to the points-to set are handled by the store as usual.
+   */
+  void addEscape(Node pPointer, List<Node> pEdges) {
+    Node pointer = pPointer.find();
+    if (pointer.storeSources.contains(unknownAddress)) {
+      return;
+    }
+    pointer.storeSources.add(unknownAddress);
+    pointer.pointsTo.forEach(
+        id -> {
+          pEdges.add(unknownAddress);
+          pEdges.add(nodes.get(id).find());
+        });
+    pEdges.add(pointer);
+    pEdges.add(unknownObject.find());
+  }
+
+  /**
+   * Returns the copy edges that are induced by the given object in the points-to set of the
+   * given node, which is a new edge {@code target = object} for each load, {@code object =
+   * source} for each store, and the bindings of parameters and return values if the object is a
+   * function. Edges are added to the list as pairs of source and target.
+   *
+   * <p>Arguments of calls that are passed to unmodelled code, i.e., to the unknown object, to an
+   * external function, or as variadic arguments, are added to the list of escaping nodes, which
+   * need to be passed to {@link #addEscape(Node, List)}.
+   */
+  void collectComplexEdges(
+      Node pNode, Node pObject, List<Node> pEdges, List<Node> pEscapingNodes) {
+    Node object = pObject.find();
+    for (Node target : pNode.loadTargets) {
+      pEdges.add(object);
+      pEdges.add(target.find());
+    }
+    for (Node source : pNode.storeSources) {
+      pEdges.add(source.find());
+      pEdges.add(object);
+    }
+    if (pObject == unknownObject || pObject.isExternalFunction) {
+      for (CallConstraint call : pNode.calls) {
+        for (Node argument : call.arguments) {
+          if (argument != null) {
+            pEscapingNodes.add(argument);
+          }
+        }
+        if (call.result != null) {
+          pEdges.add(unknownAddress);
+          pEdges.add(call.result.find());
+        }
+      }
+    } else if (pObject.parameters != null) {
+      for (CallConstraint call : pNode.calls) {
+        int count = Math.min(call.arguments.size(), pObject.parameters.length);
+        for (int i = 0; i < count; i++) {
+          Node argument = call.arguments.get(i);
+          Node parameter = pObject.parameters[i];
+          if (argument != null && parameter != null) {
+            pEdges.add(argument.find());
+            pEdges.add(parameter.find());
+          }
+        }
+        // variadic arguments are not bound to parameters
+        for (Node argument : call.arguments.subList(count, call.arguments.size())) {
+          if (argument != null) {
+            pEscapingNodes.add(argument);
+          }
+        }
+        if (call.result != null && pObject.returnValue != null) {
+          pEdges.add(pObject.returnValue.find());
+          pEdges.add(call.result.find());
+        }
+      }
+    }
+  }
+
+  /**
+   * Collapse all cycles of copy edges (Tarjan's algorithm for strongly connected components) such
+   * that the graph of representatives is acyclic. The merged nodes are scheduled for complete
+   * propagation of their points-to sets.
+   *
+   * @return the number of nodes that were merged into others
+   */
+  int collapseCycles() {
+    int[] index = new int[nodes.size()];
+    int[] lowlink = new int[nodes.size()];
+    boolean[] onStack = new boolean[nodes.size()];
+    Arrays.fill(index, -1);
+    Deque<Node> componentStack = new ArrayDeque<>();
+    Deque<Frame> callStack = new ArrayDeque<>();
+    int nextIndex = 0;
+    int merged = 0;
+
+    for (Node root : nodes) {
+      if (!root.isRepresentative() || index[root.id] >= 0) {
+        continue;
+      }
+      callStack.push(new Frame(root, getSuccessorIds(root)));
+      index[root.id] = lowlink[root.id] = nextIndex++;
+      componentStack.push(root);
+      onStack[root.id] = true;
+
+      while (!callStack.isEmpty()) {
+        Frame frame = callStack.peek();
+        int v = frame.node.id;
+        if (frame.next < frame.successors.length) {
+          Node successor = nodes.get(frame.successors[frame.next++]);
+          int w = successor.id;
+          if (index[w] < 0) {
+            callStack.push(new Frame(successor, getSuccessorIds(successor)));
+            index[w] = lowlink[w] = nextIndex++;
+            componentStack.push(successor);
+            onStack[w] = true;
+          } else if (onStack[w]) {
+            lowlink[v] = Math.min(lowlink[v], index[w]);
+          }
+          continue;
+        }
+
+        callStack.pop();
+        if (!callStack.isEmpty()) {
+          int u = callStack.peek().node.id;
+          lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+        }
+        if (lowlink[v] == index[v]) {
+          List<Node> component = new ArrayList<>();
+          Node member;
+          do {
+            member = componentStack.pop();
+            onStack[member.id] = false;
+            component.add(member);
+          } while (member != frame.node);
+          if (component.size() > 1) {
+            merge(component);
+            merged += component.size() - 1;
+          }
+        }
+      }
+    }
+
+    if (merged > 0) {
+      for (Node node : nodes) {
+        node.representative = node.find();
+      }
+    }
+    return merged;
+  }
+
+  private static final class Frame {
+    private final Node node;
+    private final int[] successors;
+    private int next = 0;
+
+    private Frame(Node pNode, int[] pSuccessors) {
+      node = pNode;
+      successors = pSuccessors;
+    }
+  }
+
+  /** Returns the ids of the representatives of the successors, without duplicates. */
+  private int[] getSuccessorIds(Node pNode) {
+    SparseBitmap result = new SparseBitmap();
+    pNode.successors.forEach(
+        id -> {
+          Node successor = nodes.get(id).find();
+          if (successor != pNode) {
+            result.add(successor.id);
+          }
+        });
+    int[] ids = new int[result.cardinality()];
+    int[] position = {0};
+    result.forEach(id -> ids[position[0]++] = id);
+    return ids;
+  }
+
+  private void merge(List<Node> pComponent) {
+    Node representative = pComponent.get(0);
+    checkState(representative.isRepresentative());
+    for (Node member : pComponent.subList(1, pComponent.size())) {
+      member.representative = representative;
+      representative.pointsTo.addAll(member.pointsTo);
+      representative.successors.addAll(member.successors);
+      representative.loadTargets.addAll(member.loadTargets);
+      representative.storeSources.addAll(member.storeSources);
+      representative.calls.addAll(member.calls);
+
+      member.pointsTo = new SparseBitmap();
+      member.delta = new SparseBitmap();
+      member.successors = new SparseBitmap();
+      member.loadTargets = new ArrayList<>(0);
+      member.storeSources = new ArrayList<>(0);
+      member.calls = new ArrayList<>(0);
+    }
+    // the members may have had different points-to sets, so everything needs to be propagated
+    representative.delta = representative.pointsTo.copy();
+  }
+}
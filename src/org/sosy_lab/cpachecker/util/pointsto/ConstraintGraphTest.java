@@ -0,0 +1,138 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.pointsto.ConstraintGraph.Node;
+
+public class ConstraintGraphTest {
+
+  private static List<String> names(ConstraintGraph pGraph, SparseBitmap pObjects) {
+    List<String> result = new ArrayList<>();
+    pObjects.forEach(id -> result.add(pGraph.getNode(id).getName()));
+    return result;
+  }
+
+  @Test
+  public void testCollapseCycles() {
+    ConstraintGraph graph = new ConstraintGraph();
+    Node a = graph.getNode("a");
+    Node b = graph.getNode("b");
+    Node c = graph.getNode("c");
+    Node d = graph.getNode("d");
+    graph.addCopy(a, b);
+    graph.addCopy(b, c);
+    graph.addCopy(c, a);
+    graph.addCopy(c, d);
+    graph.addBase(a, graph.getNode("x"));
+    graph.addBase(c, graph.getNode("y"));
+
+    assert_().that(graph.collapseCycles()).isEqualTo(2);
+    Node representative = a.find();
+    assert_().that(b.find()).isSameAs(representative);
+    assert_().that(c.find()).isSameAs(representative);
+    assert_().that(d.find()).isSameAs(d);
+    assert_().that(names(graph, representative.getPointsTo())).containsExactly("x", "y");
+    // everything needs to be propagated again after merging
+    assert_().that(names(graph, representative.getDelta())).containsExactly("x", "y");
+
+    // the graph of representatives is acyclic now
+    assert_().that(graph.collapseCycles()).isEqualTo(0);
+  }
+
+  @Test
+  public void testUnknownObject() {
+    ConstraintGraph graph = new ConstraintGraph();
+    Node unknown = graph.getUnknownObject();
+    assert_().that(unknown.getName()).isEqualTo(PointsToInformation.UNKNOWN_OBJECT);
+    assert_().that(names(graph, unknown.getPointsTo()))
+        .containsExactly(PointsToInformation.UNKNOWN_OBJECT);
+    assert_().that(names(graph, graph.getUnknownAddress().getPointsTo()))
+        .containsExactly(PointsToInformation.UNKNOWN_OBJECT);
+  }
+
+  @Test
+  public void testCallOfFunction() {
+    ConstraintGraph graph = new ConstraintGraph();
+    Node function = graph.getNode("f");
+    Node parameter = graph.getNode("f::p");
+    Node returnValue = graph.getNode("f::__retval__");
+    graph.setFunctionInterface(function, ImmutableList.of(parameter), returnValue);
+
+    Node functionPointer = graph.getNode("fp");
+    Node argument = graph.getNode("a");
+    Node variadicArgument = graph.getNode("b");
+    Node result = graph.createTemporary();
+    graph.addCall(functionPointer, ImmutableList.of(argument, variadicArgument), result);
+
+    List<Node> edges = new ArrayList<>();
+    List<Node> escapingNodes = new ArrayList<>();
+    graph.collectComplexEdges(functionPointer, function, edges, escapingNodes);
+    assert_().that(edges).containsExactly(argument, parameter, returnValue, result).inOrder();
+    assert_().that(escapingNodes).containsExactly(variadicArgument);
+  }
+
+  @Test
+  public void testCallOfExternalFunction() {
+    ConstraintGraph graph = new ConstraintGraph();
+    Node function = graph.getNode("memcpy");
+    graph.setExternalFunction(function);
+
+    Node functionPointer = graph.getNode("fp");
+    Node argument = graph.getNode("a");
+    Node result = graph.createTemporary();
+    graph.addCall(functionPointer, ImmutableList.of(argument), result);
+
+    List<Node> edges = new ArrayList<>();
+    List<Node> escapingNodes = new ArrayList<>();
+    graph.collectComplexEdges(functionPointer, function, edges, escapingNodes);
+    assert_().that(edges).containsExactly(graph.getUnknownAddress(), result).inOrder();
+    assert_().that(escapingNodes).containsExactly(argument);
+  }
+
+  @Test
+  public void testEscape() {
+    ConstraintGraph graph = new ConstraintGraph();
+    Node pointer = graph.getNode("p");
+    Node object = graph.getNode("x");
+    graph.addBase(pointer, object);
+
+    List<Node> edges = new ArrayList<>();
+    graph.addEscape(pointer, edges);
+    assert_().that(edges)
+        .containsExactly(graph.getUnknownAddress(), object, pointer, graph.getUnknownObject())
+        .inOrder();
+    assert_().that(pointer.getStoreSources()).containsExactly(graph.getUnknownAddress());
+
+    // escaping twice does not add anything
+    edges.clear();
+    graph.addEscape(pointer, edges);
+    assert_().that(edges).isEmpty();
+  }
+}
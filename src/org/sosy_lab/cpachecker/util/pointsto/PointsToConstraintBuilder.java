@@ -0,0 +1,442 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.AParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.AVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignatedInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerList;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType.CEnumerator;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.util.pointsto.ConstraintGraph.Node;
+
+/**
+ * Translates the edges of a C program into the constraints of the {@link ConstraintGraph}. The
+ * analysis is field-insensitive and array-insensitive: the contents of a structure or array are
+ * represented by the node of the variable itself. Each call of a memory-allocation function is
+ * one abstract heap object.
+ *
+ * <p>Pointers that are passed to or returned by external functions, which are not modelled, and
+ * variadic arguments escape to the unknown object of the graph, except for some functions of the
+ * standard library that are known to neither keep nor modify pointers.
+ *
+ * <p>Direct calls are handled both as statements (before the call edges are created) and as call
+ * and return edges, thus the builder can be used for the {@link
+ * org.sosy_lab.cpachecker.cfa.MutableCFA} during preprocessing as well as for the final CFA.
+ */
+final class PointsToConstraintBuilder {
+
+  private static final ImmutableSet<String> ALLOCATION_FUNCTIONS =
+      ImmutableSet.of(
+          "malloc",
+          "calloc",
+          "realloc",
+          "valloc",
+          "alloca",
+          "__builtin_alloca",
+          "kmalloc",
+          "kzalloc",
+          "xmalloc");
+
+  // external functions that neither store, modify, nor return their pointer arguments
+  private static final ImmutableSet<String> PURE_FUNCTIONS =
+      ImmutableSet.of(
+          "free",
+          "printf",
+          "fprintf",
+          "puts",
+          "strlen",
+          "strcmp",
+          "strncmp",
+          "exit",
+          "abort",
+          "__assert_fail",
+          "__VERIFIER_error",
+          "__VERIFIER_assume");
+
+  private final ConstraintGraph graph;
+  private final Map<String, FunctionEntryNode> functions;
+
+  // the nodes {&v}, and vice versa, such that *&v can be replaced by v without a load
+  private final Map<Node, Node> addressNodes = new HashMap<>();
+  private final Map<Node, Node> addressedObjects = new HashMap<>();
+
+  PointsToConstraintBuilder(ConstraintGraph pGraph, Map<String, FunctionEntryNode> pFunctions) {
+    graph = pGraph;
+    functions = pFunctions;
+
+    for (FunctionEntryNode entry : functions.values()) {
+      List<Node> parameters = new ArrayList<>();
+      for (AParameterDeclaration parameter : entry.getFunctionParameters()) {
+        parameters.add(graph.getNode(parameter.getQualifiedName()));
+      }
+      Node returnValue = null;
+      if (entry.getReturnVariable().isPresent()) {
+        returnValue = graph.getNode(entry.getReturnVariable().get().getQualifiedName());
+      }
+      graph.setFunctionInterface(graph.getNode(entry.getFunctionName()), parameters, returnValue);
+    }
+  }
+
+  void addEdge(CFAEdge pEdge) {
+    switch (pEdge.getEdgeType()) {
+      case DeclarationEdge:
+        if (pEdge instanceof CDeclarationEdge) {
+          addDeclaration(((CDeclarationEdge) pEdge).getDeclaration());
+        }
+        break;
+      case StatementEdge:
+        if (pEdge instanceof CStatementEdge) {
+          addStatement(((CStatementEdge) pEdge).getStatement(), pEdge);
+        }
+        break;
+      case ReturnStatementEdge:
+        if (pEdge instanceof CReturnStatementEdge) {
+          Optional<CAssignment> assignment = ((CReturnStatementEdge) pEdge).asAssignment();
+          if (assignment.isPresent()) {
+            addStatement(assignment.get(), pEdge);
+          }
+        }
+        break;
+      case FunctionCallEdge:
+        if (pEdge instanceof CFunctionCallEdge) {
+          CFunctionCallEdge callEdge = (CFunctionCallEdge) pEdge;
+          bindParameters(callEdge.getSuccessor(), callEdge.getArguments());
+        }
+        break;
+      case FunctionReturnEdge:
+        if (pEdge instanceof CFunctionReturnEdge) {
+          CFunctionReturnEdge returnEdge = (CFunctionReturnEdge) pEdge;
+          CFunctionCall call = returnEdge.getSummaryEdge().getExpression();
+          if (call instanceof CFunctionCallAssignmentStatement) {
+            bindReturnValue(
+                returnEdge.getFunctionEntry(),
+                ((CFunctionCallAssignmentStatement) call).getLeftHandSide());
+          }
+        }
+        break;
+      default:
+        // assumptions and blank edges do not change pointers
+    }
+  }
+
+  void addDeclaration(CDeclaration pDeclaration) {
+    if (pDeclaration instanceof CVariableDeclaration) {
+      CVariableDeclaration declaration = (CVariableDeclaration) pDeclaration;
+      if (declaration.getInitializer() != null) {
+        addInitializer(graph.getNode(declaration.getQualifiedName()), declaration.getInitializer());
+      }
+    }
+  }
+
+  private void addInitializer(Node pVariable, CInitializer pInitializer) {
+    if (pInitializer instanceof CInitializerExpression) {
+      Node value = getValue(((CInitializerExpression) pInitializer).getExpression());
+      if (value != null) {
+        graph.addCopy(value, pVariable);
+      }
+    } else if (pInitializer instanceof CInitializerList) {
+      for (CInitializer initializer : ((CInitializerList) pInitializer).getInitializers()) {
+        addInitializer(pVariable, initializer);
+      }
+    } else if (pInitializer instanceof CDesignatedInitializer) {
+      addInitializer(pVariable, ((CDesignatedInitializer) pInitializer).getRightHandSide());
+    }
+  }
+
+  private void addStatement(CStatement pStatement, CFAEdge pEdge) {
+    if (pStatement instanceof CExpressionAssignmentStatement) {
+      CExpressionAssignmentStatement assignment = (CExpressionAssignmentStatement) pStatement;
+      assign(assignment.getLeftHandSide(), getValue(assignment.getRightHandSide()));
+    } else if (pStatement instanceof CFunctionCallAssignmentStatement) {
+      CFunctionCallAssignmentStatement assignment = (CFunctionCallAssignmentStatement) pStatement;
+      addCall(assignment.getRightHandSide(), assignment.getLeftHandSide(), pEdge);
+    } else if (pStatement instanceof CFunctionCall) {
+      addCall(((CFunctionCall) pStatement).getFunctionCallExpression(), null, pEdge);
+    }
+  }
+
+  private void addCall(
+      CFunctionCallExpression pCall, @Nullable CLeftHandSide pResult, CFAEdge pEdge) {
+    CExpression functionName = pCall.getFunctionNameExpression();
+    List<CExpression> arguments = pCall.getParameterExpressions();
+
+    if (functionName instanceof CIdExpression
+        && ((CIdExpression) functionName).getDeclaration() instanceof CFunctionDeclaration) {
+      String name = ((CIdExpression) functionName).getName();
+      FunctionEntryNode entry = functions.get(name);
+      if (entry != null) {
+        bindParameters(entry, arguments);
+        if (pResult != null) {
+          bindReturnValue(entry, pResult);
+        }
+      } else if (pResult != null && ALLOCATION_FUNCTIONS.contains(name)) {
+        Node heapObject =
+            graph.getNode(
+                pEdge.getPredecessor().getFunctionName()
+                    + "::"
+                    + name
+                    + "@"
+                    + pEdge.getPredecessor());
+        assign(pResult, getAddressNode(heapObject));
+        if (name.equals("realloc") && !arguments.isEmpty()) {
+          assign(pResult, getValue(arguments.get(0)));
+        }
+      } else if (!ALLOCATION_FUNCTIONS.contains(name) && !PURE_FUNCTIONS.contains(name)) {
+        // other external functions may do anything with the memory they get
+        for (CExpression argument : arguments) {
+          escape(getValue(argument));
+        }
+        if (pResult != null && mayContainPointer(pResult)) {
+          assign(pResult, graph.getUnknownAddress());
+        }
+      }
+      return;
+    }
+
+    Node functionPointer = getValue(functionName);
+    if (functionPointer != null) {
+      List<Node> argumentNodes = new ArrayList<>(arguments.size());
+      for (CExpression argument : arguments) {
+        argumentNodes.add(getValue(argument));
+      }
+      Node result = pResult == null ? null : graph.createTemporary();
+      graph.addCall(functionPointer, argumentNodes, result);
+      assign(pResult, result);
+    }
+  }
+
+  private void bindParameters(FunctionEntryNode pEntry, List<CExpression> pArguments) {
+    List<? extends AParameterDeclaration> parameters = pEntry.getFunctionParameters();
+    int count = Math.min(parameters.size(), pArguments.size());
+    for (int i = 0; i < count; i++) {
+      Node value = getValue(pArguments.get(i));
+      if (value != null) {
+        graph.addCopy(value, graph.getNode(parameters.get(i).getQualifiedName()));
+      }
+    }
+    // variadic arguments are accessed with va_arg, which is not modelled
+    for (CExpression argument : pArguments.subList(count, pArguments.size())) {
+      escape(getValue(argument));
+    }
+  }
+
+  private void escape(@Nullable Node pValue) {
+    if (pValue != null) {
+      graph.addEscape(pValue);
+    }
+  }
+
+  private void bindReturnValue(FunctionEntryNode pEntry, CLeftHandSide pResult) {
+    Optional<? extends AVariableDeclaration> returnVariable = pEntry.getReturnVariable();
+    if (returnVariable.isPresent()) {
+      assign(pResult, graph.getNode(returnVariable.get().getQualifiedName()));
+    }
+  }
+
+  private void assign(@Nullable CLeftHandSide pTarget, @Nullable Node pValue) {
+    if (pTarget == null || pValue == null) {
+      return;
+    }
+    Node address = getAddress(pTarget);
+    if (address == null) {
+      return;
+    }
+    Node object = addressedObjects.get(address);
+    if (object != null) {
+      graph.addCopy(pValue, object);
+    } else {
+      graph.addStore(address, pValue);
+    }
+  }
+
+  /** Returns the node whose points-to set contains the values of the expression, if any. */
+  private @Nullable Node getValue(CExpression pExpression) {
+    if (isArray(pExpression)) {
+      // arrays decay to a pointer to their content
+      return getAddress((CLeftHandSide) pExpression);
+    }
+
+    if (pExpression instanceof CIdExpression) {
+      CIdExpression idExpression = (CIdExpression) pExpression;
+      String name = getVariableName(idExpression);
+      if (name == null) {
+        return null;
+      } else if (idExpression.getDeclaration() instanceof CFunctionDeclaration) {
+        Node function = graph.getNode(name);
+        if (!functions.containsKey(name)) {
+          graph.setExternalFunction(function);
+        }
+        return getAddressNode(function);
+      }
+      return graph.getNode(name);
+
+    } else if (pExpression instanceof CUnaryExpression) {
+      CUnaryExpression unaryExpression = (CUnaryExpression) pExpression;
+      if (unaryExpression.getOperator() == UnaryOperator.AMPER) {
+        return getAddress(unaryExpression.getOperand());
+      }
+      return null;
+
+    } else if (pExpression instanceof CPointerExpression) {
+      CExpression operand = ((CPointerExpression) pExpression).getOperand();
+      if (isFunction(pExpression)) {
+        // *f and f are the same for function pointers
+        return getValue(operand);
+      }
+      return load(getValue(operand));
+
+    } else if (pExpression instanceof CFieldReference
+        || pExpression instanceof CArraySubscriptExpression) {
+      return load(getAddress((CLeftHandSide) pExpression));
+
+    } else if (pExpression instanceof CCastExpression) {
+      return getValue(((CCastExpression) pExpression).getOperand());
+
+    } else if (pExpression instanceof CBinaryExpression) {
+      // pointer arithmetic stays within the object
+      Node value1 = getValue(((CBinaryExpression) pExpression).getOperand1());
+      Node value2 = getValue(((CBinaryExpression) pExpression).getOperand2());
+      if (value1 == null || value2 == null) {
+        return value1 == null ? value2 : value1;
+      }
+      Node result = graph.createTemporary();
+      graph.addCopy(value1, result);
+      graph.addCopy(value2, result);
+      return result;
+    }
+    return null;
+  }
+
+  /** Returns the node whose points-to set contains the locations the expression denotes. */
+  private @Nullable Node getAddress(CExpression pExpression) {
+    if (pExpression instanceof CIdExpression) {
+      String name = getVariableName((CIdExpression) pExpression);
+      return name == null ? null : getAddressNode(graph.getNode(name));
+
+    } else if (pExpression instanceof CPointerExpression) {
+      return getValue(((CPointerExpression) pExpression).getOperand());
+
+    } else if (pExpression instanceof CFieldReference) {
+      CFieldReference fieldReference = (CFieldReference) pExpression;
+      return fieldReference.isPointerDereference()
+          ? getValue(fieldReference.getFieldOwner())
+          : getAddress(fieldReference.getFieldOwner());
+
+    } else if (pExpression instanceof CArraySubscriptExpression) {
+      return getValue(((CArraySubscriptExpression) pExpression).getArrayExpression());
+
+    } else if (pExpression instanceof CCastExpression) {
+      return getAddress(((CCastExpression) pExpression).getOperand());
+    }
+    return null;
+  }
+
+  private Node getAddressNode(Node pObject) {
+    Node address = addressNodes.get(pObject);
+    if (address == null) {
+      address = graph.createTemporary();
+      graph.addBase(address, pObject);
+      addressNodes.put(pObject, address);
+      addressedObjects.put(address, pObject);
+    }
+    return address;
+  }
+
+  private @Nullable Node load(@Nullable Node pPointer) {
+    if (pPointer == null) {
+      return null;
+    }
+    Node object = addressedObjects.get(pPointer);
+    if (object != null) {
+      return object;
+    }
+    Node result = graph.createTemporary();
+    graph.addLoad(pPointer, result);
+    return result;
+  }
+
+  /** Returns the qualified name of the variable or function, or null for enumerators. */
+  static @Nullable String getVariableName(CIdExpression pExpression) {
+    CSimpleDeclaration declaration = pExpression.getDeclaration();
+    if (declaration instanceof CEnumerator) {
+      return null;
+    }
+    return declaration == null ? pExpression.getName() : declaration.getQualifiedName();
+  }
+
+  private static boolean mayContainPointer(CExpression pExpression) {
+    CType type = pExpression.getExpressionType().getCanonicalType();
+    return !(type instanceof CSimpleType || type instanceof CEnumType);
+  }
+
+  static boolean isArray(CExpression pExpression) {
+    return pExpression instanceof CLeftHandSide
+        && pExpression.getExpressionType().getCanonicalType() instanceof CArrayType;
+  }
+
+  static boolean isFunction(CExpression pExpression) {
+    return pExpression.getExpressionType().getCanonicalType() instanceof CFunctionType;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.util.Map;
+import java.util.Set;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+
+/**
+ * The flow-insensitive result of the {@link AndersenPointsToSolver}, which can be queried by other
+ * analyses as an alias oracle. Abstract objects are named by the qualified names of variables and
+ * functions, and by the allocation sites for memory on the heap (e.g., {@code
+ * main::malloc@N42}).
+ *
+ * <p>Pointers that may be assigned by code that is not modelled, e.g., by external functions like
+ * {@code memcpy} or through memory that was passed to such functions, contain the object {@link
+ * #UNKNOWN_OBJECT} in their points-to set, which means that they may point anywhere. Pointers that
+ * are never assigned have an empty points-to set. The alias queries are conservative in both
+ * cases.
+ */
+public final class PointsToInformation {
+
+  /** The name of the abstract object for all memory that is not modelled by the analysis. */
+  public static final String UNKNOWN_OBJECT = "<unknown>";
+
+  // only variables with non-empty points-to sets
+  private final ImmutableMap<String, ImmutableSet<String>> pointsToSets;
+
+  PointsToInformation(Map<String, ImmutableSet<String>> pPointsToSets) {
+    pointsToSets = ImmutableMap.copyOf(pPointsToSets);
+  }
+
+  /** Returns the objects the given variable may point to. */
+  public ImmutableSet<String> getPointsToSet(String pQualifiedName) {
+    ImmutableSet<String> result = pointsToSets.get(pQualifiedName);
+    return result == null ? ImmutableSet.of() : result;
+  }
+
+  /** Returns the objects the value of the given expression may point to. */
+  public ImmutableSet<String> getPointsToSet(CExpression pExpression) {
+    return ImmutableSet.copyOf(getValues(pExpression));
+  }
+
+  /** Returns the objects the given expression may denote (e.g., for {@code *p} those of p). */
+  public ImmutableSet<String> getLocations(CLeftHandSide pExpression) {
+    return ImmutableSet.copyOf(getLocationsOf(pExpression));
+  }
+
+  /**
+   * Checks whether the two expressions may denote the same object. Expressions, whose locations
+   * are unknown, may alias with everything.
+   */
+  public boolean mayAlias(CLeftHandSide pExpression1, CLeftHandSide pExpression2) {
+    Set<String> locations1 = getLocationsOf(pExpression1);
+    Set<String> locations2 = getLocationsOf(pExpression2);
+    return isUnknown(locations1)
+        || isUnknown(locations2)
+        || !Sets.intersection(locations1, locations2).isEmpty();
+  }
+
+  /**
+   * Checks whether the given points-to set is empty or contains {@link #UNKNOWN_OBJECT}, i.e.,
+   * whether the pointer may point to any object.
+   */
+  public static boolean isUnknown(Set<String> pPointsToSet) {
+    return pPointsToSet.isEmpty() || pPointsToSet.contains(UNKNOWN_OBJECT);
+  }
+
+  /** Returns all variables with a non-empty points-to set and their points-to sets. */
+  public ImmutableMap<String, ImmutableSet<String>> getPointsToSets() {
+    return pointsToSets;
+  }
+
+  // the following two methods evaluate expressions like PointsToConstraintBuilder
+
+  private Set<String> getValues(CExpression pExpression) {
+    if (PointsToConstraintBuilder.isArray(pExpression)) {
+      return getLocationsOf(pExpression);
+    }
+
+    if (pExpression instanceof CIdExpression) {
+      CIdExpression idExpression = (CIdExpression) pExpression;
+      String name = PointsToConstraintBuilder.getVariableName(idExpression);
+      if (name == null) {
+        return ImmutableSet.of();
+      } else if (idExpression.getDeclaration() instanceof CFunctionDeclaration) {
+        return ImmutableSet.of(name);
+      }
+      return getPointsToSet(name);
+
+    } else if (pExpression instanceof CUnaryExpression) {
+      CUnaryExpression unaryExpression = (CUnaryExpression) pExpression;
+      if (unaryExpression.getOperator() == UnaryOperator.AMPER) {
+        return getLocationsOf(unaryExpression.getOperand());
+      }
+      return ImmutableSet.of();
+
+    } else if (pExpression instanceof CPointerExpression) {
+      CExpression operand = ((CPointerExpression) pExpression).getOperand();
+      if (PointsToConstraintBuilder.isFunction(pExpression)) {
+        return getValues(operand);
+      }
+      return load(getValues(operand));
+
+    } else if (pExpression instanceof CFieldReference
+        || pExpression instanceof CArraySubscriptExpression) {
+      return load(getLocationsOf(pExpression));
+
+    } else if (pExpression instanceof CCastExpression) {
+      return getValues(((CCastExpression) pExpression).getOperand());
+
+    } else if (pExpression instanceof CBinaryExpression) {
+      return Sets.union(
+          getValues(((CBinaryExpression) pExpression).getOperand1()),
+          getValues(((CBinaryExpression) pExpression).getOperand2()));
+    }
+    return ImmutableSet.of();
+  }
+
+  private Set<String> getLocationsOf(CExpression pExpression) {
+    if (pExpression instanceof CIdExpression) {
+      String name = PointsToConstraintBuilder.getVariableName((CIdExpression) pExpression);
+      return name == null ? ImmutableSet.of() : ImmutableSet.of(name);
+
+    } else if (pExpression instanceof CPointerExpression) {
+      return getValues(((CPointerExpression) pExpression).getOperand());
+
+    } else if (pExpression instanceof CFieldReference) {
+      CFieldReference fieldReference = (CFieldReference) pExpression;
+      return fieldReference.isPointerDereference()
+          ? getValues(fieldReference.getFieldOwner())
+          : getLocationsOf(fieldReference.getFieldOwner());
+
+    } else if (pExpression instanceof CArraySubscriptExpression) {
+      return getValues(((CArraySubscriptExpression) pExpression).getArrayExpression());
+
+    } else if (pExpression instanceof CCastExpression) {
+      return getLocationsOf(((CCastExpression) pExpression).getOperand());
+    }
+    return ImmutableSet.of();
+  }
+
+  private Set<String> load(Set<String> pObjects) {
+    ImmutableSet.Builder<String> result = ImmutableSet.builder();
+    for (String object : pObjects) {
+      result.addAll(getPointsToSet(object));
+    }
+    return result.build();
+  }
+
+  @Override
+  public String toString() {
+    return pointsToSets.toString();
+  }
+}
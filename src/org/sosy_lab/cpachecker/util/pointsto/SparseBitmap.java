@@ -0,0 +1,249 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A mutable set of non-negative integers, which stores only the non-zero words of a bitset
+ * together with their indices. Points-to sets of realistic programs are small and scattered over
+ * the whole id range, thus this needs far less memory than a {@link java.util.BitSet} over all
+ * abstract objects, while the union of two sets still works on whole words.
+ *
+ * <p>Instances are not thread-safe.
+ */
+final class SparseBitmap {
+
+  private static final int INITIAL_CAPACITY = 2;
+
+  // sorted indices of the non-zero words
+  private int[] indices;
+  private long[] words;
+  private int length = 0;
+
+  SparseBitmap() {
+    indices = new int[INITIAL_CAPACITY];
+    words = new long[INITIAL_CAPACITY];
+  }
+
+  private SparseBitmap(int[] pIndices, long[] pWords, int pLength) {
+    indices = pIndices;
+    words = pWords;
+    length = pLength;
+  }
+
+  SparseBitmap copy() {
+    return new SparseBitmap(
+        Arrays.copyOf(indices, Math.max(length, INITIAL_CAPACITY)),
+        Arrays.copyOf(words, Math.max(length, INITIAL_CAPACITY)),
+        length);
+  }
+
+  boolean isEmpty() {
+    return length == 0;
+  }
+
+  int cardinality() {
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      count += Long.bitCount(words[i]);
+    }
+    return count;
+  }
+
+  boolean contains(int pElement) {
+    int pos = Arrays.binarySearch(indices, 0, length, pElement >>> 6);
+    return pos >= 0 && (words[pos] & (1L << pElement)) != 0;
+  }
+
+  /** Adds the element and returns whether the set was changed. */
+  boolean add(int pElement) {
+    int index = pElement >>> 6;
+    long bit = 1L << pElement;
+    int pos = Arrays.binarySearch(indices, 0, length, index);
+    if (pos >= 0) {
+      if ((words[pos] & bit) != 0) {
+        return false;
+      }
+      words[pos] |= bit;
+      return true;
+    }
+
+    orWord(index, bit);
+    return true;
+  }
+
+  /**
+   * Adds all elements of the given set to this set and to the set of new elements, if the latter
+   * is not null. Only those elements that were not yet contained in this set are added to the set
+   * of new elements, which is the difference that needs to be propagated further.
+   *
+   * @return whether this set was changed
+   */
+  boolean addAll(SparseBitmap pOther, SparseBitmap pNewElements) {
+    if (pOther.isEmpty() || pOther == this) {
+      return false;
+    }
+
+    int[] newIndices = new int[length + pOther.length];
+    long[] newWords = new long[length + pOther.length];
+    int newLength = 0;
+    boolean changed = false;
+
+    int i = 0;
+    int j = 0;
+    while (i < length || j < pOther.length) {
+      if (j == pOther.length || (i < length && indices[i] < pOther.indices[j])) {
+        newIndices[newLength] = indices[i];
+        newWords[newLength++] = words[i++];
+      } else {
+        int index = pOther.indices[j];
+        long word = pOther.words[j++];
+        long oldWord = 0;
+        if (i < length && indices[i] == index) {
+          oldWord = words[i++];
+        }
+        long diff = word & ~oldWord;
+        if (diff != 0) {
+          changed = true;
+          if (pNewElements != null) {
+            pNewElements.orWord(index, diff);
+          }
+        }
+        newIndices[newLength] = index;
+        newWords[newLength++] = word | oldWord;
+      }
+    }
+
+    if (changed) {
+      indices = newIndices;
+      words = newWords;
+      length = newLength;
+    }
+    return changed;
+  }
+
+  boolean addAll(SparseBitmap pOther) {
+    return addAll(pOther, null);
+  }
+
+  /** Sets the bits of the word with the given index. */
+  private void orWord(int pIndex, long pWord) {
+    // the fast path covers filling an empty set in ascending order
+    int pos =
+        length > 0 && indices[length - 1] < pIndex
+            ? -(length + 1)
+            : Arrays.binarySearch(indices, 0, length, pIndex);
+    if (pos >= 0) {
+      words[pos] |= pWord;
+      return;
+    }
+    pos = -(pos + 1);
+    if (length == indices.length) {
+      indices = Arrays.copyOf(indices, 2 * length);
+      words = Arrays.copyOf(words, 2 * length);
+    }
+    System.arraycopy(indices, pos, indices, pos + 1, length - pos);
+    System.arraycopy(words, pos, words, pos + 1, length - pos);
+    indices[pos] = pIndex;
+    words[pos] = pWord;
+    length++;
+  }
+
+  /** Checks whether the two sets have at least one common element. */
+  boolean intersects(SparseBitmap pOther) {
+    int i = 0;
+    int j = 0;
+    while (i < length && j < pOther.length) {
+      if (indices[i] < pOther.indices[j]) {
+        i++;
+      } else if (indices[i] > pOther.indices[j]) {
+        j++;
+      } else if ((words[i++] & pOther.words[j++]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Calls the action for all elements in ascending order. */
+  void forEach(IntConsumer pAction) {
+    for (int i = 0; i < length; i++) {
+      long word = words[i];
+      int base = indices[i] << 6;
+      while (word != 0) {
+        pAction.accept(base + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+  }
+
+  void clear() {
+    length = 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = 0; i < length; i++) {
+      result = 31 * result + indices[i];
+      result = 31 * result + Long.hashCode(words[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof SparseBitmap)) {
+      return false;
+    }
+    SparseBitmap other = (SparseBitmap) pObj;
+    if (length != other.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (indices[i] != other.indices[i] || words[i] != other.words[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    forEach(
+        element -> {
+          if (sb.length() > 1) {
+            sb.append(", ");
+          }
+          sb.append(element);
+        });
+    return sb.append(']').toString();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.pointsto;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SparseBitmapTest {
+
+  private static SparseBitmap of(int... pElements) {
+    SparseBitmap result = new SparseBitmap();
+    for (int element : pElements) {
+      result.add(element);
+    }
+    return result;
+  }
+
+  private static List<Integer> elements(SparseBitmap pBitmap) {
+    List<Integer> result = new ArrayList<>();
+    pBitmap.forEach(result::add);
+    return result;
+  }
+
+  @Test
+  public void testAdd() {
+    SparseBitmap bitmap = of(1000, 3, 64, 63);
+    assert_().that(bitmap.add(64)).isFalse();
+    assert_().that(bitmap.add(5000)).isTrue();
+    assert_().that(elements(bitmap)).containsExactly(3, 63, 64, 1000, 5000).inOrder();
+    assert_().that(bitmap.cardinality()).isEqualTo(5);
+    assert_().that(bitmap.contains(1000)).isTrue();
+    assert_().that(bitmap.contains(999)).isFalse();
+  }
+
+  @Test
+  public void testAddAllWithDifference() {
+    SparseBitmap bitmap = of(1, 200, 7000);
+    SparseBitmap difference = of(10000);
+
+    assert_().that(bitmap.addAll(of(1, 2, 200, 300, 7000), difference)).isTrue();
+    assert_().that(elements(bitmap)).containsExactly(1, 2, 200, 300, 7000).inOrder();
+    assert_().that(elements(difference)).containsExactly(2, 300, 10000).inOrder();
+
+    assert_().that(bitmap.addAll(of(2, 300), difference)).isFalse();
+    assert_().that(bitmap.addAll(new SparseBitmap())).isFalse();
+  }
+
+  @Test
+  public void testIntersectsAndEquals() {
+    SparseBitmap bitmap = of(5, 130);
+    assert_().that(bitmap.intersects(of(6, 130))).isTrue();
+    assert_().that(bitmap.intersects(of(6, 131, 9000))).isFalse();
+    assert_().that(bitmap.copy()).isEqualTo(bitmap);
+    assert_().that(bitmap.copy().hashCode()).isEqualTo(bitmap.hashCode());
+    assert_().that(of(5)).isNotEqualTo(bitmap);
+  }
+}
@@ -24,14 +24,18 @@
 package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.common.collect.MapsDifference.collectMapsDifferenceTo;
 
 import com.google.common.testing.ClassSanityTester;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sosy_lab.common.collect.MapsDifference;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentLinkedList;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
@@ -173,4 +177,92 @@ public class PathFormulaTest {
     thrown.expect(IllegalArgumentException.class);
     builder.setIndex("a", CNumericTypes.INT, 1);
   }
+
+  @Test
+  public void testMergeWithCommonRoot() {
+    SSAMap root =
+        builder
+            .setIndex("a", CNumericTypes.INT, 1)
+            .setIndex("b", CNumericTypes.INT, 1)
+            .setIndex("c", CNumericTypes.INT, 1)
+            .build();
+    SSAMap s1 =
+        root.builder()
+            .setIndex("a", CNumericTypes.INT, 3)
+            .setIndex("d", CNumericTypes.INT, 2)
+            .build();
+    SSAMap s2 =
+        root.builder()
+            .setIndex("a", CNumericTypes.INT, 2)
+            .setIndex("c", CNumericTypes.INT, 4)
+            .setIndex("e", CNumericTypes.INT, 1)
+            .build();
+
+    // deleting a variable creates maps with the same content but without a common root
+    SSAMap s1Copy =
+        s1.builder().setIndex("x", CNumericTypes.INT, 1).deleteVariable("x").build();
+    SSAMap s2Copy =
+        s2.builder().setIndex("x", CNumericTypes.INT, 1).deleteVariable("x").build();
+    assertThat(s1Copy).isEqualTo(s1);
+    assertThat(s2Copy).isEqualTo(s2);
+
+    List<MapsDifference.Entry<String, Integer>> differences = new ArrayList<>();
+    List<MapsDifference.Entry<String, Integer>> expectedDifferences = new ArrayList<>();
+    SSAMap result = SSAMap.merge(s1, s2, collectMapsDifferenceTo(differences));
+    SSAMap expected = SSAMap.merge(s1Copy, s2Copy, collectMapsDifferenceTo(expectedDifferences));
+
+    assertThat(result).isEqualTo(expected);
+    assertThat(result.allVariables()).containsExactly("a", "b", "c", "d", "e").inOrder();
+    assertThat(result.getIndex("a")).isEqualTo(3);
+    assertThat(result.getIndex("b")).isEqualTo(1);
+    assertThat(result.getIndex("c")).isEqualTo(4);
+    assertThat(result.getType("e")).isEqualTo(CNumericTypes.INT);
+    assertThat(differences).containsExactlyElementsIn(expectedDifferences).inOrder();
+    assertThat(result.hashCode()).isEqualTo(expected.hashCode());
+  }
+
+  @Test
+  public void testBuilderDropsDeltaWhenDeletingVariable() {
+    SSAMap root =
+        builder.setIndex("a", CNumericTypes.INT, 1).setIndex("b", CNumericTypes.INT, 1).build();
+    // the map becomes a new root, later changes of "a" must not be compared with the old delta
+    SSAMap newRoot =
+        root.builder()
+            .setIndex("a", CNumericTypes.INT, 2)
+            .deleteVariable("b")
+            .setIndex("a", CNumericTypes.INT, 3)
+            .build();
+    assertThat(newRoot.getIndex("a")).isEqualTo(3);
+    assertThat(newRoot.containsVariable("b")).isFalse();
+
+    SSAMap child = newRoot.builder().setIndex("c", CNumericTypes.INT, 1).build();
+    SSAMap result = SSAMap.merge(newRoot, child, MapsDifference.ignoreMapsDifference());
+    SSAMap expected =
+        SSAMap.emptySSAMap()
+            .builder()
+            .setIndex("a", CNumericTypes.INT, 3)
+            .setIndex("c", CNumericTypes.INT, 1)
+            .build();
+    assertThat(result).isEqualTo(expected);
+    assertThat(result.hashCode()).isEqualTo(expected.hashCode());
+  }
+
+  @Test
+  public void testBuilderDropsDeltaWhenDeltaGetsTooLarge() {
+    SSAMap root = builder.setIndex("a", CNumericTypes.INT, 1).build();
+    SSAMapBuilder largeBuilder = root.builder().setIndex("a", CNumericTypes.INT, 2);
+    for (int i = 0; i < 100; i++) {
+      largeBuilder.setIndex("v" + i, CNumericTypes.INT, 1);
+    }
+    SSAMap large = largeBuilder.setIndex("a", CNumericTypes.INT, 3).build();
+    assertThat(large.getIndex("a")).isEqualTo(3);
+
+    SSAMap s1 = large.builder().setIndex("a", CNumericTypes.INT, 4).build();
+    SSAMap s2 = large.builder().setIndex("b", CNumericTypes.INT, 1).build();
+    SSAMap result = SSAMap.merge(s1, s2, MapsDifference.ignoreMapsDifference());
+    assertThat(result.getIndex("a")).isEqualTo(4);
+    assertThat(result.getIndex("b")).isEqualTo(1);
+    assertThat(result.getIndex("v99")).isEqualTo(1);
+    assertThat(result).isEqualTo(s1.builder().setIndex("b", CNumericTypes.INT, 1).build());
+  }
 }
@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Equivalence;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedSet;
 
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.collect.MapsDifference;
@@ -49,6 +50,8 @@ import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
 
+import javax.annotation.Nullable;
+
 /**
  * Maps a variable name to its latest "SSA index", that should be used when
  * referring to that variable.
@@ -62,6 +65,10 @@ public class SSAMap implements Serializable {
 
   private final int defaultValue;
 
+  // maximal number of variables in which a map may differ from its base,
+  // larger maps become a new base themselves
+  private static final int MAX_DELTA_SIZE = 64;
+
   private static MergeConflictHandler<String, CType> TYPE_CONFLICT_CHECKER =
       new MergeConflictHandler<String, CType>() {
         @Override
@@ -106,6 +113,10 @@ public class SSAMap implements Serializable {
     private FreshValueProvider freshValueProvider;
     private PersistentSortedMap<String, CType> varTypes;
 
+    // base and delta of the new map, cf. SSAMap#base
+    private @Nullable SSAMap base;
+    private PersistentSortedMap<String, Integer> delta;
+
     // Instead of computing vars.hashCode(),
     // we calculate the hashCode ourselves incrementally
     // (this is possible because a Map's hashCode is clearly defined).
@@ -118,6 +129,14 @@ public class SSAMap implements Serializable {
 
       this.varTypes = ssa.varTypes;
       this.varsHashCode = ssa.varsHashCode;
+
+      if (ssa.base == null) {
+        this.base = ssa;
+        this.delta = PathCopyingPersistentTreeMap.of();
+      } else {
+        this.base = ssa.base;
+        this.delta = ssa.delta;
+      }
     }
 
     public int getIndex(String variable) {
@@ -141,10 +160,12 @@ public class SSAMap implements Serializable {
 
       type = type.getCanonicalType();
       CType oldType = varTypes.get(name);
+      boolean typeAdded = false;
       if (oldType != null) {
         TYPE_CONFLICT_CHECKER.resolveConflict(name, type, oldType);
       } else {
         varTypes = varTypes.putAndCopy(name, type);
+        typeAdded = true;
       }
 
       if (idx > oldIdx || idx == ssa.defaultValue) {
@@ -153,11 +174,30 @@ public class SSAMap implements Serializable {
           varsHashCode -= mapEntryHashCode(name, oldIdx);
         }
         varsHashCode += mapEntryHashCode(name, idx);
+        addToDelta(name, idx);
+      } else if (typeAdded) {
+        // the delta only tracks variables with changed indices
+        dropBase();
       }
 
       return this;
     }
 
+    private void addToDelta(String name, int idx) {
+      if (base != null) {
+        delta = delta.putAndCopy(name, idx);
+        if (delta.size() > MAX_DELTA_SIZE) {
+          dropBase();
+        }
+      }
+    }
+
+    /** The new map will be a root itself, so it must not keep the delta of the old base. */
+    private void dropBase() {
+      base = null;
+      delta = PathCopyingPersistentTreeMap.of();
+    }
+
     public void mergeFreshValueProviderWith(final FreshValueProvider fvp) {
       this.freshValueProvider = freshValueProvider.merge(fvp);
     }
@@ -169,6 +209,9 @@ public class SSAMap implements Serializable {
         varsHashCode -= mapEntryHashCode(variable, index);
 
         varTypes = varTypes.removeAndCopy(variable);
+
+        // the delta cannot represent removed variables
+        dropBase();
       }
 
       return this;
@@ -190,7 +233,9 @@ public class SSAMap implements Serializable {
         return ssa;
       }
 
-      ssa = new SSAMap(vars, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue);
+      ssa =
+          new SSAMap(
+              vars, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue, base, delta);
       return ssa;
     }
 
@@ -217,7 +262,14 @@ public class SSAMap implements Serializable {
   }
 
   public SSAMap withDefault(final int pDefaultValue) {
-    return new SSAMap(this.vars, this.freshValueProvider, this.varsHashCode, this.varTypes, pDefaultValue);
+    return new SSAMap(
+        this.vars,
+        this.freshValueProvider,
+        this.varsHashCode,
+        this.varTypes,
+        pDefaultValue,
+        this.base,
+        this.delta);
   }
 
   /**
@@ -243,6 +295,10 @@ public class SSAMap implements Serializable {
       // both are absolutely identical
       return s1;
 
+    } else if (s1.getRoot() == s2.getRoot()) {
+      // both differ from the same map only in a few variables
+      return mergeWithCommonRoot(s1, s2, collectDifferences);
+
     } else {
       vars =
           PersistentSortedMaps.merge(
@@ -266,6 +322,68 @@ public class SSAMap implements Serializable {
     return new SSAMap(vars, freshValueProvider, 0, varTypes, defaultIndex);
   }
 
+  /**
+   * Merge two SSAMaps that are derived from the same root. Only the variables in the deltas of
+   * both maps can differ, so only these need to be visited. The result is the same as for the
+   * general merge.
+   */
+  private static SSAMap mergeWithCommonRoot(
+      SSAMap s1, SSAMap s2, MapsDifference.Visitor<String, Integer> collectDifferences) {
+    PersistentSortedMap<String, Integer> vars = s1.vars;
+    PersistentSortedMap<String, CType> varTypes = s1.varTypes;
+    PersistentSortedMap<String, Integer> delta = s1.delta;
+    int varsHashCode = s1.varsHashCode;
+
+    // iterate in sorted order, such that differences are reported in the same order as usual
+    for (String name :
+        ImmutableSortedSet.<String>naturalOrder()
+            .addAll(s1.delta.keySet())
+            .addAll(s2.delta.keySet())
+            .build()) {
+      Integer idx1 = s1.vars.get(name);
+      Integer idx2 = s2.vars.get(name);
+
+      if (idx2 == null) {
+        if (idx1 != null) {
+          collectDifferences.leftValueOnly(name, idx1);
+        }
+      } else if (idx1 == null) {
+        collectDifferences.rightValueOnly(name, idx2);
+        vars = vars.putAndCopy(name, idx2);
+        varsHashCode += SSAMapBuilder.mapEntryHashCode(name, idx2);
+        delta = delta.putAndCopy(name, idx2);
+      } else if (!idx1.equals(idx2)) {
+        collectDifferences.differingValues(name, idx1, idx2);
+        if (idx2 > idx1) {
+          vars = vars.putAndCopy(name, idx2);
+          varsHashCode -= SSAMapBuilder.mapEntryHashCode(name, idx1);
+          varsHashCode += SSAMapBuilder.mapEntryHashCode(name, idx2);
+          delta = delta.putAndCopy(name, idx2);
+        }
+      }
+
+      CType type1 = s1.varTypes.get(name);
+      CType type2 = s2.varTypes.get(name);
+      if (type1 == null) {
+        if (type2 != null) {
+          varTypes = varTypes.putAndCopy(name, type2);
+        }
+      } else if (type2 != null && !CTypes.canonicalTypeEquivalence().equivalent(type1, type2)) {
+        TYPE_CONFLICT_CHECKER.resolveConflict(name, type1, type2);
+      }
+    }
+
+    boolean deltaTooLarge = delta.size() > MAX_DELTA_SIZE;
+    return new SSAMap(
+        vars,
+        s1.freshValueProvider.merge(s2.freshValueProvider),
+        varsHashCode,
+        varTypes,
+        s1.defaultValue,
+        deltaTooLarge ? null : s1.getRoot(),
+        deltaTooLarge ? PathCopyingPersistentTreeMap.of() : delta);
+  }
+
   private final PersistentSortedMap<String, Integer> vars;
   private final FreshValueProvider freshValueProvider;
   private final PersistentSortedMap<String, CType> varTypes;
@@ -273,14 +391,29 @@ public class SSAMap implements Serializable {
   // Cache hashCode of potentially big map
   private final int varsHashCode;
 
+  // Maps that are created from another map by only increasing indices share a common root map
+  // (which has no base itself) and store the variables with changed indices as delta. Then
+  // the variables and types of this map are those of the base, overridden by the delta.
+  // This makes merging and comparing two maps with the same base proportional to the size
+  // of their deltas instead of the number of variables.
+  private final @Nullable SSAMap base;
+  private final PersistentSortedMap<String, Integer> delta;
+
   private SSAMap(PersistentSortedMap<String, Integer> vars,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
                  PersistentSortedMap<String, CType> varTypes,
-                 int defaultSSAIdx) {
+                 int defaultSSAIdx,
+                 @Nullable SSAMap pBase,
+                 PersistentSortedMap<String, Integer> pDelta) {
     this.vars = vars;
     this.freshValueProvider = freshValueProvider;
     this.varTypes = varTypes;
+    this.base = pBase;
+    this.delta = pDelta;
+    assert base == null || base.base == null : "base of SSAMap needs to be a root";
+    assert base != null || delta.isEmpty() : "root of SSAMap must not have a delta";
+    assert deltaAgreesWith(delta, vars) : "delta of SSAMap differs from its variables";
 
     if (varsHashCode == 0) {
       this.varsHashCode = vars.hashCode();
@@ -292,6 +425,21 @@ public class SSAMap implements Serializable {
     defaultValue = defaultSSAIdx;
   }
 
+  private SSAMap(PersistentSortedMap<String, Integer> vars,
+                 FreshValueProvider freshValueProvider,
+                 int varsHashCode,
+                 PersistentSortedMap<String, CType> varTypes,
+                 int defaultSSAIdx) {
+    this(
+        vars,
+        freshValueProvider,
+        varsHashCode,
+        varTypes,
+        defaultSSAIdx,
+        null,
+        PathCopyingPersistentTreeMap.of());
+  }
+
   private SSAMap(PersistentSortedMap<String, Integer> vars,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
@@ -299,6 +447,20 @@ public class SSAMap implements Serializable {
     this(vars, freshValueProvider, varsHashCode, varTypes, DEFAULT_DEFAULT_IDX);
   }
 
+  private static boolean deltaAgreesWith(
+      Map<String, Integer> pDelta, Map<String, Integer> pVars) {
+    for (Map.Entry<String, Integer> entry : pDelta.entrySet()) {
+      if (!entry.getValue().equals(pVars.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private SSAMap getRoot() {
+    return base == null ? this : base;
+  }
+
   /**
    * Returns a SSAMapBuilder that is initialized with the current SSAMap.
    */
@@ -355,8 +517,10 @@ public class SSAMap implements Serializable {
     } else {
       SSAMap other = (SSAMap)obj;
       // Do a few cheap checks before the expensive ones.
+      // Maps with the same root and delta have the same variables.
       return varsHashCode == other.varsHashCode
-          && vars.equals(other.vars)
+          && ((getRoot() == other.getRoot() && delta.equals(other.delta))
+              || vars.equals(other.vars))
           && freshValueProvider.equals(other.freshValueProvider);
     }
   }
@@ -29,6 +29,8 @@ import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer.Event;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model;
@@ -68,7 +70,12 @@ public class BasicProverEnvironmentView<E> implements BasicProverEnvironment<E>
 
   @Override
   public boolean isUnsat() throws SolverException, InterruptedException {
-    return delegate.isUnsat();
+    long traceStart = EventTracer.start();
+    try {
+      return delegate.isUnsat();
+    } finally {
+      EventTracer.record(Event.SOLVER_QUERY, traceStart);
+    }
   }
 
   @Override
@@ -98,7 +105,12 @@ public class BasicProverEnvironmentView<E> implements BasicProverEnvironment<E>
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws SolverException, InterruptedException {
-    return delegate.isUnsatWithAssumptions(assumptions);
+    long traceStart = EventTracer.start();
+    try {
+      return delegate.isUnsatWithAssumptions(assumptions);
+    } finally {
+      EventTracer.record(Event.SOLVER_QUERY, traceStart);
+    }
   }
 
   @Override
@@ -104,7 +104,7 @@ public class MemoryStatistics implements Runnable {
 
   private final LogManager logger;
 
-  private long maxHeap = 0;
+  private volatile long maxHeap = 0;
   private long sumHeap = 0;
   private long maxHeapAllocated = 0;
   private long sumHeapAllocated = 0;
@@ -215,6 +215,14 @@ public class MemoryStatistics implements Runnable {
     }
   }
 
+  /**
+   * Return the maximal used heap memory (in bytes) that was observed so far.
+   * In contrast to the other methods, this may be called while the thread is still running.
+   */
+  public long getMaxHeapUsage() {
+    return maxHeap;
+  }
+
   /**
    * Print the gathered statistics.
    * This method may only be called when the thread running this instance
@@ -0,0 +1,286 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+
+/**
+ * Low-overhead tracing of the main steps of an analysis, intended for finding out where the time
+ * of long runs is spent. Components record events with
+ *
+ * <pre>
+ *   long start = EventTracer.start();
+ *   ...
+ *   EventTracer.record(Event.TRANSFER, start);
+ * </pre>
+ *
+ * If tracing is disabled (the default), {@link #start()} and {@link #record(Event, long)} only
+ * read a static field. Otherwise, events are collected in a buffer per thread, and full buffers
+ * are appended to the trace file, such that threads do not contend for each event.
+ *
+ * <p>The trace file is binary: it starts with the ASCII string "CPATRACE", the format version and
+ * the names of all event types (as int count followed by modified UTF-8 strings), followed by
+ * one record per event consisting of the event type as byte, the thread id as long, and the
+ * start time (relative to the start of tracing) and the duration in nanoseconds as longs.
+ */
+@Options(prefix = "statistics.trace")
+public final class EventTracer {
+
+  /** The kinds of events that can be traced. */
+  public enum Event {
+    CHOOSE,
+    TRANSFER,
+    PRECISION,
+    MERGE,
+    STOP,
+    ADD,
+    FORCED_COVERING,
+    REFINEMENT,
+    SOLVER_QUERY,
+    BAM_CACHE_HIT,
+    BAM_CACHE_MISS,
+    /** A cached reached set was found, but its analysis has to be continued. */
+    BAM_CACHE_PARTIAL_HIT,
+  }
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int RECORD_SIZE = 3;
+
+  // The currently running tracer, null if tracing is disabled.
+  private static volatile @Nullable EventTracer activeTracer = null;
+
+  @Option(
+    secure = true,
+    description =
+        "write a trace of the main steps of the analysis (CPA algorithm, refinements, "
+            + "solver queries, BAM cache lookups) to a binary file for later analysis"
+  )
+  private boolean export = false;
+
+  @Option(secure = true, description = "file for the trace of the analysis")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private Path file = Paths.get("trace.bin");
+
+  @Option(
+    secure = true,
+    description =
+        "number of events that are buffered for each thread before they are written to the file"
+  )
+  @IntegerOption(min = 1)
+  private int bufferSize = 16384;
+
+  private final LogManager logger;
+  private final long startTime = System.nanoTime();
+
+  private final ThreadLocal<ThreadBuffer> threadBuffers =
+      ThreadLocal.withInitial(this::createThreadBuffer);
+
+  // guarded by this
+  private final List<ThreadBuffer> allThreadBuffers = new ArrayList<>();
+  private boolean stopped = false;
+  private @Nullable DataOutputStream out;
+  private long writtenEvents = 0;
+
+  /**
+   * The events of one thread. The buffer is only accessed while holding its lock. If both the lock
+   * of a buffer and the lock of the tracer are needed, the lock of the buffer is acquired first.
+   */
+  private static final class ThreadBuffer {
+    private final long threadId = Thread.currentThread().getId();
+    private @Nullable long[] data; // null after tracing was stopped
+    private int size = 0;
+
+    private ThreadBuffer(@Nullable long[] pData) {
+      data = pData;
+    }
+  }
+
+  private EventTracer(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+  }
+
+  /**
+   * Start tracing if this is enabled in the configuration. Tracing continues until {@link
+   * #stopTracing()} is called.
+   */
+  public static void startTracing(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    EventTracer tracer = new EventTracer(pConfig, pLogger);
+    if (!tracer.export || tracer.file == null) {
+      return;
+    }
+    try {
+      tracer.open();
+    } catch (IOException e) {
+      pLogger.logUserException(Level.WARNING, e, "Could not write trace file");
+      return;
+    }
+    activeTracer = tracer;
+  }
+
+  /**
+   * Stop tracing and write all remaining events to the trace file. Events that other threads record
+   * after this method was called are dropped.
+   */
+  public static void stopTracing() {
+    EventTracer tracer = activeTracer;
+    if (tracer != null) {
+      activeTracer = null;
+      tracer.close();
+    }
+  }
+
+  /** Return the start time for an event, or 0 if tracing is disabled. */
+  public static long start() {
+    return activeTracer == null ? 0 : System.nanoTime();
+  }
+
+  /** Record an event that started at the given time (as returned by {@link #start()}). */
+  public static void record(Event pEvent, long pStartTime) {
+    EventTracer tracer = activeTracer;
+    if (tracer != null && pStartTime != 0) {
+      tracer.add(pEvent, pStartTime, System.nanoTime());
+    }
+  }
+
+  /** Record an event without duration. */
+  public static void record(Event pEvent) {
+    EventTracer tracer = activeTracer;
+    if (tracer != null) {
+      long now = System.nanoTime();
+      tracer.add(pEvent, now, now);
+    }
+  }
+
+  private synchronized ThreadBuffer createThreadBuffer() {
+    if (stopped) {
+      return new ThreadBuffer(null);
+    }
+    ThreadBuffer buffer = new ThreadBuffer(new long[bufferSize * RECORD_SIZE]);
+    allThreadBuffers.add(buffer);
+    return buffer;
+  }
+
+  private void add(Event pEvent, long pStart, long pEnd) {
+    ThreadBuffer buffer = threadBuffers.get();
+    synchronized (buffer) {
+      long[] data = buffer.data;
+      if (data == null) {
+        return; // tracing was stopped concurrently
+      }
+      int index = buffer.size * RECORD_SIZE;
+      data[index] = pEvent.ordinal();
+      data[index + 1] = pStart - startTime;
+      data[index + 2] = pEnd - pStart;
+      buffer.size++;
+      if (buffer.size == bufferSize) {
+        flush(buffer);
+      }
+    }
+  }
+
+  private synchronized void open() throws IOException {
+    out =
+        new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    out.write("CPATRACE".getBytes(StandardCharsets.US_ASCII));
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(Event.values().length);
+    for (Event event : Event.values()) {
+      out.writeUTF(event.name());
+    }
+  }
+
+  /** Write the events of the given buffer. The caller has to hold the lock of the buffer. */
+  private synchronized void flush(ThreadBuffer pBuffer) {
+    long[] data = pBuffer.data;
+    if (out != null && data != null) {
+      try {
+        for (int i = 0; i < pBuffer.size * RECORD_SIZE; i += RECORD_SIZE) {
+          out.writeByte((int) data[i]);
+          out.writeLong(pBuffer.threadId);
+          out.writeLong(data[i + 1]);
+          out.writeLong(data[i + 2]);
+        }
+        writtenEvents += pBuffer.size;
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write trace file, tracing stopped");
+        activeTracer = null;
+        closeQuietly();
+      }
+    }
+    pBuffer.size = 0;
+  }
+
+  private void close() {
+    List<ThreadBuffer> buffers;
+    synchronized (this) {
+      stopped = true;
+      buffers = new ArrayList<>(allThreadBuffers);
+      allThreadBuffers.clear();
+    }
+    // Flush and release the buffers under their own locks (without holding the lock of the tracer,
+    // cf. lock order), such that threads that are still recording cannot modify them concurrently.
+    for (ThreadBuffer buffer : buffers) {
+      synchronized (buffer) {
+        flush(buffer);
+        buffer.data = null;
+      }
+    }
+    synchronized (this) {
+      if (out != null) {
+        closeQuietly();
+        logger.log(Level.INFO, "Trace with", writtenEvents, "events written to", file);
+      }
+    }
+  }
+
+  private synchronized void closeQuietly() {
+    try {
+      out.close();
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write trace file");
+    }
+    out = null;
+  }
+}
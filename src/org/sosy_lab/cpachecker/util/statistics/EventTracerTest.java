@@ -0,0 +1,133 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.statistics.EventTracer.Event;
+
+public class EventTracerTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @After
+  public void stopTracing() {
+    EventTracer.stopTracing();
+  }
+
+  private Path startTracing(boolean pEnabled) throws InvalidConfigurationException {
+    Path traceFile = tempFolder.getRoot().toPath().resolve("trace.bin");
+    FileTypeConverter fileTypeConverter =
+        FileTypeConverter.create(
+            Configuration.builder()
+                .setOption("rootDirectory", tempFolder.getRoot().toString())
+                .build());
+    Configuration config =
+        Configuration.builder()
+            .addConverter(FileOption.class, fileTypeConverter)
+            .setOption("statistics.trace.export", Boolean.toString(pEnabled))
+            .setOption("statistics.trace.file", traceFile.toString())
+            // small buffers such that they are written several times
+            .setOption("statistics.trace.bufferSize", "3")
+            .build();
+    EventTracer.startTracing(config, LogManager.createTestLogManager());
+    return traceFile;
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    Path traceFile = startTracing(false);
+    assertThat(EventTracer.start()).isEqualTo(0L);
+    EventTracer.record(Event.TRANSFER);
+    EventTracer.stopTracing();
+    assertThat(Files.exists(traceFile)).isFalse();
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    Path traceFile = startTracing(true);
+
+    List<Event> recorded = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Event event = Event.values()[i % Event.values().length];
+      long start = EventTracer.start();
+      assertThat(start).isNotEqualTo(0L);
+      EventTracer.record(event, start);
+      recorded.add(event);
+    }
+    EventTracer.record(Event.BAM_CACHE_PARTIAL_HIT);
+    recorded.add(Event.BAM_CACHE_PARTIAL_HIT);
+    EventTracer.stopTracing();
+
+    // events recorded after the end of tracing are dropped
+    EventTracer.record(Event.TRANSFER);
+
+    List<Event> read = new ArrayList<>();
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(traceFile)))) {
+      byte[] magic = new byte[8];
+      in.readFully(magic);
+      assertThat(new String(magic, StandardCharsets.US_ASCII)).isEqualTo("CPATRACE");
+      assertThat(in.readInt()).isEqualTo(1);
+      int eventTypes = in.readInt();
+      assertThat(eventTypes).isEqualTo(Event.values().length);
+      for (Event event : Event.values()) {
+        assertThat(in.readUTF()).isEqualTo(event.name());
+      }
+
+      long threadId = Thread.currentThread().getId();
+      while (true) {
+        int type;
+        try {
+          type = in.readUnsignedByte();
+        } catch (EOFException e) {
+          break;
+        }
+        assertThat(type).isLessThan(eventTypes);
+        read.add(Event.values()[type]);
+        assertThat(in.readLong()).isEqualTo(threadId);
+        assertThat(in.readLong()).isAtLeast(0L); // start
+        assertThat(in.readLong()).isAtLeast(0L); // duration
+      }
+    }
+    assertThat(read).containsExactlyElementsIn(recorded).inOrder();
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.resources.MemoryStatistics;
+
+/**
+ * Periodically writes snapshots of the statistics of a running analysis to a file, such that the
+ * progress of long runs can be monitored. Each snapshot is one line in JSON format that contains
+ * the current heap usage, the size of the reached set, and the current values of all fields of
+ * type {@link AbstractStatValue} and {@link Timer} of the registered {@link Statistics} objects.
+ *
+ * <p>The snapshots are taken in a separate thread, while the analysis continues. The thread-safe
+ * statistic values ({@link StatCounter}, {@link StatInt}) are read exactly, all others (e.g.,
+ * timers) are read without synchronization and may thus be slightly outdated.
+ */
+@Options(prefix = "statistics.snapshots")
+public final class StatisticsSnapshotWriter implements Runnable {
+
+  /**
+   * Statistics of an analysis that starts sub-analyses with their own statistics and reached sets,
+   * e.g., analyses that run in parallel.
+   */
+  public interface SubAnalysesStatistics extends Statistics {
+
+    /**
+     * Add the statistics of all currently known sub-analyses to the given snapshot. This method is
+     * called from the snapshot thread and thus needs to be thread-safe.
+     */
+    void collectSnapshots(Snapshot pSnapshot);
+  }
+
+  @Option(
+    secure = true,
+    description =
+        "periodically write the current statistics of the running analysis to a file "
+            + "(one JSON object per line)"
+  )
+  private boolean export = false;
+
+  @Option(secure = true, description = "file for the periodic statistics snapshots")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path file = Paths.get("StatisticsSnapshots.jsonl");
+
+  @Option(secure = true, description = "interval between two statistics snapshots")
+  @TimeSpanOption(codeUnit = TimeUnit.MILLISECONDS, defaultUserUnit = TimeUnit.SECONDS, min = 1)
+  private TimeSpan interval = TimeSpan.ofSeconds(10);
+
+  private final LogManager logger;
+  private final Collection<Statistics> stats;
+  private final @Nullable MemoryStatistics memStats;
+  private final Timer time = new Timer();
+
+  private volatile @Nullable UnmodifiableReachedSet reached = null;
+
+  /**
+   * Create a new instance. The collection of statistics may be modified later on, but needs to
+   * support concurrent iteration.
+   */
+  public StatisticsSnapshotWriter(
+      Configuration pConfig,
+      LogManager pLogger,
+      Collection<Statistics> pStats,
+      @Nullable MemoryStatistics pMemStats)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    stats = pStats;
+    memStats = pMemStats;
+  }
+
+  /** Whether snapshots should be written, i.e., whether this instance should be started at all. */
+  public boolean isEnabled() {
+    return export && file != null;
+  }
+
+  public void setReachedSet(UnmodifiableReachedSet pReached) {
+    reached = pReached;
+  }
+
+  @Override
+  public void run() {
+    time.start();
+    try (Writer out = IO.openOutputFile(file, StandardCharsets.UTF_8)) {
+      while (true) { // no stop condition, call Thread#interrupt() to stop it
+        try {
+          TimeUnit.MILLISECONDS.sleep(interval.asMillis());
+        } catch (InterruptedException e) {
+          writeSnapshot(out); // the final values are interesting, too
+          return;
+        }
+        writeSnapshot(out);
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write statistics snapshots to file");
+    }
+  }
+
+  private void writeSnapshot(Writer pOut) throws IOException {
+    Snapshot snapshot = new Snapshot();
+    snapshot.values.put("time", time.getSumTime().asMillis());
+
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    snapshot.values.put("heapUsed", heap.getUsed());
+    snapshot.values.put("heapCommitted", heap.getCommitted());
+    if (memStats != null) {
+      snapshot.values.put("heapUsedMax", memStats.getMaxHeapUsage());
+    }
+
+    snapshot.addReachedSet(reached);
+    snapshot.addStatistics(stats);
+
+    JSON.writeJSONString(snapshot.values, pOut);
+    pOut.write('\n');
+    pOut.flush();
+  }
+
+  /** The values of one snapshot, which are converted to JSON. */
+  public static final class Snapshot {
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private Snapshot() {}
+
+    /** Add the statistics of a sub-analysis as a nested snapshot. */
+    public void addSubAnalysis(
+        String pName, @Nullable UnmodifiableReachedSet pReached, Collection<Statistics> pStats) {
+      Snapshot subSnapshot = new Snapshot();
+      subSnapshot.addReachedSet(pReached);
+      subSnapshot.addStatistics(pStats);
+
+      @SuppressWarnings("unchecked")
+      Map<String, Object> subAnalyses =
+          (Map<String, Object>) values.computeIfAbsent("subAnalyses", k -> new LinkedHashMap<>());
+      putUnique(subAnalyses, pName, subSnapshot.values);
+    }
+
+    private void addReachedSet(@Nullable UnmodifiableReachedSet pReached) {
+      if (pReached != null) {
+        values.put("reachedSet", pReached.size());
+        values.put("waitlist", pReached.getWaitlist().size());
+      }
+    }
+
+    private void addStatistics(Collection<Statistics> pStats) {
+      Map<String, Object> groups = new LinkedHashMap<>();
+      for (Statistics s : pStats) {
+        Map<String, Object> group = getStatValues(s);
+        if (!group.isEmpty()) {
+          String name = s.getName();
+          putUnique(groups, name == null ? s.getClass().getSimpleName() : name, group);
+        }
+        if (s instanceof SubAnalysesStatistics) {
+          ((SubAnalysesStatistics) s).collectSnapshots(this);
+        }
+      }
+      values.put("statistics", groups);
+    }
+
+    private static void putUnique(Map<String, Object> pMap, String pKey, Object pValue) {
+      String key = pKey;
+      for (int i = 2; pMap.containsKey(key); i++) {
+        key = pKey + " (" + i + ")";
+      }
+      pMap.put(key, pValue);
+    }
+
+    private static Map<String, Object> getStatValues(Statistics pStats) {
+      Map<String, Object> result = new LinkedHashMap<>();
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> cls = pStats.getClass(); cls != Object.class; cls = cls.getSuperclass()) {
+        for (Field field : cls.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())
+              && (AbstractStatValue.class.isAssignableFrom(field.getType())
+                  || Timer.class.isAssignableFrom(field.getType()))) {
+            fields.add(field);
+          }
+        }
+      }
+
+      for (Field field : fields) {
+        Object value;
+        try {
+          field.setAccessible(true);
+          value = field.get(pStats);
+        } catch (IllegalAccessException | SecurityException e) {
+          continue;
+        }
+        if (value instanceof AbstractStatValue) {
+          AbstractStatValue stat = (AbstractStatValue) value;
+          putUnique(result, stat.getTitle().trim(), getStatValue(stat));
+        } else if (value instanceof Timer) {
+          putUnique(result, field.getName(), getTimerValue((Timer) value));
+        }
+      }
+      return result;
+    }
+
+    private static Object getStatValue(AbstractStatValue pStat) {
+      if (pStat instanceof StatCounter) {
+        return ((StatCounter) pStat).getValue();
+
+      } else if (pStat instanceof StatInt) {
+        StatInt stat = (StatInt) pStat;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sum", stat.getValueSum());
+        result.put("count", stat.getValueCount());
+        result.put("min", stat.getMinValue());
+        result.put("max", stat.getMaxValue());
+        return result;
+
+      } else if (pStat instanceof StatTimer) {
+        StatTimer stat = (StatTimer) pStat;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("time", stat.getConsumedTime().asMillis());
+        result.put("max", stat.getMaxTime().asMillis());
+        result.put("count", stat.getUpdateCount());
+        return result;
+
+      } else if (pStat instanceof ThreadSafeStatTimer) {
+        ThreadSafeStatTimer stat = (ThreadSafeStatTimer) pStat;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("time", stat.getConsumedTime().asMillis());
+        result.put("max", stat.getMaxTime().asMillis());
+        result.put("count", stat.getUpdateCount());
+        return result;
+
+      } else {
+        return pStat.toString().trim();
+      }
+    }
+
+    private static Object getTimerValue(Timer pTimer) {
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("time", pTimer.getSumTime().asMillis());
+      result.put("max", pTimer.getMaxTime().asMillis());
+      result.put("count", pTimer.getNumberOfIntervals());
+      return result;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.time.TimeSpan;
+
+/**
+ * Thread-safe variant of {@link StatTimer} that can be started and stopped concurrently by several
+ * threads. Each thread has its own currently running interval, and the measured intervals are
+ * accumulated without locking (like in {@link StatCounter}). In contrast to {@link
+ * ThreadSafeTimerContainer}, there is no need to create and manage one timer per thread.
+ *
+ * <p>As for {@link org.sosy_lab.common.time.Timer}, an interval is counted when it is started, but
+ * its time is only added to the sum when it is stopped.
+ */
+public class ThreadSafeStatTimer extends AbstractStatValue {
+
+  private static final long NOT_RUNNING = -1;
+
+  /** The start time of the currently running interval of each thread. */
+  private final ThreadLocal<long[]> startTime =
+      ThreadLocal.withInitial(() -> new long[] {NOT_RUNNING});
+
+  private final LongAdder sumTime = new LongAdder();
+  private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+  private final LongAdder numberOfIntervals = new LongAdder();
+
+  public ThreadSafeStatTimer(StatKind pMainStatisticKind, String pTitle) {
+    super(pMainStatisticKind, pTitle);
+  }
+
+  public ThreadSafeStatTimer(String pTitle) {
+    super(StatKind.SUM, pTitle);
+  }
+
+  /** Start a new interval in the current thread. */
+  public void start() {
+    long[] start = startTime.get();
+    checkState(start[0] == NOT_RUNNING, "Timer already running in this thread");
+    numberOfIntervals.increment();
+    start[0] = System.nanoTime();
+  }
+
+  /** Stop the interval of the current thread. */
+  public void stop() {
+    long[] start = startTime.get();
+    checkState(start[0] != NOT_RUNNING, "Timer not running in this thread");
+    long duration = System.nanoTime() - start[0];
+    start[0] = NOT_RUNNING;
+    sumTime.add(duration);
+    maxTime.accumulate(duration);
+  }
+
+  /** Stop the interval of the current thread, if there is one. */
+  public void stopIfRunning() {
+    if (isRunning()) {
+      stop();
+    }
+  }
+
+  /** Whether there is a running interval in the current thread. */
+  public boolean isRunning() {
+    return startTime.get()[0] != NOT_RUNNING;
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return numberOfIntervals.intValue();
+  }
+
+  /** Return the sum of all stopped intervals of all threads. */
+  public TimeSpan getConsumedTime() {
+    return TimeSpan.ofNanos(sumTime.sum());
+  }
+
+  /** Return the maximal time of all stopped intervals of all threads. */
+  public TimeSpan getMaxTime() {
+    return TimeSpan.ofNanos(maxTime.get());
+  }
+
+  /**
+   * Return the average time per interval (where currently running intervals count with 0), or 0 if
+   * no interval was started so far.
+   */
+  public TimeSpan getAvgTime() {
+    long intervals = numberOfIntervals.sum();
+    return TimeSpan.ofNanos(intervals == 0 ? 0 : sumTime.sum() / intervals);
+  }
+
+  @Override
+  public String toString() {
+    return getConsumedTime().formatAs(TimeUnit.SECONDS);
+  }
+
+  /** Syntax sugar method: pretty-format the timer output into a string in seconds. */
+  public String prettyFormat() {
+    TimeUnit t = TimeUnit.SECONDS;
+    return String.format(
+        "%s (Max: %s), (Avg: %s), (#intervals = %s)",
+        getConsumedTime().formatAs(t),
+        getMaxTime().formatAs(t),
+        getAvgTime().formatAs(t),
+        getUpdateCount());
+  }
+}
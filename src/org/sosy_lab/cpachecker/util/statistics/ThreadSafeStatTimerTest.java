@@ -0,0 +1,119 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import org.junit.Test;
+
+public class ThreadSafeStatTimerTest {
+
+  private static final int THREADS = 8;
+  private static final int ITERATIONS = 10000;
+
+  @Test
+  public void singleThread() {
+    ThreadSafeStatTimer timer = new ThreadSafeStatTimer("");
+    for (int i = 0; i < 5; i++) {
+      assertThat(timer.isRunning()).isFalse();
+      timer.start();
+      assertThat(timer.isRunning()).isTrue();
+      assertThat(timer.getUpdateCount()).isEqualTo(i + 1);
+      timer.stop();
+    }
+    assertThat(timer.getMaxTime().asNanos()).isAtMost(timer.getConsumedTime().asNanos());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void startTwice() {
+    ThreadSafeStatTimer timer = new ThreadSafeStatTimer("");
+    timer.start();
+    timer.start();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void stopWithoutStart() {
+    new ThreadSafeStatTimer("").stop();
+  }
+
+  @Test
+  public void stopIfRunning() {
+    ThreadSafeStatTimer timer = new ThreadSafeStatTimer("");
+    timer.stopIfRunning();
+    timer.start();
+    timer.stopIfRunning();
+    assertThat(timer.isRunning()).isFalse();
+    assertThat(timer.getUpdateCount()).isEqualTo(1);
+  }
+
+  /** All statistic values that are used by parallel analyses must not lose updates. */
+  @Test
+  public void contention() throws InterruptedException {
+    ThreadSafeStatTimer timer = new ThreadSafeStatTimer("");
+    StatCounter counter = new StatCounter("");
+    StatInt values = new StatInt(StatKind.SUM, "");
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    List<Throwable> errors = new ArrayList<>();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int offset = t * ITERATIONS;
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  barrier.await();
+                  for (int i = 0; i < ITERATIONS; i++) {
+                    timer.start();
+                    counter.inc();
+                    values.setNextValue(offset + i);
+                    timer.stop();
+                  }
+                } catch (Throwable e) {
+                  synchronized (errors) {
+                    errors.add(e);
+                  }
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(errors).isEmpty();
+    long total = (long) THREADS * ITERATIONS;
+    assertThat(timer.getUpdateCount()).isEqualTo(THREADS * ITERATIONS);
+    assertThat(timer.isRunning()).isFalse();
+    assertThat(counter.getValue()).isEqualTo(total);
+    assertThat(values.getValueCount()).isEqualTo(total);
+    assertThat(values.getValueSum()).isEqualTo(total * (total - 1) / 2);
+    assertThat(values.getMinValue()).isEqualTo(0L);
+    assertThat(values.getMaxValue()).isEqualTo(total - 1);
+  }
+}
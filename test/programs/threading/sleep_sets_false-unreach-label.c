@@ -0,0 +1,40 @@
+typedef unsigned long int pthread_t;
+extern int pthread_create(pthread_t *thread, void *attr, void *(*start)(void *), void *arg);
+extern int pthread_join(pthread_t thread, void **result);
+
+// The assignments to a and b are independent, but the last assignments
+// of both threads race for the shared variable. The error is only reached
+// if thread2 writes to it before thread1.
+int a = 0;
+int b = 0;
+int shared = 0;
+
+void *thread1(void *arg) {
+  a = 1;
+  a = 2;
+  a = 3;
+  shared = 1;
+  return 0;
+}
+
+void *thread2(void *arg) {
+  b = 1;
+  b = 2;
+  b = 3;
+  shared = 2;
+  return 0;
+}
+
+int main() {
+  pthread_t t1;
+  pthread_t t2;
+  pthread_create(&t1, 0, &thread1, 0);
+  pthread_create(&t2, 0, &thread2, 0);
+  pthread_join(t1, 0);
+  pthread_join(t2, 0);
+  if (shared == 1) {
+ERROR:
+    goto ERROR;
+  }
+  return 0;
+}